@@ -0,0 +1,54 @@
+package Benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * Entry point of the benchmark jar. Accepts the usual JMH command line and adds what every NovaPipe run needs:
+ * <ul>
+ *     <li>the GC profiler, so each result reports allocation per operation ({@code gc.alloc.rate.norm}) and
+ *     collection counts next to the timing;</li>
+ *     <li>the JVM options Chronicle Queue requires on Java 17 and above (see the project README);</li>
+ *     <li>logging at {@code WARN} from {@code log4j2-bench.xml}, so per-message {@code INFO} logging is not what
+ *     gets measured.</li>
+ * </ul>
+ */
+public final class BenchmarkMain {
+
+    private static final String[] JVM_ARGS = {
+            "--add-opens", "java.base/java.lang.reflect=ALL-UNNAMED",
+            "--add-opens", "java.base/sun.nio.ch=ALL-UNNAMED",
+            "--add-exports", "java.base/jdk.internal.ref=ALL-UNNAMED",
+            "--add-exports", "java.base/sun.nio.ch=ALL-UNNAMED",
+            "--add-exports", "jdk.unsupported/sun.misc=ALL-UNNAMED",
+            "--add-exports", "jdk.compiler/com.sun.tools.javac.file=ALL-UNNAMED",
+            "--add-opens", "jdk.compiler/com.sun.tools.javac=ALL-UNNAMED",
+            "--add-opens", "java.base/java.lang=ALL-UNNAMED",
+            "--add-opens", "java.base/java.io=ALL-UNNAMED",
+            "--add-opens", "java.base/java.util=ALL-UNNAMED",
+            "-Dlog4j2.configurationFile=log4j2-bench.xml"
+    };
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers()
+                || commandLine.shouldListResultFormats() || commandLine.shouldListWithParams()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine);
+        options.addProfiler(GCProfiler.class);
+        options.jvmArgsAppend(JVM_ARGS);
+        new Runner(options.build()).run();
+    }
+}
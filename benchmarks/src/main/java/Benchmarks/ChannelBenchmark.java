@@ -0,0 +1,186 @@
+package Benchmarks;
+
+import DataChannel.BlockingQueueChannel;
+import DataChannel.ChannelException;
+import DataChannel.ChronicleQueueChannel;
+import DataChannel.DataChannel;
+import DataChannel.NetworkChannel.NetworkChannelClient;
+import DataChannel.NetworkChannel.NetworkChannelServer;
+import DataChannel.PipelineChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Throughput and hand-off latency of each {@link DataChannel} between producer threads and one consumer thread.
+ * <p>
+ * A consumer thread drains the channel for the whole trial, counting messages. The throughput benchmarks send
+ * {@value #BATCH} envelopes per invocation, from one thread ({@code oneToOne}) or four ({@code manyToOne}), and
+ * return once the consumer has received them, so a channel that only buffers is not credited with speed it does
+ * not deliver. {@code handOff} sends one envelope and waits until the consumer has it: the latency of one hop,
+ * including waking the consumer up.
+ * </p>
+ * <p>
+ * The {@code network} case sends through a {@link NetworkChannelClient} to a {@link NetworkChannelServer} on the
+ * loopback interface, which the consumer drains: the cost of a TCP hop without a real network's latency.
+ * </p>
+ */
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChannelBenchmark {
+
+    private static final int BATCH = 1024;
+    private static final int CAPACITY = 64 * 1024;
+    private static final String STOP = "STOP";
+
+    @Param({"blocking-queue", "pipeline", "chronicle", "network"})
+    public String channel;
+
+    // The channel senders write to and the one the consumer reads; the same except over the network.
+    private DataChannel dataChannel;
+    private DataChannel receiveChannel;
+    private Path queueDir;
+    private String[] envelopes;
+    private List<String> batch;
+    private Thread consumer;
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+
+    @Setup
+    public void setup() throws IOException {
+        batch = Payloads.envelopes("", "coinbase").subList(0, BATCH);
+        envelopes = batch.toArray(new String[0]);
+        dataChannel = switch (channel) {
+            case "blocking-queue" -> new BlockingQueueChannel(CAPACITY);
+            case "pipeline" -> PipelineChannel.builder()
+                    .channel(new BlockingQueueChannel(CAPACITY))
+                    .channel(new BlockingQueueChannel(CAPACITY))
+                    .build();
+            case "chronicle" -> {
+                queueDir = Files.createTempDirectory("novapipe-bench-chronicle");
+                yield new ChronicleQueueChannel(queueDir.toString());
+            }
+            case "network" -> {
+                int port;
+                try (ServerSocket probe = new ServerSocket(0)) {
+                    port = probe.getLocalPort();
+                }
+                receiveChannel = new NetworkChannelServer(port);
+                yield new NetworkChannelClient("localhost", port);
+            }
+            default -> throw new IllegalArgumentException("Unknown channel: " + channel);
+        };
+        if (receiveChannel == null) {
+            receiveChannel = dataChannel;
+        }
+        consumer = Thread.ofPlatform().name("bench-consumer").daemon().start(this::consume);
+    }
+
+    private void consume() {
+        try {
+            while (true) {
+                String message = receiveChannel.receive();
+                if (message == null) {
+                    Thread.yield(); // Chronicle returns null when empty.
+                } else if (STOP.equals(message)) {
+                    return;
+                } else {
+                    received.incrementAndGet();
+                }
+            }
+        } catch (ChannelException e) {
+            throw new IllegalStateException("Consumer failed.", e);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        dataChannel.send(STOP);
+        consumer.join(10_000);
+        dataChannel.close();
+        if (receiveChannel != dataChannel) {
+            receiveChannel.close();
+        }
+        if (queueDir != null) {
+            try (Stream<Path> files = Files.walk(queueDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private void sendAndAwait(int count) throws ChannelException {
+        long target = sent.addAndGet(count);
+        int start = (int) (target & (Payloads.COUNT - 1));
+        for (int i = 0; i < count; i++) {
+            dataChannel.send(envelopes[(start + i) & (Payloads.COUNT - 1)]);
+        }
+        while (received.get() < target) {
+            Thread.yield();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BATCH)
+    @Threads(1)
+    public void oneToOne() throws ChannelException {
+        sendAndAwait(BATCH);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BATCH)
+    @Threads(4)
+    public void manyToOne() throws ChannelException {
+        sendAndAwait(BATCH);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Threads(1)
+    public void handOff() throws ChannelException {
+        sendAndAwait(1);
+    }
+
+    /**
+     * Sends a batch in one call, where the channel supports it; compare with {@code oneToOne}.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BATCH)
+    @Threads(1)
+    public void oneToOneBatched() throws ChannelException {
+        long target = sent.addAndGet(BATCH);
+        dataChannel.sendBatch(batch);
+        while (received.get() < target) {
+            Thread.yield();
+        }
+    }
+}
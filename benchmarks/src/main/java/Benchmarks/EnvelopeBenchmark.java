@@ -0,0 +1,67 @@
+package Benchmarks;
+
+import MarketDataType.MarketDataQueryType;
+import Producer.EnvelopeBuilder;
+import Utils.Timestamps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of wrapping an exchange message in the envelope a {@code Producer} sends downstream: in one piece
+ * ({@code whole}), as the producer does for unfragmented frames, and from three WebSocket fragments
+ * ({@code fragmented}), as it does when a message arrives split.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EnvelopeBenchmark {
+
+    private final EnvelopeBuilder builder = new EnvelopeBuilder("quote@coinbase");
+    private String[] payloads;
+    private String[][] fragments;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        payloads = Payloads.payloads("", "coinbase", MarketDataQueryType.QUOTE).toArray(new String[0]);
+        fragments = new String[payloads.length][];
+        for (int i = 0; i < payloads.length; i++) {
+            String payload = payloads[i];
+            int third = payload.length() / 3;
+            fragments[i] = new String[]{
+                    payload.substring(0, third), payload.substring(third, 2 * third), payload.substring(2 * third)};
+        }
+    }
+
+    @Benchmark
+    public String whole() {
+        String payload = payloads[next];
+        next = (next + 1) & (Payloads.COUNT - 1);
+        return builder.build(payload, Timestamps.monotonicNow());
+    }
+
+    @Benchmark
+    public String fragmented() {
+        String[] parts = fragments[next];
+        next = (next + 1) & (Payloads.COUNT - 1);
+        builder.stamp(Timestamps.monotonicNow());
+        for (String part : parts) {
+            builder.append(part);
+        }
+        return builder.finish();
+    }
+}
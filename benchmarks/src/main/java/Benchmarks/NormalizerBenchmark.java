@@ -0,0 +1,112 @@
+package Benchmarks;
+
+import DataChannel.BlockingQueueChannel;
+import DataChannel.DataChannel;
+import MarketDataType.MutableQuote;
+import MarketDataType.MutableTrade;
+import MarketDataType.Quote;
+import MarketDataType.Trade;
+import Normalizer.MarketDataHandler;
+import Normalizer.Normalizer;
+import Normalizer.Output.Sink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end throughput of a {@link Normalizer}: envelopes in on its channel, records out to a sink that only counts
+ * them. Each invocation hands {@value #BATCH} envelopes, quotes and trades mixed four to one, to the normalizer's
+ * thread and returns once all were processed. {@code output=records} measures the immutable-record path behind a
+ * {@link Sink}, {@code output=flyweight} the allocation-free {@link MarketDataHandler} path.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NormalizerBenchmark {
+
+    private static final int BATCH = 1024;
+
+    @Param({"coinbase", "binance.us"})
+    public String exchange;
+
+    @Param({"records", "flyweight"})
+    public String output;
+
+    @Param("")
+    public String capture;
+
+    private final AtomicLong processed = new AtomicLong();
+    private long sent;
+    private DataChannel channel;
+    private Thread thread;
+    private List<String> envelopes;
+
+    @Setup
+    public void setup() throws IOException {
+        envelopes = Payloads.envelopes(capture, exchange).subList(0, BATCH);
+        channel = new BlockingQueueChannel(4 * BATCH);
+        Normalizer normalizer = output.equals("flyweight")
+                ? new Normalizer(channel, new MarketDataHandler() {
+                    @Override
+                    public void onQuote(MutableQuote quote) {
+                        processed.incrementAndGet();
+                    }
+
+                    @Override
+                    public void onTrade(MutableTrade trade) {
+                        processed.incrementAndGet();
+                    }
+                })
+                : new Normalizer(channel, new Sink() {
+                    @Override
+                    public void write(Quote quote) {
+                        processed.incrementAndGet();
+                    }
+
+                    @Override
+                    public void write(Trade trade) {
+                        processed.incrementAndGet();
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                });
+        thread = Thread.ofPlatform().name("bench-normalizer").daemon().start(normalizer);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        channel.send(Normalizer.POISON_PILL);
+        thread.join(10_000);
+        channel.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void process() throws Exception {
+        sent += BATCH;
+        channel.sendBatch(envelopes);
+        while (processed.get() < sent) {
+            Thread.yield();
+        }
+    }
+}
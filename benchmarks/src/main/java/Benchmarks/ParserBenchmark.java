@@ -0,0 +1,92 @@
+package Benchmarks;
+
+import MarketDataType.MarketDataQueryType;
+import MarketDataType.MutableQuote;
+import MarketDataType.MutableTrade;
+import Normalizer.PayloadParser.Parser;
+import Normalizer.PayloadParser.ParserRegistry;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of parsing one exchange payload with {@code CoinbasePayloadParser} or {@code BinanceUsPayloadParser}, into
+ * an immutable record ({@code parseRecord}) and into the reusable flyweight the {@code MarketDataHandler} path uses
+ * ({@code parseInto}). Run with {@code -p capture=<file.jsonl>} to parse recorded payloads instead of synthetic ones.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ParserBenchmark {
+
+    @Param({"coinbase", "binance.us"})
+    public String exchange;
+
+    @Param({"quote", "trade"})
+    public String type;
+
+    @Param("")
+    public String capture;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final MutableQuote quote = new MutableQuote();
+    private final MutableTrade trade = new MutableTrade();
+    private Parser parser;
+    private MarketDataQueryType queryType;
+    private String[] payloads;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        parser = ParserRegistry.getDefault().getParser(exchange);
+        queryType = type.equals("trade") ? MarketDataQueryType.TRADE : MarketDataQueryType.QUOTE;
+        List<String> loaded = Payloads.payloads(capture, exchange, queryType);
+        payloads = loaded.toArray(new String[0]);
+        for (String payload : payloads) {
+            if (parseRecord() == null) {
+                throw new IllegalStateException("Payload does not parse: " + payload);
+            }
+        }
+    }
+
+    private String nextPayload() {
+        String payload = payloads[next];
+        next = (next + 1) & (Payloads.COUNT - 1);
+        return payload;
+    }
+
+    @Benchmark
+    public Object parseRecord() throws IOException {
+        try (JsonParser json = jsonFactory.createParser(nextPayload())) {
+            json.nextToken();
+            return parser.parse(queryType, json);
+        }
+    }
+
+    @Benchmark
+    public boolean parseInto() throws IOException {
+        try (JsonParser json = jsonFactory.createParser(nextPayload())) {
+            json.nextToken();
+            return (queryType == MarketDataQueryType.TRADE)
+                    ? parser.parseTradeInto(json, trade)
+                    : parser.parseQuoteInto(json, quote);
+        }
+    }
+}
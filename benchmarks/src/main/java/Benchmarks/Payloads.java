@@ -0,0 +1,91 @@
+package Benchmarks;
+
+import MarketDataType.MarketDataQueryType;
+import Producer.EnvelopeBuilder;
+import Simulation.FeedCapture;
+import Simulation.SyntheticFeed;
+import Utils.Timestamps;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The payloads benchmarks run on: a recorded capture when one is given, otherwise seeded synthetic messages in the
+ * same shapes, so that runs are repeatable and comparable across commits.
+ */
+final class Payloads {
+
+    /**
+     * The number of distinct messages a benchmark cycles through, enough to defeat branch prediction on one payload
+     * without leaving the CPU caches.
+     */
+    static final int COUNT = 1024;
+
+    private Payloads() {
+    }
+
+    /**
+     * Loads the exchange payloads of one type.
+     *
+     * @param capture  a JSONL capture of producer envelopes, or an empty string for synthetic payloads.
+     * @param exchange the exchange tag, {@code "coinbase"} or {@code "binance.us"}.
+     * @param type     the type of the payloads.
+     * @return {@link #COUNT} payloads, repeating the capture if it holds fewer.
+     * @throws IOException if the capture cannot be read or holds no matching payloads.
+     */
+    static List<String> payloads(String capture, String exchange, MarketDataQueryType type) throws IOException {
+        List<String> payloads = new ArrayList<>(COUNT);
+        if (capture.isEmpty()) {
+            SyntheticFeed feed = feed(exchange).tradeRatio(type == MarketDataQueryType.TRADE ? 1 : 0).build();
+            for (int i = 0; i < COUNT; i++) {
+                payloads.add(feed.next(Timestamps.now()).payload());
+            }
+            return payloads;
+        }
+        List<String> recorded = new ArrayList<>();
+        for (FeedCapture.Message message : FeedCapture.readJsonl(Path.of(capture)).messages()) {
+            if (message.exchange().equals(exchange) && message.type() == type) {
+                recorded.add(message.payload());
+            }
+        }
+        if (recorded.isEmpty()) {
+            throw new IOException("No " + type.getValue() + " payloads of " + exchange + " in " + capture + ".");
+        }
+        for (int i = 0; i < COUNT; i++) {
+            payloads.add(recorded.get(i % recorded.size()));
+        }
+        return payloads;
+    }
+
+    /**
+     * Wraps the payloads of an exchange in stamped producer envelopes, quotes and trades mixed four to one.
+     *
+     * @param capture  a JSONL capture of producer envelopes, or an empty string for synthetic payloads.
+     * @param exchange the exchange tag.
+     * @return {@link #COUNT} envelopes.
+     * @throws IOException if the capture cannot be read.
+     */
+    static List<String> envelopes(String capture, String exchange) throws IOException {
+        List<String> quotes = payloads(capture, exchange, MarketDataQueryType.QUOTE);
+        List<String> trades = payloads(capture, exchange, MarketDataQueryType.TRADE);
+        EnvelopeBuilder quoteEnvelope = new EnvelopeBuilder("quote@" + exchange);
+        EnvelopeBuilder tradeEnvelope = new EnvelopeBuilder("trade@" + exchange);
+        List<String> envelopes = new ArrayList<>(COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            envelopes.add((i % 5 == 4)
+                    ? tradeEnvelope.build(trades.get(i), Timestamps.monotonicNow())
+                    : quoteEnvelope.build(quotes.get(i), Timestamps.monotonicNow()));
+        }
+        return envelopes;
+    }
+
+    private static SyntheticFeed.Builder feed(String exchange) {
+        return switch (exchange) {
+            case "coinbase" -> SyntheticFeed.coinbase().products(16);
+            case "binance.us" -> SyntheticFeed.binanceUs().products(16);
+            default -> throw new IllegalArgumentException("Unknown exchange: " + exchange);
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package DataChannel;
 
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 
@@ -104,6 +105,32 @@ public class BlockingQueueChannel implements DataChannel {
         }
     }
 
+    /**
+     * Receives a batch of messages from the channel.
+     * This method blocks until at least one message is available, then drains up to
+     * {@code maxMessages - 1} further messages that are already queued.
+     *
+     * @param sink        The list the received messages are appended to.
+     * @param maxMessages The maximum number of messages to receive.
+     * @return The number of messages appended to {@code sink}.
+     * @throws ChannelException If the channel is closed and empty, or the thread is interrupted.
+     */
+    @Override
+    public int receiveBatch(List<String> sink, int maxMessages) throws ChannelException {
+        sink.add(receive());
+        return 1 + queue.drainTo(sink, maxMessages - 1);
+    }
+
+    /**
+     * Returns the free space of the queue; {@link Integer#MAX_VALUE} if it is unbounded.
+     *
+     * @return the number of messages that can be sent without blocking.
+     */
+    @Override
+    public int remainingCapacity() {
+        return queue.remainingCapacity();
+    }
+
     /**
      * Closes the channel, preventing further messages from being sent.
      * Messages already in the queue can still be received.
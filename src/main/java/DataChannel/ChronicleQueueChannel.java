@@ -5,6 +5,7 @@ import net.openhft.chronicle.queue.ExcerptAppender;
 import net.openhft.chronicle.queue.ExcerptTailer;
 
 import java.nio.file.Path;
+import java.util.List;
 
 /**
  * {@code ChronicleQueueChannel} is an implementation of {@link DataChannel} that
@@ -13,6 +14,10 @@ import java.nio.file.Path;
  * This class enables reliable message passing by writing messages to a
  * file-based queue, which allows messages to be retained even after application restarts.
  * </p>
+ * <p>
+ * Chronicle's appenders and tailers reject use from more than one thread. Every access here holds the channel's
+ * lock, so their thread checks are disabled and any number of threads may send and receive.
+ * </p>
  *
  * <b>Usage Example:</b>
  * <pre>{@code
@@ -42,6 +47,7 @@ public class ChronicleQueueChannel implements DataChannel {
         this.queue = ChronicleQueue.singleBuilder(Path.of(queueDir)).build();
         this.appender = queue.createAppender();
         this.tailer = queue.createTailer();
+        shareAcrossThreads();
     }
 
     /**
@@ -58,6 +64,13 @@ public class ChronicleQueueChannel implements DataChannel {
         this.queue = ChronicleQueue.singleBuilder(Path.of(queueDir)).build();
         this.appender = queue.createAppender();
         this.tailer = queue.createTailer(tailerName);
+        shareAcrossThreads();
+    }
+
+    // Access is serialized by the channel's lock, which also publishes the components' state between threads.
+    private void shareAcrossThreads() {
+        appender.singleThreadedCheckDisabled(true);
+        tailer.singleThreadedCheckDisabled(true);
     }
 
     /**
@@ -103,6 +116,53 @@ public class ChronicleQueueChannel implements DataChannel {
         }
     }
 
+    /**
+     * Writes a batch of messages to the Chronicle Queue while holding the channel lock once.
+     *
+     * @param messages the messages to send
+     * @throws ChannelException if the channel is closed or an error occurs while sending
+     */
+    @Override
+    public synchronized void sendBatch(List<String> messages) throws ChannelException {
+        if (closed) {
+            throw new ChannelException("Channel is closed.");
+        }
+        try {
+            for (String message : messages) {
+                appender.writeText(message);
+            }
+        } catch (Exception e) {
+            throw new ChannelException("Error sending message", e);
+        }
+    }
+
+    /**
+     * Reads up to {@code maxMessages} available messages from the queue.
+     * It stops early, without blocking, once the queue has no more messages.
+     *
+     * @param sink        the list the received messages are appended to
+     * @param maxMessages the maximum number of messages to read
+     * @return the number of messages appended to {@code sink}
+     * @throws ChannelException if the channel is closed or an error occurs while reading
+     */
+    @Override
+    public synchronized int receiveBatch(List<String> sink, int maxMessages) throws ChannelException {
+        if (closed) {
+            throw new ChannelException("Channel is closed.");
+        }
+        try {
+            int count = 0;
+            String message;
+            while (count < maxMessages && (message = tailer.readText()) != null) {
+                sink.add(message);
+                count++;
+            }
+            return count;
+        } catch (Exception e) {
+            throw new ChannelException("Error receiving message", e);
+        }
+    }
+
     /**
      * Closes the channel and releases all associated resources.
      * <p>
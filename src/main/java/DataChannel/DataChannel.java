@@ -1,5 +1,7 @@
 package DataChannel;
 
+import java.util.List;
+
 /**
  * The {@code DataChannel} interface represents a communication channel for sending and receiving messages.
  * It provides an abstraction for various types of messaging mechanisms, such as in-memory queues,
@@ -48,6 +50,58 @@ public interface DataChannel extends AutoCloseable {
      */
     String receive() throws ChannelException;
 
+    /**
+     * Sends a batch of messages through the channel, preserving their order.
+     * <p>
+     * The default implementation calls {@link #send(String)} for each message. Implementations
+     * that can amortize locking or flushing across several messages should override it.
+     * </p>
+     *
+     * @param messages The messages to send.
+     * @throws ChannelException If an error occurs while sending or if the channel is closed.
+     */
+    default void sendBatch(List<String> messages) throws ChannelException {
+        for (String message : messages) {
+            send(message);
+        }
+    }
+
+    /**
+     * Receives up to {@code maxMessages} messages and appends them to {@code sink}.
+     * <p>
+     * The default implementation calls {@link #receive()} once, so it blocks (or returns nothing)
+     * exactly like {@link #receive()} does. Implementations backed by a buffer should override it
+     * to drain whatever is already available without blocking again.
+     * </p>
+     *
+     * @param sink        The list the received messages are appended to.
+     * @param maxMessages The maximum number of messages to receive.
+     * @return The number of messages appended to {@code sink}.
+     * @throws ChannelException If an error occurs while receiving or if the channel is closed.
+     */
+    default int receiveBatch(List<String> sink, int maxMessages) throws ChannelException {
+        String message = receive();
+        if (message == null) {
+            return 0;
+        }
+        sink.add(message);
+        return 1;
+    }
+
+    /**
+     * Returns how many more messages the channel can accept without blocking a sender.
+     * <p>
+     * Producers use it to stop reading from their source before the channel fills. The default returns
+     * {@link Integer#MAX_VALUE}, meaning unbounded or unknown; bounded implementations should override it. The value
+     * is a hint only, as other senders and receivers may change it at any time.
+     * </p>
+     *
+     * @return the number of messages that can be sent without blocking.
+     */
+    default int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
     /**
      * Closes the channel and releases any underlying resources.
      * <p>
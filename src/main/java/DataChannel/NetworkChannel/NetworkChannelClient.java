@@ -7,7 +7,9 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.*;
 import java.net.Socket;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * The {@code NetworkChannelClient} class implements the {@link DataChannel} interface and
@@ -21,6 +23,8 @@ public class NetworkChannelClient implements DataChannel {
     private BufferedReader reader;
     private BufferedWriter writer;
     private volatile boolean closed;
+    // A lock rather than synchronized, so blocking socket I/O does not pin virtual threads.
+    private final ReentrantLock lock = new ReentrantLock();
 
     private static final int MAX_RETRIES = 5;
     private static final long BASE_RETRY_DELAY_MS = 2000; // 2 seconds
@@ -47,7 +51,7 @@ public class NetworkChannelClient implements DataChannel {
      *
      * @throws IOException if the connection fails after the maximum number of retries.
      */
-    private synchronized void connect() throws IOException {
+    private void connect() throws IOException {
         int attempt = 0;
         while (!closed) {
             try {
@@ -78,7 +82,7 @@ public class NetworkChannelClient implements DataChannel {
      *
      * @throws IOException if the reconnection fails.
      */
-    private synchronized void reconnect() throws IOException {
+    private void reconnect() throws IOException {
         logger.error("Reconnecting to {}:{}", host, port);
         closeResources();
         connect();
@@ -87,7 +91,7 @@ public class NetworkChannelClient implements DataChannel {
     /**
      * Closes all resources associated with the network connection.
      */
-    private synchronized void closeResources() {
+    private void closeResources() {
         try {
             if (socket != null) socket.close();
         } catch (IOException ignored) {
@@ -103,26 +107,73 @@ public class NetworkChannelClient implements DataChannel {
      * @throws ChannelException if an error occurs while sending the message.
      */
     @Override
-    public synchronized void send(String message) throws ChannelException {
-        if (closed) {
-            throw new ChannelException("Channel is closed.");
-        }
+    public void send(String message) throws ChannelException {
+        lock.lock();
         try {
-            writer.write(message);
-            writer.newLine();
-            writer.flush();
-        } catch (IOException e) {
+            if (closed) {
+                throw new ChannelException("Channel is closed.");
+            }
             try {
-                reconnect();
                 writer.write(message);
                 writer.newLine();
                 writer.flush();
-            } catch (IOException ex) {
-                throw new ChannelException("Failed to send message after reconnection.", ex);
+            } catch (IOException e) {
+                try {
+                    reconnect();
+                    writer.write(message);
+                    writer.newLine();
+                    writer.flush();
+                } catch (IOException ex) {
+                    throw new ChannelException("Failed to send message after reconnection.", ex);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends a batch of messages to the server with a single flush.
+     *
+     * @param messages The messages to send.
+     * @throws ChannelException if an error occurs while sending the messages.
+     */
+    @Override
+    public void sendBatch(List<String> messages) throws ChannelException {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new ChannelException("Channel is closed.");
+            }
+            try {
+                writeAll(messages);
+            } catch (IOException e) {
+                try {
+                    reconnect();
+                    writeAll(messages);
+                } catch (IOException ex) {
+                    throw new ChannelException("Failed to send messages after reconnection.", ex);
+                }
             }
+        } finally {
+            lock.unlock();
         }
     }
 
+    /**
+     * Writes every message followed by a newline and flushes the writer once.
+     *
+     * @param messages The messages to write.
+     * @throws IOException if writing fails.
+     */
+    private void writeAll(List<String> messages) throws IOException {
+        for (String message : messages) {
+            writer.write(message);
+            writer.newLine();
+        }
+        writer.flush();
+    }
+
     /**
      * Receives a message from the server.
      *
@@ -130,27 +181,66 @@ public class NetworkChannelClient implements DataChannel {
      * @throws ChannelException if an error occurs while receiving the message or if the stream ends.
      */
     @Override
-    public synchronized String receive() throws ChannelException {
-        if (closed) {
-            throw new ChannelException("Channel is closed.");
-        }
+    public String receive() throws ChannelException {
+        lock.lock();
         try {
-            String line = reader.readLine();
-            if (line == null) {
-                throw new ChannelException("End of stream reached.");
+            if (closed) {
+                throw new ChannelException("Channel is closed.");
             }
-            return line;
-        } catch (IOException | ChannelException e) {
             try {
-                reconnect();
                 String line = reader.readLine();
                 if (line == null) {
-                    throw new ChannelException("End of stream reached after reconnection.");
+                    throw new ChannelException("End of stream reached.");
                 }
                 return line;
-            } catch (IOException ex) {
-                throw new ChannelException("Error receiving message after reconnection.", ex);
+            } catch (IOException | ChannelException e) {
+                try {
+                    reconnect();
+                    String line = reader.readLine();
+                    if (line == null) {
+                        throw new ChannelException("End of stream reached after reconnection.");
+                    }
+                    return line;
+                } catch (IOException ex) {
+                    throw new ChannelException("Error receiving message after reconnection.", ex);
+                }
             }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Receives a batch of messages from the server.
+     * Blocks for the first message, then keeps reading only while complete data is already buffered.
+     *
+     * @param sink        The list the received messages are appended to.
+     * @param maxMessages The maximum number of messages to receive.
+     * @return The number of messages appended to {@code sink}.
+     * @throws ChannelException if an error occurs while receiving the messages.
+     */
+    @Override
+    public int receiveBatch(List<String> sink, int maxMessages) throws ChannelException {
+        lock.lock();
+        try {
+            sink.add(receive());
+            int count = 1;
+            try {
+                while (count < maxMessages && reader.ready()) {
+                    String line = reader.readLine();
+                    if (line == null) {
+                        break;
+                    }
+                    sink.add(line);
+                    count++;
+                }
+            } catch (IOException e) {
+                // The messages read so far are still valid; the next receive will reconnect.
+                logger.error("Error draining buffered messages: {}", e.getMessage());
+            }
+            return count;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -160,8 +250,13 @@ public class NetworkChannelClient implements DataChannel {
      * @throws ChannelException if an error occurs while closing the connection.
      */
     @Override
-    public synchronized void close() throws ChannelException {
-        closed = true;
-        closeResources();
+    public void close() throws ChannelException {
+        lock.lock();
+        try {
+            closed = true;
+            closeResources();
+        } finally {
+            lock.unlock();
+        }
     }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package DataChannel.NetworkChannel;
 
 import DataChannel.ChannelException;
 import DataChannel.DataChannel;
+import Utils.ExecutionMode;
+import Utils.TaskScope;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -12,6 +14,7 @@ import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A network-based implementation of {@link DataChannel} that acts as a server.
@@ -28,6 +31,11 @@ import java.util.concurrent.LinkedBlockingQueue;
  * using the {@link #receive()} method. Messages sent using {@link #send(String)} are broadcast
  * to all connected clients.
  * </p>
+ * <p>
+ * The accept loop and the per-client readers run in a {@link TaskScope}, on platform or virtual
+ * threads depending on the {@link ExecutionMode} passed to the constructor. Virtual threads let one
+ * server hold thousands of subscribers without a platform thread each.
+ * </p>
  */
 public class NetworkChannelServer implements DataChannel {
     private final ServerSocket serverSocket;
@@ -36,6 +44,7 @@ public class NetworkChannelServer implements DataChannel {
     // Blocking queue to store received messages.
     private final BlockingQueue<String> messageQueue = new LinkedBlockingQueue<>();
     private volatile boolean closed;
+    private final TaskScope handlers;
     private static final Logger logger = LogManager.getLogger(NetworkChannelServer.class);
 
 
@@ -46,11 +55,24 @@ public class NetworkChannelServer implements DataChannel {
      * @throws IOException If an error occurs while opening the server socket.
      */
     public NetworkChannelServer(int port) throws IOException {
+        this(port, ExecutionMode.PLATFORM);
+    }
+
+    /**
+     * Creates a {@code NetworkChannelServer} that listens on the specified port and runs its
+     * accept loop and client handlers on threads of the given mode.
+     *
+     * @param port The port on which the server should listen.
+     * @param mode The {@link ExecutionMode} of the server's threads.
+     * @throws IOException If an error occurs while opening the server socket.
+     */
+    public NetworkChannelServer(int port, ExecutionMode mode) throws IOException {
         this.serverSocket = new ServerSocket(port);
         this.closed = false;
+        this.handlers = new TaskScope(mode);
         logger.info("Server listening on port {}", port);
         // Start a thread to continuously accept new clients.
-        new Thread(this::acceptClients).start();
+        handlers.fork("network-server-accept-" + port, this::acceptClients);
     }
 
 
@@ -66,7 +88,7 @@ public class NetworkChannelServer implements DataChannel {
                 ClientHandler handler = new ClientHandler(clientSocket);
                 clients.add(handler);
                 // Start a thread for reading from this client if needed.
-                new Thread(handler).start();
+                handlers.fork("network-server-client-" + clientSocket.getPort(), handler);
             } catch (IOException e) {
                 if (!closed) {
                     logger.error("Error accepting client: {}", e.getMessage());
@@ -97,6 +119,28 @@ public class NetworkChannelServer implements DataChannel {
         }
     }
 
+    /**
+     * Broadcasts a batch of messages to all connected clients, flushing each client once.
+     *
+     * @param messages The messages to be sent.
+     * @throws ChannelException If the server is closed or an error occurs while sending.
+     */
+    @Override
+    public void sendBatch(List<String> messages) throws ChannelException {
+        if (closed) {
+            throw new ChannelException("Cannot send message; channel is closed.");
+        }
+        for (ClientHandler client : clients) {
+            try {
+                client.sendAll(messages);
+            } catch (IOException e) {
+                logger.error("Error sending message to a client. Disconnecting that client.");
+                client.close();
+                clients.remove(client);
+            }
+        }
+    }
+
     /**
      * Receives a message from any connected client.
      * This method blocks until a message is available in the queue.
@@ -117,6 +161,21 @@ public class NetworkChannelServer implements DataChannel {
         }
     }
 
+    /**
+     * Receives a batch of messages from connected clients.
+     * Blocks until one message is available, then drains any further queued messages.
+     *
+     * @param sink        The list the received messages are appended to.
+     * @param maxMessages The maximum number of messages to receive.
+     * @return The number of messages appended to {@code sink}.
+     * @throws ChannelException If the server is closed or interrupted while waiting for a message.
+     */
+    @Override
+    public int receiveBatch(List<String> sink, int maxMessages) throws ChannelException {
+        sink.add(receive());
+        return 1 + messageQueue.drainTo(sink, maxMessages - 1);
+    }
+
     /**
      * Closes the server, disconnecting all clients and shutting down resources.
      *
@@ -131,6 +190,7 @@ public class NetworkChannelServer implements DataChannel {
             }
             clients.clear();
             serverSocket.close();
+            handlers.shutdown();
         } catch (IOException e) {
             throw new ChannelException("Error closing server", e);
         }
@@ -150,6 +210,8 @@ public class NetworkChannelServer implements DataChannel {
         private final Socket socket;
         private final BufferedWriter writer;
         private final BufferedReader reader;
+        // A lock rather than synchronized, so blocking writes do not pin virtual threads.
+        private final ReentrantLock writeLock = new ReentrantLock();
         private volatile boolean closed;
 
         /**
@@ -172,10 +234,36 @@ public class NetworkChannelServer implements DataChannel {
          * @throws IOException If an error occurs while sending the message.
          */
         public void send(String message) throws IOException {
-            if (!closed) {
-                writer.write(message);
-                writer.newLine();
-                writer.flush();
+            writeLock.lock();
+            try {
+                if (!closed) {
+                    writer.write(message);
+                    writer.newLine();
+                    writer.flush();
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        /**
+         * Sends several messages to the client with a single flush.
+         *
+         * @param messages The messages to send.
+         * @throws IOException If an error occurs while sending the messages.
+         */
+        public void sendAll(List<String> messages) throws IOException {
+            writeLock.lock();
+            try {
+                if (!closed) {
+                    for (String message : messages) {
+                        writer.write(message);
+                        writer.newLine();
+                    }
+                    writer.flush();
+                }
+            } finally {
+                writeLock.unlock();
             }
         }
 
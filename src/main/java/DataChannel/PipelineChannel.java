@@ -1,10 +1,19 @@
 package DataChannel;
 
+import Utils.ExecutionMode;
+import Utils.TaskScope;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * {@code PipelineChannel} chains multiple {@link DataChannel} instances together.
@@ -13,6 +22,30 @@ import java.util.List;
  * while the last channel serves as the exit point where messages are received via {@link #receive()}.
  * Internally, background threads continuously forward data from one channel to the next.
  * </p>
+ * <p>
+ * Each hop between two adjacent channels can be tuned through {@link #builder()}:
+ * <ul>
+ *     <li><b>Workers:</b> the number of forwarder threads moving messages across the hop.</li>
+ *     <li><b>Batch size:</b> the maximum number of messages a forwarder moves per
+ *     {@link DataChannel#receiveBatch(List, int)} / {@link DataChannel#sendBatch(List)} round trip.</li>
+ *     <li><b>Key ordering:</b> with a key extractor, a dispatcher hashes each message to a fixed worker,
+ *     so messages sharing a key keep their relative order even with several workers.</li>
+ *     <li><b>Stages:</b> {@link PipelineStage}s that filter, map, fan out or route messages on the
+ *     forwarder threads before they reach the next channel.</li>
+ *     <li><b>Supervision:</b> a forwarder that fails is restarted with exponential backoff and retries
+ *     the batch it was holding, so messages are delivered at least once. The restart count is reset
+ *     whenever a batch gets through; a forwarder that fails more times in a row than the hop allows
+ *     gives up and fails the pipeline, which then rejects further sends.</li>
+ *     <li><b>Dead letters:</b> a retried batch is taken one message at a time, and a message that makes a
+ *     stage or the key extractor throw again is set aside instead of replayed: it goes to the hop's
+ *     {@linkplain Builder#deadLetter(DataChannel) dead-letter channel}, or is logged and dropped if there is
+ *     none. Failures of the destination channel are not blamed on messages and are retried.</li>
+ * </ul>
+ * All forwarders belong to one {@link TaskScope} and run on platform or virtual threads
+ * depending on the {@link ExecutionMode} given to the builder.
+ * Without a key extractor, several workers compete for messages on the source channel and
+ * no ordering is guaranteed across them.
+ * </p>
  *
  * <b>Usage Example:</b>
  * <pre>{@code
@@ -22,23 +55,43 @@ import java.util.List;
  *
  * pipeline.send("test message");
  * String received = pipeline.receive();
+ *
+ * // Four workers on the first hop, ordered per product, forwarding up to 64 messages at a time.
+ * DataChannel parallel = PipelineChannel.builder()
+ *         .channel(networkChannel)
+ *         .workers(4)
+ *         .batchSize(64)
+ *         .orderBy(message -> message.substring(0, message.indexOf(',')))
+ *         .filter(message -> !message.contains("heartbeat"))
+ *         .channel(queueChannel)
+ *         .build();
  * }</pre>
  */
 public class PipelineChannel implements DataChannel {
     private final DataChannel inputChannel;
     private final DataChannel outputChannel;
-    private final List<Thread> forwarderThreads = new ArrayList<>();
+    private final TaskScope forwarders;
     private final List<DataChannel> channels = new ArrayList<>();
     private volatile boolean closed = false;
+    private volatile ChannelException failure;
     private static final Logger logger = LogManager.getLogger(PipelineChannel.class);
 
+    private static final int DEFAULT_MAX_RESTARTS = 5;
+    private static final long BASE_RESTART_DELAY_MS = 100;
+    private static final long MAX_RESTART_DELAY_MS = 5000;
+    private static final int LANE_CAPACITY = 1024;
+    // Empty polls of a non-blocking source spent spinning before a forwarder starts parking.
+    private static final int IDLE_SPINS = 100;
+    private static final long MIN_IDLE_PARK_NANOS = 1_000;
+    private static final long MAX_IDLE_PARK_NANOS = 1_000_000;
+
     /**
      * Constructs a pipeline from the given {@link DataChannel} instances.
      * The first channel in the list is treated as the input channel, and the last
      * channel is treated as the output channel.
      * <p>
-     * A background forwarding thread is started for each adjacent pair of channels
-     * to relay messages from one to the next.
+     * A single supervised forwarding thread is started for each adjacent pair of channels
+     * to relay messages from one to the next. Use {@link #builder()} to configure hops.
      * </p>
      *
      * @param channels The ordered sequence of {@link DataChannel} instances forming the pipeline.
@@ -46,56 +99,374 @@ public class PipelineChannel implements DataChannel {
      * @throws IllegalArgumentException if fewer than two channels are provided.
      */
     public PipelineChannel(DataChannel... channels) {
-        if (channels == null || channels.length < 2) {
+        this(channels == null ? List.of() : List.of(channels), null, ExecutionMode.PLATFORM);
+    }
+
+    /**
+     * Constructs a pipeline from channels and the per-hop configuration collected by a {@link Builder}.
+     *
+     * @param channels The ordered channels forming the pipeline.
+     * @param hops     The configuration of each hop, or {@code null} to use defaults everywhere.
+     * @param mode     The kind of threads the forwarders run on.
+     */
+    private PipelineChannel(List<DataChannel> channels, List<Hop> hops, ExecutionMode mode) {
+        if (channels.size() < 2) {
             throw new IllegalArgumentException("At least two channels are required for a pipeline.");
         }
-        this.inputChannel = channels[0];
-        this.outputChannel = channels[channels.length - 1];
-        this.channels.addAll(List.of(channels));
+        this.inputChannel = channels.get(0);
+        this.outputChannel = channels.get(channels.size() - 1);
+        this.channels.addAll(channels);
+        this.forwarders = new TaskScope(mode);
 
-        // For each adjacent pair of channels, start a forwarding thread.
-        for (int i = 0; i < channels.length - 1; i++) {
-            Thread t = getPipelineThread(channels[i], channels[i + 1]);
-            t.start();
-            forwarderThreads.add(t);
+        // For each adjacent pair of channels, start the forwarding threads of that hop.
+        for (int i = 0; i < channels.size() - 1; i++) {
+            Hop hop = (hops == null) ? new Hop() : hops.get(i);
+            startHop(i, channels.get(i), channels.get(i + 1), hop);
         }
     }
 
     /**
-     * Creates a thread that continuously forwards messages from the source channel
-     * to the destination channel until the pipeline is closed.
+     * Creates a builder for a pipeline with per-hop parallelism, batching and ordering.
      *
-     * @param src  The source {@link DataChannel} to read messages from.
-     * @param dest The destination {@link DataChannel} to forward messages to.
-     * @return A thread that forwards messages between the two channels.
+     * @return a new {@link Builder}.
      */
-    private Thread getPipelineThread(DataChannel src, DataChannel dest) {
-        return new Thread(() -> {
-            try {
-                while (!Thread.currentThread().isInterrupted() && !closed) {
-                    String msg = src.receive();
-                    dest.send(msg);
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Starts the forwarder threads for one hop.
+     *
+     * @param index The index of the hop, used for thread names.
+     * @param src   The source {@link DataChannel} to read messages from.
+     * @param dest  The destination {@link DataChannel} to forward messages to.
+     * @param hop   The configuration of the hop.
+     */
+    private void startHop(int index, DataChannel src, DataChannel dest, Hop hop) {
+        String prefix = "pipeline-hop-" + index;
+        if (hop.keyExtractor == null || hop.workers == 1) {
+            for (int w = 0; w < hop.workers; w++) {
+                Forwarder forwarder = new Forwarder(prefix + "-worker-" + w, hop);
+                startSupervised(forwarder, () -> forward(src, dest, forwarder));
+            }
+            return;
+        }
+
+        List<BlockingQueue<String>> lanes = new ArrayList<>(hop.workers);
+        for (int w = 0; w < hop.workers; w++) {
+            BlockingQueue<String> lane = new LinkedBlockingQueue<>(LANE_CAPACITY);
+            lanes.add(lane);
+            Forwarder forwarder = new Forwarder(prefix + "-worker-" + w, hop);
+            startSupervised(forwarder, () -> drainLane(lane, dest, forwarder));
+        }
+        Forwarder dispatcher = new Forwarder(prefix + "-dispatcher", hop);
+        startSupervised(dispatcher, () -> dispatch(src, lanes, dispatcher));
+    }
+
+    /**
+     * Starts a thread that runs {@code loop} and restarts it with exponential backoff if it fails,
+     * until the pipeline is closed or the forwarder fails more times in a row than its hop allows.
+     * The messages the forwarder held when it failed stay in its pending batch and are retried by
+     * the restarted loop. Giving up fails the pipeline.
+     *
+     * @param forwarder The forwarder, holding its name, hop, pending batch and restart count.
+     * @param loop      The forwarding loop to supervise.
+     */
+    private void startSupervised(Forwarder forwarder, ForwardLoop loop) {
+        String name = forwarder.name;
+        forwarders.fork(name, () -> {
+            while (!closed && !Thread.currentThread().isInterrupted()) {
+                try {
+                    loop.run();
+                    return;
+                } catch (ChannelException | RuntimeException e) {
+                    if (closed) {
+                        return;
+                    }
+                    int restarts = forwarder.restarts;
+                    if (restarts >= forwarder.hop.maxRestarts) {
+                        logger.error("Forwarder {} failed after {} restarts; giving up with {} undelivered messages: {}",
+                                name, restarts, forwarder.pending.size(), e.getMessage());
+                        failure = new ChannelException("Forwarder " + name + " failed after " + restarts + " restarts.", e);
+                        return;
+                    }
+                    long delay = Math.min(BASE_RESTART_DELAY_MS << Math.min(restarts, 16), MAX_RESTART_DELAY_MS);
+                    forwarder.restarts = ++restarts;
+                    forwarder.retrying = !forwarder.pending.isEmpty();
+                    logger.error("Error forwarding message in {}: {}. Restart {} in {} ms, retrying {} messages.",
+                            name, e.getMessage(), restarts, delay, forwarder.pending.size());
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(delay);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
                 }
-            } catch (ChannelException e) {
-                logger.error("Error forwarding message: {}", e.getMessage());
-                throw new RuntimeException(e);
             }
         });
     }
 
+    /**
+     * Continuously forwards batches of messages from the source channel to the destination channel.
+     * A batch left pending by a failed run is delivered before anything new is received.
+     *
+     * @param src       The source {@link DataChannel} to read messages from.
+     * @param dest      The destination {@link DataChannel} to forward messages to.
+     * @param forwarder The forwarder state holding the hop and the pending batch.
+     * @throws ChannelException If either channel or a stage fails.
+     */
+    private void forward(DataChannel src, DataChannel dest, Forwarder forwarder) throws ChannelException {
+        List<String> batch = forwarder.pending;
+        int emptyPolls = 0;
+        while (!Thread.currentThread().isInterrupted() && !closed) {
+            if (batch.isEmpty() && src.receiveBatch(batch, forwarder.hop.batchSize) == 0) {
+                // Non-blocking sources (e.g. Chronicle Queue) return nothing when empty.
+                emptyPolls = idle(emptyPolls);
+                continue;
+            }
+            emptyPolls = 0;
+            deliver(dest, forwarder);
+        }
+    }
+
+    /**
+     * Waits after an empty poll of a non-blocking source: spins for the first {@value #IDLE_SPINS} polls in a
+     * row, so a busy source is picked up at once, then parks for a time doubling from 1 µs up to 1 ms, so an idle
+     * forwarder does not hold a core.
+     *
+     * @param emptyPolls the number of empty polls in a row before this one.
+     * @return the count to pass after the next empty poll; it stops growing once the longest park is reached.
+     */
+    private static int idle(int emptyPolls) {
+        if (emptyPolls < IDLE_SPINS) {
+            Thread.onSpinWait();
+            return emptyPolls + 1;
+        }
+        int doublings = emptyPolls - IDLE_SPINS;
+        long park = MIN_IDLE_PARK_NANOS << doublings;
+        LockSupport.parkNanos(Math.min(park, MAX_IDLE_PARK_NANOS));
+        return (park < MAX_IDLE_PARK_NANOS) ? emptyPolls + 1 : emptyPolls;
+    }
+
+    /**
+     * Runs the pending batch through the stages of the hop and sends whatever remains to the destination.
+     * The pending batch is only cleared once the destination accepted the result, so a failing stage or
+     * destination leaves it intact for a retry. A batch being retried after a failure is delivered one
+     * message at a time, and messages its stages fail on again are set aside with {@link #deadLetter}.
+     *
+     * @param dest      The destination {@link DataChannel}.
+     * @param forwarder The forwarder state holding the hop's stages, the pending batch and scratch lists.
+     * @throws ChannelException If a stage or the destination channel fails.
+     */
+    private void deliver(DataChannel dest, Forwarder forwarder) throws ChannelException {
+        if (forwarder.retrying && !forwarder.hop.stages.isEmpty()) {
+            deliverEach(dest, forwarder);
+        } else {
+            List<String> out = transform(forwarder.pending, forwarder);
+            if (!out.isEmpty()) {
+                dest.sendBatch(out);
+            }
+            forwarder.pending.clear();
+        }
+        forwarder.restarts = 0;
+        forwarder.retrying = false;
+    }
+
+    /**
+     * Delivers the pending batch one message at a time, removing each message once it is delivered or set aside.
+     *
+     * @param dest      The destination {@link DataChannel}.
+     * @param forwarder The forwarder state holding the hop's stages and the pending batch.
+     * @throws ChannelException If the destination or dead-letter channel fails.
+     */
+    private void deliverEach(DataChannel dest, Forwarder forwarder) throws ChannelException {
+        List<String> pending = forwarder.pending;
+        List<String> single = forwarder.single;
+        int done = 0;
+        try {
+            for (; done < pending.size(); done++) {
+                String message = pending.get(done);
+                single.clear();
+                single.add(message);
+                List<String> out;
+                try {
+                    out = transform(single, forwarder);
+                } catch (RuntimeException e) {
+                    deadLetter(forwarder, message, e);
+                    continue;
+                }
+                if (!out.isEmpty()) {
+                    dest.sendBatch(out);
+                }
+            }
+        } finally {
+            pending.subList(0, done).clear();
+        }
+    }
+
+    /**
+     * Runs messages through the stages of the hop. Intermediate results alternate between two reusable
+     * lists, so no list is allocated per batch.
+     *
+     * @param in        The messages; left unchanged.
+     * @param forwarder The forwarder state holding the hop's stages and scratch lists.
+     * @return The messages leaving the last stage; {@code in} itself if the hop has no stages.
+     * @throws ChannelException If a stage fails to send to a channel it diverts messages to.
+     */
+    private static List<String> transform(List<String> in, Forwarder forwarder) throws ChannelException {
+        for (PipelineStage stage : forwarder.hop.stages) {
+            List<String> out = (in == forwarder.scratch) ? forwarder.spare : forwarder.scratch;
+            out.clear();
+            for (String message : in) {
+                stage.apply(message, out);
+            }
+            in = out;
+        }
+        return in;
+    }
+
+    /**
+     * Sets aside a message that failed again while its batch was retried, so it is not replayed until the
+     * forwarder's restarts run out.
+     *
+     * @param forwarder The forwarder that failed on the message.
+     * @param message   The message.
+     * @param cause     The failure.
+     * @throws ChannelException If the dead-letter channel fails; the message stays pending.
+     */
+    private static void deadLetter(Forwarder forwarder, String message, RuntimeException cause) throws ChannelException {
+        DataChannel deadLetters = forwarder.hop.deadLetters;
+        if (deadLetters == null) {
+            logger.error("Forwarder {} dropped a message that failed again on retry: {}. Message: {}",
+                    forwarder.name, cause.getMessage(), message);
+            return;
+        }
+        deadLetters.send(message);
+        logger.error("Forwarder {} moved a message that failed again on retry to the dead-letter channel: {}",
+                forwarder.name, cause.getMessage());
+    }
+
+    /**
+     * Reads messages from the source channel and hands each one to the lane selected by its key.
+     *
+     * Messages not yet handed to a lane when the dispatcher fails stay pending for the restarted loop. A message
+     * the key extractor fails on again after a restart is set aside with {@link #deadLetter}.
+     *
+     * @param src        The source {@link DataChannel} to read messages from.
+     * @param lanes      The per-worker queues.
+     * @param dispatcher The dispatcher state holding the hop and the pending batch.
+     * @throws ChannelException If the source channel or the key extractor fails, or the dispatcher is interrupted.
+     */
+    private void dispatch(DataChannel src, List<BlockingQueue<String>> lanes, Forwarder dispatcher) throws ChannelException {
+        Hop hop = dispatcher.hop;
+        List<String> batch = dispatcher.pending;
+        int emptyPolls = 0;
+        while (!Thread.currentThread().isInterrupted() && !closed) {
+            if (batch.isEmpty() && src.receiveBatch(batch, hop.batchSize) == 0) {
+                emptyPolls = idle(emptyPolls);
+                continue;
+            }
+            emptyPolls = 0;
+            int dispatched = 0;
+            try {
+                for (String msg : batch) {
+                    Object key;
+                    try {
+                        key = hop.keyExtractor.apply(msg);
+                    } catch (RuntimeException e) {
+                        if (!dispatcher.retrying) {
+                            throw e;
+                        }
+                        deadLetter(dispatcher, msg, e);
+                        dispatched++;
+                        continue;
+                    }
+                    int lane = (key == null) ? 0 : Math.floorMod(key.hashCode(), lanes.size());
+                    try {
+                        lanes.get(lane).put(msg);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new ChannelException("Dispatcher interrupted.", e);
+                    }
+                    dispatched++;
+                }
+            } finally {
+                batch.subList(0, dispatched).clear();
+            }
+            dispatcher.restarts = 0;
+            dispatcher.retrying = false;
+        }
+    }
+
+    /**
+     * Forwards batches taken from a worker lane to the destination channel.
+     *
+     * A batch left pending by a failed run is delivered before the lane is read again.
+     *
+     * @param lane      The queue feeding this worker.
+     * @param dest      The destination {@link DataChannel}.
+     * @param forwarder The forwarder state holding the hop and the pending batch.
+     * @throws ChannelException If a stage or the destination channel fails, or the worker is interrupted.
+     */
+    private void drainLane(BlockingQueue<String> lane, DataChannel dest, Forwarder forwarder) throws ChannelException {
+        List<String> batch = forwarder.pending;
+        while (!Thread.currentThread().isInterrupted() && !closed) {
+            if (batch.isEmpty()) {
+                try {
+                    batch.add(lane.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ChannelException("Forwarder interrupted.", e);
+                }
+                lane.drainTo(batch, forwarder.hop.batchSize - 1);
+            }
+            deliver(dest, forwarder);
+        }
+    }
+
     /**
      * Sends a message into the pipeline, which is passed to the first channel.
      *
      * @param message The message to send.
-     * @throws ChannelException If the pipeline is closed or an error occurs in sending.
+     * @throws ChannelException If the pipeline is closed or has failed, or an error occurs in sending.
      */
     @Override
     public void send(String message) throws ChannelException {
         // Sending to the pipeline sends the message to the first channel.
+        checkOpen();
+        inputChannel.send(message);
+    }
+
+    /**
+     * Sends a batch of messages into the pipeline, passing them to the first channel.
+     *
+     * @param messages The messages to send, in order.
+     * @throws ChannelException If the pipeline is closed or has failed, or an error occurs in sending.
+     */
+    @Override
+    public void sendBatch(List<String> messages) throws ChannelException {
+        checkOpen();
+        inputChannel.sendBatch(messages);
+    }
+
+    /**
+     * Returns whether a forwarder has given up after exhausting its restarts. A failed pipeline
+     * rejects sends; messages already delivered to the last channel can still be received.
+     *
+     * @return {@code true} if the pipeline has failed.
+     */
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    private void checkOpen() throws ChannelException {
         if (closed) {
             throw new ChannelException("Pipeline is closed.");
         }
-        inputChannel.send(message);
+        ChannelException failed = failure;
+        if (failed != null) {
+            throw new ChannelException("Pipeline has failed: " + failed.getMessage(), failed.getCause());
+        }
     }
 
     /**
@@ -113,6 +484,32 @@ public class PipelineChannel implements DataChannel {
         return outputChannel.receive();
     }
 
+    /**
+     * Receives a batch of messages from the last channel of the pipeline.
+     *
+     * @param sink        The list the received messages are appended to.
+     * @param maxMessages The maximum number of messages to receive.
+     * @return The number of messages appended to {@code sink}.
+     * @throws ChannelException If the pipeline is closed or an error occurs in receiving.
+     */
+    @Override
+    public int receiveBatch(List<String> sink, int maxMessages) throws ChannelException {
+        if (closed) {
+            throw new ChannelException("Pipeline is closed.");
+        }
+        return outputChannel.receiveBatch(sink, maxMessages);
+    }
+
+    /**
+     * Returns the free space of the first channel, where senders write.
+     *
+     * @return the number of messages that can be sent without blocking.
+     */
+    @Override
+    public int remainingCapacity() {
+        return inputChannel.remainingCapacity();
+    }
+
     /**
      * Closes the pipeline, shutting down all internal channels and forwarding threads.
      * <p>
@@ -128,8 +525,240 @@ public class PipelineChannel implements DataChannel {
         for (DataChannel channel : channels) {
             channel.close();
         }
-        for (Thread t : forwarderThreads) {
-            t.interrupt();
+        forwarders.shutdown();
+    }
+
+    /**
+     * A forwarding loop that returns when the pipeline closes and throws when a channel fails.
+     */
+    @FunctionalInterface
+    private interface ForwardLoop {
+        void run() throws ChannelException;
+    }
+
+    /**
+     * The state of one forwarder thread that survives its restarts: the batch it has taken from its
+     * source but not yet delivered, and the number of restarts since it last delivered one.
+     */
+    private static final class Forwarder {
+        private final String name;
+        private final Hop hop;
+        private final List<String> pending;
+        private final List<String> scratch;
+        private final List<String> spare;
+        private final List<String> single = new ArrayList<>(1);
+        private int restarts;
+        // Whether the pending batch is being retried after a failure.
+        private boolean retrying;
+
+        private Forwarder(String name, Hop hop) {
+            this.name = name;
+            this.hop = hop;
+            this.pending = new ArrayList<>(hop.batchSize);
+            this.scratch = new ArrayList<>(hop.batchSize);
+            this.spare = new ArrayList<>(hop.batchSize);
+        }
+    }
+
+    /**
+     * Configuration of a single hop between two adjacent channels.
+     */
+    private static class Hop {
+        private int workers = 1;
+        private int batchSize = 1;
+        private int maxRestarts = DEFAULT_MAX_RESTARTS;
+        private Function<String, ?> keyExtractor;
+        private DataChannel deadLetters;
+        private final List<PipelineStage> stages = new ArrayList<>();
+        // Whether any setting was given, so the builder can reject settings left without a following channel.
+        private boolean configured;
+    }
+
+    /**
+     * Builder for a {@link PipelineChannel} with per-hop configuration.
+     * <p>
+     * Channels are added in order with {@link #channel(DataChannel)}. Hop settings such as
+     * {@link #workers(int)} apply to the hop leaving the most recently added channel, so they must be followed by
+     * the channel the hop leads to.
+     * </p>
+     */
+    public static class Builder {
+        private final List<DataChannel> channels = new ArrayList<>();
+        private final List<Hop> hops = new ArrayList<>();
+        private Hop current;
+        private ExecutionMode mode = ExecutionMode.PLATFORM;
+
+        private Builder() {
+        }
+
+        /**
+         * Appends a channel to the pipeline, closing the configuration of the previous hop.
+         *
+         * @param channel the next channel of the pipeline.
+         * @return this builder.
+         */
+        public Builder channel(DataChannel channel) {
+            if (current != null) {
+                hops.add(current);
+            }
+            channels.add(channel);
+            current = new Hop();
+            return this;
+        }
+
+        /**
+         * Sets the number of forwarder threads for the current hop.
+         *
+         * @param workers the number of workers, at least one.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code workers} is less than one.
+         */
+        public Builder workers(int workers) {
+            if (workers < 1) {
+                throw new IllegalArgumentException("A hop needs at least one worker.");
+            }
+            currentHop().workers = workers;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of messages forwarded per round trip on the current hop.
+         *
+         * @param batchSize the batch size, at least one.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code batchSize} is less than one.
+         */
+        public Builder batchSize(int batchSize) {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("Batch size must be at least one.");
+            }
+            currentHop().batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Preserves the relative order of messages sharing a key on the current hop.
+         * Messages are routed to workers by the hash of the extracted key.
+         *
+         * @param keyExtractor the function extracting the ordering key from a message.
+         * @return this builder.
+         */
+        public Builder orderBy(Function<String, ?> keyExtractor) {
+            currentHop().keyExtractor = keyExtractor;
+            return this;
+        }
+
+        /**
+         * Sets how many times in a row a failed forwarder of the current hop is restarted before giving
+         * up and failing the pipeline. The count is reset whenever the forwarder delivers a batch.
+         *
+         * @param maxRestarts the restart budget per forwarder thread.
+         * @return this builder.
+         */
+        public Builder maxRestarts(int maxRestarts) {
+            currentHop().maxRestarts = maxRestarts;
+            return this;
+        }
+
+        /**
+         * Sends the messages of the current hop that a stage or the key extractor fails on again when their batch
+         * is retried to the given channel, instead of dropping them. The pipeline does not close the channel.
+         *
+         * @param deadLetters the channel receiving the failed messages.
+         * @return this builder.
+         */
+        public Builder deadLetter(DataChannel deadLetters) {
+            currentHop().deadLetters = deadLetters;
+            return this;
+        }
+
+        /**
+         * Appends a transforming stage to the current hop.
+         * Stages run in the order they are added, on the forwarder threads of the hop.
+         *
+         * @param stage the stage to append.
+         * @return this builder.
+         */
+        public Builder stage(PipelineStage stage) {
+            currentHop().stages.add(stage);
+            return this;
+        }
+
+        /**
+         * Appends a {@link PipelineStage#filter(Predicate)} stage to the current hop.
+         *
+         * @param predicate the condition a message must satisfy to be forwarded.
+         * @return this builder.
+         */
+        public Builder filter(Predicate<String> predicate) {
+            return stage(PipelineStage.filter(predicate));
+        }
+
+        /**
+         * Appends a {@link PipelineStage#map(Function)} stage to the current hop.
+         *
+         * @param mapper the transformation applied to each message.
+         * @return this builder.
+         */
+        public Builder map(Function<String, String> mapper) {
+            return stage(PipelineStage.map(mapper));
+        }
+
+        /**
+         * Appends a {@link PipelineStage#flatMap(Function)} stage to the current hop.
+         *
+         * @param mapper the function producing the messages that replace the incoming one.
+         * @return this builder.
+         */
+        public Builder flatMap(Function<String, ? extends Iterable<String>> mapper) {
+            return stage(PipelineStage.flatMap(mapper));
+        }
+
+        /**
+         * Appends a {@link PipelineStage#route(Function, Map)} stage to the current hop.
+         *
+         * @param keyExtractor the function extracting the routing key from a message.
+         * @param routes       the channels receiving the diverted messages, by key.
+         * @param <K>          the type of the routing key.
+         * @return this builder.
+         */
+        public <K> Builder route(Function<String, K> keyExtractor, Map<K, ? extends DataChannel> routes) {
+            return stage(PipelineStage.route(keyExtractor, routes));
+        }
+
+        /**
+         * Selects the kind of threads all forwarders of the pipeline run on.
+         * {@link ExecutionMode#VIRTUAL} lets pipelines with many hops and workers block freely
+         * without tying up one platform thread each.
+         *
+         * @param mode the {@link ExecutionMode} of the forwarder threads.
+         * @return this builder.
+         */
+        public Builder executionMode(ExecutionMode mode) {
+            this.mode = mode;
+            return this;
+        }
+
+        /**
+         * Builds the pipeline and starts its forwarder threads.
+         *
+         * @return the new {@link PipelineChannel}.
+         * @throws IllegalArgumentException if fewer than two channels were added.
+         * @throws IllegalStateException    if hop settings follow the last channel, which has no outgoing hop.
+         */
+        public PipelineChannel build() {
+            if (current != null && current.configured) {
+                throw new IllegalStateException("Hop settings after the last channel have no channel to forward to.");
+            }
+            return new PipelineChannel(channels, hops, mode);
+        }
+
+        private Hop currentHop() {
+            if (current == null) {
+                throw new IllegalStateException("Add a channel before configuring its outgoing hop.");
+            }
+            current.configured = true;
+            return current;
         }
     }
-}
\ No newline at end of file
+}
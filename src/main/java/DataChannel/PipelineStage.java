@@ -0,0 +1,115 @@
+package DataChannel;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A {@code PipelineStage} transforms messages while a {@link PipelineChannel} forwards them
+ * from one channel to the next.
+ * <p>
+ * Each stage receives one message and appends zero or more messages to its output list, which
+ * lets a single interface express filtering, mapping, fan-out and routing. Stages run on the
+ * forwarder threads of their hop, so cheap pre-filtering happens before messages reach expensive
+ * channels such as persistent queues or network links.
+ * </p>
+ *
+ * <h2>Thread Safety:</h2>
+ * <p>A hop with several workers calls the same stage instance from several threads concurrently.
+ * Stages must therefore be stateless or thread-safe.</p>
+ *
+ * <h2>Usage Example:</h2>
+ * <pre>{@code
+ * DataChannel pipeline = PipelineChannel.builder()
+ *         .channel(networkChannel)
+ *         .stage(PipelineStage.filter(message -> !message.contains("\"type\":\"heartbeat\"")))
+ *         .stage(PipelineStage.map(String::strip))
+ *         .channel(queueChannel)
+ *         .build();
+ * }</pre>
+ *
+ * @see PipelineChannel.Builder#stage(PipelineStage)
+ */
+@FunctionalInterface
+public interface PipelineStage {
+
+    /**
+     * Applies this stage to a single message.
+     *
+     * @param message The incoming message.
+     * @param out     The list receiving the messages to pass on to the next stage or channel.
+     * @throws ChannelException If the stage fails, e.g. when routing to another channel fails.
+     */
+    void apply(String message, List<String> out) throws ChannelException;
+
+    /**
+     * Creates a stage that keeps only the messages matching {@code predicate}.
+     *
+     * @param predicate The condition a message must satisfy to be forwarded.
+     * @return a filtering stage.
+     */
+    static PipelineStage filter(Predicate<String> predicate) {
+        return (message, out) -> {
+            if (predicate.test(message)) {
+                out.add(message);
+            }
+        };
+    }
+
+    /**
+     * Creates a stage that replaces each message with the result of {@code mapper}.
+     * A {@code null} result drops the message.
+     *
+     * @param mapper The transformation applied to each message.
+     * @return a mapping stage.
+     */
+    static PipelineStage map(Function<String, String> mapper) {
+        return (message, out) -> {
+            String mapped = mapper.apply(message);
+            if (mapped != null) {
+                out.add(mapped);
+            }
+        };
+    }
+
+    /**
+     * Creates a stage that replaces each message with any number of messages.
+     *
+     * @param mapper The function producing the messages that replace the incoming one.
+     * @return a flat-mapping stage.
+     */
+    static PipelineStage flatMap(Function<String, ? extends Iterable<String>> mapper) {
+        return (message, out) -> {
+            for (String mapped : mapper.apply(message)) {
+                out.add(mapped);
+            }
+        };
+    }
+
+    /**
+     * Creates a stage that diverts messages to other channels by key.
+     * <p>
+     * A message whose key has an entry in {@code routes} is sent to that channel and leaves the
+     * pipeline; every other message continues down the hop. The route channels are not owned by
+     * the pipeline and are not closed with it.
+     * </p>
+     *
+     * @param keyExtractor The function extracting the routing key from a message.
+     * @param routes       The channels receiving the diverted messages, by key.
+     * @param <K>          The type of the routing key.
+     * @return a routing stage.
+     */
+    static <K> PipelineStage route(Function<String, K> keyExtractor, Map<K, ? extends DataChannel> routes) {
+        Map<K, ? extends DataChannel> targets = Map.copyOf(routes);
+        return (message, out) -> {
+            K key = keyExtractor.apply(message);
+            DataChannel target = (key == null) ? null : targets.get(key);
+            if (target == null) {
+                out.add(message);
+            } else {
+                target.send(message);
+            }
+        };
+    }
+}
@@ -20,6 +20,15 @@ public enum MarketDataQueryType {
         this.value = value;
     }
 
+    /**
+     * Returns the lower-case string value of this type, as used in envelope tags (e.g. {@code "quote"}).
+     *
+     * @return the string value of this type.
+     */
+    public String getValue() {
+        return value;
+    }
+
     /**
      * Converts a string to its corresponding {@code MarketDataQueryType} enum value.
      * <p>
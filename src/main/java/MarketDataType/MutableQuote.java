@@ -0,0 +1,375 @@
+package MarketDataType;
+
+import Utils.Timestamps;
+
+/**
+ * A mutable, reusable quote that parsers fill in place.
+ * <p>
+ * {@code MutableQuote} is the flyweight counterpart of {@link ScaledQuote}: one instance is owned by a
+ * normalizer thread, overwritten for every message and handed to a callback, so normalizing a quote creates
+ * no record, {@link java.math.BigDecimal} or {@link java.time.Instant}. Decimals are {@code long} mantissas at
+ * {@link #priceScale()} / {@link #sizeScale()}, exactly as in {@link ScaledQuote}.
+ * </p>
+ * <p>
+ * An instance is only valid until it is next filled. Consumers that need to retain the data must copy it out
+ * with {@link #toScaledQuote()}, {@link #toQuote()} or {@link #copyFrom(MutableQuote)}. Instances are not
+ * thread-safe.
+ * </p>
+ */
+public final class MutableQuote {
+
+    private String platform;
+    private long sequence;
+    private String product;
+    private Symbol symbol;
+    private int priceScale;
+    private int sizeScale;
+    private long bestBid;
+    private long bestBidSize;
+    private long bestAsk;
+    private long bestAskSize;
+    private long price;
+    private long open24h;
+    private long volume24h;
+    private long low24h;
+    private long high24h;
+    private long volume30d;
+    private String side;
+    private long timeNanos;
+    private long tradeId;
+    private long lastSize;
+
+    /**
+     * Creates an empty quote.
+     */
+    public MutableQuote() {
+        reset();
+    }
+
+    /**
+     * Clears every field: decimals become {@link ScaledDecimal#NULL}, timestamps and the trade id
+     * {@link Timestamps#NONE}, strings {@code null}, and the scales {@link ProductScales#DEFAULT}.
+     *
+     * @return this quote.
+     */
+    public MutableQuote reset() {
+        platform = null;
+        sequence = 0;
+        product = null;
+        symbol = null;
+        priceScale = ProductScales.DEFAULT.priceScale();
+        sizeScale = ProductScales.DEFAULT.sizeScale();
+        bestBid = ScaledDecimal.NULL;
+        bestBidSize = ScaledDecimal.NULL;
+        bestAsk = ScaledDecimal.NULL;
+        bestAskSize = ScaledDecimal.NULL;
+        price = ScaledDecimal.NULL;
+        open24h = ScaledDecimal.NULL;
+        volume24h = ScaledDecimal.NULL;
+        low24h = ScaledDecimal.NULL;
+        high24h = ScaledDecimal.NULL;
+        volume30d = ScaledDecimal.NULL;
+        side = null;
+        timeNanos = Timestamps.NONE;
+        tradeId = Timestamps.NONE;
+        lastSize = ScaledDecimal.NULL;
+        return this;
+    }
+
+    /**
+     * Overwrites this quote with the contents of another.
+     *
+     * @param other the quote to copy.
+     * @return this quote.
+     */
+    public MutableQuote copyFrom(MutableQuote other) {
+        platform = other.platform;
+        sequence = other.sequence;
+        product = other.product;
+        symbol = other.symbol;
+        priceScale = other.priceScale;
+        sizeScale = other.sizeScale;
+        bestBid = other.bestBid;
+        bestBidSize = other.bestBidSize;
+        bestAsk = other.bestAsk;
+        bestAskSize = other.bestAskSize;
+        price = other.price;
+        open24h = other.open24h;
+        volume24h = other.volume24h;
+        low24h = other.low24h;
+        high24h = other.high24h;
+        volume30d = other.volume30d;
+        side = other.side;
+        timeNanos = other.timeNanos;
+        tradeId = other.tradeId;
+        lastSize = other.lastSize;
+        return this;
+    }
+
+    /**
+     * Overwrites this quote with a {@link Quote}, converting its decimals at the scales of its product.
+     * The 24-hour and 30-day volumes become {@link ScaledDecimal#NULL} if they do not fit the size scale.
+     *
+     * @param quote the quote to copy.
+     * @return this quote.
+     * @throws ArithmeticException   if a price or size has more fractional digits than the product's scale.
+     * @throws NumberFormatException if the trade id is not numeric.
+     */
+    public MutableQuote set(Quote quote) {
+        ProductScales.Scale scale = ProductScales.of(quote.product());
+        int ps = scale.priceScale(), ss = scale.sizeScale();
+        platform = quote.platform();
+        sequence = quote.sequence();
+        product = quote.product();
+        symbol = SymbolTable.getDefault().find(quote.platform(), quote.product());
+        priceScale = ps;
+        sizeScale = ss;
+        bestBid = ScaledDecimal.fromBigDecimal(quote.bestBid(), ps);
+        bestBidSize = ScaledDecimal.fromBigDecimal(quote.bestBidSize(), ss);
+        bestAsk = ScaledDecimal.fromBigDecimal(quote.bestAsk(), ps);
+        bestAskSize = ScaledDecimal.fromBigDecimal(quote.bestAskSize(), ss);
+        price = ScaledDecimal.fromBigDecimal(quote.price(), ps);
+        open24h = ScaledDecimal.fromBigDecimal(quote.open24h(), ps);
+        volume24h = ScaledDecimal.fromBigDecimalOrNull(quote.volume24h(), ss);
+        low24h = ScaledDecimal.fromBigDecimal(quote.low24h(), ps);
+        high24h = ScaledDecimal.fromBigDecimal(quote.high24h(), ps);
+        volume30d = ScaledDecimal.fromBigDecimalOrNull(quote.volume30d(), ss);
+        side = quote.side();
+        timeNanos = Timestamps.ofInstant(quote.time());
+        tradeId = (quote.tradeId() == null) ? Timestamps.NONE : Long.parseLong(quote.tradeId());
+        lastSize = ScaledDecimal.fromBigDecimal(quote.lastSize(), ss);
+        return this;
+    }
+
+    /**
+     * Copies this quote into an immutable {@link ScaledQuote}.
+     *
+     * @return the scaled quote.
+     */
+    public ScaledQuote toScaledQuote() {
+        return new ScaledQuote(platform, sequence, product, priceScale, sizeScale,
+                bestBid, bestBidSize, bestAsk, bestAskSize,
+                price, open24h, volume24h, low24h, high24h, volume30d,
+                side, timeNanos, tradeId, lastSize, symbol);
+    }
+
+    /**
+     * Copies this quote into an immutable {@link Quote}, converting every decimal exactly.
+     *
+     * @return the quote.
+     */
+    public Quote toQuote() {
+        return toScaledQuote().toQuote();
+    }
+
+    public String platform() {
+        return platform;
+    }
+
+    public MutableQuote platform(String platform) {
+        this.platform = platform;
+        return this;
+    }
+
+    public long sequence() {
+        return sequence;
+    }
+
+    public MutableQuote sequence(long sequence) {
+        this.sequence = sequence;
+        return this;
+    }
+
+    public String product() {
+        return product;
+    }
+
+    /**
+     * Sets the product by name, clearing the symbol. Prefer {@link #symbol(Symbol)} on hot paths.
+     *
+     * @param product the normalized product.
+     * @return this quote.
+     */
+    public MutableQuote product(String product) {
+        this.product = product;
+        this.symbol = null;
+        return this;
+    }
+
+    /**
+     * Returns the interned symbol of the product.
+     *
+     * @return the symbol, or {@code null} if the product was set by name or is absent.
+     */
+    public Symbol symbol() {
+        return symbol;
+    }
+
+    /**
+     * Returns the id of the product's symbol, for int-keyed lookups downstream.
+     *
+     * @return the symbol id, or {@code -1} if there is no symbol.
+     */
+    public int symbolId() {
+        return (symbol == null) ? -1 : symbol.id();
+    }
+
+    /**
+     * Sets the product from its interned symbol; the product name becomes the symbol's normalized form.
+     *
+     * @param symbol the symbol, or {@code null}.
+     * @return this quote.
+     */
+    public MutableQuote symbol(Symbol symbol) {
+        this.symbol = symbol;
+        this.product = (symbol == null) ? null : symbol.normalized();
+        return this;
+    }
+
+    public int priceScale() {
+        return priceScale;
+    }
+
+    public int sizeScale() {
+        return sizeScale;
+    }
+
+    /**
+     * Sets the scales of the decimals. Mantissas already stored are not rescaled.
+     *
+     * @param priceScale the number of fractional digits of the price mantissas.
+     * @param sizeScale  the number of fractional digits of the size and volume mantissas.
+     * @return this quote.
+     */
+    public MutableQuote scales(int priceScale, int sizeScale) {
+        this.priceScale = priceScale;
+        this.sizeScale = sizeScale;
+        return this;
+    }
+
+    public long bestBid() {
+        return bestBid;
+    }
+
+    public MutableQuote bestBid(long bestBid) {
+        this.bestBid = bestBid;
+        return this;
+    }
+
+    public long bestBidSize() {
+        return bestBidSize;
+    }
+
+    public MutableQuote bestBidSize(long bestBidSize) {
+        this.bestBidSize = bestBidSize;
+        return this;
+    }
+
+    public long bestAsk() {
+        return bestAsk;
+    }
+
+    public MutableQuote bestAsk(long bestAsk) {
+        this.bestAsk = bestAsk;
+        return this;
+    }
+
+    public long bestAskSize() {
+        return bestAskSize;
+    }
+
+    public MutableQuote bestAskSize(long bestAskSize) {
+        this.bestAskSize = bestAskSize;
+        return this;
+    }
+
+    public long price() {
+        return price;
+    }
+
+    public MutableQuote price(long price) {
+        this.price = price;
+        return this;
+    }
+
+    public long open24h() {
+        return open24h;
+    }
+
+    public MutableQuote open24h(long open24h) {
+        this.open24h = open24h;
+        return this;
+    }
+
+    public long volume24h() {
+        return volume24h;
+    }
+
+    public MutableQuote volume24h(long volume24h) {
+        this.volume24h = volume24h;
+        return this;
+    }
+
+    public long low24h() {
+        return low24h;
+    }
+
+    public MutableQuote low24h(long low24h) {
+        this.low24h = low24h;
+        return this;
+    }
+
+    public long high24h() {
+        return high24h;
+    }
+
+    public MutableQuote high24h(long high24h) {
+        this.high24h = high24h;
+        return this;
+    }
+
+    public long volume30d() {
+        return volume30d;
+    }
+
+    public MutableQuote volume30d(long volume30d) {
+        this.volume30d = volume30d;
+        return this;
+    }
+
+    public String side() {
+        return side;
+    }
+
+    public MutableQuote side(String side) {
+        this.side = side;
+        return this;
+    }
+
+    public long timeNanos() {
+        return timeNanos;
+    }
+
+    public MutableQuote timeNanos(long timeNanos) {
+        this.timeNanos = timeNanos;
+        return this;
+    }
+
+    public long tradeId() {
+        return tradeId;
+    }
+
+    public MutableQuote tradeId(long tradeId) {
+        this.tradeId = tradeId;
+        return this;
+    }
+
+    public long lastSize() {
+        return lastSize;
+    }
+
+    public MutableQuote lastSize(long lastSize) {
+        this.lastSize = lastSize;
+        return this;
+    }
+}
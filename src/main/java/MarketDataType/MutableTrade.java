@@ -0,0 +1,349 @@
+package MarketDataType;
+
+import Utils.Timestamps;
+
+/**
+ * A mutable, reusable trade that parsers fill in place.
+ * <p>
+ * {@code MutableTrade} is the flyweight counterpart of {@link ScaledTrade}. Buyer and seller ids are kept in
+ * reusable character buffers rather than strings, so filling a trade from a payload allocates nothing once
+ * the buffers have grown to the ids' length.
+ * </p>
+ * <p>
+ * An instance is only valid until it is next filled. Consumers that need to retain the data must copy it out
+ * with {@link #toScaledTrade()}, {@link #toTrade()} or {@link #copyFrom(MutableTrade)}. Instances are not
+ * thread-safe.
+ * </p>
+ */
+public final class MutableTrade {
+
+    private String platform;
+    private long eventTimeNanos;
+    private String product;
+    private Symbol symbol;
+    private long tradeId;
+    private int priceScale;
+    private int sizeScale;
+    private long price;
+    private long size;
+    private final StringBuilder buyerId = new StringBuilder(64);
+    private boolean hasBuyerId;
+    private final StringBuilder sellerId = new StringBuilder(64);
+    private boolean hasSellerId;
+    private String side;
+    private long tradeTimeNanos;
+    private Boolean buyerIsMarketMaker;
+
+    /**
+     * Creates an empty trade.
+     */
+    public MutableTrade() {
+        reset();
+    }
+
+    /**
+     * Clears every field: decimals become {@link ScaledDecimal#NULL}, timestamps and the trade id
+     * {@link Timestamps#NONE}, ids and strings absent, and the scales {@link ProductScales#DEFAULT}.
+     *
+     * @return this trade.
+     */
+    public MutableTrade reset() {
+        platform = null;
+        eventTimeNanos = Timestamps.NONE;
+        product = null;
+        symbol = null;
+        tradeId = Timestamps.NONE;
+        priceScale = ProductScales.DEFAULT.priceScale();
+        sizeScale = ProductScales.DEFAULT.sizeScale();
+        price = ScaledDecimal.NULL;
+        size = ScaledDecimal.NULL;
+        buyerId.setLength(0);
+        hasBuyerId = false;
+        sellerId.setLength(0);
+        hasSellerId = false;
+        side = null;
+        tradeTimeNanos = Timestamps.NONE;
+        buyerIsMarketMaker = null;
+        return this;
+    }
+
+    /**
+     * Overwrites this trade with the contents of another.
+     *
+     * @param other the trade to copy.
+     * @return this trade.
+     */
+    public MutableTrade copyFrom(MutableTrade other) {
+        platform = other.platform;
+        eventTimeNanos = other.eventTimeNanos;
+        product = other.product;
+        symbol = other.symbol;
+        tradeId = other.tradeId;
+        priceScale = other.priceScale;
+        sizeScale = other.sizeScale;
+        price = other.price;
+        size = other.size;
+        buyerId.setLength(0);
+        buyerId.append(other.buyerId);
+        hasBuyerId = other.hasBuyerId;
+        sellerId.setLength(0);
+        sellerId.append(other.sellerId);
+        hasSellerId = other.hasSellerId;
+        side = other.side;
+        tradeTimeNanos = other.tradeTimeNanos;
+        buyerIsMarketMaker = other.buyerIsMarketMaker;
+        return this;
+    }
+
+    /**
+     * Overwrites this trade with a {@link Trade}, converting its decimals at the scales of its product.
+     *
+     * @param trade the trade to copy.
+     * @return this trade.
+     * @throws ArithmeticException if a decimal has more fractional digits than the product's scale.
+     */
+    public MutableTrade set(Trade trade) {
+        ProductScales.Scale scale = ProductScales.of(trade.product());
+        platform = trade.platform();
+        eventTimeNanos = Timestamps.ofInstant(trade.eventTime());
+        product = trade.product();
+        symbol = SymbolTable.getDefault().find(trade.platform(), trade.product());
+        tradeId = (trade.tradeId() == null) ? Timestamps.NONE : trade.tradeId();
+        priceScale = scale.priceScale();
+        sizeScale = scale.sizeScale();
+        price = ScaledDecimal.fromBigDecimal(trade.price(), priceScale);
+        size = ScaledDecimal.fromBigDecimal(trade.size(), sizeScale);
+        buyerId(trade.buyerId());
+        sellerId(trade.sellerId());
+        side = trade.side();
+        tradeTimeNanos = Timestamps.ofInstant(trade.tradeTime());
+        buyerIsMarketMaker = trade.buyerIsMarketMaker();
+        return this;
+    }
+
+    /**
+     * Copies this trade into an immutable {@link ScaledTrade}.
+     *
+     * @return the scaled trade.
+     */
+    public ScaledTrade toScaledTrade() {
+        return new ScaledTrade(platform, eventTimeNanos, product, tradeId, priceScale, sizeScale, price, size,
+                hasBuyerId ? buyerId.toString() : null,
+                hasSellerId ? sellerId.toString() : null,
+                side, tradeTimeNanos, buyerIsMarketMaker, symbol);
+    }
+
+    /**
+     * Copies this trade into an immutable {@link Trade}, converting every decimal exactly.
+     *
+     * @return the trade.
+     */
+    public Trade toTrade() {
+        return toScaledTrade().toTrade();
+    }
+
+    public String platform() {
+        return platform;
+    }
+
+    public MutableTrade platform(String platform) {
+        this.platform = platform;
+        return this;
+    }
+
+    public long eventTimeNanos() {
+        return eventTimeNanos;
+    }
+
+    public MutableTrade eventTimeNanos(long eventTimeNanos) {
+        this.eventTimeNanos = eventTimeNanos;
+        return this;
+    }
+
+    public String product() {
+        return product;
+    }
+
+    /**
+     * Sets the product by name, clearing the symbol. Prefer {@link #symbol(Symbol)} on hot paths.
+     *
+     * @param product the normalized product.
+     * @return this trade.
+     */
+    public MutableTrade product(String product) {
+        this.product = product;
+        this.symbol = null;
+        return this;
+    }
+
+    /**
+     * Returns the interned symbol of the product.
+     *
+     * @return the symbol, or {@code null} if the product was set by name or is absent.
+     */
+    public Symbol symbol() {
+        return symbol;
+    }
+
+    /**
+     * Returns the id of the product's symbol, for int-keyed lookups downstream.
+     *
+     * @return the symbol id, or {@code -1} if there is no symbol.
+     */
+    public int symbolId() {
+        return (symbol == null) ? -1 : symbol.id();
+    }
+
+    /**
+     * Sets the product from its interned symbol; the product name becomes the symbol's normalized form.
+     *
+     * @param symbol the symbol, or {@code null}.
+     * @return this trade.
+     */
+    public MutableTrade symbol(Symbol symbol) {
+        this.symbol = symbol;
+        this.product = (symbol == null) ? null : symbol.normalized();
+        return this;
+    }
+
+    public long tradeId() {
+        return tradeId;
+    }
+
+    public MutableTrade tradeId(long tradeId) {
+        this.tradeId = tradeId;
+        return this;
+    }
+
+    public int priceScale() {
+        return priceScale;
+    }
+
+    public int sizeScale() {
+        return sizeScale;
+    }
+
+    /**
+     * Sets the scales of the decimals. Mantissas already stored are not rescaled.
+     *
+     * @param priceScale the number of fractional digits of the price mantissa.
+     * @param sizeScale  the number of fractional digits of the size mantissa.
+     * @return this trade.
+     */
+    public MutableTrade scales(int priceScale, int sizeScale) {
+        this.priceScale = priceScale;
+        this.sizeScale = sizeScale;
+        return this;
+    }
+
+    public long price() {
+        return price;
+    }
+
+    public MutableTrade price(long price) {
+        this.price = price;
+        return this;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public MutableTrade size(long size) {
+        this.size = size;
+        return this;
+    }
+
+    /**
+     * Returns the buyer id. The returned sequence is a live view that changes when this trade is refilled.
+     *
+     * @return the buyer id, or {@code null} if absent.
+     */
+    public CharSequence buyerId() {
+        return hasBuyerId ? buyerId : null;
+    }
+
+    public MutableTrade buyerId(CharSequence id) {
+        buyerId.setLength(0);
+        hasBuyerId = id != null;
+        if (hasBuyerId) {
+            buyerId.append(id);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the buyer id from a slice of a character buffer, without allocating.
+     *
+     * @param chars  the buffer holding the id.
+     * @param offset the offset of the first character.
+     * @param length the number of characters.
+     * @return this trade.
+     */
+    public MutableTrade buyerId(char[] chars, int offset, int length) {
+        buyerId.setLength(0);
+        buyerId.append(chars, offset, length);
+        hasBuyerId = true;
+        return this;
+    }
+
+    /**
+     * Returns the seller id. The returned sequence is a live view that changes when this trade is refilled.
+     *
+     * @return the seller id, or {@code null} if absent.
+     */
+    public CharSequence sellerId() {
+        return hasSellerId ? sellerId : null;
+    }
+
+    public MutableTrade sellerId(CharSequence id) {
+        sellerId.setLength(0);
+        hasSellerId = id != null;
+        if (hasSellerId) {
+            sellerId.append(id);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the seller id from a slice of a character buffer, without allocating.
+     *
+     * @param chars  the buffer holding the id.
+     * @param offset the offset of the first character.
+     * @param length the number of characters.
+     * @return this trade.
+     */
+    public MutableTrade sellerId(char[] chars, int offset, int length) {
+        sellerId.setLength(0);
+        sellerId.append(chars, offset, length);
+        hasSellerId = true;
+        return this;
+    }
+
+    public String side() {
+        return side;
+    }
+
+    public MutableTrade side(String side) {
+        this.side = side;
+        return this;
+    }
+
+    public long tradeTimeNanos() {
+        return tradeTimeNanos;
+    }
+
+    public MutableTrade tradeTimeNanos(long tradeTimeNanos) {
+        this.tradeTimeNanos = tradeTimeNanos;
+        return this;
+    }
+
+    public Boolean buyerIsMarketMaker() {
+        return buyerIsMarketMaker;
+    }
+
+    public MutableTrade buyerIsMarketMaker(Boolean buyerIsMarketMaker) {
+        this.buyerIsMarketMaker = buyerIsMarketMaker;
+        return this;
+    }
+}
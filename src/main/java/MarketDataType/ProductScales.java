@@ -0,0 +1,84 @@
+package MarketDataType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the fixed-point scales used for each product's prices and sizes.
+ * <p>
+ * {@link ScaledQuote} and {@link ScaledTrade} store decimals as {@code long} mantissas; the scale of those
+ * mantissas is chosen per product, so e.g. {@code BTCUSD} prices can use two fractional digits while
+ * {@code SHIBUSD} prices need eight. Products that have not been registered use {@link #DEFAULT}.
+ * </p>
+ * <p>
+ * A mantissa is a {@code long}, so a scale of eight limits values to about 9.2e10. That covers the prices and
+ * trade sizes the supported exchanges publish, but not every 24-hour or 30-day volume of a low-priced token:
+ * those volumes are informational and are stored as {@link ScaledDecimal#NULL} when they do not fit, while a
+ * price or size that does not fit rejects its record. Register a smaller size scale for products whose volumes
+ * must be kept.
+ * </p>
+ * <p>
+ * Products are keyed by their normalized name (e.g. {@code "BTCUSD"}). The registry is global and thread-safe;
+ * scales are expected to be registered at startup, before the affected products are parsed.
+ * </p>
+ */
+public final class ProductScales {
+
+    /**
+     * The scales of a product.
+     *
+     * @param priceScale The number of fractional digits of prices.
+     * @param sizeScale  The number of fractional digits of sizes and volumes.
+     */
+    public record Scale(int priceScale, int sizeScale) {
+        public Scale {
+            if (priceScale < 0 || priceScale > ScaledDecimal.MAX_SCALE
+                    || sizeScale < 0 || sizeScale > ScaledDecimal.MAX_SCALE) {
+                throw new IllegalArgumentException("Scale must be between 0 and " + ScaledDecimal.MAX_SCALE);
+            }
+        }
+    }
+
+    /**
+     * The scale of products that have not been registered: eight fractional digits for both prices and sizes.
+     */
+    public static final Scale DEFAULT = new Scale(8, 8);
+
+    private static final Map<String, Scale> scales = new ConcurrentHashMap<>();
+
+    private ProductScales() {
+    }
+
+    /**
+     * Registers the scales of a product, replacing any previous registration.
+     *
+     * @param product    the normalized product name (e.g. {@code "BTCUSD"}).
+     * @param priceScale the number of fractional digits of prices.
+     * @param sizeScale  the number of fractional digits of sizes and volumes.
+     */
+    public static void register(String product, int priceScale, int sizeScale) {
+        scales.put(product, new Scale(priceScale, sizeScale));
+    }
+
+    /**
+     * Removes the registration of a product, so it falls back to {@link #DEFAULT}.
+     *
+     * @param product the normalized product name.
+     */
+    public static void unregister(String product) {
+        scales.remove(product);
+    }
+
+    /**
+     * Retrieves the scales of a product.
+     *
+     * @param product the normalized product name, or {@code null}.
+     * @return the registered scales, or {@link #DEFAULT} if the product is unknown or {@code null}.
+     */
+    public static Scale of(String product) {
+        if (product == null) {
+            return DEFAULT;
+        }
+        return scales.getOrDefault(product, DEFAULT);
+    }
+}
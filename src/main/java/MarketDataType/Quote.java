@@ -1,5 +1,7 @@
 package MarketDataType;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -30,6 +32,9 @@ import java.time.Instant;
  * @param time        The timestamp of when the quote was received.
  * @param tradeId     The identifier of the last executed trade.
  * @param lastSize    The size of the last executed trade.
+ * @param symbol      The interned symbol of the product, not serialized to JSON; resolved from
+ *                    {@link SymbolTable#getDefault()} when {@code null}, and still {@code null} if the product has not
+ *                    been interned.
  */
 public record Quote(
         String platform,
@@ -48,7 +53,38 @@ public record Quote(
         String side,
         Instant time,
         String tradeId,
-        BigDecimal lastSize
+        BigDecimal lastSize,
+        @JsonIgnore Symbol symbol
 ) implements Serializable {
 
+    /**
+     * Creates a quote, resolving the symbol of its product once so that {@link #symbol()} is a field read.
+     */
+    public Quote {
+        if (symbol == null) {
+            symbol = SymbolTable.getDefault().find(platform, product);
+        }
+    }
+
+    /**
+     * Creates a quote whose symbol is looked up from its platform and product.
+     */
+    public Quote(String platform, long sequence, String product, BigDecimal bestBid, BigDecimal bestBidSize,
+                 BigDecimal bestAsk, BigDecimal bestAskSize, BigDecimal price, BigDecimal open24h,
+                 BigDecimal volume24h, BigDecimal low24h, BigDecimal high24h, BigDecimal volume30d, String side,
+                 Instant time, String tradeId, BigDecimal lastSize) {
+        this(platform, sequence, product, bestBid, bestBidSize, bestAsk, bestAskSize, price, open24h, volume24h, low24h,
+                high24h, volume30d, side, time, tradeId, lastSize, null);
+    }
+
+    /**
+     * Returns a copy of this quote with another timestamp, e.g. the receive time for exchanges that send none.
+     *
+     * @param time the timestamp of the copy.
+     * @return the copy.
+     */
+    public Quote withTime(Instant time) {
+        return new Quote(platform, sequence, product, bestBid, bestBidSize, bestAsk, bestAskSize, price, open24h,
+                volume24h, low24h, high24h, volume30d, side, time, tradeId, lastSize, symbol);
+    }
 }
@@ -0,0 +1,279 @@
+package MarketDataType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Utility class for fixed-point decimals stored as a scaled {@code long} mantissa.
+ * <p>
+ * A value {@code v} with scale {@code s} is stored as the integer {@code v * 10^s}; for example
+ * {@code "1285.04"} at scale 8 becomes {@code 128504000000}. Prices and sizes of market data never need
+ * more than 18 significant digits, so a {@code long} holds them exactly, and arithmetic on the mantissa
+ * needs no allocation.
+ * </p>
+ * <p>
+ * The parsers in this class read ASCII decimal text directly from a character or byte buffer (e.g. a JSON
+ * parser's text buffer or raw payload bytes) without creating a {@link String} or {@link BigDecimal}.
+ * They are lossless: a value with more fractional digits than the requested scale is rejected rather
+ * than rounded. Absent values are represented by {@link #NULL}.
+ * </p>
+ *
+ * <h2>Usage Example:</h2>
+ * <pre>{@code
+ * long bid = ScaledDecimal.parse("25.35190000", 8);        // 2535190000
+ * BigDecimal exact = ScaledDecimal.toBigDecimal(bid, 8);  // 25.35190000
+ * }</pre>
+ */
+public final class ScaledDecimal {
+
+    /**
+     * Sentinel mantissa meaning "no value", the scaled counterpart of a {@code null} {@link BigDecimal}.
+     */
+    public static final long NULL = Long.MIN_VALUE;
+
+    /**
+     * The largest supported scale.
+     */
+    public static final int MAX_SCALE = 18;
+
+    private static final long[] POW10 = new long[MAX_SCALE + 1];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i <= MAX_SCALE; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private ScaledDecimal() {
+    }
+
+    /**
+     * Parses ASCII decimal text from a character buffer into a mantissa of the given scale.
+     *
+     * @param chars  the buffer holding the text.
+     * @param offset the offset of the first character.
+     * @param length the number of characters.
+     * @param scale  the number of fractional digits of the result.
+     * @return the scaled mantissa.
+     * @throws NumberFormatException if the text is not a plain decimal (optional sign, digits, optional point).
+     * @throws ArithmeticException   if the value has more fractional digits than {@code scale}, or overflows.
+     */
+    public static long parse(char[] chars, int offset, int length, int scale) {
+        checkScale(scale);
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        long value = 0;
+        int fractionDigits = -1;
+        boolean anyDigit = false;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c == '.') {
+                if (fractionDigits >= 0) {
+                    throw new NumberFormatException("Multiple decimal points in: " + new String(chars, offset, length));
+                }
+                fractionDigits = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Invalid decimal: " + new String(chars, offset, length));
+            }
+            anyDigit = true;
+            if (fractionDigits >= 0) {
+                if (fractionDigits == scale) {
+                    if (c != '0') {
+                        throw new ArithmeticException("More than " + scale + " fractional digits in: " + new String(chars, offset, length));
+                    }
+                    continue;
+                }
+                fractionDigits++;
+            }
+            value = appendDigit(value, c - '0');
+        }
+        return finish(value, anyDigit, negative, fractionDigits, scale);
+    }
+
+    /**
+     * Parses ASCII decimal text from a byte buffer into a mantissa of the given scale.
+     *
+     * @param bytes  the buffer holding the ASCII text.
+     * @param offset the offset of the first byte.
+     * @param length the number of bytes.
+     * @param scale  the number of fractional digits of the result.
+     * @return the scaled mantissa.
+     * @throws NumberFormatException if the text is not a plain decimal (optional sign, digits, optional point).
+     * @throws ArithmeticException   if the value has more fractional digits than {@code scale}, or overflows.
+     */
+    public static long parse(byte[] bytes, int offset, int length, int scale) {
+        checkScale(scale);
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+        if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        long value = 0;
+        int fractionDigits = -1;
+        boolean anyDigit = false;
+        for (; i < end; i++) {
+            byte b = bytes[i];
+            if (b == '.') {
+                if (fractionDigits >= 0) {
+                    throw new NumberFormatException("Multiple decimal points in: " + new String(bytes, offset, length));
+                }
+                fractionDigits = 0;
+                continue;
+            }
+            if (b < '0' || b > '9') {
+                throw new NumberFormatException("Invalid decimal: " + new String(bytes, offset, length));
+            }
+            anyDigit = true;
+            if (fractionDigits >= 0) {
+                if (fractionDigits == scale) {
+                    if (b != '0') {
+                        throw new ArithmeticException("More than " + scale + " fractional digits in: " + new String(bytes, offset, length));
+                    }
+                    continue;
+                }
+                fractionDigits++;
+            }
+            value = appendDigit(value, b - '0');
+        }
+        return finish(value, anyDigit, negative, fractionDigits, scale);
+    }
+
+    /**
+     * Parses decimal text into a mantissa of the given scale.
+     *
+     * @param text  the decimal text.
+     * @param scale the number of fractional digits of the result.
+     * @return the scaled mantissa.
+     * @throws NumberFormatException if the text is not a plain decimal.
+     * @throws ArithmeticException   if the value has more fractional digits than {@code scale}, or overflows.
+     */
+    public static long parse(CharSequence text, int scale) {
+        char[] chars = new char[text.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = text.charAt(i);
+        }
+        return parse(chars, 0, chars.length, scale);
+    }
+
+    /**
+     * Converts a mantissa to an exact {@link BigDecimal}.
+     *
+     * @param mantissa the scaled mantissa, or {@link #NULL}.
+     * @param scale    the scale of the mantissa.
+     * @return the decimal value, or {@code null} for {@link #NULL}.
+     */
+    public static BigDecimal toBigDecimal(long mantissa, int scale) {
+        return (mantissa == NULL) ? null : BigDecimal.valueOf(mantissa, scale);
+    }
+
+    /**
+     * Converts a {@link BigDecimal} to a mantissa of the given scale.
+     *
+     * @param value the decimal value, or {@code null}.
+     * @param scale the scale of the result.
+     * @return the scaled mantissa, or {@link #NULL} for {@code null}.
+     * @throws ArithmeticException if the value cannot be represented exactly at {@code scale}.
+     */
+    public static long fromBigDecimal(BigDecimal value, int scale) {
+        if (value == null) {
+            return NULL;
+        }
+        checkScale(scale);
+        long mantissa = value.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        if (mantissa == NULL) {
+            throw new ArithmeticException("Value out of range: " + value);
+        }
+        return mantissa;
+    }
+
+    /**
+     * Converts a {@link BigDecimal} to a mantissa of the given scale, or {@link #NULL} if it cannot be represented.
+     * Meant for informational fields, such as 24-hour and 30-day volumes, that should not fail a whole record.
+     *
+     * @param value the decimal value, or {@code null}.
+     * @param scale the scale of the result.
+     * @return the scaled mantissa, or {@link #NULL} for {@code null} or a value that does not fit {@code scale}.
+     */
+    public static long fromBigDecimalOrNull(BigDecimal value, int scale) {
+        try {
+            return fromBigDecimal(value, scale);
+        } catch (ArithmeticException e) {
+            return NULL;
+        }
+    }
+
+    /**
+     * Changes the scale of a mantissa without losing precision, or returns {@link #NULL} if it cannot.
+     *
+     * @param mantissa the scaled mantissa, or {@link #NULL}.
+     * @param from     the current scale.
+     * @param to       the target scale.
+     * @return the mantissa at the target scale, or {@link #NULL} if it is {@link #NULL} or does not fit {@code to}.
+     */
+    public static long rescaleOrNull(long mantissa, int from, int to) {
+        try {
+            return rescale(mantissa, from, to);
+        } catch (ArithmeticException e) {
+            return NULL;
+        }
+    }
+
+    /**
+     * Changes the scale of a mantissa without losing precision.
+     *
+     * @param mantissa the scaled mantissa, or {@link #NULL}.
+     * @param from     the current scale.
+     * @param to       the target scale.
+     * @return the mantissa at the target scale, or {@link #NULL} for {@link #NULL}.
+     * @throws ArithmeticException if reducing the scale would drop non-zero digits, or the result overflows.
+     */
+    public static long rescale(long mantissa, int from, int to) {
+        if (mantissa == NULL || from == to) {
+            return mantissa;
+        }
+        checkScale(from);
+        checkScale(to);
+        if (to > from) {
+            return Math.multiplyExact(mantissa, POW10[to - from]);
+        }
+        long divisor = POW10[from - to];
+        if (mantissa % divisor != 0) {
+            throw new ArithmeticException("Rescaling from " + from + " to " + to + " loses precision.");
+        }
+        return mantissa / divisor;
+    }
+
+    private static long appendDigit(long value, int digit) {
+        if (value > (Long.MAX_VALUE - digit) / 10) {
+            throw new ArithmeticException("Decimal overflows a long mantissa.");
+        }
+        return value * 10 + digit;
+    }
+
+    private static long finish(long value, boolean anyDigit, boolean negative, int fractionDigits, int scale) {
+        if (!anyDigit) {
+            throw new NumberFormatException("Decimal has no digits.");
+        }
+        int pad = scale - Math.max(fractionDigits, 0);
+        if (pad > 0) {
+            value = Math.multiplyExact(value, POW10[pad]);
+        }
+        return negative ? -value : value;
+    }
+
+    private static void checkScale(int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Scale must be between 0 and " + MAX_SCALE + ": " + scale);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package MarketDataType;
+
+import Utils.Timestamps;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.io.Serializable;
+
+/**
+ * A {@link Quote} whose prices and sizes are stored as fixed-point {@code long} mantissas.
+ * <p>
+ * Prices ({@code bestBid}, {@code bestAsk}, {@code price}, {@code open24h}, {@code low24h}, {@code high24h})
+ * use {@code priceScale} fractional digits; sizes and volumes ({@code bestBidSize}, {@code bestAskSize},
+ * {@code volume24h}, {@code volume30d}, {@code lastSize}) use {@code sizeScale}. Both scales come from
+ * {@link ProductScales}. Absent decimals are {@link ScaledDecimal#NULL}; absent timestamps and trade ids are
+ * {@link Timestamps#NONE}.
+ * </p>
+ * <p>
+ * Apart from the record itself and its strings, a scaled quote holds no objects, so parsing one does not
+ * allocate a {@link java.math.BigDecimal} per field. Use {@link #toQuote()} to obtain the exact
+ * {@code BigDecimal} form.
+ * </p>
+ *
+ * @param platform    The name of the exchange/platform providing the quote (e.g., "coinbase", "binance.us").
+ * @param sequence    The sequence number of the quote update.
+ * @param product     The normalized product (e.g., "BTCUSD").
+ * @param priceScale  The number of fractional digits of the price mantissas.
+ * @param sizeScale   The number of fractional digits of the size and volume mantissas.
+ * @param bestBid     The best bid price.
+ * @param bestBidSize The quantity available at the best bid price.
+ * @param bestAsk     The best ask price.
+ * @param bestAskSize The quantity available at the best ask price.
+ * @param price       The last traded price.
+ * @param open24h     The opening price in the last 24 hours.
+ * @param volume24h   The trading volume in the last 24 hours.
+ * @param low24h      The lowest price in the last 24 hours.
+ * @param high24h     The highest price in the last 24 hours.
+ * @param volume30d   The trading volume in the last 30 days.
+ * @param side        The last trade direction ("buy" or "sell").
+ * @param timeNanos   The timestamp of the quote in epoch nanoseconds.
+ * @param tradeId     The identifier of the last executed trade.
+ * @param lastSize    The size of the last executed trade.
+ * @param symbol      The interned symbol of the product, not serialized to JSON; resolved from
+ *                    {@link SymbolTable#getDefault()} when {@code null}, and still {@code null} if the product has not
+ *                    been interned.
+ */
+public record ScaledQuote(
+        String platform,
+        long sequence,
+        String product,
+        int priceScale,
+        int sizeScale,
+        long bestBid,
+        long bestBidSize,
+        long bestAsk,
+        long bestAskSize,
+        long price,
+        long open24h,
+        long volume24h,
+        long low24h,
+        long high24h,
+        long volume30d,
+        String side,
+        long timeNanos,
+        long tradeId,
+        long lastSize,
+        @JsonIgnore Symbol symbol
+) implements Serializable {
+
+    /**
+     * Creates a quote, resolving the symbol of its product once so that {@link #symbol()} is a field read.
+     */
+    public ScaledQuote {
+        if (symbol == null) {
+            symbol = SymbolTable.getDefault().find(platform, product);
+        }
+    }
+
+    /**
+     * Creates a quote whose symbol is looked up from its platform and product.
+     */
+    public ScaledQuote(String platform, long sequence, String product, int priceScale, int sizeScale, long bestBid,
+                       long bestBidSize, long bestAsk, long bestAskSize, long price, long open24h, long volume24h,
+                       long low24h, long high24h, long volume30d, String side, long timeNanos, long tradeId,
+                       long lastSize) {
+        this(platform, sequence, product, priceScale, sizeScale, bestBid, bestBidSize, bestAsk, bestAskSize, price,
+                open24h, volume24h, low24h, high24h, volume30d, side, timeNanos, tradeId, lastSize, null);
+    }
+
+    /**
+     * Converts this quote to its {@link Quote} form.
+     * <p>
+     * Every decimal is converted exactly; its {@code BigDecimal} scale is the product's scale, so values compare
+     * equal to the exchange's text with {@link java.math.BigDecimal#compareTo}.
+     * </p>
+     *
+     * @return the equivalent {@code Quote}.
+     */
+    public Quote toQuote() {
+        return new Quote(
+                platform,
+                sequence,
+                product,
+                ScaledDecimal.toBigDecimal(bestBid, priceScale),
+                ScaledDecimal.toBigDecimal(bestBidSize, sizeScale),
+                ScaledDecimal.toBigDecimal(bestAsk, priceScale),
+                ScaledDecimal.toBigDecimal(bestAskSize, sizeScale),
+                ScaledDecimal.toBigDecimal(price, priceScale),
+                ScaledDecimal.toBigDecimal(open24h, priceScale),
+                ScaledDecimal.toBigDecimal(volume24h, sizeScale),
+                ScaledDecimal.toBigDecimal(low24h, priceScale),
+                ScaledDecimal.toBigDecimal(high24h, priceScale),
+                ScaledDecimal.toBigDecimal(volume30d, sizeScale),
+                side,
+                Timestamps.toInstant(timeNanos),
+                (tradeId == Timestamps.NONE) ? null : String.valueOf(tradeId),
+                ScaledDecimal.toBigDecimal(lastSize, sizeScale),
+                symbol
+        );
+    }
+
+    /**
+     * Converts a {@link Quote} to its scaled form, using the scales registered for its product.
+     *
+     * @param quote the quote to convert.
+     * @return the equivalent scaled quote.
+     * @throws ArithmeticException   if a price or size has more fractional digits than the product's scale; volumes
+     *                               that do not fit become {@link ScaledDecimal#NULL}.
+     * @throws NumberFormatException if the trade id is not numeric.
+     */
+    public static ScaledQuote fromQuote(Quote quote) {
+        return new MutableQuote().set(quote).toScaledQuote();
+    }
+}
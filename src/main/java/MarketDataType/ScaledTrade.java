@@ -0,0 +1,101 @@
+package MarketDataType;
+
+import Utils.Timestamps;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.io.Serializable;
+
+/**
+ * A {@link Trade} whose price and size are stored as fixed-point {@code long} mantissas.
+ * <p>
+ * {@code price} uses {@code priceScale} fractional digits and {@code size} uses {@code sizeScale}; both scales
+ * come from {@link ProductScales}. Absent decimals are {@link ScaledDecimal#NULL}; absent timestamps and trade
+ * ids are {@link Timestamps#NONE}. Use {@link #toTrade()} to obtain the exact {@code BigDecimal} form.
+ * </p>
+ *
+ * @param platform           The name of the exchange/platform where the trade occurred.
+ * @param eventTimeNanos     The time the trade event was published, in epoch nanoseconds.
+ * @param product            The normalized product (e.g., "BTCUSD").
+ * @param tradeId            The unique identifier for the trade.
+ * @param priceScale         The number of fractional digits of the price mantissa.
+ * @param sizeScale          The number of fractional digits of the size mantissa.
+ * @param price              The price at which the trade was executed.
+ * @param size               The quantity of the asset traded.
+ * @param buyerId            The identifier of the buyer in the transaction.
+ * @param sellerId           The identifier of the seller in the transaction.
+ * @param side               Whether the trade was a "buy" or "sell" from the taker's perspective.
+ * @param tradeTimeNanos     The time the trade was executed, in epoch nanoseconds.
+ * @param buyerIsMarketMaker Whether the buyer was the market maker, or {@code null} if unknown.
+ * @param symbol             The interned symbol of the product, not serialized to JSON; resolved from
+ *                           {@link SymbolTable#getDefault()} when {@code null}, and still {@code null} if the product has not
+ *                           been interned.
+ */
+public record ScaledTrade(
+        String platform,
+        long eventTimeNanos,
+        String product,
+        long tradeId,
+        int priceScale,
+        int sizeScale,
+        long price,
+        long size,
+        String buyerId,
+        String sellerId,
+        String side,
+        long tradeTimeNanos,
+        Boolean buyerIsMarketMaker,
+        @JsonIgnore Symbol symbol
+) implements Serializable {
+
+    /**
+     * Creates a trade, resolving the symbol of its product once so that {@link #symbol()} is a field read.
+     */
+    public ScaledTrade {
+        if (symbol == null) {
+            symbol = SymbolTable.getDefault().find(platform, product);
+        }
+    }
+
+    /**
+     * Creates a trade whose symbol is looked up from its platform and product.
+     */
+    public ScaledTrade(String platform, long eventTimeNanos, String product, long tradeId, int priceScale, int sizeScale,
+                       long price, long size, String buyerId, String sellerId, String side, long tradeTimeNanos,
+                       Boolean buyerIsMarketMaker) {
+        this(platform, eventTimeNanos, product, tradeId, priceScale, sizeScale, price, size, buyerId, sellerId, side,
+                tradeTimeNanos, buyerIsMarketMaker, null);
+    }
+
+    /**
+     * Converts this trade to its {@link Trade} form, converting every decimal exactly.
+     *
+     * @return the equivalent {@code Trade}.
+     */
+    public Trade toTrade() {
+        return new Trade(
+                platform,
+                Timestamps.toInstant(eventTimeNanos),
+                product,
+                (tradeId == Timestamps.NONE) ? null : tradeId,
+                ScaledDecimal.toBigDecimal(price, priceScale),
+                ScaledDecimal.toBigDecimal(size, sizeScale),
+                buyerId,
+                sellerId,
+                side,
+                Timestamps.toInstant(tradeTimeNanos),
+                buyerIsMarketMaker,
+                symbol
+        );
+    }
+
+    /**
+     * Converts a {@link Trade} to its scaled form, using the scales registered for its product.
+     *
+     * @param trade the trade to convert.
+     * @return the equivalent scaled trade.
+     * @throws ArithmeticException if a decimal has more fractional digits than the product's scale.
+     */
+    public static ScaledTrade fromTrade(Trade trade) {
+        return new MutableTrade().set(trade).toScaledTrade();
+    }
+}
@@ -0,0 +1,31 @@
+package MarketDataType;
+
+import java.io.Serializable;
+
+/**
+ * A range of an exchange stream's messages that may have been lost, as reported by the producer in a
+ * {@code gap@<exchange>} envelope.
+ * <p>
+ * A gap is not market data: it tells consumers that the records of one product and type between {@code last}
+ * and {@code next} are missing, e.g. so a book built from quotes can be resynchronized.
+ * </p>
+ *
+ * @param platform The exchange of the stream (e.g., "coinbase", "binance.us").
+ * @param type     The type of the stream, {@code "quote"} or {@code "trade"}.
+ * @param product  The product of the stream, as subscribed (e.g., "BTC-USD").
+ * @param last     The sequence number of the last message received before the gap.
+ * @param next     The sequence number of the first message received after it.
+ * @param missing  The number of messages lost, or {@code -1} if the stream's numbers are not contiguous.
+ * @param cause    {@code "sequence"} for a skip within one connection, {@code "reconnect"} for a gap spanning a
+ *                 reconnect.
+ */
+public record SequenceGap(
+        String platform,
+        String type,
+        String product,
+        long last,
+        long next,
+        long missing,
+        String cause
+) implements Serializable {
+}
@@ -0,0 +1,83 @@
+package MarketDataType;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * A canonical, interned product identifier.
+ * <p>
+ * Every distinct product of every exchange is represented by exactly one {@code Symbol}, created by a
+ * {@link SymbolTable}. A symbol carries the exchange's raw spelling (e.g. {@code "BTC-USD"}), the normalized
+ * form used in normalized records (e.g. {@code "BTCUSD"}), and a dense integer id that downstream components can
+ * use as an array index or an int-keyed map key instead of hashing strings.
+ * </p>
+ * <p>
+ * Symbols are compared by identity; two symbols from the same table are equal only if they are the same object.
+ * A deserialized symbol is replaced by the symbol of its product in {@link SymbolTable#getDefault()}, whose id may
+ * differ from the one it was written with.
+ * </p>
+ */
+public final class Symbol implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final int id;
+    private final String platform;
+    private final String raw;
+    private final String normalized;
+
+    Symbol(int id, String platform, String raw, String normalized) {
+        this.id = id;
+        this.platform = platform;
+        this.raw = raw;
+        this.normalized = normalized;
+    }
+
+    /**
+     * Returns the dense id of this symbol, unique within its {@link SymbolTable} and starting at zero.
+     *
+     * @return the id.
+     */
+    public int id() {
+        return id;
+    }
+
+    /**
+     * Returns the exchange this symbol belongs to (e.g. {@code "coinbase"}).
+     *
+     * @return the platform.
+     */
+    public String platform() {
+        return platform;
+    }
+
+    /**
+     * Returns the product as spelled by the exchange (e.g. {@code "BTC-USD"}).
+     *
+     * @return the raw product.
+     */
+    public String raw() {
+        return raw;
+    }
+
+    /**
+     * Returns the normalized product (e.g. {@code "BTCUSD"}). The same {@link String} instance is returned
+     * every time, so records built from this symbol share it.
+     *
+     * @return the normalized product.
+     */
+    public String normalized() {
+        return normalized;
+    }
+
+    @Serial
+    private Object readResolve() {
+        return SymbolTable.getDefault().intern(platform, raw);
+    }
+
+    @Override
+    public String toString() {
+        return platform + ":" + normalized;
+    }
+}
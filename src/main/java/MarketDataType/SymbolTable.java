@@ -0,0 +1,202 @@
+package MarketDataType;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code SymbolTable} interns exchange product identifiers into canonical {@link Symbol}s.
+ * <p>
+ * Parsers look products up straight from the characters of the payload, keyed by platform and raw spelling.
+ * A known product is resolved with a single hash-and-compare over an open-addressing table and allocates
+ * nothing; only the first occurrence of a product creates its {@code Symbol} and its normalized string.
+ * The normalized form removes {@code '-'} and keeps everything else as sent, the mapping the parsers have always
+ * applied, so {@code "BTC-USD"} on Coinbase and {@code "BTCUSD"} on Binance.US both normalize to {@code "BTCUSD"}.
+ * </p>
+ * <p>
+ * Lookups are lock-free; new symbols are added under a lock by replacing the table, which is rare since the
+ * set of traded products is small and stable. Ids are dense, so {@link #get(int)} is an array access.
+ * </p>
+ */
+public final class SymbolTable {
+
+    private static final class DefaultHolder {
+        private static final SymbolTable INSTANCE = new SymbolTable();
+    }
+
+    // Open-addressing table indexed by the hash of platform and raw product; replaced wholesale when it grows.
+    private volatile Symbol[] table = new Symbol[64];
+    private volatile Symbol[] byId = new Symbol[16];
+    private final Map<String, Map<String, Symbol>> byNormalized = new ConcurrentHashMap<>();
+    private int size;
+
+    /**
+     * Returns the process-wide symbol table shared by the payload parsers.
+     *
+     * @return the default table.
+     */
+    public static SymbolTable getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Returns the symbol of a product given as a slice of a character buffer, creating it on first use.
+     *
+     * @param platform the exchange (e.g. {@code "coinbase"}).
+     * @param chars    the buffer holding the raw product.
+     * @param offset   the offset of the first character.
+     * @param length   the number of characters.
+     * @return the canonical symbol.
+     */
+    public Symbol intern(String platform, char[] chars, int offset, int length) {
+        Symbol symbol = lookup(platform, chars, offset, length);
+        return (symbol != null) ? symbol : add(platform, new String(chars, offset, length));
+    }
+
+    /**
+     * Returns the symbol of a product, creating it on first use.
+     *
+     * @param platform the exchange (e.g. {@code "coinbase"}).
+     * @param raw      the product as spelled by the exchange.
+     * @return the canonical symbol.
+     */
+    public Symbol intern(String platform, String raw) {
+        char[] chars = raw.toCharArray();
+        return intern(platform, chars, 0, chars.length);
+    }
+
+    /**
+     * Looks up a product given as a slice of a character buffer, without allocating.
+     *
+     * @param platform the exchange.
+     * @param chars    the buffer holding the raw product.
+     * @param offset   the offset of the first character.
+     * @param length   the number of characters.
+     * @return the symbol, or {@code null} if the product has not been interned.
+     */
+    public Symbol lookup(String platform, char[] chars, int offset, int length) {
+        Symbol[] t = table;
+        int mask = t.length - 1;
+        for (int i = hash(platform, chars, offset, length) & mask; ; i = (i + 1) & mask) {
+            Symbol s = t[i];
+            if (s == null) {
+                return null;
+            }
+            if (s.platform().equals(platform) && matches(s.raw(), chars, offset, length)) {
+                return s;
+            }
+        }
+    }
+
+    /**
+     * Finds the symbol of an exchange with the given normalized product.
+     *
+     * @param platform   the exchange.
+     * @param normalized the normalized product (e.g. {@code "BTCUSD"}).
+     * @return the symbol, or {@code null} if no such product has been interned.
+     */
+    public Symbol find(String platform, String normalized) {
+        if (platform == null || normalized == null) {
+            return null;
+        }
+        Map<String, Symbol> products = byNormalized.get(platform);
+        return (products == null) ? null : products.get(normalized);
+    }
+
+    /**
+     * Retrieves a symbol by id.
+     *
+     * @param id the symbol id.
+     * @return the symbol.
+     * @throws IndexOutOfBoundsException if no symbol has the id.
+     */
+    public Symbol get(int id) {
+        Symbol[] ids = byId;
+        Symbol symbol = (id >= 0 && id < ids.length) ? ids[id] : null;
+        if (symbol == null) {
+            throw new IndexOutOfBoundsException("Unknown symbol id: " + id);
+        }
+        return symbol;
+    }
+
+    /**
+     * Returns the number of interned symbols, which is also the next id to be assigned.
+     *
+     * @return the number of symbols.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Normalizes a product: removes {@code '-'} and keeps the rest unchanged, case included.
+     *
+     * @param raw the product as spelled by an exchange.
+     * @return the normalized product.
+     */
+    public static String normalize(CharSequence raw) {
+        return raw.toString().replace("-", "");
+    }
+
+    private synchronized Symbol add(String platform, String raw) {
+        char[] chars = raw.toCharArray();
+        Symbol existing = lookup(platform, chars, 0, chars.length);
+        if (existing != null) {
+            return existing;
+        }
+        Symbol symbol = new Symbol(size, platform, raw, normalize(raw).intern());
+
+        Symbol[] ids = byId;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[size] = symbol;
+        byId = ids;
+        size++;
+
+        // Keep the load factor at or below one half so probe sequences stay short.
+        Symbol[] t = table;
+        if (size * 2 > t.length) {
+            t = new Symbol[t.length * 2];
+            for (int i = 0; i < size - 1; i++) {
+                insert(t, ids[i]);
+            }
+        } else {
+            t = t.clone();
+        }
+        insert(t, symbol);
+        table = t;
+
+        byNormalized.computeIfAbsent(platform, p -> new ConcurrentHashMap<>()).putIfAbsent(symbol.normalized(), symbol);
+        return symbol;
+    }
+
+    private static void insert(Symbol[] t, Symbol symbol) {
+        int mask = t.length - 1;
+        int i = hash(symbol.platform(), symbol.raw().toCharArray(), 0, symbol.raw().length()) & mask;
+        while (t[i] != null) {
+            i = (i + 1) & mask;
+        }
+        t[i] = symbol;
+    }
+
+    private static int hash(String platform, char[] chars, int offset, int length) {
+        int h = platform.hashCode();
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + chars[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String raw, char[] chars, int offset, int length) {
+        if (raw.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (raw.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
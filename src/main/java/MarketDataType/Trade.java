@@ -1,5 +1,7 @@
 package MarketDataType;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -24,6 +26,9 @@ import java.time.Instant;
  * @param side               Indicates whether the trade was a "buy" or "sell" from the taker's perspective.
  * @param tradeTime          The actual timestamp when the trade was executed on the exchange.
  * @param buyerIsMarketMaker A boolean indicating if the buyer was the market maker in the trade.
+ * @param symbol             The interned symbol of the product, not serialized to JSON; resolved from
+ *                           {@link SymbolTable#getDefault()} when {@code null}, and still {@code null} if the product has not
+ *                           been interned.
  */
 
 public record Trade(
@@ -37,6 +42,24 @@ public record Trade(
         String sellerId,
         String side,
         Instant tradeTime,
-        Boolean buyerIsMarketMaker
+        Boolean buyerIsMarketMaker,
+        @JsonIgnore Symbol symbol
 ) implements Serializable {
+
+    /**
+     * Creates a trade, resolving the symbol of its product once so that {@link #symbol()} is a field read.
+     */
+    public Trade {
+        if (symbol == null) {
+            symbol = SymbolTable.getDefault().find(platform, product);
+        }
+    }
+
+    /**
+     * Creates a trade whose symbol is looked up from its platform and product.
+     */
+    public Trade(String platform, Instant eventTime, String product, Long tradeId, BigDecimal price, BigDecimal size,
+                 String buyerId, String sellerId, String side, Instant tradeTime, Boolean buyerIsMarketMaker) {
+        this(platform, eventTime, product, tradeId, price, size, buyerId, sellerId, side, tradeTime, buyerIsMarketMaker, null);
+    }
 }
@@ -0,0 +1,363 @@
+package Normalizer;
+
+import MarketDataType.MarketDataQueryType;
+import MarketDataType.Quote;
+import MarketDataType.Trade;
+import Normalizer.PayloadParser.ParserRegistry;
+import Utils.Timestamps;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A producer envelope ({@code {"tag": "type@exchange", "ts": ..., "payload": {...}}}) whose payload is decoded only as far as
+ * it is used.
+ * <p>
+ * {@link #parse(String, ParserRegistry)} reads the envelope up to its tag and resolves it; the payload stays in the
+ * raw message, and only its offset is kept. Reading a payload field scans the payload from that offset up to the
+ * field and caches its text (nested objects and arrays as their raw JSON), without converting numbers or building a
+ * record; {@link #has(String)} and {@link #payload()} tokenize the payload's whole top level once. Typed accessors
+ * convert a field's text when asked, and {@link #record()} runs the exchange's full parser once. A stage
+ * that only routes, filters or archives messages therefore never pays for decimal parsing or record allocation:
+ * </p>
+ * <pre>{@code
+ * LazyEnvelope envelope = LazyEnvelope.parse(message);
+ * if (envelope != null && "BTC-USD".equals(envelope.product())) {
+ *     archive.send(envelope.raw());
+ * }
+ * }</pre>
+ * <p>
+ * Instances are not thread-safe.
+ * </p>
+ */
+public final class LazyEnvelope {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String raw;
+    private final ParserRegistry.Binding binding;
+    private final long receivedNanos;
+    // The offset of the payload's opening brace in raw.
+    private final int payloadStart;
+    // Fields read one at a time, missing ones included; a null value is a missing field or a JSON null.
+    private Map<String, String> scanned;
+    // The whole top level, filled by has() and payload(); a null value is a JSON null.
+    private Map<String, String> fields;
+    private int payloadEnd = -1;
+    private Object record;
+    private boolean recordParsed;
+
+    private LazyEnvelope(String raw, ParserRegistry.Binding binding, long receivedNanos, int payloadStart) {
+        this.raw = raw;
+        this.binding = binding;
+        this.receivedNanos = receivedNanos;
+        this.payloadStart = payloadStart;
+    }
+
+    /**
+     * Reads the envelope of a message with the default parser registry.
+     *
+     * @param raw the raw message.
+     * @return the envelope, or {@code null} if the message is not an envelope with a known tag and an object payload.
+     * @throws IOException if the message is malformed JSON before its tag and payload were found.
+     */
+    public static LazyEnvelope parse(String raw) throws IOException {
+        return parse(raw, ParserRegistry.getDefault());
+    }
+
+    /**
+     * Reads the envelope of a message, resolving its tag with the given registry.
+     * <p>
+     * Reading stops at the start of the payload once the tag is known, so the payload is not even tokenized when
+     * the tag comes first, as producers write it.
+     * </p>
+     *
+     * @param raw      the raw message.
+     * @param registry the registry resolving envelope tags.
+     * @return the envelope, or {@code null} if the message is not an envelope with a known tag and an object payload.
+     * @throws IOException if the message is malformed JSON before its tag and payload were found.
+     */
+    public static LazyEnvelope parse(String raw, ParserRegistry registry) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(raw)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            ParserRegistry.Binding binding = null;
+            int payloadStart = -1;
+            long receivedNanos = Timestamps.NONE;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (field.equals("tag")) {
+                    binding = resolve(parser, registry);
+                    if (binding == null) {
+                        return null;
+                    }
+                } else if (field.equals("ts") && value == JsonToken.VALUE_NUMBER_INT) {
+                    receivedNanos = parser.getLongValue();
+                } else if (field.equals("payload")) {
+                    if (value != JsonToken.START_OBJECT) {
+                        return null;
+                    }
+                    payloadStart = offset(parser);
+                    if (binding == null) {
+                        parser.skipChildren();
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+                if (binding != null && payloadStart >= 0) {
+                    break;
+                }
+            }
+            return (binding == null || payloadStart < 0)
+                    ? null : new LazyEnvelope(raw, binding, receivedNanos, payloadStart);
+        }
+    }
+
+    /**
+     * Returns the raw message, unchanged.
+     *
+     * @return the raw message.
+     */
+    public String raw() {
+        return raw;
+    }
+
+    /**
+     * Returns the time the producer received the message, from the envelope's {@code ts} field.
+     *
+     * @return the time in epoch nanoseconds, or {@link Timestamps#NONE} if the envelope is not stamped.
+     */
+    public long receivedNanos() {
+        return receivedNanos;
+    }
+
+    /**
+     * Returns the binding the tag resolved to.
+     *
+     * @return the binding.
+     */
+    public ParserRegistry.Binding binding() {
+        return binding;
+    }
+
+    /**
+     * Returns the envelope's tag, as registered (e.g. {@code "quote@coinbase"}).
+     *
+     * @return the tag.
+     */
+    public String tag() {
+        return binding.tag();
+    }
+
+    /**
+     * Returns the type of the payload.
+     *
+     * @return the type named by the tag.
+     */
+    public MarketDataQueryType type() {
+        return binding.type();
+    }
+
+    /**
+     * Returns the exchange of the message.
+     *
+     * @return the exchange tag of the parser (e.g. {@code "coinbase"}).
+     */
+    public String exchange() {
+        return binding.parser().getTag();
+    }
+
+    /**
+     * Returns the product of the message, read from the exchange's product field.
+     *
+     * @return the product as sent by the exchange (e.g. {@code "BTC-USD"}), or {@code null} if it is missing or the
+     * exchange has no product field.
+     * @throws IOException if the payload is malformed JSON.
+     */
+    public String product() throws IOException {
+        String field = binding.parser().getProductField();
+        return (field == null) ? null : text(field);
+    }
+
+    /**
+     * Returns whether the payload has a top-level field, even if it is {@code null}.
+     *
+     * @param field the field name.
+     * @return {@code true} if the field is present.
+     * @throws IOException if the payload is malformed JSON.
+     */
+    public boolean has(String field) throws IOException {
+        return fields().containsKey(field);
+    }
+
+    /**
+     * Returns a top-level payload field as text: strings unquoted, numbers and booleans as written, objects and
+     * arrays as their raw JSON.
+     *
+     * @param field the field name.
+     * @return the text, or {@code null} if the field is missing or {@code null}.
+     * @throws IOException if the payload is malformed JSON.
+     */
+    public String text(String field) throws IOException {
+        if (fields != null) {
+            return fields.get(field);
+        }
+        if (scanned != null && scanned.containsKey(field)) {
+            return scanned.get(field);
+        }
+        String text = scan(field);
+        if (scanned == null) {
+            scanned = new HashMap<>(4);
+        }
+        scanned.put(field, text);
+        return text;
+    }
+
+    /**
+     * Returns a top-level payload field as an exact decimal, whether it was sent as a string or a number.
+     *
+     * @param field the field name.
+     * @return the decimal, or {@code null} if the field is missing or {@code null}.
+     * @throws IOException           if the payload is malformed JSON.
+     * @throws NumberFormatException if the field is not a decimal.
+     */
+    public BigDecimal decimal(String field) throws IOException {
+        String text = text(field);
+        return (text == null) ? null : new BigDecimal(text);
+    }
+
+    /**
+     * Returns a top-level payload field as a {@code long}, whether it was sent as a string or a number.
+     *
+     * @param field   the field name.
+     * @param missing the value to return if the field is missing or {@code null}.
+     * @return the value.
+     * @throws IOException           if the payload is malformed JSON.
+     * @throws NumberFormatException if the field is not an integer.
+     */
+    public long longValue(String field, long missing) throws IOException {
+        String text = text(field);
+        return (text == null) ? missing : Long.parseLong(text);
+    }
+
+    /**
+     * Returns the payload as raw JSON, without re-serializing it.
+     *
+     * @return the payload object's JSON text.
+     * @throws IOException if the payload is malformed JSON.
+     */
+    public String payload() throws IOException {
+        fields();
+        return raw.substring(payloadStart, payloadEnd);
+    }
+
+    /**
+     * Parses the payload into a record with the exchange's parser, once.
+     *
+     * @return the {@link Quote} or {@link Trade}, or {@code null} if the payload could not be converted.
+     * @throws IOException if the payload is malformed JSON.
+     */
+    public Object record() throws IOException {
+        if (!recordParsed) {
+            try (JsonParser parser = openPayload()) {
+                record = binding.parse(parser);
+            }
+            recordParsed = true;
+        }
+        return record;
+    }
+
+    /**
+     * Scans the payload's top level up to one field, skipping the values before it without decoding them.
+     */
+    private String scan(String field) throws IOException {
+        try (JsonParser parser = openPayload()) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                boolean match = field.equals(parser.currentName());
+                parser.nextToken();
+                if (match) {
+                    return value(parser);
+                }
+                parser.skipChildren();
+            }
+            return null;
+        }
+    }
+
+    private Map<String, String> fields() throws IOException {
+        if (fields != null) {
+            return fields;
+        }
+        Map<String, String> all = new HashMap<>();
+        try (JsonParser parser = openPayload()) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                all.put(field, value(parser));
+            }
+            payloadEnd = payloadStart + offset(parser) + 1;
+        }
+        fields = all;
+        scanned = null;
+        return fields;
+    }
+
+    /**
+     * Returns the text of the value the parser is on, skipping past it if it is an object or array.
+     */
+    private String value(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            int start = payloadStart + offset(parser);
+            parser.skipChildren();
+            return raw.substring(start, payloadStart + offset(parser) + 1);
+        }
+        return (token == JsonToken.VALUE_NULL) ? null : parser.getText();
+    }
+
+    /**
+     * Opens a parser over the raw message from the payload's opening brace, positioned on its
+     * {@link JsonToken#START_OBJECT}. The envelope before the payload is not read again, and offsets reported by the
+     * parser are relative to {@link #payloadStart}.
+     */
+    private JsonParser openPayload() throws IOException {
+        StringReader reader = new StringReader(raw);
+        reader.skip(payloadStart);
+        JsonParser parser = objectMapper.createParser(reader);
+        try {
+            parser.nextToken();
+            return parser;
+        } catch (IOException | RuntimeException e) {
+            parser.close();
+            throw e;
+        }
+    }
+
+    private static int offset(JsonParser parser) {
+        return (int) parser.currentTokenLocation().getCharOffset();
+    }
+
+    private static ParserRegistry.Binding resolve(JsonParser parser, ParserRegistry registry) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            return null;
+        }
+        ParserRegistry.Binding binding = registry.lookup(
+                parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        if (binding != null) {
+            return binding;
+        }
+        try {
+            return registry.resolve(parser.getText());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
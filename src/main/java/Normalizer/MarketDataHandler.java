@@ -0,0 +1,45 @@
+package Normalizer;
+
+import MarketDataType.MutableQuote;
+import MarketDataType.MutableTrade;
+import MarketDataType.SequenceGap;
+
+import java.io.IOException;
+
+/**
+ * Callback receiving normalized market data as reusable flyweights.
+ * <p>
+ * A {@link Normalizer} constructed with a handler fills one {@link MutableQuote} and one {@link MutableTrade}
+ * in place for every message and passes them here, so the normalization path allocates no per-message records.
+ * The flyweights are only valid for the duration of the call; a handler that needs to retain the data must
+ * copy it out (e.g. with {@link MutableQuote#toScaledQuote()} or {@link MutableTrade#copyFrom(MutableTrade)}).
+ * </p>
+ */
+public interface MarketDataHandler {
+
+    /**
+     * Called for every normalized quote.
+     *
+     * @param quote the quote, valid only until this method returns.
+     * @throws IOException if the handler fails to consume the quote; the normalizer stops.
+     */
+    void onQuote(MutableQuote quote) throws IOException;
+
+    /**
+     * Called for every normalized trade.
+     *
+     * @param trade the trade, valid only until this method returns.
+     * @throws IOException if the handler fails to consume the trade; the normalizer stops.
+     */
+    void onTrade(MutableTrade trade) throws IOException;
+
+    /**
+     * Called for every gap the producer reports in one of its streams. The normalizer has already logged it;
+     * the default does nothing.
+     *
+     * @param gap the gap.
+     * @throws IOException if the handler fails to consume the gap; the normalizer stops.
+     */
+    default void onGap(SequenceGap gap) throws IOException {
+    }
+}
@@ -2,61 +2,235 @@ package Normalizer;
 
 import DataChannel.ChannelException;
 import DataChannel.DataChannel;
-import MarketDataType.MarketDataQueryType;
-import Normalizer.PayloadParser.BinanceUsPayloadParser;
-import Normalizer.PayloadParser.CoinbasePayloadParser;
+import MarketDataType.MutableQuote;
+import MarketDataType.MutableTrade;
+import MarketDataType.Quote;
+import MarketDataType.SequenceGap;
+import MarketDataType.Trade;
+import Normalizer.Output.GroupCommitWriter;
+import Normalizer.Output.JsonlSink;
+import Normalizer.Output.Sink;
+import Normalizer.PayloadParser.Parser;
+import Normalizer.PayloadParser.ParserRegistry;
+import Utils.LatencyHistogram;
+import Utils.Timestamps;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The {@code Normalizer} class processes market data messages received from a {@link DataChannel},
- * normalizes them based on the exchange format, and writes the processed data to an output file.
+ * normalizes them based on the exchange format, and writes the processed data to a {@link Sink}.
  * <p>
  * This class supports parsing and normalizing data from different cryptocurrency exchanges such as Binance.US and Coinbase.
+ * Exchanges are resolved through a {@link ParserRegistry}, so adding one does not require changes here.
  * It continuously listens to the channel and processes incoming messages until a poison pill signal is received.
  * </p>
+ * <p>
+ * Messages are decoded with a streaming {@link JsonParser}: the envelope's {@code tag} is read first and the
+ * {@code payload} is handed, still as a token stream, to the exchange's {@link Parser}, so no intermediate
+ * {@link JsonNode} tree is built on the common path.
+ * </p>
+ * <p>
+ * A normalizer constructed with a {@link MarketDataHandler} instead of an output file does not build records at
+ * all: each payload is parsed into a reusable {@link MutableQuote} or {@link MutableTrade} owned by this
+ * normalizer and handed to the handler, which keeps the steady-state path free of per-message garbage.
+ * </p>
+ * <p>
+ * The sink chooses the output format: JSON lines by default, or binary rows, a Chronicle queue or another channel
+ * (see {@link Sink}). Messages are taken from the channel in batches, and the sink is told at the end of every
+ * batch that left the channel empty, so buffered records reach their destination promptly without one write
+ * per record.
+ * </p>
+ * <p>
+ * The latency of each message is recorded per {@link Stage}, measured against the receive time producers stamp on
+ * envelopes ({@code ts}). Quotes whose exchange sends no time, such as Binance.US book tickers, are given that
+ * receive time rather than the time they happen to be normalized.
+ * </p>
+ * <p>
+ * Envelopes tagged {@code gap@<exchange>}, which producers send when they detect lost messages in a stream, are
+ * read into a {@link SequenceGap}, logged as a warning and passed to {@link Sink#write(SequenceGap)} or
+ * {@link MarketDataHandler#onGap(SequenceGap)}. They are not counted in the latency stages.
+ * </p>
  */
 public class Normalizer implements Runnable {
 
+    /**
+     * The stages whose latency a normalizer records; see {@link #latency(Stage)}. Stages measured from the
+     * producer's receive time include the producer's own share and, across processes, the difference between the
+     * processes' clocks.
+     */
+    public enum Stage {
+        /**
+         * From the producer receiving a message to this normalizer taking it from the channel.
+         */
+        QUEUE,
+        /**
+         * Reading the envelope and parsing the payload.
+         */
+        PARSE,
+        /**
+         * Writing the record to the sink, or handing the flyweight to the handler.
+         */
+        SINK,
+        /**
+         * From the producer receiving a message to its record being written or handled.
+         */
+        END_TO_END
+    }
+
+
     private final DataChannel channel;
-    private final BufferedWriter writer;
+    private final Sink sink;
+    private final MarketDataHandler handler;
     private final ObjectMapper objectMapper;
+    private final ParserRegistry registry;
+    private final MutableQuote quote = new MutableQuote();
+    private final MutableTrade trade = new MutableTrade();
+    private final PayloadReader<Object> recordReader = ParserRegistry.Binding::parse;
+    private final PayloadReader<Object> flyweightReader = this::dispatch;
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Stage.values().length];
+    // The receive time of the message being processed, and when its payload was parsed.
+    private long receivedNanos;
+    private long parsedNanos;
     private volatile boolean running = true;
 
     /**
      * Special message that signals the normalizer to stop processing.
      */
     public static final String POISON_PILL = "POISON_PILL";
+    /**
+     * The largest number of messages taken from the channel at once.
+     */
+    public static final int MAX_BATCH = 256;
     private static final Logger logger = LogManager.getLogger(Normalizer.class);
+    // Returned by parse() for gap envelopes, which have already been handed on.
+    private static final Object GAP = new Object();
 
     /**
      * Constructs a {@code Normalizer} that reads data from a {@link DataChannel} and writes
-     * the normalized output to a specified file.
+     * the normalized output to a specified file, group-committed in
+     * {@link GroupCommitWriter.DurabilityMode#PERIODIC} mode.
      *
      * @param channel        the input channel to receive raw market data.
      * @param outputFilePath the file path where normalized data will be written.
      * @throws IOException if there is an error creating or opening the file.
      */
     public Normalizer(DataChannel channel, String outputFilePath) throws IOException {
+        this(channel, outputFilePath, ParserRegistry.getDefault());
+    }
+
+    /**
+     * Constructs a {@code Normalizer} that dispatches payloads through the given parser registry.
+     *
+     * @param channel        the input channel to receive raw market data.
+     * @param outputFilePath the file path where normalized data will be written.
+     * @param registry       the registry resolving envelope tags to payload parsers.
+     * @throws IOException if there is an error creating or opening the file.
+     */
+    public Normalizer(DataChannel channel, String outputFilePath, ParserRegistry registry) throws IOException {
+        this(channel, new JsonlSink(Path.of(outputFilePath)), registry);
+    }
+
+    /**
+     * Constructs a {@code Normalizer} that writes the normalized output through the given writer.
+     * The normalizer takes ownership of the writer and closes it when it stops.
+     *
+     * @param channel the input channel to receive raw market data.
+     * @param writer  the writer receiving one JSON line per normalized record.
+     */
+    public Normalizer(DataChannel channel, GroupCommitWriter writer) {
+        this(channel, writer, ParserRegistry.getDefault());
+    }
+
+    /**
+     * Constructs a {@code Normalizer} that writes the normalized output through the given writer,
+     * dispatching payloads through the given parser registry.
+     *
+     * @param channel  the input channel to receive raw market data.
+     * @param writer   the writer receiving one JSON line per normalized record.
+     * @param registry the registry resolving envelope tags to payload parsers.
+     */
+    public Normalizer(DataChannel channel, GroupCommitWriter writer, ParserRegistry registry) {
+        this(channel, new JsonlSink(writer), registry);
+    }
+
+    /**
+     * Constructs a {@code Normalizer} that writes the normalized records to the given sink.
+     * The normalizer takes ownership of the sink and closes it when it stops.
+     *
+     * @param channel the input channel to receive raw market data.
+     * @param sink    the sink receiving every normalized record.
+     */
+    public Normalizer(DataChannel channel, Sink sink) {
+        this(channel, sink, ParserRegistry.getDefault());
+    }
+
+    /**
+     * Constructs a {@code Normalizer} that writes the normalized records to the given sink,
+     * dispatching payloads through the given parser registry.
+     *
+     * @param channel  the input channel to receive raw market data.
+     * @param sink     the sink receiving every normalized record.
+     * @param registry the registry resolving envelope tags to payload parsers.
+     */
+    public Normalizer(DataChannel channel, Sink sink, ParserRegistry registry) {
+        this(channel, sink, null, registry);
+    }
+
+    /**
+     * Constructs a {@code Normalizer} that hands normalized data to a handler as reusable flyweights.
+     *
+     * @param channel the input channel to receive raw market data.
+     * @param handler the callback receiving each normalized quote and trade.
+     */
+    public Normalizer(DataChannel channel, MarketDataHandler handler) {
+        this(channel, handler, ParserRegistry.getDefault());
+    }
+
+    /**
+     * Constructs a {@code Normalizer} that hands normalized data to a handler as reusable flyweights,
+     * dispatching payloads through the given parser registry.
+     *
+     * @param channel  the input channel to receive raw market data.
+     * @param handler  the callback receiving each normalized quote and trade.
+     * @param registry the registry resolving envelope tags to payload parsers.
+     */
+    public Normalizer(DataChannel channel, MarketDataHandler handler, ParserRegistry registry) {
+        this(channel, null, handler, registry);
+    }
+
+    private Normalizer(DataChannel channel, Sink sink, MarketDataHandler handler, ParserRegistry registry) {
         this.channel = channel;
-        this.writer = Files.newBufferedWriter(
-                Path.of(outputFilePath),
-                StandardOpenOption.CREATE,
-                StandardOpenOption.APPEND
-        );
+        this.registry = registry;
+        this.handler = handler;
+        this.sink = sink;
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
+        for (Stage stage : Stage.values()) {
+            latencies[stage.ordinal()] = new LatencyHistogram("normalizer." + stage.name().toLowerCase());
+        }
+    }
+
+    /**
+     * Returns the latency this normalizer has recorded for a stage. Messages whose envelope carries no receive
+     * time are not counted in the stages measured from it.
+     *
+     * @param stage the stage.
+     * @return the histogram of the stage's latency.
+     */
+    public LatencyHistogram latency(Stage stage) {
+        return latencies[stage.ordinal()];
     }
 
 
@@ -66,82 +240,301 @@ public class Normalizer implements Runnable {
 
     /**
      * Continuously listens for incoming messages from the data channel, processes them,
-     * and writes normalized data to the output file.
+     * and writes normalized data to the sink.
      * <p>
-     * If a poison pill message is received, the normalizer stops processing.
+     * Up to {@link #MAX_BATCH} messages are taken from the channel at a time. When a batch comes back smaller than
+     * that, the channel is momentarily empty and pending output is committed. If a poison pill message is
+     * received, the normalizer processes the messages before it, stops, and closes its output.
      * </p>
      */
     @Override
     public void run() {
-        while (running && !Thread.currentThread().isInterrupted()) {
-            try {
-                String rawData = channel.receive();
-                if (POISON_PILL.equals(rawData)) {
-                    logger.info("Received poison pill. Normalizer stopping.");
+        List<String> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            while (running && !Thread.currentThread().isInterrupted()) {
+                try {
+                    batch.clear();
+                    int received = channel.receiveBatch(batch, MAX_BATCH);
+                    for (String rawData : batch) {
+                        if (POISON_PILL.equals(rawData)) {
+                            logger.info("Received poison pill. Normalizer stopping.");
+                            return;
+                        }
+                        process(rawData);
+                        logger.debug("Processed data: {}", rawData);
+                    }
+                    if (received < MAX_BATCH && sink != null) {
+                        sink.endOfBatch();
+                    }
+                } catch (ChannelException e) {
+                    logger.info("Error reading from channel: {}", e.getMessage());
+                    break;
+                } catch (IOException e) {
+                    logger.error("Failed to write output; normalizer stopping: {}", e.getMessage());
                     break;
                 }
-                if (rawData == null) {
-                    continue;
-                }
-                process(rawData);
-                logger.info("Processed data: {}", rawData);
-            } catch (ChannelException | IOException e) {
-                logger.info("Error reading from channel: {}", e.getMessage());
-                break;
             }
+        } finally {
+            closeSink();
+        }
+    }
+
+    private void closeSink() {
+        if (sink == null) {
+            return;
+        }
+        try {
+            sink.close();
+        } catch (IOException e) {
+            logger.error("Failed to close output: {}", e.getMessage());
         }
     }
 
     /**
-     * Parses and processes raw JSON data, normalizes it, and writes the output to a file.
+     * Parses and processes raw JSON data, normalizes it, and writes the output to the sink.
      *
      * @param rawData the raw JSON string received from the channel.
-     * @throws IOException if an error occurs while writing to the file.
+     * @throws IOException if an error occurs while writing to the sink.
      */
     private void process(String rawData) throws IOException {
-        JsonNode jsonNode = objectMapper.readTree(rawData);
-        var obj = parse(jsonNode);
-        if (obj != null) {
-            String output = objectMapper.writeValueAsString(obj);
-            writer.write(output);
-            writer.newLine();
-            writer.flush();
-        } else {
+        long dequeuedNanos = Timestamps.monotonicNow();
+        receivedNanos = Timestamps.NONE;
+        if (handler != null) {
+            try (JsonParser parser = objectMapper.createParser(rawData)) {
+                Object result = parse(parser, flyweightReader, GAP);
+                if (result == GAP) {
+                    return;
+                }
+                if (result != Boolean.TRUE) {
+                    logger.error("Failed to normalize message; nothing dispatched.");
+                    return;
+                }
+            } catch (JsonProcessingException e) {
+                logger.error("Malformed message: {}", e.getOriginalMessage());
+                return;
+            }
+            recordLatency(dequeuedNanos);
+            return;
+        }
+        Object obj;
+        try (JsonParser parser = objectMapper.createParser(rawData)) {
+            obj = parse(parser, recordReader, GAP);
+        } catch (JsonProcessingException e) {
+            logger.error("Malformed message: {}", e.getOriginalMessage());
+            return;
+        }
+        if (obj == GAP) {
+            return;
+        }
+        parsedNanos = Timestamps.monotonicNow();
+        if (obj instanceof Quote quote) {
+            sink.write((quote.time() == null) ? quote.withTime(Timestamps.toInstant(receiveTime())) : quote);
+        } else if (obj instanceof Trade trade) {
+            sink.write(trade);
+        } else if (obj == null) {
             logger.error("Parsed object is null; nothing to write.");
+            return;
+        } else {
+            logger.error("Unsupported record type {}; nothing to write.", obj.getClass().getName());
+            return;
         }
+        recordLatency(dequeuedNanos);
     }
 
     /**
-     * Extracts and parses data based on the exchange type and market data type.
+     * Returns the receive time of the message being processed, or the current time if it was not stamped.
+     */
+    private long receiveTime() {
+        return (receivedNanos == Timestamps.NONE) ? Timestamps.now() : receivedNanos;
+    }
+
+    private void recordLatency(long dequeuedNanos) {
+        long writtenNanos = Timestamps.monotonicNow();
+        latencies[Stage.QUEUE.ordinal()].recordInterval(receivedNanos, dequeuedNanos);
+        latencies[Stage.PARSE.ordinal()].record(parsedNanos - dequeuedNanos);
+        latencies[Stage.SINK.ordinal()].record(writtenNanos - parsedNanos);
+        latencies[Stage.END_TO_END.ordinal()].recordInterval(receivedNanos, writtenNanos);
+    }
+
+    /**
+     * Parses a payload into this normalizer's flyweight and passes it to the handler.
+     *
+     * @param binding the binding of the envelope's tag.
+     * @param payload the streaming parser positioned at the start of the payload object.
+     * @return {@code true} if the payload was parsed and dispatched.
+     * @throws IOException if the payload JSON is malformed or the handler fails.
+     */
+    private Boolean dispatch(ParserRegistry.Binding binding, JsonParser payload) throws IOException {
+        Parser parser = binding.parser();
+        switch (binding.type()) {
+            case QUOTE -> {
+                if (!parser.parseQuoteInto(payload, quote)) {
+                    return false;
+                }
+                if (quote.timeNanos() == Timestamps.NONE) {
+                    quote.timeNanos(receiveTime());
+                }
+                parsedNanos = Timestamps.monotonicNow();
+                handler.onQuote(quote);
+            }
+            case TRADE -> {
+                if (!parser.parseTradeInto(payload, trade)) {
+                    return false;
+                }
+                parsedNanos = Timestamps.monotonicNow();
+                handler.onTrade(trade);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the envelope ({@code {"tag": ..., "ts": ..., "payload": {...}}}) from a streaming parser and parses
+     * the payload with the parser selected by the tag. The receive time {@code ts} is optional.
+     * <p>
+     * The payload is normally streamed directly. If it appears before the tag, it is buffered as a tree
+     * and streamed once the tag is known. Gap envelopes are handed on by {@link #onGap(String, JsonParser)}
+     * instead of the reader.
+     * </p>
      *
-     * @param root the root JSON node containing market data.
-     * @return a parsed and normalized market data object, or {@code null} if parsing fails.
-     */
-    private Object parse(JsonNode root) {
-        String tag = root.get("tag").asText();
-        JsonNode payloadNode = root.get("payload");
-        Pattern pattern = Pattern.compile("([^@]+)@([^@]+)");
-        Matcher matcher = pattern.matcher(tag);
-        if (!matcher.matches()) {
-            logger.error("Invalid tag format: {}", tag);
+     * @param parser    the streaming parser over the raw message.
+     * @param reader    reads the payload once its binding is known.
+     * @param gapResult the result to return once a gap envelope has been handled.
+     * @param <T>       the result type of the reader.
+     * @return the reader's result, {@code gapResult}, or {@code null} if the envelope is invalid.
+     * @throws IOException if the JSON is malformed, or the sink or handler fails.
+     */
+    private <T> T parse(JsonParser parser, PayloadReader<T> reader, T gapResult) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            logger.error("Message is not a JSON object.");
             return null;
         }
-        String typeStr = matcher.group(1);
-        String exchange = matcher.group(2);
+        ParserRegistry.Binding binding = null;
+        String gapPlatform = null;
+        JsonNode bufferedPayload = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "tag" -> {
+                    if (value == JsonToken.VALUE_STRING && ParserRegistry.isGapTag(
+                            parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength())) {
+                        gapPlatform = ParserRegistry.gapExchange(parser.getText());
+                        continue;
+                    }
+                    binding = resolve(parser);
+                    if (binding == null) {
+                        return null;
+                    }
+                }
+                case "ts" -> receivedNanos = parser.getValueAsLong(Timestamps.NONE);
+                case "payload" -> {
+                    if (value != JsonToken.START_OBJECT) {
+                        logger.error("Payload is not a JSON object.");
+                        return null;
+                    }
+                    if (gapPlatform != null) {
+                        return onGap(gapPlatform, parser) ? gapResult : null;
+                    } else if (binding == null) {
+                        bufferedPayload = parser.readValueAsTree();
+                    } else {
+                        return reader.read(binding, parser);
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if ((binding == null && gapPlatform == null) || bufferedPayload == null) {
+            logger.error("Message is missing its tag or payload.");
+            return null;
+        }
+        try (JsonParser payloadParser = bufferedPayload.traverse(objectMapper)) {
+            payloadParser.nextToken();
+            if (gapPlatform != null) {
+                return onGap(gapPlatform, payloadParser) ? gapResult : null;
+            }
+            return reader.read(binding, payloadParser);
+        }
+    }
 
+    /**
+     * Reads the payload of a gap envelope, logs the gap and passes it to the sink or handler.
+     *
+     * @param platform the exchange named by the envelope's tag.
+     * @param payload  the streaming parser positioned at the start of the payload object.
+     * @return {@code true} if the gap was read and handed on, {@code false} if the payload does not describe one.
+     * @throws IOException if the payload JSON is malformed, or the sink or handler fails.
+     */
+    private boolean onGap(String platform, JsonParser payload) throws IOException {
+        String type = null;
+        String product = null;
+        String cause = null;
+        long last = -1;
+        long next = -1;
+        long missing = -1;
+        while (payload.nextToken() == JsonToken.FIELD_NAME) {
+            String field = payload.currentName();
+            payload.nextToken();
+            switch (field) {
+                case "type" -> type = payload.getValueAsString();
+                case "product" -> product = payload.getValueAsString();
+                case "last" -> last = payload.getValueAsLong(-1);
+                case "next" -> next = payload.getValueAsLong(-1);
+                case "missing" -> missing = payload.getValueAsLong(-1);
+                case "cause" -> cause = payload.getValueAsString();
+                default -> payload.skipChildren();
+            }
+        }
+        if (type == null || product == null) {
+            logger.error("Gap on {} is missing its type or product.", platform);
+            return false;
+        }
+        SequenceGap gap = new SequenceGap(platform, type, product, last, next, missing, cause);
+        logger.warn("Gap in {} {} on {}: {} to {}, {} missing ({})", type, product, platform, last, next, missing, cause);
+        if (handler != null) {
+            handler.onGap(gap);
+        } else {
+            sink.write(gap);
+        }
+        return true;
+    }
+
+    /**
+     * Resolves the tag the parser is positioned on to the parser and type that handle it.
+     * <p>
+     * Known tags are looked up directly in the parser's character buffer, so dispatch allocates nothing.
+     * </p>
+     *
+     * @param parser the streaming parser positioned on the tag value.
+     * @return the binding of the tag, or {@code null} if the tag is invalid or unsupported.
+     * @throws IOException if the tag cannot be read.
+     */
+    private ParserRegistry.Binding resolve(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            ParserRegistry.Binding binding = registry.lookup(
+                    parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            if (binding != null) {
+                return binding;
+            }
+        }
+        String tag = parser.getValueAsString();
+        if (tag == null) {
+            logger.error("Tag is not a string.");
+            return null;
+        }
         try {
-            MarketDataQueryType type = MarketDataQueryType.fromString(typeStr);
-            return switch (exchange) {
-                case "binance.us" -> new BinanceUsPayloadParser().parse(type, payloadNode);
-                case "coinbase" -> new CoinbasePayloadParser().parse(type, payloadNode);
-                default -> {
-                    logger.error("Unsupported exchange: {}", exchange);
-                    yield null;
-                }
-            };
+            return registry.resolve(tag);
         } catch (IllegalArgumentException e) {
-            logger.error("Failed to parse type: {}", typeStr);
+            logger.error(e.getMessage());
             return null;
         }
     }
+
+    /**
+     * Reads a payload with the binding selected by the envelope's tag.
+     */
+    @FunctionalInterface
+    private interface PayloadReader<T> {
+        T read(ParserRegistry.Binding binding, JsonParser payload) throws IOException;
+    }
 }
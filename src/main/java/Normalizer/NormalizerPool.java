@@ -0,0 +1,515 @@
+package Normalizer;
+
+import DataChannel.BlockingQueueChannel;
+import DataChannel.ChannelException;
+import DataChannel.DataChannel;
+import MarketDataType.Quote;
+import MarketDataType.SequenceGap;
+import MarketDataType.Trade;
+import Normalizer.Output.Sink;
+import Normalizer.PayloadParser.ParserRegistry;
+import Utils.ExecutionMode;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Normalizes the messages of one {@link DataChannel} on several threads while keeping the messages of each product
+ * in order.
+ * <p>
+ * A single {@link Normalizer} is bound to one core. The pool runs {@code N} normalizers, each reading from its own
+ * bounded {@link BlockingQueueChannel}, and a router on the thread calling {@link #run()} that takes batches from
+ * the input channel and sends every message to the worker chosen by a hash of its exchange and product. The router
+ * reads messages as {@link LazyEnvelope}s and only scans each payload up to its product field (see
+ * {@link Normalizer.PayloadParser.Parser#getProductField()}), so it stays far cheaper than normalization itself.
+ * All messages of a product are normalized by the same worker in arrival order; messages whose product cannot be
+ * read go to the worker of their exchange, and malformed messages to the first worker, which logs them. Gap
+ * envelopes ({@code gap@<exchange>}) go to the worker of the product they report, behind the messages that
+ * preceded them.
+ * </p>
+ * <p>
+ * Output is configured per worker or shared:
+ * </p>
+ * <ul>
+ *     <li>{@link Builder#sinks(SinkFactory)} - each worker writes its own sink (e.g. one file per worker). This
+ *     scales with the number of workers.</li>
+ *     <li>{@link Builder#sink(Sink)} - all workers write one sink, one record at a time. Per-product order is kept
+ *     in the merged output, but serialization inside the sink runs under the sink's lock.</li>
+ *     <li>{@link Builder#handlers(HandlerFactory)} - each worker hands flyweights to its own handler.</li>
+ * </ul>
+ * <p>
+ * The pool stops when it receives {@link Normalizer#POISON_PILL}, when the input channel fails, or when a worker
+ * has stopped because its output failed. On stopping it passes the poison pill to every worker, waits for them to
+ * drain their queues and closes the sinks. The router never blocks on a worker's queue: while a queue is full it
+ * waits in short pauses and checks that the worker is still running, so a worker that fails with a full queue
+ * stops the pool instead of hanging it.
+ * </p>
+ *
+ * <b>Usage Example:</b>
+ * <pre>{@code
+ * NormalizerPool pool = NormalizerPool.builder(channel)
+ *         .workers(4)
+ *         .sinks(worker -> new JsonlSink(Path.of("normalized-" + worker + ".jsonl")))
+ *         .build();
+ * new Thread(pool).start();
+ * }</pre>
+ */
+public class NormalizerPool implements Runnable {
+
+    /**
+     * Creates the sink of one worker.
+     */
+    @FunctionalInterface
+    public interface SinkFactory {
+        /**
+         * Creates the sink of a worker. The worker takes ownership of it.
+         *
+         * @param worker the index of the worker, from {@code 0}.
+         * @return the sink.
+         * @throws IOException if the sink cannot be opened.
+         */
+        Sink create(int worker) throws IOException;
+    }
+
+    /**
+     * Creates the handler of one worker.
+     */
+    @FunctionalInterface
+    public interface HandlerFactory {
+        /**
+         * Creates the handler of a worker. Each handler is called from its worker's thread only.
+         *
+         * @param worker the index of the worker, from {@code 0}.
+         * @return the handler.
+         */
+        MarketDataHandler create(int worker);
+    }
+
+    /**
+     * The default capacity of each worker's queue, in messages.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 4096;
+
+    private static final Logger logger = LogManager.getLogger(NormalizerPool.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    // How long the router pauses before looking again at a full worker queue.
+    private static final long FULL_QUEUE_PAUSE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final DataChannel channel;
+    private final ParserRegistry registry;
+    private final ExecutionMode mode;
+    private final BlockingQueueChannel[] queues;
+    private final Normalizer[] normalizers;
+    private final Sink sharedSink;
+    private volatile boolean running = true;
+
+    private NormalizerPool(Builder builder) throws IOException {
+        this.channel = builder.channel;
+        this.registry = builder.registry;
+        this.mode = builder.mode;
+        this.sharedSink = builder.sink;
+        int workers = builder.workers;
+        this.queues = new BlockingQueueChannel[workers];
+        this.normalizers = new Normalizer[workers];
+        Sink shared = (sharedSink == null) ? null : new SharedSink(sharedSink);
+        List<Sink> created = new ArrayList<>();
+        try {
+            for (int i = 0; i < workers; i++) {
+                queues[i] = new BlockingQueueChannel(builder.queueCapacity);
+                if (builder.handlers != null) {
+                    normalizers[i] = new Normalizer(queues[i], builder.handlers.create(i), registry);
+                } else {
+                    Sink sink = (shared != null) ? shared : builder.sinks.create(i);
+                    created.add(sink);
+                    normalizers[i] = new Normalizer(queues[i], sink, registry);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            if (shared == null) {
+                for (Sink sink : created) {
+                    try {
+                        sink.close();
+                    } catch (IOException suppressed) {
+                        e.addSuppressed(suppressed);
+                    }
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a new {@link Builder} for a pool reading from the given channel.
+     *
+     * @param channel the input channel to receive raw market data.
+     * @return a new builder.
+     */
+    public static Builder builder(DataChannel channel) {
+        return new Builder(channel);
+    }
+
+    /**
+     * Returns the number of workers.
+     *
+     * @return the number of workers.
+     */
+    public int workers() {
+        return normalizers.length;
+    }
+
+    /**
+     * Asks the router to stop. The router checks the request between batches, so one waiting for input stops only
+     * when the next batch arrives; to stop a pool whose input may stay idle, send it {@link Normalizer#POISON_PILL}
+     * or interrupt the thread running it. The workers drain what was routed to them and stop.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Starts the workers and routes messages to them until a poison pill is received, the pool is stopped or
+     * interrupted, or a worker has failed. Then stops the workers, waits for them and closes the output.
+     */
+    @Override
+    public void run() {
+        Thread[] threads = new Thread[normalizers.length];
+        for (int i = 0; i < normalizers.length; i++) {
+            threads[i] = mode.start("normalizer-" + i, normalizers[i]);
+        }
+        List<String> batch = new ArrayList<>(Normalizer.MAX_BATCH);
+        List<List<String>> routed = new ArrayList<>(normalizers.length);
+        for (int i = 0; i < normalizers.length; i++) {
+            routed.add(new ArrayList<>());
+        }
+        try {
+            route:
+            while (running && !Thread.currentThread().isInterrupted()) {
+                batch.clear();
+                channel.receiveBatch(batch, Normalizer.MAX_BATCH);
+                boolean poisoned = false;
+                for (String rawData : batch) {
+                    if (Normalizer.POISON_PILL.equals(rawData)) {
+                        logger.info("Received poison pill. Normalizer pool stopping.");
+                        poisoned = true;
+                        break;
+                    }
+                    routed.get(route(rawData)).add(rawData);
+                }
+                for (int i = 0; i < normalizers.length; i++) {
+                    List<String> messages = routed.get(i);
+                    if (messages.isEmpty()) {
+                        continue;
+                    }
+                    if (!deliver(i, threads[i], messages)) {
+                        logger.error("Normalizer worker {} has stopped; stopping the pool.", i);
+                        break route;
+                    }
+                    messages.clear();
+                }
+                if (poisoned) {
+                    break;
+                }
+            }
+        } catch (ChannelException e) {
+            logger.info("Error reading from channel: {}", e.getMessage());
+        } finally {
+            shutdown(threads);
+        }
+    }
+
+    /**
+     * Sends messages to a worker's queue as room frees up, without blocking on a full queue. The router is the only
+     * sender, so a queue with room accepts that many messages at once.
+     *
+     * @param worker   the index of the worker.
+     * @param thread   the worker's thread.
+     * @param messages the messages.
+     * @return {@code true} if all messages were sent, {@code false} if the worker stopped first.
+     * @throws ChannelException if the router is interrupted while the queue is full.
+     */
+    private boolean deliver(int worker, Thread thread, List<String> messages) throws ChannelException {
+        int sent = 0;
+        while (sent < messages.size()) {
+            if (!thread.isAlive()) {
+                return false;
+            }
+            int room = Math.min(queues[worker].remainingCapacity(), messages.size() - sent);
+            if (room > 0) {
+                queues[worker].sendBatch(messages.subList(sent, sent + room));
+                sent += room;
+                continue;
+            }
+            LockSupport.parkNanos(FULL_QUEUE_PAUSE_NANOS);
+            if (Thread.currentThread().isInterrupted()) {
+                throw new ChannelException("Interrupted while waiting for normalizer worker " + worker + ".");
+            }
+        }
+        return true;
+    }
+
+    private void shutdown(Thread[] threads) {
+        // Cleared so the workers can still be handed the poison pill; restored at the end.
+        boolean interrupted = Thread.interrupted();
+        for (int i = 0; i < queues.length; i++) {
+            try {
+                if (!deliver(i, threads[i], List.of(Normalizer.POISON_PILL))) {
+                    logger.debug("Normalizer worker {} had already stopped.", i);
+                }
+            } catch (ChannelException e) {
+                logger.error("Failed to stop normalizer worker {}: {}", i, e.getMessage());
+            }
+        }
+        for (Thread thread : threads) {
+            while (true) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (sharedSink != null) {
+            try {
+                sharedSink.close();
+            } catch (IOException e) {
+                logger.error("Failed to close output: {}", e.getMessage());
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Chooses the worker of a message from the exchange of its tag and the product in its payload.
+     *
+     * @param rawData the raw message.
+     * @return the index of the worker.
+     */
+    int route(String rawData) {
+        try {
+            LazyEnvelope envelope = LazyEnvelope.parse(rawData, registry);
+            if (envelope == null) {
+                return routeGap(rawData);
+            }
+            return worker(envelope.exchange(), envelope.product());
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Chooses the worker of a message that has no binding: the worker of the product a gap envelope reports, so
+     * the gap is handled after the messages of that product that preceded it, or the first worker otherwise.
+     * Gaps are rare, so the message is simply read as a tree.
+     *
+     * @param rawData the raw message.
+     * @return the index of the worker.
+     * @throws IOException if the message is malformed JSON.
+     */
+    private int routeGap(String rawData) throws IOException {
+        JsonNode message = objectMapper.readTree(rawData);
+        String tag = message.path("tag").textValue();
+        String exchange = (tag == null) ? null : ParserRegistry.gapExchange(tag);
+        String product = message.path("payload").path("product").textValue();
+        if (exchange == null || product == null) {
+            return 0;
+        }
+        // Producers report gaps in the product's subscribed spelling, which some exchanges lower-case, while
+        // payloads name it in upper case.
+        return worker(exchange, product.toUpperCase(Locale.ROOT));
+    }
+
+    private int worker(String exchange, String product) {
+        int hash = exchange.hashCode() * 31 + ((product == null) ? 0 : product.hashCode());
+        return Math.floorMod(hash ^ (hash >>> 16), normalizers.length);
+    }
+
+    /**
+     * Serializes the writes of all workers to one sink. Closing is left to the pool, after every worker stopped.
+     */
+    private static final class SharedSink implements Sink {
+
+        private final Sink sink;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        SharedSink(Sink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void write(Quote quote) throws IOException {
+            lock.lock();
+            try {
+                sink.write(quote);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void write(Trade trade) throws IOException {
+            lock.lock();
+            try {
+                sink.write(trade);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void write(SequenceGap gap) throws IOException {
+            lock.lock();
+            try {
+                sink.write(gap);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void endOfBatch() throws IOException {
+            lock.lock();
+            try {
+                sink.endOfBatch();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Builder for {@link NormalizerPool}. Exactly one of {@link #sinks(SinkFactory)}, {@link #sink(Sink)} and
+     * {@link #handlers(HandlerFactory)} must be set.
+     */
+    public static class Builder {
+        private final DataChannel channel;
+        private int workers = Runtime.getRuntime().availableProcessors();
+        private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        private ParserRegistry registry = ParserRegistry.getDefault();
+        private ExecutionMode mode = ExecutionMode.PLATFORM;
+        private SinkFactory sinks;
+        private Sink sink;
+        private HandlerFactory handlers;
+
+        private Builder(DataChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Sets the number of workers. Defaults to the number of available processors.
+         *
+         * @param workers the number of workers, at least one.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code workers} is less than one.
+         */
+        public Builder workers(int workers) {
+            if (workers < 1) {
+                throw new IllegalArgumentException("A pool needs at least one worker.");
+            }
+            this.workers = workers;
+            return this;
+        }
+
+        /**
+         * Sets the capacity of each worker's queue. A full queue blocks the router, which pushes back on the
+         * input channel. Defaults to {@link #DEFAULT_QUEUE_CAPACITY}.
+         *
+         * @param queueCapacity the capacity in messages, at least one.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code queueCapacity} is less than one.
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            if (queueCapacity < 1) {
+                throw new IllegalArgumentException("queueCapacity must be positive: " + queueCapacity);
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Sets the registry resolving envelope tags to payload parsers. Defaults to
+         * {@link ParserRegistry#getDefault()}.
+         *
+         * @param registry the registry.
+         * @return this builder.
+         */
+        public Builder registry(ParserRegistry registry) {
+            this.registry = registry;
+            return this;
+        }
+
+        /**
+         * Sets the kind of threads the workers run on. Defaults to {@link ExecutionMode#PLATFORM}.
+         *
+         * @param mode the execution mode.
+         * @return this builder.
+         */
+        public Builder mode(ExecutionMode mode) {
+            this.mode = mode;
+            return this;
+        }
+
+        /**
+         * Gives every worker its own sink.
+         *
+         * @param sinks creates the sink of each worker.
+         * @return this builder.
+         */
+        public Builder sinks(SinkFactory sinks) {
+            this.sinks = sinks;
+            return this;
+        }
+
+        /**
+         * Makes all workers write to one sink. The pool takes ownership of the sink and closes it when it stops.
+         *
+         * @param sink the shared sink; it need not be thread-safe.
+         * @return this builder.
+         */
+        public Builder sink(Sink sink) {
+            this.sink = sink;
+            return this;
+        }
+
+        /**
+         * Gives every worker its own flyweight handler.
+         *
+         * @param handlers creates the handler of each worker.
+         * @return this builder.
+         */
+        public Builder handlers(HandlerFactory handlers) {
+            this.handlers = handlers;
+            return this;
+        }
+
+        /**
+         * Builds the pool, creating the per-worker sinks or handlers.
+         *
+         * @return the pool.
+         * @throws IllegalStateException if not exactly one output is configured.
+         * @throws IOException           if a worker's sink cannot be created; sinks created before are closed.
+         */
+        public NormalizerPool build() throws IOException {
+            int outputs = ((sinks != null) ? 1 : 0) + ((sink != null) ? 1 : 0) + ((handlers != null) ? 1 : 0);
+            if (outputs != 1) {
+                throw new IllegalStateException("Exactly one of sinks, sink and handlers must be set.");
+            }
+            return new NormalizerPool(this);
+        }
+    }
+}
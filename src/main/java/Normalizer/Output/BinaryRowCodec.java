@@ -0,0 +1,274 @@
+package Normalizer.Output;
+
+import MarketDataType.Quote;
+import MarketDataType.Trade;
+import Utils.Timestamps;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary encoding of {@link Quote} and {@link Trade} records.
+ * <p>
+ * A row is a type byte ({@code 'Q'} or {@code 'T'}) followed by the record's components in declaration order,
+ * all big-endian:
+ * </p>
+ * <ul>
+ *     <li>{@code String} - unsigned 16-bit byte length ({@code 0xFFFF} for {@code null}), then UTF-8 bytes.</li>
+ *     <li>{@code BigDecimal} - a kind byte: {@code 0} for {@code null}; {@code 1} followed by the scale as a byte
+ *     and the unscaled value as a {@code long}; or {@code 2} followed by the scale as an {@code int}, a 16-bit
+ *     length and the two's-complement bytes of the unscaled value. Scale and digits are preserved exactly.</li>
+ *     <li>{@code Instant} - epoch nanoseconds as a {@code long}, {@link Timestamps#NONE} for {@code null}.</li>
+ *     <li>{@code long} / {@code Long} - a {@code long}, {@link Long#MIN_VALUE} for {@code null}.</li>
+ *     <li>{@code Boolean} - a byte: {@code 0} false, {@code 1} true, {@code -1} {@code null}.</li>
+ * </ul>
+ * <p>
+ * A typical quote encodes to well under half the size of its JSON form, and decoding needs no text parsing.
+ * Rows carry no length; {@link BinaryRowSink} and {@link ChronicleSink} frame them. An encoder reuses one
+ * buffer for every row and is not thread-safe; {@link #decode(ByteBuffer)} is.
+ * </p>
+ */
+public final class BinaryRowCodec {
+
+    /**
+     * Type byte of a quote row.
+     */
+    public static final byte QUOTE = 'Q';
+    /**
+     * Type byte of a trade row.
+     */
+    public static final byte TRADE = 'T';
+
+    private static final int NULL_STRING = 0xFFFF;
+    private static final byte NULL_DECIMAL = 0;
+    private static final byte COMPACT_DECIMAL = 1;
+    private static final byte WIDE_DECIMAL = 2;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(512);
+
+    /**
+     * Encodes a quote.
+     *
+     * @param quote the quote.
+     * @return a buffer holding the row between its position and limit, valid until the next call.
+     * @throws IllegalArgumentException if a string is longer than 65534 UTF-8 bytes.
+     */
+    public ByteBuffer encode(Quote quote) {
+        while (true) {
+            ByteBuffer out = buffer.clear();
+            try {
+                out.put(QUOTE);
+                putString(out, quote.platform());
+                out.putLong(quote.sequence());
+                putString(out, quote.product());
+                putDecimal(out, quote.bestBid());
+                putDecimal(out, quote.bestBidSize());
+                putDecimal(out, quote.bestAsk());
+                putDecimal(out, quote.bestAskSize());
+                putDecimal(out, quote.price());
+                putDecimal(out, quote.open24h());
+                putDecimal(out, quote.volume24h());
+                putDecimal(out, quote.low24h());
+                putDecimal(out, quote.high24h());
+                putDecimal(out, quote.volume30d());
+                putString(out, quote.side());
+                out.putLong(Timestamps.ofInstant(quote.time()));
+                putString(out, quote.tradeId());
+                putDecimal(out, quote.lastSize());
+                return out.flip();
+            } catch (BufferOverflowException e) {
+                grow();
+            }
+        }
+    }
+
+    /**
+     * Encodes a trade.
+     *
+     * @param trade the trade.
+     * @return a buffer holding the row between its position and limit, valid until the next call.
+     * @throws IllegalArgumentException if a string is longer than 65534 UTF-8 bytes.
+     */
+    public ByteBuffer encode(Trade trade) {
+        while (true) {
+            ByteBuffer out = buffer.clear();
+            try {
+                out.put(TRADE);
+                putString(out, trade.platform());
+                out.putLong(Timestamps.ofInstant(trade.eventTime()));
+                putString(out, trade.product());
+                out.putLong((trade.tradeId() == null) ? Long.MIN_VALUE : trade.tradeId());
+                putDecimal(out, trade.price());
+                putDecimal(out, trade.size());
+                putString(out, trade.buyerId());
+                putString(out, trade.sellerId());
+                putString(out, trade.side());
+                out.putLong(Timestamps.ofInstant(trade.tradeTime()));
+                out.put((trade.buyerIsMarketMaker() == null) ? -1 : (byte) (trade.buyerIsMarketMaker() ? 1 : 0));
+                return out.flip();
+            } catch (BufferOverflowException e) {
+                grow();
+            }
+        }
+    }
+
+    /**
+     * Decodes one row starting at the buffer's position, advancing the position past it.
+     *
+     * @param in the buffer holding the row.
+     * @return the decoded {@link Quote} or {@link Trade}.
+     * @throws IllegalArgumentException if the row has an unknown type byte.
+     * @throws java.nio.BufferUnderflowException if the row is truncated.
+     */
+    public static Object decode(ByteBuffer in) {
+        byte type = in.get();
+        return switch (type) {
+            case QUOTE -> new Quote(
+                    getString(in),
+                    in.getLong(),
+                    getString(in),
+                    getDecimal(in),
+                    getDecimal(in),
+                    getDecimal(in),
+                    getDecimal(in),
+                    getDecimal(in),
+                    getDecimal(in),
+                    getDecimal(in),
+                    getDecimal(in),
+                    getDecimal(in),
+                    getDecimal(in),
+                    getString(in),
+                    Timestamps.toInstant(in.getLong()),
+                    getString(in),
+                    getDecimal(in)
+            );
+            case TRADE -> {
+                String platform = getString(in);
+                long eventTime = in.getLong();
+                String product = getString(in);
+                long tradeId = in.getLong();
+                yield new Trade(
+                        platform,
+                        Timestamps.toInstant(eventTime),
+                        product,
+                        (tradeId == Long.MIN_VALUE) ? null : tradeId,
+                        getDecimal(in),
+                        getDecimal(in),
+                        getString(in),
+                        getString(in),
+                        getString(in),
+                        Timestamps.toInstant(in.getLong()),
+                        getBoolean(in)
+                );
+            }
+            default -> throw new IllegalArgumentException("Unknown row type: " + type);
+        };
+    }
+
+    private void grow() {
+        buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+    }
+
+    /**
+     * Writes a string as UTF-8 straight into the buffer and back-patches its length, so no byte array is created.
+     */
+    private static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putShort((short) NULL_STRING);
+            return;
+        }
+        int lengthAt = out.position();
+        out.putShort((short) 0);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                out.put((byte) (0xF0 | (cp >> 18)));
+                out.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                out.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (cp & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                // Like String.getBytes, an unpaired surrogate becomes '?'.
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        int length = out.position() - lengthAt - 2;
+        if (length >= NULL_STRING) {
+            throw new IllegalArgumentException("String too long for a row: " + length + " bytes");
+        }
+        out.putShort(lengthAt, (short) length);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = Short.toUnsignedInt(in.getShort());
+        if (length == NULL_STRING) {
+            return null;
+        }
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    private static void putDecimal(ByteBuffer out, BigDecimal value) {
+        if (value == null) {
+            out.put(NULL_DECIMAL);
+            return;
+        }
+        BigInteger unscaled = value.unscaledValue();
+        int scale = value.scale();
+        if (unscaled.bitLength() < 64 && scale >= Byte.MIN_VALUE && scale <= Byte.MAX_VALUE) {
+            out.put(COMPACT_DECIMAL);
+            out.put((byte) scale);
+            out.putLong(unscaled.longValue());
+        } else {
+            byte[] bytes = unscaled.toByteArray();
+            out.put(WIDE_DECIMAL);
+            out.putInt(scale);
+            out.putShort((short) bytes.length);
+            out.put(bytes);
+        }
+    }
+
+    private static BigDecimal getDecimal(ByteBuffer in) {
+        byte kind = in.get();
+        return switch (kind) {
+            case NULL_DECIMAL -> null;
+            case COMPACT_DECIMAL -> {
+                int scale = in.get();
+                yield BigDecimal.valueOf(in.getLong(), scale);
+            }
+            case WIDE_DECIMAL -> {
+                int scale = in.getInt();
+                byte[] bytes = new byte[Short.toUnsignedInt(in.getShort())];
+                in.get(bytes);
+                yield new BigDecimal(new BigInteger(bytes), scale);
+            }
+            default -> throw new IllegalArgumentException("Unknown decimal kind: " + kind);
+        };
+    }
+
+    private static Boolean getBoolean(ByteBuffer in) {
+        byte value = in.get();
+        return (value < 0) ? null : value != 0;
+    }
+}
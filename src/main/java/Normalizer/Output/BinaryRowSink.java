@@ -0,0 +1,97 @@
+package Normalizer.Output;
+
+import MarketDataType.Quote;
+import MarketDataType.Trade;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link Sink} writing {@link BinaryRowCodec} rows to a file through a {@link GroupCommitWriter}.
+ * <p>
+ * Each row is preceded by its length as a big-endian {@code int}, so the file can be read back sequentially
+ * with {@link #readAll(Path)}. Consumers that only need the numbers skip JSON parsing entirely. The length and
+ * the row are handed to the writer as one record, so a group commit never separates them.
+ * </p>
+ */
+public class BinaryRowSink implements Sink {
+
+    private final GroupCommitWriter writer;
+    private final BinaryRowCodec codec = new BinaryRowCodec();
+    private ByteBuffer frame = ByteBuffer.allocate(256);
+
+    /**
+     * Opens a sink appending to a file, group-committed in {@link GroupCommitWriter.DurabilityMode#PERIODIC} mode.
+     *
+     * @param path the file to append to; it is created if it does not exist.
+     * @throws IOException if the file cannot be opened.
+     */
+    public BinaryRowSink(Path path) throws IOException {
+        this(new GroupCommitWriter(path, GroupCommitWriter.DurabilityMode.PERIODIC));
+    }
+
+    /**
+     * Creates a sink writing through the given writer. The sink takes ownership of the writer.
+     *
+     * @param writer the writer receiving the framed rows.
+     */
+    public BinaryRowSink(GroupCommitWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void write(Quote quote) throws IOException {
+        writeRow(codec.encode(quote));
+    }
+
+    @Override
+    public void write(Trade trade) throws IOException {
+        writeRow(codec.encode(trade));
+    }
+
+    @Override
+    public void endOfBatch() throws IOException {
+        writer.endOfBatch();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void writeRow(ByteBuffer row) throws IOException {
+        int length = row.remaining();
+        if (frame.capacity() < Integer.BYTES + length) {
+            frame = ByteBuffer.allocate(Math.max(2 * frame.capacity(), Integer.BYTES + length));
+        }
+        writer.write(frame.clear().putInt(length).put(row).flip());
+    }
+
+    /**
+     * Reads every record of a file written by this sink.
+     *
+     * @param path the file.
+     * @return the decoded {@link Quote} and {@link Trade} records, in file order.
+     * @throws IOException if the file cannot be read or ends in the middle of a row.
+     */
+    public static List<Object> readAll(Path path) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(path));
+        List<Object> records = new ArrayList<>();
+        while (in.hasRemaining()) {
+            if (in.remaining() < Integer.BYTES) {
+                throw new IOException("Truncated row header at offset " + in.position());
+            }
+            int length = in.getInt();
+            if (length > in.remaining()) {
+                throw new IOException("Truncated row at offset " + (in.position() - Integer.BYTES));
+            }
+            records.add(BinaryRowCodec.decode(in.slice(in.position(), length)));
+            in.position(in.position() + length);
+        }
+        return records;
+    }
+}
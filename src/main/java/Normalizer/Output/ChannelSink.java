@@ -0,0 +1,88 @@
+package Normalizer.Output;
+
+import DataChannel.ChannelException;
+import DataChannel.DataChannel;
+import MarketDataType.Quote;
+import MarketDataType.Trade;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link Sink} forwarding normalized records, as JSON text, to another {@link DataChannel}.
+ * <p>
+ * This chains a normalizer into a further stage such as a network or Chronicle channel. Records are collected
+ * and sent with one {@link DataChannel#sendBatch(List)} call at the end of every input batch, or once
+ * {@link #MAX_PENDING} records are waiting. If sending fails, the records stay pending and are sent again by
+ * the next batch end, the next send, or {@link #close()}, so a channel that fails part-way through a batch may
+ * receive some records twice.
+ * </p>
+ * <p>
+ * The sink does not own the channel: closing the sink sends any pending records but leaves the channel open,
+ * since downstream consumers usually outlive a single normalizer.
+ * </p>
+ */
+public class ChannelSink implements Sink {
+
+    /**
+     * The largest number of records held before they are sent.
+     */
+    public static final int MAX_PENDING = 256;
+
+    private final DataChannel channel;
+    private final ObjectMapper objectMapper;
+    private final List<String> pending = new ArrayList<>(MAX_PENDING);
+
+    /**
+     * Creates a sink sending to the given channel.
+     *
+     * @param channel the channel receiving one JSON message per record.
+     */
+    public ChannelSink(DataChannel channel) {
+        this.channel = channel;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+    }
+
+    @Override
+    public void write(Quote quote) throws IOException {
+        add(objectMapper.writeValueAsString(quote));
+    }
+
+    @Override
+    public void write(Trade trade) throws IOException {
+        add(objectMapper.writeValueAsString(trade));
+    }
+
+    @Override
+    public void endOfBatch() throws IOException {
+        send();
+    }
+
+    @Override
+    public void close() throws IOException {
+        send();
+    }
+
+    private void add(String message) throws IOException {
+        pending.add(message);
+        if (pending.size() >= MAX_PENDING) {
+            send();
+        }
+    }
+
+    private void send() throws IOException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            channel.sendBatch(pending);
+        } catch (ChannelException e) {
+            throw new IOException("Error sending to channel", e);
+        }
+        pending.clear();
+    }
+}
@@ -0,0 +1,92 @@
+package Normalizer.Output;
+
+import MarketDataType.Quote;
+import MarketDataType.Trade;
+import net.openhft.chronicle.bytes.ReadBytesMarshallable;
+import net.openhft.chronicle.bytes.WriteBytesMarshallable;
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * A {@link Sink} appending normalized records to a Chronicle queue, one {@link BinaryRowCodec} row per excerpt.
+ * <p>
+ * Downstream processes tail the queue with {@link #readNext(ExcerptTailer)} and get persisted, replayable
+ * records without any text parsing. Chronicle commits every excerpt to its memory-mapped file as it is written,
+ * so no batching is needed here.
+ * </p>
+ *
+ * <b>Usage Example:</b>
+ * <pre>{@code
+ * try (ChronicleQueue queue = ChronicleQueue.singleBuilder(Path.of("normalized")).build()) {
+ *     ExcerptTailer tailer = queue.createTailer();
+ *     Object record;
+ *     while ((record = ChronicleSink.readNext(tailer)) != null) {
+ *         System.out.println(record);
+ *     }
+ * }
+ * }</pre>
+ */
+public class ChronicleSink implements Sink {
+
+    private final ChronicleQueue queue;
+    private final ExcerptAppender appender;
+    private final BinaryRowCodec codec = new BinaryRowCodec();
+    private ByteBuffer row;
+    private final WriteBytesMarshallable rowWriter =
+            bytes -> bytes.write(row.array(), row.arrayOffset() + row.position(), row.remaining());
+
+    /**
+     * Opens a sink appending to the Chronicle queue in the given directory.
+     *
+     * @param queueDir the directory where the queue files are stored.
+     */
+    public ChronicleSink(String queueDir) {
+        this.queue = ChronicleQueue.singleBuilder(Path.of(queueDir)).build();
+        this.appender = queue.createAppender();
+    }
+
+    @Override
+    public void write(Quote quote) throws IOException {
+        append(codec.encode(quote));
+    }
+
+    @Override
+    public void write(Trade trade) throws IOException {
+        append(codec.encode(trade));
+    }
+
+    @Override
+    public void close() {
+        queue.close();
+    }
+
+    private void append(ByteBuffer encoded) throws IOException {
+        row = encoded;
+        try {
+            appender.writeBytes(rowWriter);
+        } catch (RuntimeException e) {
+            throw new IOException("Error appending to queue", e);
+        }
+    }
+
+    /**
+     * Reads the next record written by a {@code ChronicleSink}.
+     *
+     * @param tailer the tailer positioned on the excerpt to read.
+     * @return the decoded {@link Quote} or {@link Trade}, or {@code null} if no excerpt is available.
+     */
+    public static Object readNext(ExcerptTailer tailer) {
+        Object[] record = new Object[1];
+        ReadBytesMarshallable reader = bytes -> {
+            byte[] data = new byte[(int) bytes.readRemaining()];
+            bytes.read(data);
+            record[0] = BinaryRowCodec.decode(ByteBuffer.wrap(data));
+        };
+        return tailer.readBytes(reader) ? record[0] : null;
+    }
+}
@@ -0,0 +1,363 @@
+package Normalizer.Output;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A file writer that commits records to the file in groups.
+ * <p>
+ * Text records are written as UTF-8 lines and binary records as-is. Both are copied into an in-memory batch and handed to the operating system with one
+ * {@code write} call per batch instead of one per record. A batch is written when it reaches the batch size,
+ * when the flush interval has elapsed, or when the producer of the records signals with {@link #endOfBatch()}
+ * that its input is momentarily empty. The interval is also checked by a shared timer thread, so records are
+ * written (and synced, in {@link DurabilityMode#FSYNC_ON_INTERVAL} mode) even when no further record or batch
+ * end arrives, e.g. while the producer is blocked.
+ * </p>
+ * <p>
+ * How much is at risk after a crash is chosen with a {@link DurabilityMode}. All methods are thread-safe.
+ * </p>
+ *
+ * <h2>Usage Example:</h2>
+ * <pre>{@code
+ * try (GroupCommitWriter writer = new GroupCommitWriter(Path.of("out.jsonl"), DurabilityMode.PERIODIC)) {
+ *     writer.write("{\"a\":1}");
+ *     writer.write("{\"a\":2}");
+ *     writer.endOfBatch();
+ * }
+ * }</pre>
+ */
+public class GroupCommitWriter implements Closeable {
+
+    /**
+     * When records are handed to the operating system and forced to the storage device.
+     */
+    public enum DurabilityMode {
+        /**
+         * Every record is written to the file as soon as it is added, like a {@code flush()} per line.
+         * Records survive a process crash as soon as {@link #write} returns.
+         */
+        FLUSH_PER_RECORD,
+        /**
+         * Records are written in groups, on the size and time thresholds or at the end of an input batch.
+         * Records survive a process crash once their group has been written, at most about one flush interval
+         * after they were added.
+         */
+        PERIODIC,
+        /**
+         * Like {@link #PERIODIC}, and written data is additionally forced to the storage device at most once per
+         * flush interval, so records also survive an operating system crash after at most about one interval.
+         */
+        FSYNC_ON_INTERVAL
+    }
+
+    /**
+     * The default batch size in bytes.
+     */
+    public static final int DEFAULT_BATCH_BYTES = 64 * 1024;
+    /**
+     * The default flush interval.
+     */
+    public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(100);
+
+    // One daemon thread checks the interval of every open writer.
+    private static final ScheduledThreadPoolExecutor timer = createTimer();
+
+    private final FileChannel file;
+    private final DurabilityMode mode;
+    private final long flushIntervalNanos;
+    private final ByteBuffer batch;
+    // Like OutputStreamWriter, replace unencodable characters instead of failing the write.
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ScheduledFuture<?> timerTask;
+    private long lastFlushNanos;
+    private long lastSyncNanos;
+    private boolean unsynced;
+    private boolean closed;
+    private IOException timerFailure;
+
+    /**
+     * Opens a writer appending to a file, with the default batch size and flush interval.
+     *
+     * @param path the file to append to; it is created if it does not exist.
+     * @param mode the durability mode.
+     * @throws IOException if the file cannot be opened.
+     */
+    public GroupCommitWriter(Path path, DurabilityMode mode) throws IOException {
+        this(path, mode, DEFAULT_BATCH_BYTES, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /**
+     * Opens a writer appending to a file.
+     *
+     * @param path          the file to append to; it is created if it does not exist.
+     * @param mode          the durability mode.
+     * @param batchBytes    the size at which a batch is written, in bytes.
+     * @param flushInterval the longest time records are held before being written, and for
+     *                      {@link DurabilityMode#FSYNC_ON_INTERVAL} the interval between syncs.
+     * @throws IOException if the file cannot be opened.
+     */
+    public GroupCommitWriter(Path path, DurabilityMode mode, int batchBytes, Duration flushInterval) throws IOException {
+        if (batchBytes <= 0) {
+            throw new IllegalArgumentException("batchBytes must be positive: " + batchBytes);
+        }
+        this.file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.mode = mode;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.batch = ByteBuffer.allocateDirect(batchBytes);
+        this.lastFlushNanos = System.nanoTime();
+        this.lastSyncNanos = lastFlushNanos;
+        this.timerTask = (mode == DurabilityMode.FLUSH_PER_RECORD || flushIntervalNanos <= 0) ? null
+                : timer.scheduleWithFixedDelay(this::onTimer, flushIntervalNanos, flushIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+                Thread.ofPlatform().name("group-commit-timer").daemon().factory());
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * Returns the durability mode of this writer.
+     *
+     * @return the durability mode.
+     */
+    public DurabilityMode mode() {
+        return mode;
+    }
+
+    /**
+     * Appends a record followed by a newline.
+     * <p>
+     * The record is written to the file immediately in {@link DurabilityMode#FLUSH_PER_RECORD} mode, and
+     * otherwise once the batch is full or the flush interval has elapsed.
+     * </p>
+     *
+     * @param record the record, without a trailing newline.
+     * @throws IOException if writing to the file fails or the writer is closed.
+     */
+    public void write(CharSequence record) throws IOException {
+        lock.lock();
+        try {
+            ensureOpen();
+            encode(record);
+            if (!batch.hasRemaining()) {
+                drain();
+            }
+            batch.put((byte) '\n');
+            if (mode == DurabilityMode.FLUSH_PER_RECORD || intervalElapsed()) {
+                commit();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends the remaining bytes of a buffer as-is, with no separator. The buffer's position is advanced
+     * to its limit.
+     * <p>
+     * The bytes are written to the file immediately in {@link DurabilityMode#FLUSH_PER_RECORD} mode, and
+     * otherwise once the batch is full or the flush interval has elapsed. A record that does not fit in what is
+     * left of the batch starts a new one, so records no larger than the batch are never split across writes.
+     * </p>
+     *
+     * @param bytes the record, already framed by the caller.
+     * @throws IOException if writing to the file fails or the writer is closed.
+     */
+    public void write(ByteBuffer bytes) throws IOException {
+        lock.lock();
+        try {
+            ensureOpen();
+            if (bytes.remaining() > batch.remaining()) {
+                drain();
+            }
+            int limit = bytes.limit();
+            while (bytes.hasRemaining()) {
+                if (!batch.hasRemaining()) {
+                    drain();
+                }
+                bytes.limit(bytes.position() + Math.min(batch.remaining(), limit - bytes.position()));
+                batch.put(bytes);
+                bytes.limit(limit);
+            }
+            if (mode == DurabilityMode.FLUSH_PER_RECORD || intervalElapsed()) {
+                commit();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Signals that the caller's input is momentarily empty; pending records are written to the file.
+     * <p>
+     * In {@link DurabilityMode#FSYNC_ON_INTERVAL} mode, written data is also forced to the device if the flush
+     * interval has elapsed since the last sync.
+     * </p>
+     *
+     * @throws IOException if writing to the file fails or the writer is closed.
+     */
+    public void endOfBatch() throws IOException {
+        lock.lock();
+        try {
+            ensureOpen();
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes all pending records to the file, without forcing them to the device.
+     *
+     * @throws IOException if writing to the file fails or the writer is closed.
+     */
+    public void flush() throws IOException {
+        lock.lock();
+        try {
+            ensureOpen();
+            drain();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes all pending records to the file and forces them to the storage device.
+     *
+     * @throws IOException if writing or syncing fails, or the writer is closed.
+     */
+    public void sync() throws IOException {
+        lock.lock();
+        try {
+            ensureOpen();
+            drain();
+            force();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes all pending records, forces them to the device in {@link DurabilityMode#FSYNC_ON_INTERVAL} mode,
+     * and closes the file.
+     *
+     * @throws IOException if writing, syncing or closing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (timerTask != null) {
+                timerTask.cancel(false);
+            }
+            try {
+                drain();
+                if (mode == DurabilityMode.FSYNC_ON_INTERVAL) {
+                    force();
+                }
+            } finally {
+                file.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes records held for at least the flush interval, and syncs in {@link DurabilityMode#FSYNC_ON_INTERVAL}
+     * mode, when neither a write nor a batch end has done so. A failure is reported by the next call.
+     */
+    private void onTimer() {
+        lock.lock();
+        try {
+            if (closed || timerFailure != null) {
+                return;
+            }
+            if (batch.position() > 0 && intervalElapsed()) {
+                drain();
+            }
+            if (mode == DurabilityMode.FSYNC_ON_INTERVAL && unsynced
+                    && System.nanoTime() - lastSyncNanos >= flushIntervalNanos) {
+                force();
+            }
+        } catch (IOException e) {
+            timerFailure = e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void encode(CharSequence record) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(record);
+        encoder.reset();
+        while (encoder.encode(chars, batch, true).isOverflow()) {
+            drain();
+        }
+        while (encoder.flush(batch).isOverflow()) {
+            drain();
+        }
+    }
+
+    private void commit() throws IOException {
+        drain();
+        if (mode == DurabilityMode.FSYNC_ON_INTERVAL && unsynced && System.nanoTime() - lastSyncNanos >= flushIntervalNanos) {
+            force();
+        }
+    }
+
+    private boolean intervalElapsed() {
+        return System.nanoTime() - lastFlushNanos >= flushIntervalNanos;
+    }
+
+    private void drain() throws IOException {
+        lastFlushNanos = System.nanoTime();
+        if (batch.position() == 0) {
+            return;
+        }
+        batch.flip();
+        while (batch.hasRemaining()) {
+            file.write(batch);
+        }
+        batch.clear();
+        unsynced = true;
+    }
+
+    private void force() throws IOException {
+        if (unsynced) {
+            file.force(false);
+            unsynced = false;
+        }
+        lastSyncNanos = System.nanoTime();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Writer is closed.");
+        }
+        if (timerFailure != null) {
+            throw new IOException("A timed flush failed: " + timerFailure.getMessage(), timerFailure);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package Normalizer.Output;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@link SegmentCompressor} writing every chunk as its own GZIP member.
+ */
+final class GzipSegmentCompressor implements SegmentCompressor {
+
+    static final GzipSegmentCompressor INSTANCE = new GzipSegmentCompressor();
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private GzipSegmentCompressor() {
+    }
+
+    @Override
+    public String extension() {
+        return ".gz";
+    }
+
+    @Override
+    public long[] compress(Path source, Path target, long[] chunkOffsets) throws IOException {
+        long[] storedOffsets = new long[chunkOffsets.length];
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(source);
+             CountingOutputStream out = new CountingOutputStream(
+                     new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE))) {
+            long position = 0;
+            for (int i = 0; i < chunkOffsets.length; i++) {
+                long end = (i + 1 < chunkOffsets.length) ? chunkOffsets[i + 1] : Long.MAX_VALUE;
+                storedOffsets[i] = out.count;
+                // Closing the member releases its deflater but must not close the file.
+                try (GZIPOutputStream gzip = new GZIPOutputStream(new Unclosable(out), BUFFER_SIZE)) {
+                    int read;
+                    while (position < end
+                            && (read = in.read(buffer, 0, (int) Math.min(buffer.length, end - position))) > 0) {
+                        gzip.write(buffer, 0, read);
+                        position += read;
+                    }
+                }
+            }
+        }
+        return storedOffsets;
+    }
+
+    @Override
+    public InputStream decompress(InputStream in) throws IOException {
+        return new GZIPInputStream(in, BUFFER_SIZE);
+    }
+
+    /**
+     * Counts the bytes written through it, so chunk boundaries in the compressed file are known.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    /**
+     * Passes writes through but ignores {@code close()}.
+     */
+    private static final class Unclosable extends FilterOutputStream {
+
+        Unclosable(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package Normalizer.Output;
+
+import MarketDataType.Quote;
+import MarketDataType.Trade;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A {@link Sink} writing one JSON object per line through a {@link GroupCommitWriter}.
+ * <p>
+ * This is the normalizer's original output format: records are serialized with Jackson, so decimals keep
+ * the exact digits the exchange sent.
+ * </p>
+ */
+public class JsonlSink implements Sink {
+
+    private final GroupCommitWriter writer;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Opens a sink appending to a file, group-committed in {@link GroupCommitWriter.DurabilityMode#PERIODIC} mode.
+     *
+     * @param path the file to append to; it is created if it does not exist.
+     * @throws IOException if the file cannot be opened.
+     */
+    public JsonlSink(Path path) throws IOException {
+        this(new GroupCommitWriter(path, GroupCommitWriter.DurabilityMode.PERIODIC));
+    }
+
+    /**
+     * Creates a sink writing through the given writer. The sink takes ownership of the writer.
+     *
+     * @param writer the writer receiving one line per record.
+     */
+    public JsonlSink(GroupCommitWriter writer) {
+        this.writer = writer;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+    }
+
+    @Override
+    public void write(Quote quote) throws IOException {
+        writer.write(objectMapper.writeValueAsString(quote));
+    }
+
+    @Override
+    public void write(Trade trade) throws IOException {
+        writer.write(objectMapper.writeValueAsString(trade));
+    }
+
+    @Override
+    public void endOfBatch() throws IOException {
+        writer.endOfBatch();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
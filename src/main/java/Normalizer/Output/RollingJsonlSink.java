@@ -0,0 +1,441 @@
+package Normalizer.Output;
+
+import MarketDataType.Quote;
+import MarketDataType.Trade;
+import Utils.Timestamps;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Sink} writing JSON lines into a directory of rolling segments.
+ * <p>
+ * A segment is closed and a new one started when the wall clock crosses an hour or day boundary (UTC), when it
+ * reaches a size limit, or both. Each completed segment gets a {@link SegmentIndex} with its first and last record
+ * timestamps and a byte-offset checkpoint about every {@link #DEFAULT_INDEX_INTERVAL_BYTES}, and is then compressed
+ * by a background thread with a {@link SegmentCompressor} (GZIP by default), so the normalizer's thread never waits
+ * for compression. Segments that were indexed but not yet compressed when the process stopped are compressed when
+ * the next sink is built on the same directory.
+ * </p>
+ * <p>
+ * Segments are named {@code <prefix>-<yyyyMMdd-HHmmss>-<nnn>.jsonl}, after the UTC time they were started, and
+ * their indexes {@code <prefix>-<yyyyMMdd-HHmmss>-<nnn>.idx}. A segment is created with its first record, so quiet
+ * periods leave no empty files.
+ * </p>
+ *
+ * <b>Usage Example:</b>
+ * <pre>{@code
+ * Sink sink = RollingJsonlSink.builder(Path.of("normalized"))
+ *         .rollEvery(RollingJsonlSink.RollInterval.HOURLY)
+ *         .maxBytes(512L * 1024 * 1024)
+ *         .build();
+ * Normalizer normalizer = new Normalizer(channel, sink);
+ * }</pre>
+ */
+public class RollingJsonlSink implements Sink {
+
+    /**
+     * The wall-clock period after which a segment is rolled.
+     */
+    public enum RollInterval {
+        /**
+         * Segments are only rolled by size.
+         */
+        NEVER(Long.MAX_VALUE),
+        /**
+         * Segments are rolled at the start of every UTC hour.
+         */
+        HOURLY(3_600_000_000_000L),
+        /**
+         * Segments are rolled at the start of every UTC day.
+         */
+        DAILY(86_400_000_000_000L);
+
+        private final long nanos;
+
+        RollInterval(long nanos) {
+            this.nanos = nanos;
+        }
+
+        /**
+         * Returns the first boundary after the given time.
+         *
+         * @param epochNanos the time, in epoch nanoseconds.
+         * @return the next boundary in epoch nanoseconds, or {@link Long#MAX_VALUE} for {@link #NEVER}.
+         */
+        long nextBoundary(long epochNanos) {
+            return (this == NEVER) ? Long.MAX_VALUE : (Math.floorDiv(epochNanos, nanos) + 1) * nanos;
+        }
+    }
+
+    /**
+     * The default prefix of segment names.
+     */
+    public static final String DEFAULT_PREFIX = "normalized";
+    /**
+     * The default distance between index checkpoints, in uncompressed bytes.
+     */
+    public static final long DEFAULT_INDEX_INTERVAL_BYTES = 1024 * 1024;
+    /**
+     * The file name extension of uncompressed segments.
+     */
+    public static final String EXTENSION = ".jsonl";
+
+    private static final Logger logger = LogManager.getLogger(RollingJsonlSink.class);
+    private static final DateTimeFormatter NAME_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private final Path directory;
+    private final String prefix;
+    private final RollInterval rollInterval;
+    private final long maxBytes;
+    private final long indexIntervalBytes;
+    private final SegmentCompressor compressor;
+    private final GroupCommitWriter.DurabilityMode durability;
+    private final Clock clock;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService compression;
+
+    // The open segment, or writer == null between segments.
+    private GroupCommitWriter writer;
+    private String segmentName;
+    private long rollAtNanos;
+    private long bytes;
+    private long records;
+    private long firstTimeNanos;
+    private long lastTimeNanos;
+    private final List<SegmentIndex.Checkpoint> checkpoints = new ArrayList<>();
+
+    private RollingJsonlSink(Builder builder) {
+        this.directory = builder.directory;
+        this.prefix = builder.prefix;
+        this.rollInterval = builder.rollInterval;
+        this.maxBytes = builder.maxBytes;
+        this.indexIntervalBytes = builder.indexIntervalBytes;
+        this.compressor = builder.compressor;
+        this.durability = builder.durability;
+        this.clock = builder.clock;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.compression = (compressor == null) ? null : Executors.newSingleThreadExecutor(
+                Thread.ofPlatform().name("segment-compressor").daemon(true).factory());
+    }
+
+    /**
+     * Creates a new {@link Builder} for a sink writing segments into a directory.
+     *
+     * @param directory the directory of the segments; it is created if it does not exist.
+     * @return a new builder.
+     */
+    public static Builder builder(Path directory) {
+        return new Builder(directory);
+    }
+
+    @Override
+    public void write(Quote quote) throws IOException {
+        write(Timestamps.ofInstant(quote.time()), objectMapper.writeValueAsBytes(quote));
+    }
+
+    @Override
+    public void write(Trade trade) throws IOException {
+        long time = Timestamps.ofInstant(trade.tradeTime());
+        if (time == Timestamps.NONE) {
+            time = Timestamps.ofInstant(trade.eventTime());
+        }
+        write(time, objectMapper.writeValueAsBytes(trade));
+    }
+
+    /**
+     * Hands buffered lines to the writer and closes the segment if its roll time has passed, so a segment is
+     * completed and compressed on time even when no further records arrive.
+     *
+     * @throws IOException if the lines cannot be written or the segment cannot be closed.
+     */
+    @Override
+    public void endOfBatch() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        if (now() >= rollAtNanos) {
+            finishSegment();
+        } else {
+            writer.endOfBatch();
+        }
+    }
+
+    /**
+     * Closes the open segment and waits for the background compression of all completed segments.
+     *
+     * @throws IOException if the segment cannot be closed or indexed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (writer != null) {
+                finishSegment();
+            }
+        } finally {
+            if (compression != null) {
+                compression.shutdown();
+                try {
+                    if (!compression.awaitTermination(1, TimeUnit.MINUTES)) {
+                        logger.warn("Segment compression did not finish; remaining segments stay uncompressed.");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private void write(long timeNanos, byte[] json) throws IOException {
+        long now = now();
+        if (timeNanos == Timestamps.NONE) {
+            timeNanos = now;
+        }
+        if (writer != null && (now >= rollAtNanos || bytes >= maxBytes)) {
+            finishSegment();
+        }
+        if (writer == null) {
+            startSegment(now);
+        }
+        if (checkpoints.isEmpty() || bytes - checkpoints.getLast().offset() >= indexIntervalBytes) {
+            checkpoints.add(new SegmentIndex.Checkpoint(timeNanos, bytes, bytes));
+        }
+        ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+        writer.write(line);
+        bytes += json.length + 1;
+        records++;
+        firstTimeNanos = Math.min(firstTimeNanos, timeNanos);
+        lastTimeNanos = Math.max(lastTimeNanos, timeNanos);
+    }
+
+    private void startSegment(long now) throws IOException {
+        String base = prefix + "-" + NAME_TIME.format(Timestamps.toInstant(now));
+        for (int n = 0; ; n++) {
+            String candidate = String.format("%s-%03d", base, n);
+            if (!Files.exists(directory.resolve(candidate + EXTENSION))
+                    && !Files.exists(directory.resolve(candidate + SegmentIndex.EXTENSION))) {
+                base = candidate;
+                break;
+            }
+        }
+        segmentName = base + EXTENSION;
+        writer = new GroupCommitWriter(directory.resolve(segmentName), durability);
+        rollAtNanos = rollInterval.nextBoundary(now);
+        bytes = 0;
+        records = 0;
+        firstTimeNanos = Long.MAX_VALUE;
+        lastTimeNanos = Long.MIN_VALUE;
+        checkpoints.clear();
+    }
+
+    private void finishSegment() throws IOException {
+        GroupCommitWriter closing = writer;
+        writer = null;
+        closing.close();
+        SegmentIndex index = new SegmentIndex(segmentName, null, firstTimeNanos, lastTimeNanos, records, bytes,
+                List.copyOf(checkpoints));
+        Path indexFile = indexFile(segmentName);
+        index.write(indexFile);
+        logger.info("Completed segment {} with {} records.", segmentName, records);
+        if (compression != null) {
+            compression.execute(() -> compress(index, indexFile));
+        }
+    }
+
+    /**
+     * Compresses a segment, points its index at the compressed file and deletes the original. On failure the
+     * uncompressed segment and its index are kept.
+     */
+    private void compress(SegmentIndex index, Path indexFile) {
+        Path source = directory.resolve(index.segment());
+        String storedName = index.segment() + compressor.extension();
+        Path target = directory.resolve(storedName);
+        long[] chunkOffsets = index.checkpoints().stream().mapToLong(SegmentIndex.Checkpoint::offset).toArray();
+        try {
+            long[] storedOffsets = compressor.compress(source, target, chunkOffsets);
+            index.compressed(storedName, compressor, storedOffsets).write(indexFile);
+            Files.delete(source);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to compress segment {}; keeping it uncompressed.", index.segment(), e);
+            try {
+                Files.deleteIfExists(target);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+        }
+    }
+
+    /**
+     * Queues the compression of segments left indexed but uncompressed by a previous run.
+     */
+    private void resumeCompression() throws IOException {
+        if (compression == null) {
+            return;
+        }
+        try (DirectoryStream<Path> files =
+                     Files.newDirectoryStream(directory, prefix + "-*" + SegmentIndex.EXTENSION)) {
+            for (Path indexFile : files) {
+                SegmentIndex index = SegmentIndex.read(indexFile);
+                if (index.compression() == null && Files.exists(directory.resolve(index.segment()))) {
+                    compression.execute(() -> compress(index, indexFile));
+                }
+            }
+        }
+    }
+
+    private Path indexFile(String segment) {
+        return directory.resolve(segment.substring(0, segment.length() - EXTENSION.length()) + SegmentIndex.EXTENSION);
+    }
+
+    private long now() {
+        return Timestamps.ofInstant(clock.instant());
+    }
+
+    /**
+     * Builder for {@link RollingJsonlSink}.
+     */
+    public static class Builder {
+        private final Path directory;
+        private String prefix = DEFAULT_PREFIX;
+        private RollInterval rollInterval = RollInterval.HOURLY;
+        private long maxBytes = Long.MAX_VALUE;
+        private long indexIntervalBytes = DEFAULT_INDEX_INTERVAL_BYTES;
+        private SegmentCompressor compressor = SegmentCompressor.gzip();
+        private GroupCommitWriter.DurabilityMode durability = GroupCommitWriter.DurabilityMode.PERIODIC;
+        private Clock clock = Clock.systemUTC();
+
+        private Builder(Path directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * Sets the prefix of segment names. Defaults to {@link #DEFAULT_PREFIX}.
+         *
+         * @param prefix the prefix; it must be a plain file name without {@code '*'}.
+         * @return this builder.
+         * @throws IllegalArgumentException if the prefix is empty or contains a path separator or {@code '*'}.
+         */
+        public Builder prefix(String prefix) {
+            if (prefix.isEmpty() || prefix.indexOf('/') >= 0 || prefix.indexOf('\\') >= 0
+                    || prefix.indexOf('*') >= 0) {
+                throw new IllegalArgumentException("Invalid segment prefix: " + prefix);
+            }
+            this.prefix = prefix;
+            return this;
+        }
+
+        /**
+         * Sets the wall-clock roll period. Defaults to {@link RollInterval#HOURLY}.
+         *
+         * @param rollInterval the roll period.
+         * @return this builder.
+         */
+        public Builder rollEvery(RollInterval rollInterval) {
+            this.rollInterval = rollInterval;
+            return this;
+        }
+
+        /**
+         * Sets the size at which a segment is rolled, in uncompressed bytes. A segment is rolled before the first
+         * record written after it reached this size, so it may exceed it by one record. Unlimited by default.
+         *
+         * @param maxBytes the size limit.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code maxBytes} is not positive.
+         */
+        public Builder maxBytes(long maxBytes) {
+            if (maxBytes <= 0) {
+                throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+            }
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * Sets the distance between index checkpoints, in uncompressed bytes. Smaller intervals let readers start
+         * closer to a timestamp at the cost of slightly worse compression. Defaults to
+         * {@link #DEFAULT_INDEX_INTERVAL_BYTES}.
+         *
+         * @param indexIntervalBytes the checkpoint interval.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code indexIntervalBytes} is not positive.
+         */
+        public Builder indexIntervalBytes(long indexIntervalBytes) {
+            if (indexIntervalBytes <= 0) {
+                throw new IllegalArgumentException("indexIntervalBytes must be positive: " + indexIntervalBytes);
+            }
+            this.indexIntervalBytes = indexIntervalBytes;
+            return this;
+        }
+
+        /**
+         * Sets the compressor for completed segments. Defaults to {@link SegmentCompressor#gzip()}.
+         *
+         * @param compressor the compressor, or {@code null} to keep segments uncompressed.
+         * @return this builder.
+         */
+        public Builder compressor(SegmentCompressor compressor) {
+            this.compressor = compressor;
+            return this;
+        }
+
+        /**
+         * Sets the durability mode of the segment writers. Defaults to
+         * {@link GroupCommitWriter.DurabilityMode#PERIODIC}.
+         *
+         * @param durability the durability mode.
+         * @return this builder.
+         */
+        public Builder durability(GroupCommitWriter.DurabilityMode durability) {
+            this.durability = durability;
+            return this;
+        }
+
+        /**
+         * Sets the clock deciding when segments roll and naming them. Defaults to the UTC system clock.
+         *
+         * @param clock the clock.
+         * @return this builder.
+         */
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Creates the directory if needed, queues the compression of segments a previous run left uncompressed
+         * and builds the sink.
+         *
+         * @return the sink.
+         * @throws IOException if the directory cannot be created or read.
+         */
+        public RollingJsonlSink build() throws IOException {
+            Files.createDirectories(directory);
+            RollingJsonlSink sink = new RollingJsonlSink(this);
+            try {
+                sink.resumeCompression();
+            } catch (IOException e) {
+                sink.close();
+                throw e;
+            }
+            return sink;
+        }
+    }
+}
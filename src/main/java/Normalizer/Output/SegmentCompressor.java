@@ -0,0 +1,54 @@
+package Normalizer.Output;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Compresses completed {@link RollingJsonlSink} segments.
+ * <p>
+ * A segment is compressed as a sequence of independently decodable chunks, one per checkpoint of its
+ * {@link SegmentIndex}, so a reader can seek to a checkpoint in the compressed file and start decoding there.
+ * Implementations for other codecs only need a framing with that property (e.g. one frame per chunk).
+ * </p>
+ */
+public interface SegmentCompressor {
+
+    /**
+     * Returns the extension appended to the name of a compressed segment, e.g. {@code ".gz"}.
+     *
+     * @return the file name extension, including the dot.
+     */
+    String extension();
+
+    /**
+     * Compresses a segment.
+     *
+     * @param source       the uncompressed segment.
+     * @param target       the file to write the compressed segment to; it is replaced if it exists.
+     * @param chunkOffsets the ascending offsets in {@code source} at which chunks start; the first is {@code 0}.
+     * @return the offset in {@code target} at which each chunk starts.
+     * @throws IOException if reading or writing fails.
+     */
+    long[] compress(Path source, Path target, long[] chunkOffsets) throws IOException;
+
+    /**
+     * Wraps a stream positioned at the start of a chunk so it yields the uncompressed data of that chunk and all
+     * following ones.
+     *
+     * @param in the compressed stream.
+     * @return the uncompressed stream.
+     * @throws IOException if the stream does not start with a valid chunk.
+     */
+    InputStream decompress(InputStream in) throws IOException;
+
+    /**
+     * Returns the GZIP compressor, which writes every chunk as its own GZIP member. Standard tools such as
+     * {@code gunzip} read the concatenated members as one file.
+     *
+     * @return the GZIP compressor.
+     */
+    static SegmentCompressor gzip() {
+        return GzipSegmentCompressor.INSTANCE;
+    }
+}
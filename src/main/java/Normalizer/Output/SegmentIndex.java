@@ -0,0 +1,163 @@
+package Normalizer.Output;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The index of one {@link RollingJsonlSink} segment, stored next to it under the segment's name with the
+ * extension {@value #EXTENSION}.
+ * <p>
+ * The index records the range of record timestamps in the segment and a checkpoint about every megabyte: the
+ * timestamp of the record starting there, its offset in the uncompressed segment, and its offset in the file as
+ * stored. Together with a {@link SegmentCompressor} that compresses each checkpoint's chunk independently, a reader
+ * can find the segments overlapping a time window with {@link #find(Path, String, long, long)} and start reading
+ * close to the window with {@link #open(Path, long, SegmentCompressor)} instead of decompressing whole files.
+ * </p>
+ *
+ * @param segment        the file name of the segment as currently stored.
+ * @param compression    the extension of the compressor that produced the stored file, or {@code null} if it is
+ *                       uncompressed.
+ * @param firstTimeNanos the smallest record timestamp in the segment, in epoch nanoseconds.
+ * @param lastTimeNanos  the largest record timestamp in the segment, in epoch nanoseconds.
+ * @param records        the number of records in the segment.
+ * @param bytes          the uncompressed size of the segment.
+ * @param checkpoints    the checkpoints, in file order; the first is at offset {@code 0}.
+ */
+public record SegmentIndex(
+        String segment,
+        String compression,
+        long firstTimeNanos,
+        long lastTimeNanos,
+        long records,
+        long bytes,
+        List<Checkpoint> checkpoints
+) {
+
+    /**
+     * The file name extension of index files.
+     */
+    public static final String EXTENSION = ".idx";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * A position in a segment at which reading can start.
+     *
+     * @param timeNanos    the timestamp of the record starting at this position, in epoch nanoseconds.
+     * @param offset       the offset of the record in the uncompressed segment.
+     * @param storedOffset the offset of the chunk starting with the record in the stored file.
+     */
+    public record Checkpoint(long timeNanos, long offset, long storedOffset) {
+    }
+
+    /**
+     * Returns a copy of this index describing the segment after compression.
+     *
+     * @param storedName    the file name of the compressed segment.
+     * @param compressor    the compressor that produced it.
+     * @param storedOffsets the offset of each checkpoint's chunk in the compressed file.
+     * @return the updated index.
+     */
+    public SegmentIndex compressed(String storedName, SegmentCompressor compressor, long[] storedOffsets) {
+        List<Checkpoint> updated = new ArrayList<>(checkpoints.size());
+        for (int i = 0; i < checkpoints.size(); i++) {
+            Checkpoint checkpoint = checkpoints.get(i);
+            updated.add(new Checkpoint(checkpoint.timeNanos(), checkpoint.offset(), storedOffsets[i]));
+        }
+        return new SegmentIndex(storedName, compressor.extension(), firstTimeNanos, lastTimeNanos, records, bytes,
+                List.copyOf(updated));
+    }
+
+    /**
+     * Writes this index, atomically replacing any previous version.
+     *
+     * @param path the index file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path path) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        MAPPER.writeValue(temp.toFile(), this);
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads an index file.
+     *
+     * @param path the index file.
+     * @return the index.
+     * @throws IOException if the file cannot be read or is not an index.
+     */
+    public static SegmentIndex read(Path path) throws IOException {
+        return MAPPER.readValue(path.toFile(), SegmentIndex.class);
+    }
+
+    /**
+     * Finds the segments written with a prefix whose records overlap a time window.
+     *
+     * @param directory the directory of the segments.
+     * @param prefix    the segment name prefix of the sink.
+     * @param fromNanos the inclusive start of the window, in epoch nanoseconds.
+     * @param toNanos   the exclusive end of the window, in epoch nanoseconds.
+     * @return the indexes of the overlapping segments, oldest first.
+     * @throws IOException if the directory or an index cannot be read.
+     */
+    public static List<SegmentIndex> find(Path directory, String prefix, long fromNanos, long toNanos)
+            throws IOException {
+        List<Path> indexFiles = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "-*" + EXTENSION)) {
+            files.forEach(indexFiles::add);
+        }
+        indexFiles.sort(null);
+        List<SegmentIndex> found = new ArrayList<>();
+        for (Path file : indexFiles) {
+            SegmentIndex index = read(file);
+            if (index.lastTimeNanos() >= fromNanos && index.firstTimeNanos() < toNanos) {
+                found.add(index);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Opens the segment at the last checkpoint whose timestamp is not after {@code fromNanos}.
+     * <p>
+     * The stream yields whole JSON lines from there to the end of the segment. Records are in arrival order, which
+     * is only roughly timestamp order, so callers still filter the lines they read.
+     * </p>
+     *
+     * @param directory  the directory of the segment.
+     * @param fromNanos  the time to start reading at, in epoch nanoseconds.
+     * @param compressor the compressor the segment was compressed with; ignored if it is uncompressed.
+     * @return the uncompressed JSON lines.
+     * @throws IOException if the segment cannot be opened.
+     */
+    public InputStream open(Path directory, long fromNanos, SegmentCompressor compressor) throws IOException {
+        Checkpoint start = checkpoints.get(0);
+        for (Checkpoint checkpoint : checkpoints) {
+            if (checkpoint.timeNanos() > fromNanos) {
+                break;
+            }
+            start = checkpoint;
+        }
+        FileChannel file = FileChannel.open(directory.resolve(segment), StandardOpenOption.READ);
+        try {
+            file.position(start.storedOffset());
+            InputStream in = Channels.newInputStream(file);
+            return (compression == null) ? in : compressor.decompress(in);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+}
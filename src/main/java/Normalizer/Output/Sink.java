@@ -0,0 +1,65 @@
+package Normalizer.Output;
+
+import MarketDataType.Quote;
+import MarketDataType.SequenceGap;
+import MarketDataType.Trade;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination of the records produced by a {@link Normalizer.Normalizer}.
+ * <p>
+ * A sink decides the format the normalized data is stored or forwarded in, so each consumer can be fed the
+ * cheapest format it can read:
+ * </p>
+ * <ul>
+ *     <li>{@link JsonlSink} - one JSON object per line, for tools and humans.</li>
+ *     <li>{@link RollingJsonlSink} - JSON lines in rolling, indexed and compressed segments.</li>
+ *     <li>{@link BinaryRowSink} - length-prefixed {@link BinaryRowCodec} rows in a file.</li>
+ *     <li>{@link ChronicleSink} - {@link BinaryRowCodec} rows in a Chronicle queue, one excerpt per record.</li>
+ *     <li>{@link ChannelSink} - JSON records sent to a {@link DataChannel.DataChannel}, for chaining stages.</li>
+ *     <li>{@link Storage.ColumnarSink} - a columnar, day-partitioned store for range scans.</li>
+ * </ul>
+ * <p>
+ * Sinks are called from the normalizer's thread only and need not be thread-safe. The normalizer owns its sink
+ * and closes it when it stops.
+ * </p>
+ */
+public interface Sink extends Closeable {
+
+    /**
+     * Writes a normalized quote.
+     *
+     * @param quote the quote.
+     * @throws IOException if the quote cannot be written; the normalizer stops.
+     */
+    void write(Quote quote) throws IOException;
+
+    /**
+     * Writes a normalized trade.
+     *
+     * @param trade the trade.
+     * @throws IOException if the trade cannot be written; the normalizer stops.
+     */
+    void write(Trade trade) throws IOException;
+
+    /**
+     * Records a gap reported by the producer in one of its streams. The normalizer has already logged it; the
+     * default does nothing.
+     *
+     * @param gap the gap.
+     * @throws IOException if the gap cannot be written; the normalizer stops.
+     */
+    default void write(SequenceGap gap) throws IOException {
+    }
+
+    /**
+     * Signals that the normalizer's input is momentarily empty. Sinks that buffer records should
+     * hand them on now. The default does nothing.
+     *
+     * @throws IOException if buffered records cannot be written.
+     */
+    default void endOfBatch() throws IOException {
+    }
+}
@@ -1,12 +1,21 @@
 package Normalizer.PayloadParser;
 
+import MarketDataType.MutableQuote;
+import MarketDataType.MutableTrade;
+import MarketDataType.ProductScales;
 import MarketDataType.Quote;
+import MarketDataType.ScaledDecimal;
+import MarketDataType.Symbol;
+import MarketDataType.SymbolTable;
 import MarketDataType.Trade;
 import Utils.JsonUtil;
-import com.fasterxml.jackson.databind.JsonNode;
+import Utils.Timestamps;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.Instant;
 
@@ -19,10 +28,33 @@ import java.time.Instant;
  *     <li>**Order Book Update (Quote)**: Provides best bid and ask prices with their respective sizes.</li>
  *     <li>**Trade Event (Trade)**: Represents an executed trade with price, size, buyer/seller details.</li>
  * </ul>
+ * Payloads are read in a single pass over the token stream. Binance uses single-letter keys whose
+ * case matters ({@code b} is the best bid price, {@code B} its quantity), so the field switch is case-sensitive.
  */
 public class BinanceUsPayloadParser implements Parser {
     private final String platform = "binance.us";
     private static final Logger logger = LogManager.getLogger(BinanceUsPayloadParser.class);
+    private final SymbolTable symbols = SymbolTable.getDefault();
+
+    /**
+     * Retrieves the exchange tag handled by this parser.
+     *
+     * @return the string "binance.us".
+     */
+    @Override
+    public String getTag() {
+        return platform;
+    }
+
+    /**
+     * Retrieves the payload field holding the product.
+     *
+     * @return the string "s".
+     */
+    @Override
+    public String getProductField() {
+        return "s";
+    }
 
     /**
      * Parses an order book update message from Binance.US WebSocket feed into a {@link Quote} object.
@@ -34,13 +66,16 @@ public class BinanceUsPayloadParser implements Parser {
      *     <li>{@code b}, {@code B} - Best bid price and size</li>
      *     <li>{@code a}, {@code A} - Best ask price and size</li>
      * </ul>
+     * The book ticker carries no time, so the quote's {@code time} is left {@code null}; the normalizer sets it to
+     * the time the producer received the message.
      * If any field is missing or invalid, the method will return {@code null}.
      *
-     * @param root the root JSON node containing the order book update data.
+     * @param parser the streaming parser positioned at the start of the order book update object.
      * @return a {@link Quote} object representing the parsed order book update, or {@code null} if parsing fails.
+     * @throws IOException if the underlying JSON is malformed.
      */
     @Override
-    public Quote parseQuote(JsonNode root) {
+    public Quote parseQuote(JsonParser parser) throws IOException {
         //{
         //  "u":400900217,     // order book updateId
         //  "s":"BNBUSDT",     // symbol
@@ -49,59 +84,59 @@ public class BinanceUsPayloadParser implements Parser {
         //  "a":"25.36520000", // best ask price
         //  "A":"40.66000000"  // best ask qty
         //}
-        try {
-
-
-            var updateId = JsonUtil.getValue(root.get("u"), JsonNode::asLong);
-            var product = JsonUtil.getValue(root.get("s"), JsonNode::asText);
-            var bestBid = JsonUtil.getValue(root.get("b"), JsonNode::asText);
-            var bestBidSize = JsonUtil.getValue(root.get("B"), JsonNode::asText);
-            var bestAsk = JsonUtil.getValue(root.get("a"), JsonNode::asText);
-            var bestAskSize = JsonUtil.getValue(root.get("A"), JsonNode::asText);
-            //ublic record Quote(
-            //        String platform,
-            //        long sequence,
-            //        String product,
-            //        BigDecimal bestBid,
-            //        BigDecimal bestBidSize,
-            //        BigDecimal bestAsk,
-            //        BigDecimal bestAskSize,
-            //        BigDecimal price,
-            //        BigDecimal open24h,
-            //        BigDecimal volume24h,
-            //        BigDecimal low24h,
-            //        BigDecimal high24h,
-            //        BigDecimal volume30d,
-            //        String side,
-            //        Instant time,
-            //        String tradeId,
-            //        BigDecimal lastSize
-            //) implements Serializable {
-            //
-            //}
-            return new Quote(
-                    platform,
-                    updateId,
-                    product,
-                    new BigDecimal(bestBid),
-                    new BigDecimal(bestBidSize),
-                    new BigDecimal(bestAsk),
-                    new BigDecimal(bestAskSize),
-                    null,
-                    null,
-                    null,
-                    null,
-                    null,
-                    null,
-                    null,
-                    Instant.now(),
-                    null,
-                    null
-            );
-        } catch (Exception e) {
-            logger.error("Failed to parse trade: {}. Error: {}", root.toString(), e.getMessage());
+        Long updateId = null;
+        Symbol symbol = null;
+        BigDecimal bestBid = null, bestBidSize = null, bestAsk = null, bestAskSize = null;
+        String error = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            try {
+                switch (field) {
+                    case "u" -> updateId = parser.getValueAsLong();
+                    case "s" -> symbol = JsonUtil.readSymbol(parser, symbols, platform);
+                    case "b" -> bestBid = JsonUtil.readDecimal(parser);
+                    case "B" -> bestBidSize = JsonUtil.readDecimal(parser);
+                    case "a" -> bestAsk = JsonUtil.readDecimal(parser);
+                    case "A" -> bestAskSize = JsonUtil.readDecimal(parser);
+                    default -> parser.skipChildren();
+                }
+            } catch (RuntimeException e) {
+                error = field + ": " + e.getMessage();
+            }
+        }
+
+        if (error == null && (updateId == null || bestBid == null || bestBidSize == null
+                || bestAsk == null || bestAskSize == null)) {
+            error = "missing update id or best bid/ask";
+        }
+        if (error != null) {
+            logger.error("Failed to parse quote. Error: {}", error);
             return null;
         }
+        return new Quote(
+                platform,
+                updateId,
+                (symbol == null) ? null : symbol.normalized(),
+                bestBid,
+                bestBidSize,
+                bestAsk,
+                bestAskSize,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                symbol
+        );
     }
 
     /**
@@ -120,11 +155,12 @@ public class BinanceUsPayloadParser implements Parser {
      * </ul>
      * If any field is missing or invalid, the method will return {@code null}.
      *
-     * @param root the root JSON node containing the trade event data.
+     * @param parser the streaming parser positioned at the start of the trade event object.
      * @return a {@link Trade} object representing the parsed trade, or {@code null} if parsing fails.
+     * @throws IOException if the underlying JSON is malformed.
      */
     @Override
-    public Trade parseTrade(JsonNode root) {
+    public Trade parseTrade(JsonParser parser) throws IOException {
         //{
         //  "e": "trade",     // Event type
         //  "E": 1672515782136,   // Event time
@@ -138,50 +174,200 @@ public class BinanceUsPayloadParser implements Parser {
         //  "m": true,        // Is the buyer the market maker?
         //  "M": true         // Ignore
         //}
-        try {
-            var eventTime = JsonUtil.getValue(root.get("E"), JsonNode::asLong);
-            var product = JsonUtil.getValue(root.get("s"), JsonNode::asText);
-            var tradeId = JsonUtil.getValue(root.get("t"), JsonNode::asLong);
-            var price = JsonUtil.getValue(root.get("p"), JsonNode::asText);
-            var size = JsonUtil.getValue(root.get("q"), JsonNode::asText);
-            var buyerId = JsonUtil.getValue(root.get("b"), JsonNode::asText);
-            var sellerId = JsonUtil.getValue(root.get("a"), JsonNode::asText);
-            var tradeTime = JsonUtil.getValue(root.get("T"), JsonNode::asLong);
-            var buyerIsMarketMaker = JsonUtil.getValue(root.get("m"), JsonNode::asBoolean);
-
-            //public record Trade(
-            //        String platform,
-            //        Instant eventTime,
-            //        String product,
-            //        Long tradeId,
-            //        BigDecimal price,
-            //        BigDecimal size,
-            //        String buyerId,
-            //        String sellerId,
-            //        String side,
-            //        Instant tradeTime,
-            //        Boolean buyerIsMarketMaker
-            //) implements Serializable {
-            //}
-
-//        System.out.println(eventTime != null);
-
-            return new Trade(
-                    platform,
-                    (eventTime != null) ? Instant.ofEpochMilli(eventTime) : null,
-                    product,
-                    tradeId,
-                    (price != null) ? new BigDecimal(price) : null,
-                    (size != null) ? new BigDecimal(size) : null,
-                    buyerId,
-                    sellerId,
-                    null,
-                    (tradeTime != null) ? Instant.ofEpochMilli(tradeTime) : null,
-                    buyerIsMarketMaker
-            );
-        } catch (Exception e) {
-            logger.error("Failed to parse trade: {}. Error: {}", root.toString(), e.getMessage());
+        Symbol symbol = null;
+        Long eventTime = null, tradeId = null, tradeTime = null;
+        String buyerId = null, sellerId = null;
+        BigDecimal price = null, size = null;
+        Boolean buyerIsMarketMaker = null;
+        String error = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            try {
+                switch (field) {
+                    case "E" -> eventTime = parser.getValueAsLong();
+                    case "s" -> symbol = JsonUtil.readSymbol(parser, symbols, platform);
+                    case "t" -> tradeId = parser.getValueAsLong();
+                    case "p" -> price = JsonUtil.readDecimal(parser);
+                    case "q" -> size = JsonUtil.readDecimal(parser);
+                    case "b" -> buyerId = parser.getValueAsString();
+                    case "a" -> sellerId = parser.getValueAsString();
+                    case "T" -> tradeTime = parser.getValueAsLong();
+                    case "m" -> buyerIsMarketMaker = parser.getValueAsBoolean();
+                    default -> parser.skipChildren();
+                }
+            } catch (RuntimeException e) {
+                error = field + ": " + e.getMessage();
+            }
+        }
+
+        if (error != null) {
+            logger.error("Failed to parse trade. Error: {}", error);
             return null;
         }
+        return new Trade(
+                platform,
+                (eventTime != null) ? Instant.ofEpochMilli(eventTime) : null,
+                (symbol == null) ? null : symbol.normalized(),
+                tradeId,
+                price,
+                size,
+                buyerId,
+                sellerId,
+                null,
+                (tradeTime != null) ? Instant.ofEpochMilli(tradeTime) : null,
+                buyerIsMarketMaker,
+                symbol
+        );
+    }
+
+    /**
+     * Parses an order book update message from Binance.US into a reusable {@link MutableQuote}.
+     * <p>
+     * Prices and quantities are read from the parser's character buffer straight into mantissas at the
+     * product's scale. {@code u}, {@code b}, {@code B}, {@code a} and {@code A} are required. The time is left
+     * unset, for the normalizer to fill with the receive time.
+     * </p>
+     *
+     * @param parser the streaming parser positioned at the start of the order book update object.
+     * @param quote  the flyweight to fill.
+     * @return {@code true} if the quote was parsed, {@code false} if parsing fails or a decimal exceeds the product's scale.
+     * @throws IOException if the underlying JSON is malformed.
+     */
+    @Override
+    public boolean parseQuoteInto(JsonParser parser, MutableQuote quote) throws IOException {
+        quote.reset().platform(platform);
+        boolean hasUpdateId = false;
+        Symbol symbol = null;
+        // Decimals are read at the scale of the product known so far, and rescaled at the end if "s" came late.
+        ProductScales.Scale scale = ProductScales.DEFAULT;
+        int ps = scale.priceScale(), ss = scale.sizeScale();
+        long bestBid = ScaledDecimal.NULL, bestBidSize = ScaledDecimal.NULL;
+        long bestAsk = ScaledDecimal.NULL, bestAskSize = ScaledDecimal.NULL;
+        String error = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            try {
+                switch (field) {
+                    case "u" -> {
+                        quote.sequence(parser.getValueAsLong());
+                        hasUpdateId = true;
+                    }
+                    case "s" -> {
+                        symbol = JsonUtil.readSymbol(parser, symbols, platform);
+                        scale = ProductScales.of(symbol.normalized());
+                        if (bestBid == ScaledDecimal.NULL && bestBidSize == ScaledDecimal.NULL
+                                && bestAsk == ScaledDecimal.NULL && bestAskSize == ScaledDecimal.NULL) {
+                            ps = scale.priceScale();
+                            ss = scale.sizeScale();
+                        }
+                    }
+                    case "b" -> bestBid = JsonUtil.readScaled(parser, ps);
+                    case "B" -> bestBidSize = JsonUtil.readScaled(parser, ss);
+                    case "a" -> bestAsk = JsonUtil.readScaled(parser, ps);
+                    case "A" -> bestAskSize = JsonUtil.readScaled(parser, ss);
+                    default -> parser.skipChildren();
+                }
+            } catch (RuntimeException e) {
+                error = field + ": " + e.getMessage();
+            }
+        }
+
+        if (error == null && (!hasUpdateId || bestBid == ScaledDecimal.NULL || bestBidSize == ScaledDecimal.NULL
+                || bestAsk == ScaledDecimal.NULL || bestAskSize == ScaledDecimal.NULL)) {
+            error = "missing update id or best bid/ask";
+        }
+        if (error == null) {
+            try {
+                quote.symbol(symbol)
+                        .scales(scale.priceScale(), scale.sizeScale())
+                        .bestBid(ScaledDecimal.rescale(bestBid, ps, scale.priceScale()))
+                        .bestAsk(ScaledDecimal.rescale(bestAsk, ps, scale.priceScale()))
+                        .bestBidSize(ScaledDecimal.rescale(bestBidSize, ss, scale.sizeScale()))
+                        .bestAskSize(ScaledDecimal.rescale(bestAskSize, ss, scale.sizeScale()));
+            } catch (ArithmeticException e) {
+                error = symbol + ": " + e.getMessage();
+            }
+        }
+        if (error != null) {
+            logger.error("Failed to parse quote. Error: {}", error);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parses a trade event message from Binance.US into a reusable {@link MutableTrade}.
+     * <p>
+     * The price and quantity are read straight into mantissas at the product's scale, and the order ids are
+     * copied into the trade's reusable buffers.
+     * </p>
+     *
+     * @param parser the streaming parser positioned at the start of the trade event object.
+     * @param trade  the flyweight to fill.
+     * @return {@code true} if the trade was parsed, {@code false} if parsing fails or a decimal exceeds the product's scale.
+     * @throws IOException if the underlying JSON is malformed.
+     */
+    @Override
+    public boolean parseTradeInto(JsonParser parser, MutableTrade trade) throws IOException {
+        trade.reset().platform(platform);
+        Symbol symbol = null;
+        ProductScales.Scale scale = ProductScales.DEFAULT;
+        int ps = scale.priceScale(), ss = scale.sizeScale();
+        long price = ScaledDecimal.NULL, size = ScaledDecimal.NULL;
+        String error = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            try {
+                switch (field) {
+                    case "E" -> trade.eventTimeNanos(Timestamps.ofEpochMilli(parser.getValueAsLong()));
+                    case "s" -> {
+                        symbol = JsonUtil.readSymbol(parser, symbols, platform);
+                        scale = ProductScales.of(symbol.normalized());
+                        if (price == ScaledDecimal.NULL && size == ScaledDecimal.NULL) {
+                            ps = scale.priceScale();
+                            ss = scale.sizeScale();
+                        }
+                    }
+                    case "t" -> trade.tradeId(parser.getValueAsLong());
+                    case "p" -> price = JsonUtil.readScaled(parser, ps);
+                    case "q" -> size = JsonUtil.readScaled(parser, ss);
+                    case "b" -> trade.buyerId(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                    case "a" -> trade.sellerId(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                    case "T" -> trade.tradeTimeNanos(Timestamps.ofEpochMilli(parser.getValueAsLong()));
+                    case "m" -> trade.buyerIsMarketMaker(parser.getValueAsBoolean());
+                    default -> parser.skipChildren();
+                }
+            } catch (RuntimeException e) {
+                error = field + ": " + e.getMessage();
+            }
+        }
+
+        if (error == null) {
+            try {
+                trade.symbol(symbol)
+                        .scales(scale.priceScale(), scale.sizeScale())
+                        .price(ScaledDecimal.rescale(price, ps, scale.priceScale()))
+                        .size(ScaledDecimal.rescale(size, ss, scale.sizeScale()));
+            } catch (ArithmeticException e) {
+                error = symbol + ": " + e.getMessage();
+            }
+        }
+        if (error != null) {
+            logger.error("Failed to parse trade. Error: {}", error);
+            return false;
+        }
+        return true;
     }
 }
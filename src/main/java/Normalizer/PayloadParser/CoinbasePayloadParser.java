@@ -1,14 +1,23 @@
 package Normalizer.PayloadParser;
 
+import MarketDataType.MutableQuote;
+import MarketDataType.MutableTrade;
+import MarketDataType.ProductScales;
 import MarketDataType.Quote;
+import MarketDataType.ScaledDecimal;
+import MarketDataType.Symbol;
+import MarketDataType.SymbolTable;
 import MarketDataType.Trade;
 import Utils.JsonUtil;
-import com.fasterxml.jackson.databind.JsonNode;
+import Utils.Timestamps;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.time.ZonedDateTime;
+import java.time.Instant;
 
 /**
  * The {@code CoinbasePayloadParser} class is responsible for parsing JSON market data messages
@@ -19,24 +28,50 @@ import java.time.ZonedDateTime;
  *     <li>**Ticker (Quote)**: Provides real-time best bid, best ask, price, and volume data.</li>
  *     <li>**Match (Trade)**: Represents a trade execution with details like price, size, and order IDs.</li>
  * </ul>
+ * Payloads are read in a single pass over the token stream: each field name is dispatched through a
+ * {@code switch}, and decimal strings are converted straight from the parser's character buffer.
  */
 public class CoinbasePayloadParser implements Parser {
 
     private final String platform = "coinbase";
     private static final Logger logger = LogManager.getLogger(CoinbasePayloadParser.class);
+    private static final String[] SIDES = {"buy", "sell"};
+    private final SymbolTable symbols = SymbolTable.getDefault();
+
+    /**
+     * Retrieves the exchange tag handled by this parser.
+     *
+     * @return the string "coinbase".
+     */
+    @Override
+    public String getTag() {
+        return platform;
+    }
+
+    /**
+     * Retrieves the payload field holding the product.
+     *
+     * @return the string "product_id".
+     */
+    @Override
+    public String getProductField() {
+        return "product_id";
+    }
 
     /**
      * Parses a ticker (quote) message from the Coinbase WebSocket feed.
      * <p>
      * The input JSON is expected to contain fields like {@code best_bid}, {@code best_ask}, {@code price},
      * {@code volume_24h}, and other relevant market data. If any field is missing or null, it will be ignored.
+     * {@code sequence} and {@code product_id} are required.
      * </p>
      *
-     * @param root the root JSON node containing the ticker data.
+     * @param parser the streaming parser positioned at the start of the ticker object.
      * @return a {@link Quote} object representing the parsed ticker data, or {@code null} if parsing fails.
+     * @throws IOException if the underlying JSON is malformed.
      */
     @Override
-    public Quote parseQuote(JsonNode root) {
+    public Quote parseQuote(JsonParser parser) throws IOException {
         //// Ticker messsage
         //{
         //  "type": "ticker",
@@ -57,67 +92,73 @@ public class CoinbasePayloadParser implements Parser {
         //  "trade_id": 370843401,
         //  "last_size": "11.4396987"
         //}
-        try {
-            var sequence = JsonUtil.getValue(root.get("sequence"), JsonNode::asLong);
-            var product = JsonUtil.getValue(root.get("product_id"), JsonNode::asText);
-            var bestBid = JsonUtil.getValue(root.get("best_bid"), JsonNode::asText);
-            var bestBidSize = JsonUtil.getValue(root.get("best_bid_size"), JsonNode::asText);
-            var bestAsk = JsonUtil.getValue(root.get("best_ask"), JsonNode::asText);
-            var bestAskSize = JsonUtil.getValue(root.get("best_ask_size"), JsonNode::asText);
-            var price = JsonUtil.getValue(root.get("price"), JsonNode::asText);
-            var open24h = JsonUtil.getValue(root.get("open_24h"), JsonNode::asText);
-            var volume24h = JsonUtil.getValue(root.get("volume_24h"), JsonNode::asText);
-            var low24h = JsonUtil.getValue(root.get("low_24h"), JsonNode::asText);
-            var high24h = JsonUtil.getValue(root.get("high_24h"), JsonNode::asText);
-            var volume30d = JsonUtil.getValue(root.get("volume_30d"), JsonNode::asText);
-            var side = JsonUtil.getValue(root.get("side"), JsonNode::asText);
-            var time = JsonUtil.getValue(root.get("time"), JsonNode::asText);
-            var tradeId = JsonUtil.getValue(root.get("trade_id"), JsonNode::asLong);
-            var lastSize = JsonUtil.getValue(root.get("last_size"), JsonNode::asText);
-            //public record Ticker(
-            //        String platform,
-            //        long sequence,
-            //        String product,
-            //        BigDecimal bestBid,
-            //        BigDecimal bestBidSize,
-            //        BigDecimal best_ask,
-            //        BigDecimal best_ask_size,
-            //        BigDecimal price,
-            //        BigDecimal open24h,
-            //        BigDecimal volume24h,
-            //        BigDecimal low24h,
-            //        BigDecimal high24h,
-            //        BigDecimal volume30d,
-            //        String side,
-            //        Instant time,
-            //        String tradeId,
-            //        BigDecimal lastSize
-            //) implements Serializable {
-            //
-            //}
-            return new Quote(
-                    platform,
-                    sequence,
-                    product.replace("-", ""),
-                    (bestBid == null) ? null : new BigDecimal(bestBid),
-                    (bestBidSize == null) ? null : new BigDecimal(bestBidSize),
-                    (bestAsk == null) ? null : new BigDecimal(bestAsk),
-                    (bestAskSize == null) ? null : new BigDecimal(bestAskSize),
-                    (price == null) ? null : new BigDecimal(price),
-                    (open24h == null) ? null : new BigDecimal(open24h),
-                    (volume24h == null) ? null : new BigDecimal(volume24h),
-                    (low24h == null) ? null : new BigDecimal(low24h),
-                    (high24h == null) ? null : new BigDecimal(high24h),
-                    (volume30d == null) ? null : new BigDecimal(volume30d),
-                    side,
-                    (time == null) ? null : ZonedDateTime.parse(time).toInstant(),
-                    (tradeId == null) ? null : String.valueOf(tradeId),
-                    (lastSize == null) ? null : new BigDecimal(lastSize)
-            );
-        } catch (Exception e) {
-            logger.error("Failed to parse trade: {}. Error: {}", root.toString(), e.getMessage());
+        Long sequence = null;
+        Symbol symbol = null;
+        BigDecimal bestBid = null, bestBidSize = null, bestAsk = null, bestAskSize = null;
+        BigDecimal price = null, open24h = null, volume24h = null, low24h = null, high24h = null, volume30d = null;
+        BigDecimal lastSize = null;
+        String side = null;
+        Instant time = null;
+        String tradeId = null;
+        String error = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            try {
+                switch (field) {
+                    case "sequence" -> sequence = parser.getValueAsLong();
+                    case "product_id" -> symbol = JsonUtil.readSymbol(parser, symbols, platform);
+                    case "best_bid" -> bestBid = JsonUtil.readDecimal(parser);
+                    case "best_bid_size" -> bestBidSize = JsonUtil.readDecimal(parser);
+                    case "best_ask" -> bestAsk = JsonUtil.readDecimal(parser);
+                    case "best_ask_size" -> bestAskSize = JsonUtil.readDecimal(parser);
+                    case "price" -> price = JsonUtil.readDecimal(parser);
+                    case "open_24h" -> open24h = JsonUtil.readDecimal(parser);
+                    case "volume_24h" -> volume24h = JsonUtil.readDecimal(parser);
+                    case "low_24h" -> low24h = JsonUtil.readDecimal(parser);
+                    case "high_24h" -> high24h = JsonUtil.readDecimal(parser);
+                    case "volume_30d" -> volume30d = JsonUtil.readDecimal(parser);
+                    case "side" -> side = parser.getValueAsString();
+                    case "time" -> time = Timestamps.toInstant(JsonUtil.readTimestamp(parser));
+                    case "trade_id" -> tradeId = String.valueOf(parser.getValueAsLong());
+                    case "last_size" -> lastSize = JsonUtil.readDecimal(parser);
+                    default -> parser.skipChildren();
+                }
+            } catch (RuntimeException e) {
+                error = field + ": " + e.getMessage();
+            }
+        }
+
+        if (error == null && (sequence == null || symbol == null)) {
+            error = "missing sequence or product_id";
+        }
+        if (error != null) {
+            logger.error("Failed to parse quote. Error: {}", error);
             return null;
         }
+        return new Quote(
+                platform,
+                sequence,
+                (symbol == null) ? null : symbol.normalized(),
+                bestBid,
+                bestBidSize,
+                bestAsk,
+                bestAskSize,
+                price,
+                open24h,
+                volume24h,
+                low24h,
+                high24h,
+                volume30d,
+                side,
+                time,
+                tradeId,
+                lastSize,
+                symbol
+        );
     }
 
     /**
@@ -127,11 +168,12 @@ public class CoinbasePayloadParser implements Parser {
      * {@code maker_order_id}, {@code taker_order_id}, and {@code time}. If any field is missing or null, it will be ignored.
      * </p>
      *
-     * @param root the root JSON node containing the trade data.
+     * @param parser the streaming parser positioned at the start of the match object.
      * @return a {@link Trade} object representing the parsed trade data, or {@code null} if parsing fails.
+     * @throws IOException if the underlying JSON is malformed.
      */
     @Override
-    public Trade parseTrade(JsonNode root) {
+    public Trade parseTrade(JsonParser parser) throws IOException {
         //{
         //  "type": "match",
         //  "trade_id": 10,
@@ -144,46 +186,223 @@ public class CoinbasePayloadParser implements Parser {
         //  "price": "400.23",
         //  "side": "sell"
         //}
-        try {
-            var tradeId = JsonUtil.getValue(root.get("trade_id"), JsonNode::asLong);
-            var sequence = JsonUtil.getValue(root.get("sequence"), JsonNode::asLong);
-            var makerOrderId = JsonUtil.getValue(root.get("maker_order_id"), JsonNode::asText);
-            var takerOrderId = JsonUtil.getValue(root.get("taker_order_id"), JsonNode::asText);
-            var time = JsonUtil.getValue(root.get("time"), JsonNode::asText);
-            var product = JsonUtil.getValue(root.get("product_id"), JsonNode::asText);
-            var size = JsonUtil.getValue(root.get("size"), JsonNode::asText);
-            var price = JsonUtil.getValue(root.get("price"), JsonNode::asText);
-            var side = JsonUtil.getValue(root.get("side"), JsonNode::asText);
-            //public record Trade(
-            //        String platform,
-            //        Instant eventTime,
-            //        String product,
-            //        Long tradeId,
-            //        BigDecimal price,
-            //        BigDecimal size,
-            //        String buyerId,
-            //        String sellerId,
-            //        String side,
-            //        Instant tradeTime,
-            //        Boolean buyerIsMarketMaker
-            //) implements Serializable {
-            //}
-            return new Trade(
-                    platform,
-                    null,
-                    (product == null) ? null : product.replace("-", ""),
-                    tradeId,
-                    (price == null) ? null : new BigDecimal(price),
-                    (size == null) ? null : new BigDecimal(size),
-                    makerOrderId,
-                    takerOrderId,
-                    side,
-                    (time == null) ? null : ZonedDateTime.parse(time).toInstant(),
-                    null
-            );
-        } catch (Exception e) {
-            logger.error("Failed to parse trade: {}. Error: {}", root.toString(), e.getMessage());
+        Long tradeId = null;
+        String makerOrderId = null, takerOrderId = null;
+        Instant time = null;
+        Symbol symbol = null;
+        BigDecimal size = null, price = null;
+        String side = null;
+        String error = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            try {
+                switch (field) {
+                    case "trade_id" -> tradeId = parser.getValueAsLong();
+                    case "maker_order_id" -> makerOrderId = parser.getValueAsString();
+                    case "taker_order_id" -> takerOrderId = parser.getValueAsString();
+                    case "time" -> time = Timestamps.toInstant(JsonUtil.readTimestamp(parser));
+                    case "product_id" -> symbol = JsonUtil.readSymbol(parser, symbols, platform);
+                    case "size" -> size = JsonUtil.readDecimal(parser);
+                    case "price" -> price = JsonUtil.readDecimal(parser);
+                    case "side" -> side = parser.getValueAsString();
+                    default -> parser.skipChildren();
+                }
+            } catch (RuntimeException e) {
+                error = field + ": " + e.getMessage();
+            }
+        }
+
+        if (error != null) {
+            logger.error("Failed to parse trade. Error: {}", error);
             return null;
         }
+        return new Trade(
+                platform,
+                null,
+                (symbol == null) ? null : symbol.normalized(),
+                tradeId,
+                price,
+                size,
+                makerOrderId,
+                takerOrderId,
+                side,
+                time,
+                null,
+                symbol
+        );
+    }
+
+    /**
+     * Parses a ticker (quote) message from the Coinbase WebSocket feed into a reusable {@link MutableQuote}.
+     * <p>
+     * Decimals are read from the parser's character buffer straight into mantissas at the product's scale,
+     * without creating a {@link BigDecimal} or a {@link String} per field. {@code sequence} and
+     * {@code product_id} are required.
+     * </p>
+     *
+     * @param parser the streaming parser positioned at the start of the ticker object.
+     * @param quote  the flyweight to fill.
+     * @return {@code true} if the quote was parsed, {@code false} if parsing fails or a decimal exceeds the product's scale.
+     * @throws IOException if the underlying JSON is malformed.
+     */
+    @Override
+    public boolean parseQuoteInto(JsonParser parser, MutableQuote quote) throws IOException {
+        quote.reset().platform(platform);
+        boolean hasSequence = false;
+        Symbol symbol = null;
+        // Decimals are read at the scale of the product known so far, and rescaled at the end if product_id came late.
+        ProductScales.Scale scale = ProductScales.DEFAULT;
+        int ps = scale.priceScale(), ss = scale.sizeScale();
+        long bestBid = ScaledDecimal.NULL, bestBidSize = ScaledDecimal.NULL;
+        long bestAsk = ScaledDecimal.NULL, bestAskSize = ScaledDecimal.NULL;
+        long price = ScaledDecimal.NULL, open24h = ScaledDecimal.NULL, volume24h = ScaledDecimal.NULL;
+        long low24h = ScaledDecimal.NULL, high24h = ScaledDecimal.NULL, volume30d = ScaledDecimal.NULL;
+        long lastSize = ScaledDecimal.NULL;
+        String error = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            try {
+                switch (field) {
+                    case "sequence" -> {
+                        quote.sequence(parser.getValueAsLong());
+                        hasSequence = true;
+                    }
+                    case "product_id" -> {
+                        symbol = JsonUtil.readSymbol(parser, symbols, platform);
+                        scale = ProductScales.of(symbol.normalized());
+                        if (bestBid == ScaledDecimal.NULL && bestBidSize == ScaledDecimal.NULL
+                                && bestAsk == ScaledDecimal.NULL && bestAskSize == ScaledDecimal.NULL
+                                && price == ScaledDecimal.NULL && open24h == ScaledDecimal.NULL
+                                && volume24h == ScaledDecimal.NULL && low24h == ScaledDecimal.NULL
+                                && high24h == ScaledDecimal.NULL && volume30d == ScaledDecimal.NULL
+                                && lastSize == ScaledDecimal.NULL) {
+                            ps = scale.priceScale();
+                            ss = scale.sizeScale();
+                        }
+                    }
+                    case "best_bid" -> bestBid = JsonUtil.readScaled(parser, ps);
+                    case "best_bid_size" -> bestBidSize = JsonUtil.readScaled(parser, ss);
+                    case "best_ask" -> bestAsk = JsonUtil.readScaled(parser, ps);
+                    case "best_ask_size" -> bestAskSize = JsonUtil.readScaled(parser, ss);
+                    case "price" -> price = JsonUtil.readScaled(parser, ps);
+                    case "open_24h" -> open24h = JsonUtil.readScaled(parser, ps);
+                    case "volume_24h" -> volume24h = JsonUtil.readScaledOrNull(parser, ss);
+                    case "low_24h" -> low24h = JsonUtil.readScaled(parser, ps);
+                    case "high_24h" -> high24h = JsonUtil.readScaled(parser, ps);
+                    case "volume_30d" -> volume30d = JsonUtil.readScaledOrNull(parser, ss);
+                    case "side" -> quote.side(JsonUtil.readInterned(parser, SIDES));
+                    case "time" -> quote.timeNanos(JsonUtil.readTimestamp(parser));
+                    case "trade_id" -> quote.tradeId(parser.getValueAsLong());
+                    case "last_size" -> lastSize = JsonUtil.readScaled(parser, ss);
+                    default -> parser.skipChildren();
+                }
+            } catch (RuntimeException e) {
+                error = field + ": " + e.getMessage();
+            }
+        }
+
+        if (error == null && (!hasSequence || symbol == null)) {
+            error = "missing sequence or product_id";
+        }
+        if (error == null) {
+            int tps = scale.priceScale(), tss = scale.sizeScale();
+            try {
+                quote.symbol(symbol)
+                        .scales(tps, tss)
+                        .bestBid(ScaledDecimal.rescale(bestBid, ps, tps))
+                        .bestAsk(ScaledDecimal.rescale(bestAsk, ps, tps))
+                        .price(ScaledDecimal.rescale(price, ps, tps))
+                        .open24h(ScaledDecimal.rescale(open24h, ps, tps))
+                        .low24h(ScaledDecimal.rescale(low24h, ps, tps))
+                        .high24h(ScaledDecimal.rescale(high24h, ps, tps))
+                        .bestBidSize(ScaledDecimal.rescale(bestBidSize, ss, tss))
+                        .bestAskSize(ScaledDecimal.rescale(bestAskSize, ss, tss))
+                        .volume24h(ScaledDecimal.rescaleOrNull(volume24h, ss, tss))
+                        .volume30d(ScaledDecimal.rescaleOrNull(volume30d, ss, tss))
+                        .lastSize(ScaledDecimal.rescale(lastSize, ss, tss));
+            } catch (ArithmeticException e) {
+                error = symbol + ": " + e.getMessage();
+            }
+        }
+        if (error != null) {
+            logger.error("Failed to parse quote. Error: {}", error);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parses a trade (match) message from the Coinbase WebSocket feed into a reusable {@link MutableTrade}.
+     * <p>
+     * The price and size are read straight into mantissas at the product's scale, and the order ids are copied
+     * into the trade's reusable buffers.
+     * </p>
+     *
+     * @param parser the streaming parser positioned at the start of the match object.
+     * @param trade  the flyweight to fill.
+     * @return {@code true} if the trade was parsed, {@code false} if parsing fails or a decimal exceeds the product's scale.
+     * @throws IOException if the underlying JSON is malformed.
+     */
+    @Override
+    public boolean parseTradeInto(JsonParser parser, MutableTrade trade) throws IOException {
+        trade.reset().platform(platform);
+        Symbol symbol = null;
+        ProductScales.Scale scale = ProductScales.DEFAULT;
+        int ps = scale.priceScale(), ss = scale.sizeScale();
+        long size = ScaledDecimal.NULL, price = ScaledDecimal.NULL;
+        String error = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            try {
+                switch (field) {
+                    case "trade_id" -> trade.tradeId(parser.getValueAsLong());
+                    case "maker_order_id" -> trade.buyerId(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                    case "taker_order_id" -> trade.sellerId(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                    case "time" -> trade.tradeTimeNanos(JsonUtil.readTimestamp(parser));
+                    case "product_id" -> {
+                        symbol = JsonUtil.readSymbol(parser, symbols, platform);
+                        scale = ProductScales.of(symbol.normalized());
+                        if (price == ScaledDecimal.NULL && size == ScaledDecimal.NULL) {
+                            ps = scale.priceScale();
+                            ss = scale.sizeScale();
+                        }
+                    }
+                    case "size" -> size = JsonUtil.readScaled(parser, ss);
+                    case "price" -> price = JsonUtil.readScaled(parser, ps);
+                    case "side" -> trade.side(JsonUtil.readInterned(parser, SIDES));
+                    default -> parser.skipChildren();
+                }
+            } catch (RuntimeException e) {
+                error = field + ": " + e.getMessage();
+            }
+        }
+
+        if (error == null) {
+            try {
+                trade.symbol(symbol)
+                        .scales(scale.priceScale(), scale.sizeScale())
+                        .price(ScaledDecimal.rescale(price, ps, scale.priceScale()))
+                        .size(ScaledDecimal.rescale(size, ss, scale.sizeScale()));
+            } catch (ArithmeticException e) {
+                error = symbol + ": " + e.getMessage();
+            }
+        }
+        if (error != null) {
+            logger.error("Failed to parse trade. Error: {}", error);
+            return false;
+        }
+        return true;
     }
 }
@@ -1,25 +1,102 @@
 package Normalizer.PayloadParser;
 
 import MarketDataType.MarketDataQueryType;
+import MarketDataType.MutableQuote;
+import MarketDataType.MutableTrade;
 import MarketDataType.Quote;
+import MarketDataType.ScaledQuote;
+import MarketDataType.ScaledTrade;
 import MarketDataType.Trade;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 
+import java.io.IOException;
+
 /**
  * The {@code Parser} interface defines methods for parsing market data messages into structured objects.
  * <p>
  * Implementing classes are responsible for converting raw JSON market data into either a {@link Quote} or a {@link Trade}.
  * </p>
+ * <p>
+ * The primary path is token streaming: implementations read the payload directly from a {@link JsonParser}
+ * and build the record in one pass, without materializing a {@link JsonNode} tree. The tree-based methods
+ * are kept for callers that already hold a tree and simply stream over it.
+ * </p>
+ * <p>
+ * The scaled methods produce {@link ScaledQuote} and {@link ScaledTrade}, which keep prices and sizes as
+ * fixed-point {@code long} mantissas, and the {@code Into} methods fill a reusable {@link MutableQuote} or
+ * {@link MutableTrade} in place, which is the allocation-free path. By default the {@code Into} methods convert
+ * the {@code BigDecimal} records and the scaled methods copy out of a fresh flyweight; implementations override
+ * the {@code Into} methods to read decimals straight into mantissas.
+ * </p>
+ * <p>
+ * Implementations are discovered with {@link java.util.ServiceLoader} and must have a public no-argument
+ * constructor; see {@link ParserRegistry}. They are shared across threads and must be stateless.
+ * </p>
  */
 public interface Parser {
 
+    /**
+     * Retrieves the exchange tag this parser handles, matching the producer's
+     * {@code QueryGenerator.getTag()} (e.g. {@code "coinbase"}).
+     *
+     * @return the exchange tag.
+     */
+    String getTag();
+
+    /**
+     * Retrieves the name of the top-level payload field that holds the product (e.g. {@code "product_id"}).
+     * <p>
+     * A {@link Normalizer.NormalizerPool} reads this field, and nothing else of the payload, to route all messages
+     * of a product to the same worker. The default returns {@code null}, which routes by exchange only.
+     * </p>
+     *
+     * @return the field name, or {@code null} if the product cannot be read from a single top-level field.
+     */
+    default String getProductField() {
+        return null;
+    }
+
+    /**
+     * Parses a quote (ticker) payload from a streaming parser.
+     * <p>
+     * The parser must be positioned on the {@link JsonToken#START_OBJECT} of the payload. On return it is
+     * positioned on the matching {@link JsonToken#END_OBJECT}, even if the payload could not be converted.
+     * </p>
+     *
+     * @param parser the streaming parser positioned at the start of the payload object.
+     * @return a {@code Quote} object representing the parsed ticker data, or {@code null} if parsing fails.
+     * @throws IOException if the underlying JSON is malformed.
+     */
+    Quote parseQuote(JsonParser parser) throws IOException;
+
+    /**
+     * Parses a trade payload from a streaming parser.
+     * <p>
+     * The parser must be positioned on the {@link JsonToken#START_OBJECT} of the payload. On return it is
+     * positioned on the matching {@link JsonToken#END_OBJECT}, even if the payload could not be converted.
+     * </p>
+     *
+     * @param parser the streaming parser positioned at the start of the payload object.
+     * @return a {@code Trade} object representing the parsed trade data, or {@code null} if parsing fails.
+     * @throws IOException if the underlying JSON is malformed.
+     */
+    Trade parseTrade(JsonParser parser) throws IOException;
+
     /**
      * Parses a JSON node into a {@link Quote} object.
      *
      * @param root the root JSON node containing quote (ticker) data.
      * @return a {@code Quote} object representing the parsed ticker data.
      */
-    Quote parseQuote(JsonNode root);
+    default Quote parseQuote(JsonNode root) {
+        try (JsonParser parser = root.traverse()) {
+            return (parser.nextToken() == JsonToken.START_OBJECT) ? parseQuote(parser) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
 
     /**
      * Parses a JSON node into a {@link Trade} object.
@@ -27,7 +104,13 @@ public interface Parser {
      * @param root the root JSON node containing trade data.
      * @return a {@code Trade} object representing the parsed trade data.
      */
-    Trade parseTrade(JsonNode root);
+    default Trade parseTrade(JsonNode root) {
+        try (JsonParser parser = root.traverse()) {
+            return (parser.nextToken() == JsonToken.START_OBJECT) ? parseTrade(parser) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
 
     /**
      * Parses a JSON node based on the specified {@link MarketDataQueryType}.
@@ -46,4 +129,108 @@ public interface Parser {
             case QUOTE -> parseQuote(root);
         };
     }
+
+    /**
+     * Parses a payload from a streaming parser based on the specified {@link MarketDataQueryType}.
+     *
+     * @param type   the market data type, determining whether to parse a trade or a quote.
+     * @param parser the streaming parser positioned at the start of the payload object.
+     * @return a parsed {@link Trade} or {@link Quote} object, or {@code null} if parsing fails.
+     * @throws IOException if the underlying JSON is malformed.
+     */
+    default Object parse(MarketDataQueryType type, JsonParser parser) throws IOException {
+        return switch (type) {
+            case TRADE -> parseTrade(parser);
+            case QUOTE -> parseQuote(parser);
+        };
+    }
+
+    /**
+     * Parses a quote (ticker) payload from a streaming parser into a reusable flyweight.
+     * <p>
+     * The flyweight is overwritten; when this method returns {@code false} its contents are unspecified.
+     * The default implementation converts the result of {@link #parseQuote(JsonParser)}.
+     * </p>
+     *
+     * @param parser the streaming parser positioned at the start of the payload object.
+     * @param quote  the flyweight to fill.
+     * @return {@code true} if the quote was parsed, {@code false} if parsing fails or a decimal exceeds the product's scale.
+     * @throws IOException if the underlying JSON is malformed.
+     */
+    default boolean parseQuoteInto(JsonParser parser, MutableQuote quote) throws IOException {
+        Quote parsed = parseQuote(parser);
+        if (parsed == null) {
+            return false;
+        }
+        try {
+            quote.set(parsed);
+            return true;
+        } catch (ArithmeticException | NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parses a trade payload from a streaming parser into a reusable flyweight.
+     * <p>
+     * The flyweight is overwritten; when this method returns {@code false} its contents are unspecified.
+     * The default implementation converts the result of {@link #parseTrade(JsonParser)}.
+     * </p>
+     *
+     * @param parser the streaming parser positioned at the start of the payload object.
+     * @param trade  the flyweight to fill.
+     * @return {@code true} if the trade was parsed, {@code false} if parsing fails or a decimal exceeds the product's scale.
+     * @throws IOException if the underlying JSON is malformed.
+     */
+    default boolean parseTradeInto(JsonParser parser, MutableTrade trade) throws IOException {
+        Trade parsed = parseTrade(parser);
+        if (parsed == null) {
+            return false;
+        }
+        try {
+            trade.set(parsed);
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parses a quote (ticker) payload from a streaming parser into its scaled form.
+     *
+     * @param parser the streaming parser positioned at the start of the payload object.
+     * @return the parsed scaled quote, or {@code null} if parsing fails or a decimal exceeds the product's scale.
+     * @throws IOException if the underlying JSON is malformed.
+     */
+    default ScaledQuote parseScaledQuote(JsonParser parser) throws IOException {
+        MutableQuote quote = new MutableQuote();
+        return parseQuoteInto(parser, quote) ? quote.toScaledQuote() : null;
+    }
+
+    /**
+     * Parses a trade payload from a streaming parser into its scaled form.
+     *
+     * @param parser the streaming parser positioned at the start of the payload object.
+     * @return the parsed scaled trade, or {@code null} if parsing fails or a decimal exceeds the product's scale.
+     * @throws IOException if the underlying JSON is malformed.
+     */
+    default ScaledTrade parseScaledTrade(JsonParser parser) throws IOException {
+        MutableTrade trade = new MutableTrade();
+        return parseTradeInto(parser, trade) ? trade.toScaledTrade() : null;
+    }
+
+    /**
+     * Parses a payload from a streaming parser into its scaled form, based on the specified {@link MarketDataQueryType}.
+     *
+     * @param type   the market data type, determining whether to parse a trade or a quote.
+     * @param parser the streaming parser positioned at the start of the payload object.
+     * @return a parsed {@link ScaledTrade} or {@link ScaledQuote} object, or {@code null} if parsing fails.
+     * @throws IOException if the underlying JSON is malformed.
+     */
+    default Object parseScaled(MarketDataQueryType type, JsonParser parser) throws IOException {
+        return switch (type) {
+            case TRADE -> parseScaledTrade(parser);
+            case QUOTE -> parseScaledQuote(parser);
+        };
+    }
 }
@@ -0,0 +1,280 @@
+package Normalizer.PayloadParser;
+
+import MarketDataType.MarketDataQueryType;
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * The {@code ParserRegistry} maps envelope tags such as {@code "quote@coinbase"} to the {@link Parser}
+ * and {@link MarketDataQueryType} that handle them.
+ * <p>
+ * Parsers are discovered once with {@link ServiceLoader}: an exchange is added by implementing {@link Parser}
+ * and listing the class in {@code META-INF/services/Normalizer.PayloadParser.Parser}, without touching the
+ * {@code Normalizer}. For every discovered parser and every query type, the registry pre-builds a
+ * {@link Binding} under both spellings of the type the pipeline produces ({@code quote@coinbase} and
+ * {@code QUOTE@coinbase}).
+ * </p>
+ * <p>
+ * Bindings are stored in an open-addressing table that can be probed directly with the characters of the tag,
+ * e.g. straight from a {@link JsonParser}'s text buffer, so resolving a known tag is a single hash-and-compare
+ * that allocates nothing. Tags in any other spelling are resolved once through {@link #resolve(String)} and
+ * then added to the table.
+ * </p>
+ * <p>
+ * Envelopes tagged {@code gap@<exchange>} carry no market data but a {@link MarketDataType.SequenceGap}
+ * reported by the producer. They have no binding; {@link #isGapTag(char[], int, int)} and
+ * {@link #gapExchange(String)} recognize them so consumers can handle them apart.
+ * </p>
+ */
+public final class ParserRegistry {
+
+    /**
+     * A resolved tag: the parser of the exchange and the type of payload it carries.
+     *
+     * @param tag    The envelope tag this binding was registered under.
+     * @param parser The parser of the exchange named by the tag.
+     * @param type   The query type named by the tag.
+     */
+    public record Binding(String tag, Parser parser, MarketDataQueryType type) {
+
+        /**
+         * Parses a payload with this binding's parser and type.
+         *
+         * @param payload the streaming parser positioned at the start of the payload object.
+         * @return a parsed {@code Trade} or {@code Quote}, or {@code null} if parsing fails.
+         * @throws IOException if the payload JSON is malformed.
+         */
+        public Object parse(JsonParser payload) throws IOException {
+            return parser.parse(type, payload);
+        }
+
+        /**
+         * Parses a payload into its scaled form with this binding's parser and type.
+         *
+         * @param payload the streaming parser positioned at the start of the payload object.
+         * @return a parsed {@code ScaledTrade} or {@code ScaledQuote}, or {@code null} if parsing fails.
+         * @throws IOException if the payload JSON is malformed.
+         */
+        public Object parseScaled(JsonParser payload) throws IOException {
+            return parser.parseScaled(type, payload);
+        }
+    }
+
+    /**
+     * The type part of the tag of envelopes reporting a sequence gap, as in {@code gap@coinbase}.
+     */
+    public static final String GAP_TYPE = "gap";
+
+    private static final String GAP_PREFIX = GAP_TYPE + "@";
+
+    private static final class DefaultHolder {
+        private static final ParserRegistry INSTANCE = load();
+    }
+
+    private final Map<String, Parser> parsersByExchange;
+    // Open-addressing table indexed by the hash of the tag's characters; replaced wholesale when it grows.
+    private volatile Binding[] table;
+
+    /**
+     * Creates a registry for the given parsers.
+     *
+     * @param parsers the parsers to register; their {@link Parser#getTag()} values must be distinct.
+     * @throws IllegalArgumentException if two parsers share an exchange tag.
+     */
+    public ParserRegistry(Iterable<? extends Parser> parsers) {
+        Map<String, Parser> byExchange = new HashMap<>();
+        List<Binding> bindings = new ArrayList<>();
+        for (Parser parser : parsers) {
+            if (byExchange.putIfAbsent(parser.getTag(), parser) != null) {
+                throw new IllegalArgumentException("Duplicate parser for exchange: " + parser.getTag());
+            }
+            for (MarketDataQueryType type : MarketDataQueryType.values()) {
+                bindings.add(new Binding(type.getValue() + "@" + parser.getTag(), parser, type));
+                bindings.add(new Binding(type + "@" + parser.getTag(), parser, type));
+            }
+        }
+        this.parsersByExchange = Map.copyOf(byExchange);
+        this.table = buildTable(bindings);
+    }
+
+    /**
+     * Creates a registry from all {@link Parser} implementations visible to {@link ServiceLoader}.
+     *
+     * @return a new registry.
+     */
+    public static ParserRegistry load() {
+        return new ParserRegistry(ServiceLoader.load(Parser.class));
+    }
+
+    /**
+     * Returns the process-wide registry, loaded on first use.
+     *
+     * @return the default registry.
+     */
+    public static ParserRegistry getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Looks up a tag given as a slice of a character buffer, without allocating.
+     *
+     * @param chars  the buffer holding the tag.
+     * @param offset the offset of the first character of the tag.
+     * @param length the number of characters of the tag.
+     * @return the binding of the tag, or {@code null} if the tag is not in the table.
+     */
+    public Binding lookup(char[] chars, int offset, int length) {
+        Binding[] t = table;
+        int mask = t.length - 1;
+        for (int i = hash(chars, offset, length) & mask; ; i = (i + 1) & mask) {
+            Binding b = t[i];
+            if (b == null) {
+                return null;
+            }
+            if (matches(b.tag, chars, offset, length)) {
+                return b;
+            }
+        }
+    }
+
+    /**
+     * Returns whether a tag, given as a slice of a character buffer, names a gap envelope. Does not allocate.
+     *
+     * @param chars  the buffer holding the tag.
+     * @param offset the offset of the first character of the tag.
+     * @param length the number of characters of the tag.
+     * @return {@code true} if the tag is {@code gap@} followed by an exchange.
+     */
+    public static boolean isGapTag(char[] chars, int offset, int length) {
+        if (length <= GAP_PREFIX.length()) {
+            return false;
+        }
+        for (int i = 0; i < GAP_PREFIX.length(); i++) {
+            if (chars[offset + i] != GAP_PREFIX.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the exchange of a gap envelope's tag.
+     *
+     * @param tag the envelope tag.
+     * @return the exchange (e.g. {@code "coinbase"} for {@code "gap@coinbase"}), or {@code null} if the tag does
+     * not name a gap envelope.
+     */
+    public static String gapExchange(String tag) {
+        return (tag.length() > GAP_PREFIX.length() && tag.startsWith(GAP_PREFIX))
+                ? tag.substring(GAP_PREFIX.length()) : null;
+    }
+
+    /**
+     * Resolves a tag of the form {@code type@exchange}, accepting any case for the type.
+     * <p>
+     * Known tags are served from the lookup table. Other spellings of a valid tag are resolved once and
+     * then added to the table, so later lookups of the same tag are again a single probe.
+     * </p>
+     *
+     * @param tag the envelope tag.
+     * @return the binding of the tag.
+     * @throws IllegalArgumentException if the tag is malformed, or names an unknown type or exchange.
+     */
+    public Binding resolve(String tag) {
+        char[] chars = tag.toCharArray();
+        Binding known = lookup(chars, 0, chars.length);
+        if (known != null) {
+            return known;
+        }
+        int at = tag.indexOf('@');
+        if (at <= 0 || at == tag.length() - 1 || tag.indexOf('@', at + 1) >= 0) {
+            throw new IllegalArgumentException("Invalid tag format: " + tag);
+        }
+        String exchange = tag.substring(at + 1);
+        MarketDataQueryType type;
+        try {
+            type = MarketDataQueryType.fromString(tag.substring(0, at));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Failed to parse type: " + tag.substring(0, at));
+        }
+        Parser parser = parsersByExchange.get(exchange);
+        if (parser == null) {
+            throw new IllegalArgumentException("Unsupported exchange: " + exchange);
+        }
+        Binding binding = new Binding(tag, parser, type);
+        synchronized (this) {
+            List<Binding> bindings = new ArrayList<>();
+            for (Binding b : table) {
+                if (b != null) {
+                    bindings.add(b);
+                }
+            }
+            bindings.add(binding);
+            table = buildTable(bindings);
+        }
+        return binding;
+    }
+
+    /**
+     * Retrieves the parser registered for an exchange tag.
+     *
+     * @param exchange the exchange tag (e.g. {@code "binance.us"}).
+     * @return the parser, or {@code null} if none is registered.
+     */
+    public Parser getParser(String exchange) {
+        return parsersByExchange.get(exchange);
+    }
+
+    private static Binding[] buildTable(List<Binding> bindings) {
+        // Keep the load factor at or below one half so probe sequences stay short.
+        int capacity = Integer.highestOneBit(Math.max(4, bindings.size() * 2) - 1) << 1;
+        Binding[] t = new Binding[capacity];
+        int mask = capacity - 1;
+        for (Binding b : bindings) {
+            int i = hash(b.tag) & mask;
+            while (t[i] != null && !t[i].tag.equals(b.tag)) {
+                i = (i + 1) & mask;
+            }
+            t[i] = b;
+        }
+        return t;
+    }
+
+    private static int hash(String s) {
+        int h = 0;
+        for (int i = 0; i < s.length(); i++) {
+            h = 31 * h + s.charAt(i);
+        }
+        return spread(h);
+    }
+
+    private static int hash(char[] chars, int offset, int length) {
+        int h = 0;
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + chars[i];
+        }
+        return spread(h);
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String tag, char[] chars, int offset, int length) {
+        if (tag.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (tag.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,142 @@
+package Producer;
+
+/**
+ * Builds the envelopes ({@code {"tag":"type@exchange","ts":...,"payload":...}}) a {@link Producer} sends downstream.
+ * <p>
+ * The optional {@code ts} field is the time the message was received, in epoch nanoseconds from
+ * {@link Utils.Timestamps#monotonicNow()}; downstream stages measure their latency against it.
+ * </p>
+ * <p>
+ * One builder serves one connection. Its buffer starts with the envelope's prefix, written once when the builder is
+ * created; each message's payload is appended in a single pass that drops carriage returns and line feeds, which
+ * keeps every envelope on one line, and the buffer is rewound to the prefix afterwards. Building an envelope
+ * therefore copies the payload twice (into the buffer and into the result {@link String}) and allocates nothing
+ * else once the buffer has grown to the largest message. JSON does not allow raw line breaks inside strings, so
+ * dropping them never changes a valid payload.
+ * </p>
+ * <p>
+ * A payload delivered in several parts is passed to {@link #append(CharSequence)} part by part and completed with
+ * {@link #finish()}. Instances are not thread-safe.
+ * </p>
+ */
+public final class EnvelopeBuilder {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final StringBuilder buffer = new StringBuilder(INITIAL_CAPACITY);
+    private final int prefixLength;
+    private boolean started;
+
+    /**
+     * Creates a builder for envelopes carrying the given tag.
+     *
+     * @param tag the envelope tag, e.g. {@code "trade@coinbase"}.
+     * @throws IllegalArgumentException if the tag contains a quote, a backslash or a control character.
+     */
+    public EnvelopeBuilder(String tag) {
+        for (int i = 0; i < tag.length(); i++) {
+            char c = tag.charAt(i);
+            if (c == '"' || c == '\\' || c < 0x20) {
+                throw new IllegalArgumentException("Invalid envelope tag: " + tag);
+            }
+        }
+        buffer.append("{\"tag\":\"").append(tag).append('"');
+        prefixLength = buffer.length();
+    }
+
+    /**
+     * Builds the envelope of a complete payload.
+     *
+     * @param payload the payload JSON.
+     * @return the envelope, on one line.
+     */
+    public String build(CharSequence payload) {
+        return append(payload).finish();
+    }
+
+    /**
+     * Builds the envelope of a complete payload received at the given time.
+     *
+     * @param payload       the payload JSON.
+     * @param receivedNanos the time the payload was received, in epoch nanoseconds.
+     * @return the envelope, on one line.
+     */
+    public String build(CharSequence payload, long receivedNanos) {
+        return stamp(receivedNanos).append(payload).finish();
+    }
+
+    /**
+     * Starts the current envelope with the time its payload was received. Must be called before the payload's
+     * first part is appended.
+     *
+     * @param receivedNanos the time the payload was received, in epoch nanoseconds.
+     * @return this builder.
+     * @throws IllegalStateException if a part of the payload has already been appended.
+     */
+    public EnvelopeBuilder stamp(long receivedNanos) {
+        if (started) {
+            throw new IllegalStateException("The payload has already been started.");
+        }
+        buffer.append(",\"ts\":").append(receivedNanos);
+        startPayload();
+        return this;
+    }
+
+    /**
+     * Appends a part of the current payload, without its line breaks.
+     *
+     * @param part the next part of the payload JSON.
+     * @return this builder.
+     */
+    public EnvelopeBuilder append(CharSequence part) {
+        startPayload();
+        int length = part.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = part.charAt(i);
+            if (c == '\n' || c == '\r') {
+                buffer.append(part, start, i);
+                start = i + 1;
+            }
+        }
+        buffer.append(part, start, length);
+        return this;
+    }
+
+    /**
+     * Returns whether a payload has been started with {@link #append(CharSequence)} and not finished.
+     *
+     * @return {@code true} if parts of a payload are buffered.
+     */
+    public boolean hasPending() {
+        return started;
+    }
+
+    /**
+     * Completes the envelope of the appended payload and rewinds the builder for the next one.
+     *
+     * @return the envelope, on one line.
+     */
+    public String finish() {
+        startPayload();
+        buffer.append('}');
+        String envelope = buffer.toString();
+        reset();
+        return envelope;
+    }
+
+    /**
+     * Drops the appended parts of the current payload.
+     */
+    public void reset() {
+        buffer.setLength(prefixLength);
+        started = false;
+    }
+
+    private void startPayload() {
+        if (!started) {
+            buffer.append(",\"payload\":");
+            started = true;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package Producer;
+
+import DataChannel.DataChannel;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Grants a {@link Producer}'s WebSocket demand in credits sized by the free space of its {@link DataChannel}.
+ * <p>
+ * The WebSocket delivers one frame (a message or a part of one, a ping or a pong) per unit of demand. Requesting
+ * one unit after every frame costs a callback round trip per frame and ignores downstream congestion, so demand is
+ * instead topped up in batches: whenever the credits outstanding fall to half a batch, the controller requests
+ * enough to reach {@code min(batch, remaining capacity - reserve)}. Frames already requested are counted against the
+ * channel's capacity, so the connection never has more frames in flight than the channel can take.
+ * </p>
+ * <p>
+ * When the channel has no room left beyond the reserve and no credit is outstanding, the controller pauses: nothing
+ * more is read from the socket, and the exchange's data waits in the TCP buffers instead of piling up in memory.
+ * {@link #poll()} resumes it once the consumers have made room. Channels that do not report their capacity are
+ * treated as unbounded and always receive full batches.
+ * </p>
+ */
+final class FlowController {
+
+    private static final Logger logger = LogManager.getLogger(FlowController.class);
+
+    /**
+     * Default number of frames requested at a time.
+     */
+    static final int DEFAULT_BATCH = 64;
+
+    private final DataChannel channel;
+    private final int batch;
+    private final int reserve;
+    private final ReentrantLock lock = new ReentrantLock();
+    private LongConsumer request;
+    private long outstanding;
+    private volatile boolean paused;
+
+    /**
+     * Creates a controller for a connection feeding {@code channel}.
+     *
+     * @param channel the channel the connection's messages are sent to.
+     * @param batch   the most frames requested at a time; at least 1.
+     * @param reserve the free slots kept in the channel for other senders; not negative.
+     * @throws IllegalArgumentException if {@code batch} or {@code reserve} is out of range.
+     */
+    FlowController(DataChannel channel, int batch, int reserve) {
+        if (batch < 1) {
+            throw new IllegalArgumentException("batch must be at least 1.");
+        }
+        if (reserve < 0) {
+            throw new IllegalArgumentException("reserve must not be negative.");
+        }
+        this.channel = channel;
+        this.batch = batch;
+        this.reserve = reserve;
+    }
+
+    /**
+     * Starts granting credits on a newly opened connection.
+     *
+     * @param request requests more frames from the connection, e.g. {@code webSocket::request}.
+     */
+    void attach(LongConsumer request) {
+        lock.lock();
+        try {
+            this.request = request;
+            this.outstanding = 0;
+            this.paused = false;
+            topUp();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops granting credits; called when the connection closes.
+     */
+    void detach() {
+        lock.lock();
+        try {
+            request = null;
+            outstanding = 0;
+            paused = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Accounts for one delivered frame and tops up the credits if they are running low.
+     */
+    void delivered() {
+        lock.lock();
+        try {
+            if (outstanding > 0) {
+                outstanding--;
+            }
+            topUp();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Resumes a paused connection if the channel has made room; does nothing otherwise.
+     */
+    void poll() {
+        if (!paused) {
+            return;
+        }
+        lock.lock();
+        try {
+            topUp();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether the connection is paused because the channel is full.
+     */
+    boolean paused() {
+        return paused;
+    }
+
+    /**
+     * Requests frames up to the target credit. Must hold the lock.
+     */
+    private void topUp() {
+        if (request == null || outstanding > batch / 2) {
+            return;
+        }
+        long target = Math.min(batch, (long) channel.remainingCapacity() - reserve);
+        long grant = target - outstanding;
+        if (grant <= 0) {
+            if (outstanding == 0 && !paused) {
+                paused = true;
+                logger.warn("Channel is full; pausing reads.");
+            }
+            return;
+        }
+        if (paused) {
+            paused = false;
+            logger.info("Channel has room again; resuming reads.");
+        }
+        outstanding += grant;
+        request.accept(grant);
+    }
+}
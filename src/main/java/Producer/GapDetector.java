@@ -0,0 +1,134 @@
+package Producer;
+
+import MarketDataType.MarketDataQueryType;
+import Producer.QueryGenerator.Sequence;
+import Producer.QueryGenerator.Subscription;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Detects lost messages from the sequence numbers of a {@link Producer}'s streams, across reconnects.
+ * <p>
+ * The last number seen is kept per stream (product and type). In a {@linkplain Sequence#contiguous() contiguous}
+ * stream, a message whose number skips ahead reveals the messages in between as lost. Other streams only number
+ * their messages increasingly, so losses cannot be seen within a connection; after a reconnect, however, the first
+ * message of each stream is reported with the range the outage may have swallowed. A contiguous stream resuming
+ * exactly where it left off reports nothing. Numbers at or below the last one (replays and duplicates) are ignored.
+ * </p>
+ * <p>
+ * A stream's state is dropped with {@link #forget(Collection)} when it is unsubscribed, so subscribing to it again
+ * starts afresh instead of reporting everything published in between as lost.
+ * </p>
+ */
+final class GapDetector {
+
+    private static final Logger logger = LogManager.getLogger(GapDetector.class);
+
+    /**
+     * A range of a stream's messages that may have been lost.
+     *
+     * @param stream    the product and type of the stream.
+     * @param last      the number of the last message received before the gap.
+     * @param next      the number of the first message received after it.
+     * @param missing   the number of messages lost, or {@code -1} if the stream is not contiguous.
+     * @param reconnect whether the gap spans a reconnect rather than a skip within one connection.
+     */
+    record Gap(Subscription stream, long last, long next, long missing, boolean reconnect) {
+
+        /**
+         * Returns the gap as the payload of a gap envelope, e.g.
+         * {@code {"type":"trade","product":"BTC-USD","last":100,"next":105,"missing":4,"cause":"sequence"}}.
+         */
+        String toJson() {
+            return "{\"type\":\"" + stream.type().getValue()
+                    + "\",\"product\":\"" + new String(JsonStringEncoder.getInstance().quoteAsString(stream.product()))
+                    + "\",\"last\":" + last
+                    + ",\"next\":" + next
+                    + ",\"missing\":" + missing
+                    + ",\"cause\":\"" + (reconnect ? "reconnect" : "sequence") + "\"}";
+        }
+    }
+
+    private static final class State {
+        long last;
+        boolean interrupted;
+
+        State(long last) {
+            this.last = last;
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Subscription, State> streams = new HashMap<>();
+
+    /**
+     * Records a message's position.
+     *
+     * @param type     the type of the message.
+     * @param sequence the position of the message.
+     * @return the gap before the message, or {@code null} if nothing was lost.
+     */
+    Gap check(MarketDataQueryType type, Sequence sequence) {
+        Subscription stream = new Subscription(sequence.product(), type);
+        long number = sequence.number();
+        lock.lock();
+        try {
+            State state = streams.get(stream);
+            if (state == null) {
+                streams.put(stream, new State(number));
+                return null;
+            }
+            long last = state.last;
+            if (number <= last) {
+                logger.debug("Ignoring replayed {} {} for {}.", type.getValue(), number, stream.product());
+                return null;
+            }
+            boolean reconnect = state.interrupted;
+            state.last = number;
+            state.interrupted = false;
+            if (sequence.contiguous()) {
+                long missing = number - last - 1;
+                return (missing == 0) ? null : new Gap(stream, last, number, missing, reconnect);
+            }
+            return reconnect ? new Gap(stream, last, number, -1, true) : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks every stream as interrupted, so that its first message on the next connection is checked for losses.
+     */
+    void disconnected() {
+        lock.lock();
+        try {
+            for (State state : streams.values()) {
+                state.interrupted = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the state of streams that are no longer subscribed. Products are matched ignoring case, as sequences
+     * may spell them differently from subscriptions.
+     *
+     * @param removed the unsubscribed streams.
+     */
+    void forget(Collection<Subscription> removed) {
+        lock.lock();
+        try {
+            streams.keySet().removeIf(stream -> removed.stream().anyMatch(subscription ->
+                    subscription.type() == stream.type() && subscription.product().equalsIgnoreCase(stream.product())));
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package Producer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reassembles the WebSocket frames of one connection into complete messages.
+ * <p>
+ * The WebSocket API delivers a large message as several parts, flagged {@code last} on the final one. Text parts
+ * are accumulated in a reusable buffer and only the complete message is returned; a message arriving in one part is
+ * returned as is, without copying. Binary messages are accumulated the same way and then decoded: a payload
+ * starting with {@code '{'} or {@code '['} is UTF-8 JSON, a GZIP or zlib header selects that format, and anything
+ * else is taken as raw deflate as permessage-deflate sends it, with the trailing empty block stripped.
+ * Decompression reuses the connection's {@link Inflater}s, reset between messages, so no native zlib stream is
+ * created per message; they are released by {@link #close()}.
+ * </p>
+ * <p>
+ * Messages longer than the configured limit, including after decompression, are rejected rather than buffered.
+ * Instances are not thread-safe; the WebSocket delivers one frame at a time.
+ * </p>
+ */
+final class MessageAssembler implements AutoCloseable {
+
+    /**
+     * Default limit on the length of a message, in characters for text and bytes for binary data.
+     */
+    static final int DEFAULT_MAX_MESSAGE_LENGTH = 64 << 20;
+
+    private static final int INITIAL_CAPACITY = 8192;
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    // The empty stored block permessage-deflate strips from the end of each message (RFC 7692, section 7.2.2).
+    private static final byte[] DEFLATE_TAIL = {0, 0, (byte) 0xff, (byte) 0xff};
+
+    private final int maxMessageLength;
+    private final StringBuilder text = new StringBuilder(INITIAL_CAPACITY);
+    private byte[] binary = new byte[INITIAL_CAPACITY];
+    private int binaryLength;
+    private byte[] inflated = new byte[INITIAL_CAPACITY];
+    private boolean overflow;
+    private boolean textComplete;
+    private Inflater zlibInflater;
+    private Inflater rawInflater;
+
+    MessageAssembler() {
+        this(DEFAULT_MAX_MESSAGE_LENGTH);
+    }
+
+    /**
+     * @param maxMessageLength the longest message accepted; at least 1.
+     */
+    MessageAssembler(int maxMessageLength) {
+        if (maxMessageLength < 1) {
+            throw new IllegalArgumentException("maxMessageLength must be at least 1.");
+        }
+        this.maxMessageLength = maxMessageLength;
+    }
+
+    /**
+     * Adds a part of a text message.
+     *
+     * @param data the part received.
+     * @param last whether it is the final part of the message.
+     * @return the complete message if {@code last} is set, or {@code null}. A reassembled message is a view of the
+     * buffer and is only valid until the next call.
+     * @throws IOException if the message exceeds the length limit; the rest of its parts are discarded.
+     */
+    CharSequence text(CharSequence data, boolean last) throws IOException {
+        if (textComplete) {
+            text.setLength(0);
+            textComplete = false;
+        }
+        if (last && text.isEmpty() && !overflow) {
+            if (data.length() > maxMessageLength) {
+                throw tooLong();
+            }
+            return data;
+        }
+        if (!overflow && text.length() + data.length() > maxMessageLength) {
+            overflow = true;
+            text.setLength(0);
+        }
+        if (!overflow) {
+            text.append(data);
+        }
+        if (!last) {
+            return null;
+        }
+        if (overflow) {
+            overflow = false;
+            throw tooLong();
+        }
+        // Rewound on the next call, once the caller is done with the message.
+        textComplete = true;
+        return text;
+    }
+
+    /**
+     * Adds a part of a binary message and decodes the message once it is complete.
+     *
+     * @param data the part received; it is copied, so the buffer may be reused afterwards.
+     * @param last whether it is the final part of the message.
+     * @return the decoded message if {@code last} is set, or {@code null}.
+     * @throws IOException if the message exceeds the length limit or cannot be decompressed.
+     */
+    CharSequence binary(ByteBuffer data, boolean last) throws IOException {
+        int length = data.remaining();
+        if (!overflow && (long) binaryLength + length > maxMessageLength) {
+            overflow = true;
+            binaryLength = 0;
+        }
+        if (!overflow) {
+            ensureBinaryCapacity(binaryLength + length);
+            data.get(binary, binaryLength, length);
+            binaryLength += length;
+        } else {
+            data.position(data.limit());
+        }
+        if (!last) {
+            return null;
+        }
+        int total = binaryLength;
+        binaryLength = 0;
+        if (overflow) {
+            overflow = false;
+            throw tooLong();
+        }
+        return decode(binary, total);
+    }
+
+    /**
+     * Releases the inflaters.
+     */
+    @Override
+    public void close() {
+        if (zlibInflater != null) {
+            zlibInflater.end();
+            zlibInflater = null;
+        }
+        if (rawInflater != null) {
+            rawInflater.end();
+            rawInflater = null;
+        }
+    }
+
+    private String decode(byte[] bytes, int length) throws IOException {
+        if (length == 0 || bytes[0] == '{' || bytes[0] == '[') {
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+        if (length >= 2 && ((bytes[0] & 0xff) | (bytes[1] & 0xff) << 8) == GZIP_MAGIC) {
+            int offset = gzipHeaderLength(bytes, length);
+            return inflate(rawInflater(), bytes, offset, length - offset, false);
+        }
+        if (length >= 2 && (bytes[0] & 0x0f) == 8 && ((bytes[0] & 0xff) << 8 | (bytes[1] & 0xff)) % 31 == 0) {
+            return inflate(zlibInflater(), bytes, 0, length, false);
+        }
+        return inflate(rawInflater(), bytes, 0, length, true);
+    }
+
+    /**
+     * Inflates a message. Without {@code flushed}, the stream must end within the message; with it, the message may
+     * stop at a flush point, and the stripped empty block is fed once the input runs out.
+     */
+    private String inflate(Inflater inflater, byte[] bytes, int offset, int length, boolean flushed)
+            throws IOException {
+        inflater.reset();
+        inflater.setInput(bytes, offset, length);
+        int size = 0;
+        try {
+            while (!inflater.finished()) {
+                if (size == inflated.length) {
+                    if (size >= maxMessageLength) {
+                        throw tooLong();
+                    }
+                    inflated = Arrays.copyOf(inflated, (int) Math.min((long) size * 2, maxMessageLength));
+                }
+                int n = inflater.inflate(inflated, size, inflated.length - size);
+                if (inflater.needsDictionary()) {
+                    throw new IOException("Compressed message needs a preset dictionary.");
+                }
+                size += n;
+                if (n == 0 && inflater.needsInput()) {
+                    if (!flushed) {
+                        throw new IOException("Truncated compressed message.");
+                    }
+                    if (inflater.getBytesRead() > length) {
+                        // The tail has been consumed: the message ends at the flush point.
+                        break;
+                    }
+                    inflater.setInput(DEFLATE_TAIL);
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Malformed compressed message.", e);
+        }
+        if (size > maxMessageLength) {
+            throw tooLong();
+        }
+        return new String(inflated, 0, size, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the length of the GZIP member header starting the message.
+     */
+    private static int gzipHeaderLength(byte[] bytes, int length) throws IOException {
+        if (length < 10 || bytes[2] != 8) {
+            throw new IOException("Unsupported GZIP header.");
+        }
+        int flags = bytes[3];
+        int i = 10;
+        if ((flags & FEXTRA) != 0) {
+            if (i + 2 > length) {
+                throw new IOException("Truncated GZIP header.");
+            }
+            i += 2 + ((bytes[i] & 0xff) | (bytes[i + 1] & 0xff) << 8);
+        }
+        if ((flags & FNAME) != 0) {
+            i = skipZeroTerminated(bytes, i, length);
+        }
+        if ((flags & FCOMMENT) != 0) {
+            i = skipZeroTerminated(bytes, i, length);
+        }
+        if ((flags & FHCRC) != 0) {
+            i += 2;
+        }
+        if (i > length) {
+            throw new IOException("Truncated GZIP header.");
+        }
+        return i;
+    }
+
+    private static int skipZeroTerminated(byte[] bytes, int i, int length) throws IOException {
+        while (i < length && bytes[i] != 0) {
+            i++;
+        }
+        if (i >= length) {
+            throw new IOException("Truncated GZIP header.");
+        }
+        return i + 1;
+    }
+
+    private void ensureBinaryCapacity(int capacity) {
+        if (capacity > binary.length) {
+            binary = Arrays.copyOf(binary, Math.max(capacity, (int) Math.min((long) binary.length * 2,
+                    maxMessageLength)));
+        }
+    }
+
+    private Inflater zlibInflater() {
+        if (zlibInflater == null) {
+            zlibInflater = new Inflater();
+        }
+        return zlibInflater;
+    }
+
+    private Inflater rawInflater() {
+        if (rawInflater == null) {
+            rawInflater = new Inflater(true);
+        }
+        return rawInflater;
+    }
+
+    private IOException tooLong() {
+        return new IOException("Message longer than the limit of " + maxMessageLength + ".");
+    }
+}
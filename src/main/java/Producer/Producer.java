@@ -4,15 +4,27 @@ import DataChannel.ChannelException;
 import DataChannel.DataChannel;
 import MarketDataType.MarketDataQueryType;
 import Producer.QueryGenerator.QueryGenerator;
+import Producer.QueryGenerator.Sequence;
+import Producer.QueryGenerator.Subscription;
+import Utils.ExecutionMode;
+import Utils.LatencyHistogram;
+import Utils.Timestamps;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.WebSocket;
 import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The {@code Producer} class is responsible for connecting to a WebSocket-based
@@ -22,15 +34,64 @@ import java.util.concurrent.CompletionStage;
  * It supports different market data providers by utilizing a {@link QueryGenerator}
  * that constructs subscription messages for different exchanges.
  * </p>
+ * <p>
+ * One producer holds one WebSocket connection, which may carry any number of {@link Subscription}s: they are
+ * combined into a single subscription message, and every incoming message is tagged with the type the generator
+ * {@linkplain QueryGenerator#classify(CharSequence) classifies} it as. Control messages such as subscription
+ * acknowledgements complete the request they answer and are not forwarded. Streams can be added and removed on the
+ * live connection with {@link #subscribe(Collection)} and {@link #unsubscribe(Collection)}. Producers may also share
+ * one {@link HttpClient}, and with it its threads and connection setup, instead of each creating its own.
+ * </p>
+ * <p>
+ * Frames are read under credit-based flow control: a {@link FlowController} requests them from the WebSocket in
+ * batches sized by the channel's {@linkplain DataChannel#remainingCapacity() remaining capacity}, and stops reading
+ * when the channel is full, leaving the backlog in the socket rather than in memory. Messages split across several
+ * frames are reassembled before they are classified, and binary messages, plain or GZIP/deflate compressed, are
+ * decoded to text by the connection's {@link MessageAssembler}.
+ * </p>
+ * <p>
+ * When the connection closes or fails, the producer reconnects after an exponential backoff with jitter, so that
+ * producers dropped together do not reconnect together, and resubscribes to all of its streams. Messages lost
+ * meanwhile, or skipped within a connection, are detected from the exchange's sequence numbers by a
+ * {@link GapDetector} and reported downstream as envelopes tagged {@code gap@<exchange>}, e.g.
+ * {@code {"tag":"gap@coinbase","payload":{"type":"trade","product":"BTC-USD","last":100,"next":105,"missing":4,
+ * "cause":"reconnect"}}}, sent just before the message that revealed the gap.
+ * </p>
+ * <p>
+ * Every envelope carries the time its message began to arrive in a {@code ts} field, in epoch nanoseconds from
+ * {@link Timestamps#monotonicNow()}, for downstream stages to measure their latency against; the producer's own
+ * share, from receipt to the channel accepting the envelope, is recorded in {@link #latency()}.
+ * </p>
+ * <p>
+ * The WebSocket callbacks run on an executor of the configured {@link ExecutionMode}, and
+ * {@link #run()} parks until {@link #stop()} is called or the thread is interrupted, waking only every few
+ * milliseconds to resume reads paused by a full channel or to reconnect, so a producer hosted on a virtual thread
+ * costs no platform thread while idle.
+ * </p>
+ *
+ * <b>Usage Example:</b>
+ * <pre>{@code
+ * HttpClient client = HttpClient.newBuilder().executor(ExecutionMode.VIRTUAL.newExecutor("ws")).build();
+ * List<Subscription> subscriptions = List.of(
+ *         new Subscription("BTC-USD", MarketDataQueryType.TRADE),
+ *         new Subscription("BTC-USD", MarketDataQueryType.QUOTE),
+ *         new Subscription("ETH-USD", MarketDataQueryType.QUOTE));
+ * Producer producer = new Producer(new CoinbaseGenerator(), subscriptions, channel, client);
+ * }</pre>
  */
 public class Producer implements Runnable {
     private final QueryGenerator gen;
-    private final String product;
-    private final MarketDataQueryType type;
+    private final SubscriptionManager subscriptions;
     private final DataChannel channel;
-    private boolean firstMessageReceived = false;
-    private volatile boolean running = true;
+    private final GapDetector gaps = new GapDetector();
+    private final LatencyHistogram latency;
+    private final ExecutionMode mode;
+    private final HttpClient sharedClient;
+    private final CountDownLatch stopped = new CountDownLatch(1);
     private static final Logger logger = LogManager.getLogger(Producer.class);
+    private static final long RESUME_CHECK_MILLIS = 5;
+    private static final long BASE_RECONNECT_DELAY_MS = 250;
+    private static final long MAX_RECONNECT_DELAY_MS = 30_000;
 
     /**
      * Constructs a {@code Producer} instance that subscribes to market data.
@@ -41,44 +102,214 @@ public class Producer implements Runnable {
      * @param channel the {@link DataChannel} to which received data will be forwarded.
      */
     public Producer(QueryGenerator gen, String product, MarketDataQueryType type, DataChannel channel) {
-        this.product = product;
-        this.type = type;
+        this(gen, product, type, channel, ExecutionMode.PLATFORM);
+    }
+
+    /**
+     * Constructs a {@code Producer} instance whose WebSocket callbacks run on threads of the given mode.
+     *
+     * @param gen     the {@link QueryGenerator} responsible for generating subscription messages.
+     * @param product the financial product (e.g., "BTC-USD") to subscribe to.
+     * @param type    the type of market data query (e.g., {@code TRADE}, {@code QUOTE}).
+     * @param channel the {@link DataChannel} to which received data will be forwarded.
+     * @param mode    the {@link ExecutionMode} of the WebSocket client's threads.
+     */
+    public Producer(QueryGenerator gen, String product, MarketDataQueryType type, DataChannel channel, ExecutionMode mode) {
+        this(gen, List.of(new Subscription(product, type)), channel, mode, null);
+    }
+
+    /**
+     * Constructs a {@code Producer} that subscribes to many streams over one connection.
+     *
+     * @param gen           the {@link QueryGenerator} responsible for generating subscription messages.
+     * @param subscriptions the streams to subscribe to; not empty.
+     * @param channel       the {@link DataChannel} to which received data will be forwarded.
+     * @throws IllegalArgumentException if {@code subscriptions} is empty.
+     */
+    public Producer(QueryGenerator gen, Collection<Subscription> subscriptions, DataChannel channel) {
+        this(gen, subscriptions, channel, ExecutionMode.PLATFORM, null);
+    }
+
+    /**
+     * Constructs a {@code Producer} that subscribes to many streams over one connection opened with a shared
+     * client. The client stays owned by the caller and is not shut down when the producer stops.
+     *
+     * @param gen           the {@link QueryGenerator} responsible for generating subscription messages.
+     * @param subscriptions the streams to subscribe to; not empty.
+     * @param channel       the {@link DataChannel} to which received data will be forwarded.
+     * @param client        the HTTP client opening the WebSocket; its executor runs the callbacks.
+     * @throws IllegalArgumentException if {@code subscriptions} is empty.
+     */
+    public Producer(QueryGenerator gen, Collection<Subscription> subscriptions, DataChannel channel,
+                    HttpClient client) {
+        this(gen, subscriptions, channel, ExecutionMode.PLATFORM, client);
+    }
+
+    private Producer(QueryGenerator gen, Collection<Subscription> subscriptions, DataChannel channel,
+                     ExecutionMode mode, HttpClient sharedClient) {
+        if (subscriptions.isEmpty()) {
+            throw new IllegalArgumentException("A producer needs at least one subscription.");
+        }
         this.gen = gen;
+        this.subscriptions = new SubscriptionManager(gen, subscriptions);
         this.channel = channel;
+        this.latency = new LatencyHistogram("producer." + gen.getTag());
+        this.mode = mode;
+        this.sharedClient = sharedClient;
+    }
+
+    /**
+     * Returns the streams this producer subscribes to, including those whose request is not yet acknowledged.
+     *
+     * @return a snapshot of the subscriptions.
+     */
+    public List<Subscription> subscriptions() {
+        return subscriptions.subscriptions();
+    }
+
+    /**
+     * Returns a future completed when the exchange acknowledges the subscription sent as the connection opens.
+     * After a disconnect, it is the future of the next connection's subscription.
+     * It fails with a {@link SubscriptionException} if the exchange rejects it or the connection closes first.
+     *
+     * @return the future of the initial subscription.
+     */
+    public CompletableFuture<Void> subscribed() {
+        return subscriptions.subscribed();
+    }
+
+    /**
+     * Adds streams to the live connection without reconnecting.
+     * <p>
+     * Streams already subscribed are skipped. Before the connection is open, the streams join the initial
+     * subscription and the returned future is {@link #subscribed()}. Otherwise a subscribe request is sent, and the
+     * future completes when the exchange acknowledges it, or fails with a {@link SubscriptionException} if the
+     * exchange rejects it, in which case the streams are removed again.
+     * </p>
+     *
+     * @param added the streams to add.
+     * @return a future completed when the streams are subscribed.
+     * @throws UnsupportedOperationException if the exchange cannot combine the subscriptions in one message.
+     */
+    public CompletableFuture<Void> subscribe(Collection<Subscription> added) {
+        return subscriptions.subscribe(added);
+    }
+
+    /**
+     * Removes streams from the live connection without reconnecting. Messages of the streams may still arrive
+     * until the exchange has processed the request. Once it has, the streams' sequence numbers are forgotten, so
+     * subscribing to them again reports no gap.
+     *
+     * @param removed the streams to remove; streams not subscribed are skipped.
+     * @return a future completed when the exchange acknowledges the request; it fails with a
+     * {@link SubscriptionException} if the exchange rejects it, in which case the streams are kept.
+     * @throws UnsupportedOperationException if the exchange does not support unsubscribing.
+     */
+    public CompletableFuture<Void> unsubscribe(Collection<Subscription> removed) {
+        List<Subscription> streams = List.copyOf(removed);
+        return subscriptions.unsubscribe(streams).thenRun(() -> gaps.forget(streams));
+    }
+
+    /**
+     * Returns the latency from receiving a message to the channel accepting its envelope. Messages split across
+     * several frames are timed from their first frame.
+     *
+     * @return the histogram of this producer's latency.
+     */
+    public LatencyHistogram latency() {
+        return latency;
     }
 
+    /**
+     * Signals the producer to stop; {@link #run()} returns shortly after.
+     */
     public void stop() {
-        running = false;
+        stopped.countDown();
     }
 
     /**
      * Runs the WebSocket connection in a separate thread, subscribing to market data
-     * and handling incoming messages.
+     * and handling incoming messages. The connection is reopened whenever it ends, until the producer is stopped.
      */
     @Override
     public void run() {
+        ExecutorService executor = (sharedClient == null) ? mode.newExecutor("producer-" + gen.getTag()) : null;
         try {
-            HttpClient client = HttpClient.newHttpClient();
-            CompletableFuture<WebSocket> wsFuture = client.newWebSocketBuilder()
-                    .buildAsync(URI.create(gen.getUrl()), new NovaPipeWebSocket());
-
-            wsFuture.thenAccept(webSocket -> {
-                logger.info("WebSocket connection established.");
-                var message = gen.generateQueryMessage(product, type);
-                webSocket.sendText(message, true);
-                webSocket.request(1);
-            });
-
-            while (running && !Thread.currentThread().isInterrupted()) {
-                // Sleep a bit (e.g., 1 second) to avoid busy-waiting.
-                Thread.sleep(1000);
+            HttpClient client = (sharedClient != null) ? sharedClient
+                    : HttpClient.newBuilder().executor(executor).build();
+            int failures = 0;
+            while (stopped.getCount() > 0) {
+                boolean delivered = connect(client);
+                if (stopped.getCount() == 0) {
+                    break;
+                }
+                // A connection that delivered data resets the backoff.
+                failures = delivered ? 0 : failures + 1;
+                long delay = reconnectDelayMillis(failures);
+                logger.warn("Connection to {} ended; reconnecting in {} ms.", gen.getTag(), delay);
+                if (stopped.await(delay, TimeUnit.MILLISECONDS)) {
+                    break;
+                }
             }
         } catch (InterruptedException ie) {
             Thread.currentThread().interrupt(); // reset interruption flag
             logger.error("Producer interrupted.");
         } catch (Exception e) {
             e.printStackTrace();
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Opens one connection and serves it until it ends or the producer is stopped.
+     *
+     * @param client the client opening the WebSocket.
+     * @return whether the connection delivered any market data.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    private boolean connect(HttpClient client) throws InterruptedException {
+        NovaPipeWebSocket listener = new NovaPipeWebSocket();
+        CompletableFuture<WebSocket> wsFuture = client.newWebSocketBuilder()
+                .buildAsync(URI.create(gen.getUrl()), listener);
+        wsFuture.whenComplete((webSocket, error) -> {
+            if (error != null) {
+                logger.error("Failed to connect to {}: {}", gen.getUrl(), error.getMessage());
+                listener.closed.complete(null);
+            } else if (!listener.closed.isDone()) {
+                logger.info("WebSocket connection established.");
+                subscriptions.connected(text -> webSocket.sendText(text, true));
+            }
+        });
+        try {
+            // Park until stopped or disconnected, resuming reads once a full channel has drained.
+            while (!listener.closed.isDone() && !stopped.await(RESUME_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                listener.flow.poll();
+            }
+        } finally {
+            listener.closed.complete(null);
+            // Drop the connection before its executor goes away, or as soon as it opens.
+            wsFuture.thenAccept(WebSocket::abort);
+            subscriptions.disconnected();
+            gaps.disconnected();
+            listener.flow.detach();
+            listener.close();
         }
+        return listener.delivered;
+    }
+
+    /**
+     * Returns the delay before a reconnect: exponential in the number of consecutive failures, capped, and half of
+     * it random.
+     *
+     * @param failures the number of consecutive connections that delivered nothing.
+     * @return the delay in milliseconds.
+     */
+    static long reconnectDelayMillis(int failures) {
+        long cap = Math.min(MAX_RECONNECT_DELAY_MS, BASE_RECONNECT_DELAY_MS << Math.min(failures, 16));
+        return cap / 2 + ThreadLocalRandom.current().nextLong(cap / 2 + 1);
     }
 
     /**
@@ -86,17 +317,34 @@ public class Producer implements Runnable {
      */
     class NovaPipeWebSocket implements WebSocket.Listener {
 
+        // One builder per type, indexed by ordinal.
+        private final EnvelopeBuilder[] envelopes = new EnvelopeBuilder[MarketDataQueryType.values().length];
+        private final EnvelopeBuilder gapEnvelope = new EnvelopeBuilder("gap@" + gen.getTag());
+        private final MessageAssembler assembler = new MessageAssembler();
+        private final FlowController flow = new FlowController(channel, FlowController.DEFAULT_BATCH, 0);
+        // Completed when the connection ends, or fails to open.
+        private final CompletableFuture<Void> closed = new CompletableFuture<>();
+        private volatile boolean delivered;
+        // When the first part of the message being assembled arrived.
+        private long receivedNanos = Timestamps.NONE;
+
+        NovaPipeWebSocket() {
+            for (MarketDataQueryType type : MarketDataQueryType.values()) {
+                envelopes[type.ordinal()] = new EnvelopeBuilder(type.getValue() + "@" + gen.getTag());
+            }
+        }
+
         @Override
         public void onOpen(WebSocket webSocket) {
-            System.out.println("WebSocket opened.");
-            webSocket.request(1);
-            WebSocket.Listener.super.onOpen(webSocket);
+            logger.info("WebSocket opened.");
+            // Replaces the default request(1) with the first batch of credits.
+            flow.attach(webSocket::request);
         }
 
         /**
          * Handles incoming text messages from the WebSocket.
-         * Simply wraps the message in a JSON object and forwards it to the data channel.
-         * A tag is added to identify the source of the message.
+         * The message is stamped with the time its first part arrived. Parts of a message are accumulated until
+         * the last one arrives, then the complete message is {@linkplain #forward(CharSequence, long) forwarded}.
          *
          * @param webSocket the WebSocket instance.
          * @param data      the received message.
@@ -105,26 +353,99 @@ public class Producer implements Runnable {
          */
         @Override
         public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
-            logger.info("Received message: {}", data);
-            if (!firstMessageReceived) {
-                firstMessageReceived = true;
-                logger.info("Ignoring first validation message.");
+            if (receivedNanos == Timestamps.NONE) {
+                receivedNanos = Timestamps.monotonicNow();
+            }
+            logger.debug("Received message: {}", data);
+            try {
+                CharSequence message = assembler.text(data, last);
+                if (message != null) {
+                    forward(message, receivedNanos);
+                }
+            } catch (IOException e) {
+                logger.error("Dropping text message: {}", e.getMessage());
+            } finally {
+                if (last) {
+                    receivedNanos = Timestamps.NONE;
+                }
+            }
+            flow.delivered();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        /**
+         * Handles incoming binary messages from the WebSocket.
+         * The message is stamped with the time its first part arrived. Parts of a message are accumulated until
+         * the last one arrives; the complete message is decompressed if needed, decoded as UTF-8 and
+         * {@linkplain #forward(CharSequence, long) forwarded}.
+         *
+         * @param webSocket the WebSocket instance.
+         * @param data      the received message.
+         * @param last      whether this is the last part of a message.
+         * @return a completed future.
+         */
+        @Override
+        public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+            if (receivedNanos == Timestamps.NONE) {
+                receivedNanos = Timestamps.monotonicNow();
+            }
+            try {
+                CharSequence message = assembler.binary(data, last);
+                if (message != null) {
+                    logger.debug("Received binary message: {}", message);
+                    forward(message, receivedNanos);
+                }
+            } catch (IOException e) {
+                logger.error("Dropping binary message: {}", e.getMessage());
+            } finally {
+                if (last) {
+                    receivedNanos = Timestamps.NONE;
+                }
+            }
+            flow.delivered();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        /**
+         * Wraps a complete message in a JSON object and forwards it to the data channel.
+         * A tag is added to identify the source and type of the message; messages the generator does not classify
+         * as market data are not forwarded but checked for acknowledgements of subscription requests. A gap in the
+         * message's stream is reported by a gap envelope sent before it.
+         * <p>
+         * The envelope is built in this connection's {@link EnvelopeBuilder}, which strips line breaks as it copies
+         * the payload, so no format string or regular expression runs per message.
+         * </p>
+         *
+         * @param message       the complete message.
+         * @param receivedNanos when the message began to arrive, stamped on its envelope.
+         */
+        private void forward(CharSequence message, long receivedNanos) {
+            MarketDataQueryType type = gen.classify(message);
+            if (type == null) {
+                subscriptions.onControlMessage(message);
             } else {
+                Sequence sequence = gen.sequence(type, message);
+                GapDetector.Gap gap = (sequence == null) ? null : gaps.check(type, sequence);
                 try {
-                    String msg = String.format("""
-                            {
-                                "tag": "%s@%s",
-                                "payload": %s
-                            }
-                            """, type.toString(), gen.getTag(), data.toString());
-                    msg = msg.replaceAll("[\\r\\n]+", "");// Remove newlines. Very important!
-                    channel.send(msg);
+                    if (gap != null) {
+                        logger.warn("Gap in {} {}: {} to {}.", gap.stream().product(), type.getValue(), gap.last(),
+                                gap.next());
+                        channel.send(gapEnvelope.build(gap.toJson(), receivedNanos));
+                    }
+                    channel.send(envelopes[type.ordinal()].build(message, receivedNanos));
+                    latency.record(Timestamps.monotonicNow() - receivedNanos);
                 } catch (ChannelException e) {
                     throw new RuntimeException(e);
                 }
+                delivered = true;
             }
-            webSocket.request(1);
-            return CompletableFuture.completedFuture(null);
+        }
+
+        /**
+         * Releases the connection's decompression resources.
+         */
+        void close() {
+            assembler.close();
         }
 
         /**
@@ -138,7 +459,7 @@ public class Producer implements Runnable {
         public CompletionStage<?> onPing(WebSocket webSocket, ByteBuffer message) {
             logger.info("Received ping: {}", new String(message.array()));
             webSocket.sendPong(message);
-            webSocket.request(1);
+            flow.delivered();
             return CompletableFuture.completedFuture(null);
         }
 
@@ -152,7 +473,7 @@ public class Producer implements Runnable {
         @Override
         public CompletionStage<?> onPong(WebSocket webSocket, ByteBuffer message) {
             logger.info("Received pong: {}", new String(message.array()));
-            webSocket.request(1);
+            flow.delivered();
             return CompletableFuture.completedFuture(null);
         }
 
@@ -166,19 +487,21 @@ public class Producer implements Runnable {
         @Override
         public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
             logger.info("WebSocket closed: {} {}", statusCode, reason);
+            closed.complete(null);
             return CompletableFuture.completedFuture(null);
         }
 
         /**
-         * Handles errors that occur during WebSocket communication.
+         * Handles errors that occur during WebSocket communication. The connection is over, and the producer
+         * reconnects.
          *
          * @param webSocket the WebSocket on which the error has occurred
          * @param error     the error
          */
         @Override
         public void onError(WebSocket webSocket, Throwable error) {
-            logger.info("WebSocket error: {}", error.getMessage());
-            throw new RuntimeException("WebSocket encountered an error. Stopping producer.", error);
+            logger.error("WebSocket error: {}", error.getMessage());
+            closed.complete(null);
         }
     }
 
@@ -0,0 +1,26 @@
+package Producer.QueryGenerator;
+
+/**
+ * An exchange's response to a subscribe or unsubscribe request, as recognized by
+ * {@link QueryGenerator#parseAcknowledgement(CharSequence)}.
+ *
+ * @param requestId the id of the request answered, or {@link #IN_ORDER} if the exchange answers requests in the
+ *                  order they were sent without naming them.
+ * @param error     the exchange's error text if the request was rejected, or {@code null} if it succeeded.
+ */
+public record Acknowledgement(long requestId, String error) {
+
+    /**
+     * The request id of responses that answer the oldest outstanding request.
+     */
+    public static final long IN_ORDER = -1;
+
+    /**
+     * Returns whether the request succeeded.
+     *
+     * @return {@code true} if the exchange accepted the request.
+     */
+    public boolean success() {
+        return error == null;
+    }
+}
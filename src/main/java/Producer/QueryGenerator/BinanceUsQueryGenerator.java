@@ -1,7 +1,16 @@
 package Producer.QueryGenerator;
 
 import MarketDataType.MarketDataQueryType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Implementation of {@link QueryGenerator} for generating query messages specific to Binance.US WebSocket API.
@@ -11,9 +20,33 @@ import MarketDataType.MarketDataQueryType;
 public class BinanceUsQueryGenerator implements QueryGenerator {
     /**
      * A counter used to generate unique subscription IDs for WebSocket requests.
-     * Each request must have a unique ID.
+     * Each request must have a unique ID; producers sending requests on a live connection pass their own.
      */
-    private static int idCounter = 1;
+    private final AtomicLong idCounter = new AtomicLong(1);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * The URL of Binance.US's public market data feed.
+     */
+    public static final String DEFAULT_URL = "wss://stream.binance.us:9443/ws";
+
+    private final String url;
+
+    /**
+     * Creates a generator for Binance.US's public feed.
+     */
+    public BinanceUsQueryGenerator() {
+        this(DEFAULT_URL);
+    }
+
+    /**
+     * Creates a generator for a feed speaking Binance.US's protocol at another URL, e.g. a local replay server.
+     *
+     * @param url the WebSocket URL to connect to.
+     */
+    public BinanceUsQueryGenerator(String url) {
+        this.url = Objects.requireNonNull(url, "url");
+    }
 
     /**
      * Generates a query message for subscribing to Binance.US WebSocket streams.
@@ -24,29 +57,155 @@ public class BinanceUsQueryGenerator implements QueryGenerator {
      */
     @Override
     public String generateQueryMessage(String productType, MarketDataQueryType queryType) {
-        String param = productType + "@" + (switch (queryType) {
-            case TRADE -> "trade";
-            case QUOTE -> "bookTicker";
-        });
+        String param = streamName(productType, queryType);
         String subscribeMessage = String.format("""
                 {
                     "method": "SUBSCRIBE",
                     "params": ["%s"],
                     "id": %d
                 }
-                """, param, idCounter);
-        idCounter += 1;
+                """, param, idCounter.getAndIncrement());
         return subscribeMessage;
     }
 
     /**
-     * Retrieves the WebSocket URL for Binance.US's market data feed.
+     * Generates one {@code SUBSCRIBE} request listing every stream in {@code params}. Binance.US allows at most
+     * 1024 streams per connection.
+     *
+     * @param subscriptions the streams to subscribe to; not empty.
+     * @return a JSON-formatted query message.
+     * @throws IllegalArgumentException if {@code subscriptions} is empty.
+     */
+    @Override
+    public String generateQueryMessage(Collection<Subscription> subscriptions) {
+        return generateSubscribeMessage(subscriptions, idCounter.getAndIncrement());
+    }
+
+    /**
+     * Generates a {@code SUBSCRIBE} request with the given id.
+     *
+     * @param subscriptions the streams to add; not empty.
+     * @param requestId     the id echoed in Binance.US's response.
+     * @return a JSON-formatted subscribe message.
+     * @throws IllegalArgumentException if {@code subscriptions} is empty.
+     */
+    @Override
+    public String generateSubscribeMessage(Collection<Subscription> subscriptions, long requestId) {
+        return requestMessage("SUBSCRIBE", subscriptions, requestId);
+    }
+
+    /**
+     * Generates an {@code UNSUBSCRIBE} request with the given id.
+     *
+     * @param subscriptions the streams to remove; not empty.
+     * @param requestId     the id echoed in Binance.US's response.
+     * @return a JSON-formatted unsubscribe message.
+     * @throws IllegalArgumentException if {@code subscriptions} is empty.
+     */
+    @Override
+    public String generateUnsubscribeMessage(Collection<Subscription> subscriptions, long requestId) {
+        return requestMessage("UNSUBSCRIBE", subscriptions, requestId);
+    }
+
+    /**
+     * Recognizes Binance.US's responses, which echo the request id: {@code {"result":null,"id":1}} on success and
+     * {@code {"error":{...},"id":1}} on failure.
+     *
+     * @param message the raw message received from Binance.US.
+     * @return the acknowledgement, or {@code null} for other messages.
+     */
+    @Override
+    public Acknowledgement parseAcknowledgement(CharSequence message) {
+        String id = JsonFields.text(message, "id");
+        if (id == null || JsonFields.has(message, "e")) {
+            return null;
+        }
+        long requestId;
+        try {
+            requestId = Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        String error = JsonFields.text(message, "error");
+        if (error != null) {
+            return new Acknowledgement(requestId, error);
+        }
+        return JsonFields.has(message, "result") ? new Acknowledgement(requestId, null) : null;
+    }
+
+    private static String requestMessage(String method, Collection<Subscription> subscriptions, long requestId) {
+        if (subscriptions.isEmpty()) {
+            throw new IllegalArgumentException("At least one subscription is required.");
+        }
+        Set<String> streams = new LinkedHashSet<>();
+        for (Subscription subscription : subscriptions) {
+            streams.add(streamName(subscription.product(), subscription.type()));
+        }
+        ObjectNode message = objectMapper.createObjectNode().put("method", method);
+        ArrayNode params = message.putArray("params");
+        streams.forEach(params::add);
+        message.put("id", requestId);
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize subscription message.", e);
+        }
+    }
+
+    /**
+     * Classifies a Binance.US message: a {@code trade} event is a trade, a book ticker (which has an update id
+     * {@code u} and a bid {@code b} but no event type) is a quote, and responses such as
+     * {@code {"result":null,"id":1}} are control messages.
+     *
+     * @param message the raw message received from Binance.US.
+     * @return the type of the message, or {@code null} for control messages.
+     */
+    @Override
+    public MarketDataQueryType classify(CharSequence message) {
+        if (JsonFields.stringEquals(message, "e", "trade")) {
+            return MarketDataQueryType.TRADE;
+        }
+        if (JsonFields.has(message, "u") && JsonFields.has(message, "b") && !JsonFields.has(message, "e")) {
+            return MarketDataQueryType.QUOTE;
+        }
+        return null;
+    }
+
+    /**
+     * Reads the symbol {@code s} and, for trades, the trade id {@code t}, which is consecutive per symbol, or, for
+     * quotes, the order book update id {@code u}, which only increases: the book ticker skips updates that leave
+     * the best prices unchanged.
+     *
+     * @param type    the type of the message.
+     * @param message the raw message received from Binance.US.
+     * @return the position of the message, or {@code null} if the fields are missing.
+     */
+    @Override
+    public Sequence sequence(MarketDataQueryType type, CharSequence message) {
+        boolean trade = type == MarketDataQueryType.TRADE;
+        long number = JsonFields.longValue(message, trade ? "t" : "u", -1);
+        String symbol = JsonFields.text(message, "s");
+        if (number < 0 || symbol == null) {
+            return null;
+        }
+        return new Sequence(symbol.toLowerCase(), number, trade);
+    }
+
+    private static String streamName(String product, MarketDataQueryType type) {
+        return product + "@" + switch (type) {
+            case TRADE -> "trade";
+            case QUOTE -> "bookTicker";
+        };
+    }
+
+    /**
+     * Retrieves the WebSocket URL of the feed, {@link #DEFAULT_URL} unless another was given.
      *
      * @return the WebSocket URL as a string.
      */
     @Override
     public String getUrl() {
-        return "wss://stream.binance.us:9443/ws";
+        return url;
     }
 
     /**
@@ -1,6 +1,17 @@
 package Producer.QueryGenerator;
 
 import MarketDataType.MarketDataQueryType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Implementation of {@link QueryGenerator} for generating query messages specific to Coinbase's WebSocket API.
@@ -8,6 +19,32 @@ import MarketDataType.MarketDataQueryType;
  * WebSocket URL for Coinbase's exchange.
  */
 public class CoinbaseGenerator implements QueryGenerator {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * The URL of Coinbase's public market data feed.
+     */
+    public static final String DEFAULT_URL = "wss://ws-feed.exchange.coinbase.com";
+
+    private final String url;
+
+    /**
+     * Creates a generator for Coinbase's public feed.
+     */
+    public CoinbaseGenerator() {
+        this(DEFAULT_URL);
+    }
+
+    /**
+     * Creates a generator for a feed speaking Coinbase's protocol at another URL, e.g. a local replay server.
+     *
+     * @param url the WebSocket URL to connect to.
+     */
+    public CoinbaseGenerator(String url) {
+        this.url = Objects.requireNonNull(url, "url");
+    }
+
     /**
      * Generates a query message for subscribing to Coinbase's WebSocket feed.
      *
@@ -17,10 +54,7 @@ public class CoinbaseGenerator implements QueryGenerator {
      */
     @Override
     public String generateQueryMessage(String productType, MarketDataQueryType queryType) {
-        String channel = switch (queryType) {
-            case TRADE -> "matches";
-            case QUOTE -> "ticker";
-        };
+        String channel = channelName(queryType);
         return String.format("""
                 {
                     "type": "subscribe",
@@ -31,13 +65,129 @@ public class CoinbaseGenerator implements QueryGenerator {
     }
 
     /**
-     * Retrieves the WebSocket URL for Coinbase's market data feed.
+     * Generates one subscribe message for many streams. Channels are listed as objects with their own
+     * {@code product_ids}, so each product is subscribed only to the channels asked for.
+     *
+     * @param subscriptions the streams to subscribe to; not empty.
+     * @return a JSON-formatted query message.
+     * @throws IllegalArgumentException if {@code subscriptions} is empty.
+     */
+    @Override
+    public String generateQueryMessage(Collection<Subscription> subscriptions) {
+        return requestMessage("subscribe", subscriptions);
+    }
+
+    /**
+     * Generates an unsubscribe message in the same form as the subscribe message. Coinbase does not echo request
+     * ids, so {@code requestId} is ignored.
+     *
+     * @param subscriptions the streams to remove; not empty.
+     * @param requestId     ignored.
+     * @return a JSON-formatted unsubscribe message.
+     * @throws IllegalArgumentException if {@code subscriptions} is empty.
+     */
+    @Override
+    public String generateUnsubscribeMessage(Collection<Subscription> subscriptions, long requestId) {
+        return requestMessage("unsubscribe", subscriptions);
+    }
+
+    /**
+     * Recognizes Coinbase's responses: a {@code subscriptions} message answers every subscribe or unsubscribe
+     * request, in order, and an {@code error} message rejects one.
+     *
+     * @param message the raw message received from Coinbase.
+     * @return an {@link Acknowledgement#IN_ORDER} acknowledgement, or {@code null} for other messages.
+     */
+    @Override
+    public Acknowledgement parseAcknowledgement(CharSequence message) {
+        if (JsonFields.stringEquals(message, "type", "subscriptions")) {
+            return new Acknowledgement(Acknowledgement.IN_ORDER, null);
+        }
+        if (JsonFields.stringEquals(message, "type", "error")) {
+            String error = JsonFields.text(message, "message");
+            String reason = JsonFields.text(message, "reason");
+            return new Acknowledgement(Acknowledgement.IN_ORDER,
+                    (reason == null) ? String.valueOf(error) : error + ": " + reason);
+        }
+        return null;
+    }
+
+    private static String requestMessage(String requestType, Collection<Subscription> subscriptions) {
+        if (subscriptions.isEmpty()) {
+            throw new IllegalArgumentException("At least one subscription is required.");
+        }
+        Map<MarketDataQueryType, Set<String>> products = new EnumMap<>(MarketDataQueryType.class);
+        for (Subscription subscription : subscriptions) {
+            products.computeIfAbsent(subscription.type(), t -> new LinkedHashSet<>()).add(subscription.product());
+        }
+        ObjectNode message = objectMapper.createObjectNode().put("type", requestType);
+        ArrayNode channels = message.putArray("channels");
+        products.forEach((type, ids) -> {
+            ObjectNode channel = channels.addObject().put("name", channelName(type));
+            ids.forEach(channel.putArray("product_ids")::add);
+        });
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize subscription message.", e);
+        }
+    }
+
+    /**
+     * Classifies a Coinbase message by its {@code type}: {@code ticker} is a quote, {@code match} and
+     * {@code last_match} are trades, and everything else ({@code subscriptions}, {@code heartbeat}, {@code error})
+     * is a control message.
+     *
+     * @param message the raw message received from Coinbase.
+     * @return the type of the message, or {@code null} for control messages.
+     */
+    @Override
+    public MarketDataQueryType classify(CharSequence message) {
+        if (JsonFields.stringEquals(message, "type", "ticker")) {
+            return MarketDataQueryType.QUOTE;
+        }
+        if (JsonFields.stringEquals(message, "type", "match")
+                || JsonFields.stringEquals(message, "type", "last_match")) {
+            return MarketDataQueryType.TRADE;
+        }
+        return null;
+    }
+
+    /**
+     * Reads {@code product_id} and, for trades, the {@code trade_id}, which is consecutive per product, or, for
+     * quotes, the product's {@code sequence}, which numbers every order book event and so only increases on the
+     * ticker channel.
+     *
+     * @param type    the type of the message.
+     * @param message the raw message received from Coinbase.
+     * @return the position of the message, or {@code null} if the fields are missing.
+     */
+    @Override
+    public Sequence sequence(MarketDataQueryType type, CharSequence message) {
+        boolean trade = type == MarketDataQueryType.TRADE;
+        long number = JsonFields.longValue(message, trade ? "trade_id" : "sequence", -1);
+        String product = JsonFields.text(message, "product_id");
+        if (number < 0 || product == null) {
+            return null;
+        }
+        return new Sequence(product, number, trade);
+    }
+
+    private static String channelName(MarketDataQueryType type) {
+        return switch (type) {
+            case TRADE -> "matches";
+            case QUOTE -> "ticker";
+        };
+    }
+
+    /**
+     * Retrieves the WebSocket URL of the feed, {@link #DEFAULT_URL} unless another was given.
      *
      * @return the WebSocket URL as a string.
      */
     @Override
     public String getUrl() {
-        return "wss://ws-feed.exchange.coinbase.com";
+        return url;
     }
 
 
@@ -0,0 +1,219 @@
+package Producer.QueryGenerator;
+
+/**
+ * Finds top-level fields of a JSON object in raw text, for classifying exchange messages without parsing them.
+ * <p>
+ * Scanning stops at the requested field, and only {@link #text(CharSequence, String)} allocates. Exchanges put the
+ * discriminating field ({@code "type"}, {@code "e"}, ...) first, so classification usually reads a dozen
+ * characters. Malformed input yields "not found".
+ * </p>
+ */
+final class JsonFields {
+
+    private JsonFields() {
+    }
+
+    /**
+     * Returns whether the object has a top-level field.
+     */
+    static boolean has(CharSequence json, String field) {
+        return valueStart(json, field) >= 0;
+    }
+
+    /**
+     * Returns whether a top-level field is a string equal to {@code value}, which must not need escaping.
+     */
+    static boolean stringEquals(CharSequence json, String field, String value) {
+        int i = valueStart(json, field);
+        if (i < 0 || json.charAt(i) != '"' || i + value.length() + 1 >= json.length()) {
+            return false;
+        }
+        for (int k = 0; k < value.length(); k++) {
+            if (json.charAt(i + 1 + k) != value.charAt(k)) {
+                return false;
+            }
+        }
+        return json.charAt(i + value.length() + 1) == '"';
+    }
+
+    /**
+     * Returns the raw text of a top-level field's value: a string without its quotes (escapes are kept), or the
+     * JSON text of any other value. Returns {@code null} if the field is absent.
+     */
+    static String text(CharSequence json, String field) {
+        int start = valueStart(json, field);
+        if (start < 0) {
+            return null;
+        }
+        int end = skipValue(json, start);
+        if (end < 0) {
+            return null;
+        }
+        if (json.charAt(start) == '"') {
+            return json.subSequence(start + 1, end - 1).toString();
+        }
+        return json.subSequence(start, end).toString();
+    }
+
+    /**
+     * Returns a top-level field's value as a {@code long}, or {@code missing} if it is absent or not an integer.
+     * Quoted numbers are accepted.
+     */
+    static long longValue(CharSequence json, String field, long missing) {
+        int i = valueStart(json, field);
+        if (i < 0) {
+            return missing;
+        }
+        boolean quoted = json.charAt(i) == '"';
+        if (quoted) {
+            i++;
+        }
+        boolean negative = i < json.length() && json.charAt(i) == '-';
+        if (negative) {
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        for (; i < json.length(); i++, digits++) {
+            char c = json.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            if (digits == 18) {
+                return missing;
+            }
+            value = value * 10 + (c - '0');
+        }
+        if (digits == 0 || (quoted && (i >= json.length() || json.charAt(i) != '"'))) {
+            return missing;
+        }
+        if (!quoted && i < json.length() && (json.charAt(i) == '.' || json.charAt(i) == 'e'
+                || json.charAt(i) == 'E')) {
+            return missing;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Returns the index of the first character of a top-level field's value, or {@code -1} if it is absent.
+     */
+    static int valueStart(CharSequence json, String field) {
+        int n = json.length();
+        int i = skipWhitespace(json, 0);
+        if (i >= n || json.charAt(i) != '{') {
+            return -1;
+        }
+        i++;
+        while (true) {
+            i = skipWhitespace(json, i);
+            if (i >= n || json.charAt(i) != '"') {
+                return -1;
+            }
+            int keyStart = i + 1;
+            i = skipString(json, i);
+            if (i < 0) {
+                return -1;
+            }
+            boolean match = regionEquals(json, keyStart, i - 1, field);
+            i = skipWhitespace(json, i);
+            if (i >= n || json.charAt(i) != ':') {
+                return -1;
+            }
+            i = skipWhitespace(json, i + 1);
+            if (i >= n) {
+                return -1;
+            }
+            if (match) {
+                return i;
+            }
+            i = skipValue(json, i);
+            if (i < 0) {
+                return -1;
+            }
+            i = skipWhitespace(json, i);
+            if (i >= n || json.charAt(i) != ',') {
+                return -1;
+            }
+            i++;
+        }
+    }
+
+    private static boolean regionEquals(CharSequence json, int start, int end, String field) {
+        if (end - start != field.length()) {
+            return false;
+        }
+        for (int k = 0; k < field.length(); k++) {
+            if (json.charAt(start + k) != field.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipWhitespace(CharSequence json, int i) {
+        while (i < json.length()) {
+            char c = json.charAt(i);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Skips the string starting at {@code i}, returning the index after its closing quote, or {@code -1}.
+     */
+    private static int skipString(CharSequence json, int i) {
+        for (i++; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Skips the value starting at {@code i}, returning the index after it, or {@code -1}.
+     */
+    private static int skipValue(CharSequence json, int i) {
+        char first = json.charAt(i);
+        if (first == '"') {
+            return skipString(json, i);
+        }
+        if (first != '{' && first != '[') {
+            while (i < json.length()) {
+                char c = json.charAt(i);
+                if (c == ',' || c == '}' || c == ']' || c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                    break;
+                }
+                i++;
+            }
+            return i;
+        }
+        int depth = 0;
+        while (i < json.length()) {
+            char c = json.charAt(i);
+            if (c == '"') {
+                i = skipString(json, i);
+                if (i < 0) {
+                    return -1;
+                }
+                continue;
+            }
+            if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+        return -1;
+    }
+}
@@ -2,11 +2,17 @@ package Producer.QueryGenerator;
 
 import MarketDataType.MarketDataQueryType;
 
+import java.util.Collection;
+
 /**
  * Interface for generating query messages for different market data sources.
  * Implementations of this interface should provide methods for constructing
  * query messages, defining the data source URL, and assigning a unique tag
  * for identification.
+ * <p>
+ * A connection may carry many {@link Subscription}s of different types, so implementations also build combined
+ * subscription messages and tell the type of each incoming message with {@link #classify(CharSequence)}.
+ * </p>
  */
 public interface QueryGenerator {
 
@@ -19,6 +25,102 @@ public interface QueryGenerator {
      */
     String generateQueryMessage(String productType, MarketDataQueryType queryType);
 
+    /**
+     * Generates one message subscribing to all of the given streams on a single connection.
+     * <p>
+     * The default supports a single subscription only; exchanges accepting several streams per request override it.
+     * </p>
+     *
+     * @param subscriptions the streams to subscribe to; not empty.
+     * @return a string representing the formatted query message.
+     * @throws IllegalArgumentException      if {@code subscriptions} is empty.
+     * @throws UnsupportedOperationException if the exchange cannot combine the subscriptions in one message.
+     */
+    default String generateQueryMessage(Collection<Subscription> subscriptions) {
+        if (subscriptions.isEmpty()) {
+            throw new IllegalArgumentException("At least one subscription is required.");
+        }
+        if (subscriptions.size() > 1) {
+            throw new UnsupportedOperationException(getTag() + " does not support combined subscriptions.");
+        }
+        Subscription subscription = subscriptions.iterator().next();
+        return generateQueryMessage(subscription.product(), subscription.type());
+    }
+
+    /**
+     * Generates a message subscribing to more streams on an open connection.
+     * <p>
+     * The default ignores the request id and delegates to {@link #generateQueryMessage(Collection)}.
+     * </p>
+     *
+     * @param subscriptions the streams to add; not empty.
+     * @param requestId     the connection-unique id of the request, for exchanges that echo it in their response.
+     * @return a string representing the formatted subscribe message.
+     * @throws IllegalArgumentException      if {@code subscriptions} is empty.
+     * @throws UnsupportedOperationException if the exchange cannot combine the subscriptions in one message.
+     */
+    default String generateSubscribeMessage(Collection<Subscription> subscriptions, long requestId) {
+        return generateQueryMessage(subscriptions);
+    }
+
+    /**
+     * Generates a message ending subscriptions on an open connection.
+     * <p>
+     * The default throws {@link UnsupportedOperationException}.
+     * </p>
+     *
+     * @param subscriptions the streams to remove; not empty.
+     * @param requestId     the connection-unique id of the request, for exchanges that echo it in their response.
+     * @return a string representing the formatted unsubscribe message.
+     * @throws IllegalArgumentException      if {@code subscriptions} is empty.
+     * @throws UnsupportedOperationException if the exchange does not support unsubscribing.
+     */
+    default String generateUnsubscribeMessage(Collection<Subscription> subscriptions, long requestId) {
+        throw new UnsupportedOperationException(getTag() + " does not support unsubscribing.");
+    }
+
+    /**
+     * Recognizes the exchange's response to a subscribe or unsubscribe request.
+     * <p>
+     * Called only for messages {@link #classify(CharSequence)} does not classify as market data. The default
+     * recognizes nothing.
+     * </p>
+     *
+     * @param message the raw message received from the exchange.
+     * @return the acknowledgement, or {@code null} if the message is not a response to a request.
+     */
+    default Acknowledgement parseAcknowledgement(CharSequence message) {
+        return null;
+    }
+
+    /**
+     * Tells the type of market data an incoming message carries.
+     * <p>
+     * The default returns {@code null}, which makes a producer drop every message; implementations inspect only as
+     * much of the message as they need.
+     * </p>
+     *
+     * @param message the raw message received from the exchange.
+     * @return the type of the message, or {@code null} for control messages (acknowledgements, heartbeats, errors)
+     * that carry no market data.
+     */
+    default MarketDataQueryType classify(CharSequence message) {
+        return null;
+    }
+
+    /**
+     * Reads the stream position of a market data message, for detecting lost messages.
+     * <p>
+     * The default returns {@code null}, which disables gap detection for the exchange.
+     * </p>
+     *
+     * @param type    the type the message was {@linkplain #classify(CharSequence) classified} as.
+     * @param message the raw message received from the exchange.
+     * @return the product and sequence number of the message, or {@code null} if it carries none.
+     */
+    default Sequence sequence(MarketDataQueryType type, CharSequence message) {
+        return null;
+    }
 
     /**
      * Retrieves the WebSocket or HTTP URL for connecting to the data source.
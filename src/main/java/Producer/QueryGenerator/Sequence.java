@@ -0,0 +1,13 @@
+package Producer.QueryGenerator;
+
+/**
+ * The position of a market data message in its stream, as read by
+ * {@link QueryGenerator#sequence(MarketDataType.MarketDataQueryType, CharSequence)}.
+ *
+ * @param product    the product of the message, in the exchange's spelling.
+ * @param number     the exchange's sequence number or id of the message.
+ * @param contiguous whether consecutive messages of the stream are numbered consecutively, so that a skipped number
+ *                   means a lost message; otherwise numbers only increase, and only interruptions reveal losses.
+ */
+public record Sequence(String product, long number, boolean contiguous) {
+}
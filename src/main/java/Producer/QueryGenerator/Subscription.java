@@ -0,0 +1,28 @@
+package Producer.QueryGenerator;
+
+import MarketDataType.MarketDataQueryType;
+
+import java.util.Objects;
+
+/**
+ * One market data stream a producer subscribes to: a product and the kind of data wanted for it.
+ *
+ * @param product the product in the exchange's spelling (e.g. {@code "BTC-USD"} or {@code "btcusdt"}).
+ * @param type    the type of market data.
+ */
+public record Subscription(String product, MarketDataQueryType type) {
+
+    /**
+     * Creates a subscription.
+     *
+     * @throws NullPointerException     if the product or type is {@code null}.
+     * @throws IllegalArgumentException if the product is empty.
+     */
+    public Subscription {
+        Objects.requireNonNull(product, "product");
+        Objects.requireNonNull(type, "type");
+        if (product.isEmpty()) {
+            throw new IllegalArgumentException("The product of a subscription must not be empty.");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package Producer;
+
+/**
+ * Signals that a subscribe or unsubscribe request on a {@link Producer}'s connection failed: the exchange rejected
+ * it, or the connection closed before it was acknowledged.
+ */
+public class SubscriptionException extends Exception {
+
+    /**
+     * Constructs a new SubscriptionException with the specified detail message.
+     *
+     * @param message the detail message.
+     */
+    public SubscriptionException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new SubscriptionException with the specified detail message and cause.
+     *
+     * @param message the detail message.
+     * @param cause   the cause of the exception.
+     */
+    public SubscriptionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
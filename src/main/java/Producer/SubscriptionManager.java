@@ -0,0 +1,264 @@
+package Producer;
+
+import Producer.QueryGenerator.Acknowledgement;
+import Producer.QueryGenerator.QueryGenerator;
+import Producer.QueryGenerator.Subscription;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Tracks the subscriptions of one {@link Producer} connection and the requests that change them.
+ * <p>
+ * The subscription set holds every stream subscribed or being subscribed. Requests made before the connection is
+ * open only change the set, which is sent as one message when it opens. Requests on an open connection get a
+ * connection-unique id, are sent one at a time (the WebSocket API allows a single outstanding send), and are
+ * completed when the exchange acknowledges them; a rejected request is undone in the set and completed with a
+ * {@link SubscriptionException}. When the connection closes, outstanding requests fail and the ids start over
+ * on the next connection; streams whose request could not be sent or was not acknowledged stay in the set, so
+ * they are part of the next connection's subscription.
+ * </p>
+ */
+final class SubscriptionManager {
+
+    private static final Logger logger = LogManager.getLogger(SubscriptionManager.class);
+
+    private final QueryGenerator gen;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Set<Subscription> subscriptions = new LinkedHashSet<>();
+    private final Map<Long, Request> pending = new LinkedHashMap<>();
+    private CompletableFuture<Void> subscribed = new CompletableFuture<>();
+    private Function<String, CompletionStage<?>> sender;
+    private CompletableFuture<?> lastSend = CompletableFuture.completedFuture(null);
+    private long nextRequestId = 1;
+
+    /**
+     * A request waiting for its acknowledgement.
+     */
+    private record Request(boolean subscribe, List<Subscription> subscriptions, CompletableFuture<Void> future) {
+    }
+
+    SubscriptionManager(QueryGenerator gen, Collection<Subscription> initial) {
+        this.gen = gen;
+        this.subscriptions.addAll(initial);
+    }
+
+    /**
+     * Returns a snapshot of the streams subscribed or being subscribed.
+     */
+    List<Subscription> subscriptions() {
+        lock.lock();
+        try {
+            return List.copyOf(subscriptions);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the future of the subscription sent when the current (or next) connection opens.
+     */
+    CompletableFuture<Void> subscribed() {
+        lock.lock();
+        try {
+            return subscribed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts using a newly opened connection and subscribes it to the whole set.
+     *
+     * @param sender sends one text message on the connection.
+     */
+    void connected(Function<String, CompletionStage<?>> sender) {
+        lock.lock();
+        try {
+            this.sender = sender;
+            this.lastSend = CompletableFuture.completedFuture(null);
+            this.nextRequestId = 1;
+            CompletableFuture<Void> initial = subscribed;
+            if (subscriptions.isEmpty()) {
+                initial.complete(null);
+                return;
+            }
+            send(true, List.copyOf(subscriptions)).whenComplete((result, error) -> {
+                if (error == null) {
+                    initial.complete(null);
+                } else {
+                    initial.completeExceptionally(error);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops using the connection and fails every outstanding request.
+     */
+    void disconnected() {
+        List<Request> failed;
+        lock.lock();
+        try {
+            sender = null;
+            failed = new ArrayList<>(pending.values());
+            pending.clear();
+            if (!subscribed.isDone()) {
+                failed.add(new Request(true, List.of(), subscribed));
+            }
+            subscribed = new CompletableFuture<>();
+        } finally {
+            lock.unlock();
+        }
+        for (Request request : failed) {
+            request.future().completeExceptionally(
+                    new SubscriptionException("Connection closed before the request was acknowledged."));
+        }
+    }
+
+    CompletableFuture<Void> subscribe(Collection<Subscription> added) {
+        lock.lock();
+        try {
+            List<Subscription> fresh = new ArrayList<>();
+            for (Subscription subscription : added) {
+                if (!subscriptions.contains(subscription) && !fresh.contains(subscription)) {
+                    fresh.add(subscription);
+                }
+            }
+            if (fresh.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (sender == null) {
+                subscriptions.addAll(fresh);
+                return subscribed;
+            }
+            CompletableFuture<Void> future = send(true, fresh);
+            subscriptions.addAll(fresh);
+            return future;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    CompletableFuture<Void> unsubscribe(Collection<Subscription> removed) {
+        lock.lock();
+        try {
+            List<Subscription> present = new ArrayList<>();
+            for (Subscription subscription : removed) {
+                if (subscriptions.contains(subscription) && !present.contains(subscription)) {
+                    present.add(subscription);
+                }
+            }
+            if (present.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (sender == null) {
+                present.forEach(subscriptions::remove);
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> future = send(false, present);
+            present.forEach(subscriptions::remove);
+            return future;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Handles a message that carries no market data, completing the request it acknowledges.
+     *
+     * @param message the raw message.
+     */
+    void onControlMessage(CharSequence message) {
+        Acknowledgement ack = gen.parseAcknowledgement(message);
+        if (ack == null) {
+            logger.info("Ignoring control message.");
+            return;
+        }
+        Request request;
+        lock.lock();
+        try {
+            request = (ack.requestId() == Acknowledgement.IN_ORDER)
+                    ? removeOldest() : pending.remove(ack.requestId());
+            if (request != null && !ack.success()) {
+                // Undo the rejected change.
+                for (Subscription subscription : request.subscriptions()) {
+                    if (request.subscribe()) {
+                        subscriptions.remove(subscription);
+                    } else {
+                        subscriptions.add(subscription);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (request == null) {
+            logger.warn("Acknowledgement for no outstanding request: {}", message);
+        } else if (ack.success()) {
+            request.future().complete(null);
+        } else {
+            logger.error("{} request rejected: {}", request.subscribe() ? "Subscribe" : "Unsubscribe", ack.error());
+            request.future().completeExceptionally(new SubscriptionException(ack.error()));
+        }
+    }
+
+    /**
+     * Sends a request after the previous send has completed. Must hold the lock.
+     */
+    private CompletableFuture<Void> send(boolean subscribe, List<Subscription> streams) {
+        long id = nextRequestId++;
+        String message = subscribe ? gen.generateSubscribeMessage(streams, id)
+                : gen.generateUnsubscribeMessage(streams, id);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        pending.put(id, new Request(subscribe, streams, future));
+        Function<String, CompletionStage<?>> connection = sender;
+        lastSend = lastSend
+                .handle((result, error) -> null)
+                .thenCompose(ignored -> connection.apply(message))
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        failSend(id, error);
+                    }
+                });
+        logger.info("Sent {} request {} for {} streams.", subscribe ? "subscribe" : "unsubscribe", id, streams.size());
+        return future;
+    }
+
+    private void failSend(long id, Throwable error) {
+        Request request;
+        lock.lock();
+        try {
+            request = pending.remove(id);
+        } finally {
+            lock.unlock();
+        }
+        if (request != null) {
+            request.future().completeExceptionally(new SubscriptionException("Failed to send request " + id, error));
+        }
+    }
+
+    private Request removeOldest() {
+        Iterator<Request> oldest = pending.values().iterator();
+        if (!oldest.hasNext()) {
+            return null;
+        }
+        Request request = oldest.next();
+        oldest.remove();
+        return request;
+    }
+}
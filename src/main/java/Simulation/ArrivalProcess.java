@@ -0,0 +1,78 @@
+package Simulation;
+
+import java.util.SplittableRandom;
+
+/**
+ * The timing of synthetic messages: a sequence of gaps between consecutive arrivals.
+ * <p>
+ * Gaps are fractional nanoseconds so that rates such as 3 million messages per second are kept exactly over time
+ * rather than rounded per message. Randomized processes are seeded, so a load test replays the same arrivals on
+ * every run. Instances are not thread-safe.
+ * </p>
+ */
+public interface ArrivalProcess {
+
+    /**
+     * Returns the gap before the next message.
+     *
+     * @return the gap in nanoseconds, not negative.
+     */
+    double nextGapNanos();
+
+    /**
+     * Messages evenly spaced at a fixed rate.
+     *
+     * @param perSecond the rate in messages per second.
+     * @return the process.
+     * @throws IllegalArgumentException if {@code perSecond} is not positive.
+     */
+    static ArrivalProcess constant(double perSecond) {
+        double gap = 1e9 / requirePositive(perSecond);
+        return () -> gap;
+    }
+
+    /**
+     * Independent arrivals at a mean rate, with exponentially distributed gaps, like orders from many
+     * unrelated traders.
+     *
+     * @param perSecond the mean rate in messages per second.
+     * @param seed      the seed of the random gaps.
+     * @return the process.
+     * @throws IllegalArgumentException if {@code perSecond} is not positive.
+     */
+    static ArrivalProcess poisson(double perSecond, long seed) {
+        double meanGap = 1e9 / requirePositive(perSecond);
+        SplittableRandom random = new SplittableRandom(seed);
+        return () -> -Math.log(1.0 - random.nextDouble()) * meanGap;
+    }
+
+    /**
+     * Bursts of back-to-back messages arriving as a Poisson process, like the flurry of updates a large order or
+     * a price move triggers. Burst sizes are geometrically distributed; the mean rate over time is
+     * {@code perSecond}.
+     *
+     * @param perSecond the mean rate in messages per second.
+     * @param meanBurst the mean number of messages per burst, at least 1 (1 is a Poisson process).
+     * @param seed      the seed of the random bursts.
+     * @return the process.
+     * @throws IllegalArgumentException if {@code perSecond} is not positive or {@code meanBurst} is below 1.
+     */
+    static ArrivalProcess bursty(double perSecond, double meanBurst, long seed) {
+        if (!(meanBurst >= 1)) {
+            throw new IllegalArgumentException("The mean burst size must be at least 1.");
+        }
+        double meanBurstGap = 1e9 * meanBurst / requirePositive(perSecond);
+        double continueProbability = 1.0 - 1.0 / meanBurst;
+        SplittableRandom random = new SplittableRandom(seed);
+        return () -> (random.nextDouble() < continueProbability)
+                ? 0.0
+                : -Math.log(1.0 - random.nextDouble()) * meanBurstGap;
+    }
+
+    private static double requirePositive(double perSecond) {
+        if (!(perSecond > 0) || Double.isInfinite(perSecond)) {
+            throw new IllegalArgumentException("The rate must be positive and finite.");
+        }
+        return perSecond;
+    }
+}
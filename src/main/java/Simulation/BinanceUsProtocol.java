@@ -0,0 +1,101 @@
+package Simulation;
+
+import MarketDataType.MarketDataQueryType;
+import Producer.QueryGenerator.Subscription;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Binance.US's subscription protocol. Requests are {@code SUBSCRIBE}, {@code UNSUBSCRIBE} or
+ * {@code LIST_SUBSCRIPTIONS} calls naming streams such as {@code btcusdt@trade} or {@code btcusdt@bookTicker} in
+ * {@code params}; each is answered with {@code {"result":...,"id":...}} echoing its id, or with
+ * {@code {"error":{...},"id":...}} leaving the subscriptions unchanged. Captured products are matched in lower
+ * case, as stream names spell them.
+ */
+final class BinanceUsProtocol implements ExchangeProtocol {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public String exchange() {
+        return "binance.us";
+    }
+
+    @Override
+    public List<String> handle(String request, Set<Subscription> subscriptions) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(request);
+        } catch (JsonProcessingException e) {
+            return List.of(error(3, "Invalid JSON", null));
+        }
+        JsonNode id = node.get("id");
+        String method = node.path("method").asText();
+        if (method.equals("LIST_SUBSCRIPTIONS")) {
+            ObjectNode reply = objectMapper.createObjectNode();
+            ArrayNode result = reply.putArray("result");
+            subscriptions.forEach(subscription -> result.add(streamName(subscription)));
+            reply.set("id", id);
+            return List.of(reply.toString());
+        }
+        if (!method.equals("SUBSCRIBE") && !method.equals("UNSUBSCRIBE")) {
+            return List.of(error(2, "Invalid request: unknown method '" + method + "'", id));
+        }
+        List<Subscription> streams = new ArrayList<>();
+        for (JsonNode param : node.path("params")) {
+            Subscription stream = parseStream(param.asText());
+            if (stream == null) {
+                return List.of(error(2, "Invalid request: unknown stream '" + param.asText() + "'", id));
+            }
+            streams.add(stream);
+        }
+        if (method.equals("SUBSCRIBE")) {
+            subscriptions.addAll(streams);
+        } else {
+            streams.forEach(subscriptions::remove);
+        }
+        ObjectNode reply = objectMapper.createObjectNode().putNull("result");
+        reply.set("id", id);
+        return List.of(reply.toString());
+    }
+
+    @Override
+    public Subscription streamOf(FeedCapture.Message message) {
+        return (message.product() == null)
+                ? null
+                : new Subscription(message.product().toLowerCase(Locale.ROOT), message.type());
+    }
+
+    private static Subscription parseStream(String stream) {
+        int at = stream.indexOf('@');
+        if (at <= 0) {
+            return null;
+        }
+        MarketDataQueryType type = switch (stream.substring(at + 1)) {
+            case "trade" -> MarketDataQueryType.TRADE;
+            case "bookTicker" -> MarketDataQueryType.QUOTE;
+            default -> null;
+        };
+        return (type == null) ? null : new Subscription(stream.substring(0, at).toLowerCase(Locale.ROOT), type);
+    }
+
+    private static String streamName(Subscription subscription) {
+        return subscription.product() + "@"
+                + ((subscription.type() == MarketDataQueryType.TRADE) ? "trade" : "bookTicker");
+    }
+
+    private static String error(int code, String msg, JsonNode id) {
+        ObjectNode reply = objectMapper.createObjectNode();
+        reply.putObject("error").put("code", code).put("msg", msg);
+        reply.set("id", id);
+        return reply.toString();
+    }
+}
@@ -0,0 +1,104 @@
+package Simulation;
+
+import MarketDataType.MarketDataQueryType;
+import Producer.QueryGenerator.Subscription;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Coinbase's subscription protocol. Requests are {@code subscribe} or {@code unsubscribe} messages listing channels
+ * either by name, applying to the top-level {@code product_ids}, or as objects with their own {@code product_ids}.
+ * Every accepted request is answered with a {@code subscriptions} message listing all current subscriptions; a
+ * rejected one with an {@code error} message, leaving the subscriptions unchanged.
+ */
+final class CoinbaseProtocol implements ExchangeProtocol {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public String exchange() {
+        return "coinbase";
+    }
+
+    @Override
+    public List<String> handle(String request, Set<Subscription> subscriptions) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(request);
+        } catch (JsonProcessingException e) {
+            return List.of(error("Malformed JSON"));
+        }
+        String type = node.path("type").asText();
+        if (!type.equals("subscribe") && !type.equals("unsubscribe")) {
+            return List.of(error(type + " is not a valid message type"));
+        }
+        List<String> defaultProducts = texts(node.path("product_ids"));
+        List<Subscription> streams = new ArrayList<>();
+        for (JsonNode channel : node.path("channels")) {
+            String name = channel.isTextual() ? channel.asText() : channel.path("name").asText();
+            MarketDataQueryType channelType = switch (name) {
+                case "ticker" -> MarketDataQueryType.QUOTE;
+                case "matches" -> MarketDataQueryType.TRADE;
+                default -> null;
+            };
+            if (channelType == null) {
+                return List.of(error(name + " is not a valid channel"));
+            }
+            List<String> products = channel.has("product_ids") ? texts(channel.get("product_ids")) : defaultProducts;
+            for (String product : products) {
+                if (product.isEmpty()) {
+                    return List.of(error("product_ids must not be empty"));
+                }
+                streams.add(new Subscription(product, channelType));
+            }
+        }
+        if (streams.isEmpty()) {
+            return List.of(error("No channels provided"));
+        }
+        if (type.equals("subscribe")) {
+            subscriptions.addAll(streams);
+        } else {
+            streams.forEach(subscriptions::remove);
+        }
+        return List.of(subscriptionsMessage(subscriptions));
+    }
+
+    private static List<String> texts(JsonNode array) {
+        List<String> texts = new ArrayList<>();
+        array.forEach(item -> texts.add(item.asText()));
+        return texts;
+    }
+
+    private static String subscriptionsMessage(Set<Subscription> subscriptions) {
+        Map<MarketDataQueryType, Set<String>> products = new EnumMap<>(MarketDataQueryType.class);
+        for (Subscription subscription : subscriptions) {
+            products.computeIfAbsent(subscription.type(), t -> new TreeSet<>()).add(subscription.product());
+        }
+        ObjectNode message = objectMapper.createObjectNode().put("type", "subscriptions");
+        ArrayNode channels = message.putArray("channels");
+        products.forEach((type, ids) -> {
+            ObjectNode channel = channels.addObject()
+                    .put("name", (type == MarketDataQueryType.TRADE) ? "matches" : "ticker");
+            ids.forEach(channel.putArray("product_ids")::add);
+        });
+        return message.toString();
+    }
+
+    private static String error(String reason) {
+        return objectMapper.createObjectNode()
+                .put("type", "error")
+                .put("message", "Failed to subscribe")
+                .put("reason", reason)
+                .toString();
+    }
+}
@@ -0,0 +1,61 @@
+package Simulation;
+
+import Producer.QueryGenerator.Subscription;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The subscription side of an exchange's WebSocket API, as played by a {@link ReplayServer}.
+ * <p>
+ * A protocol answers a client's subscribe and unsubscribe requests the way the exchange does, so that an unmodified
+ * {@link Producer.Producer} sees its subscriptions acknowledged, and tells which stream each captured message belongs
+ * to, so that a connection only receives what it subscribed to.
+ * </p>
+ */
+public interface ExchangeProtocol {
+
+    /**
+     * Returns the exchange whose messages this protocol serves.
+     *
+     * @return the exchange tag of the captured envelopes (e.g. {@code "coinbase"}).
+     */
+    String exchange();
+
+    /**
+     * Handles one request from a client.
+     *
+     * @param request       the request as received.
+     * @param subscriptions the connection's current streams, updated in place; safe for concurrent reads.
+     * @return the replies to send, in order.
+     */
+    List<String> handle(String request, Set<Subscription> subscriptions);
+
+    /**
+     * Returns the stream a captured message belongs to, spelled as clients subscribe to it.
+     *
+     * @param message a captured message of this exchange.
+     * @return the stream, or {@code null} if the message names no product.
+     */
+    default Subscription streamOf(FeedCapture.Message message) {
+        return (message.product() == null) ? null : new Subscription(message.product(), message.type());
+    }
+
+    /**
+     * Returns the protocol of Coinbase's feed.
+     *
+     * @return the protocol.
+     */
+    static ExchangeProtocol coinbase() {
+        return new CoinbaseProtocol();
+    }
+
+    /**
+     * Returns the protocol of Binance.US's combined-stream endpoint.
+     *
+     * @return the protocol.
+     */
+    static ExchangeProtocol binanceUs() {
+        return new BinanceUsProtocol();
+    }
+}
@@ -0,0 +1,149 @@
+package Simulation;
+
+import DataChannel.ChannelException;
+import DataChannel.ChronicleQueueChannel;
+import DataChannel.DataChannel;
+import MarketDataType.MarketDataQueryType;
+import Normalizer.LazyEnvelope;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A recorded exchange feed: the envelopes a {@link Producer.Producer} wrote to its channel, in arrival order, ready
+ * to be played back by a {@link ReplayServer}.
+ * <p>
+ * A capture is made by running a producer against the live exchange with a persistent channel, such as a
+ * {@link ChronicleQueueChannel}, or by writing its envelopes one per line to a file. Envelopes that are not market
+ * data (gap notices, unknown tags, malformed lines) are skipped on loading. Each message keeps the raw exchange
+ * payload and the time it was received, which paces the replay; envelopes recorded before receive times were stamped
+ * are played back as fast as possible.
+ * </p>
+ */
+public final class FeedCapture {
+
+    private static final Logger logger = LogManager.getLogger(FeedCapture.class);
+
+    /**
+     * One captured exchange message.
+     *
+     * @param receivedNanos the time the producer received it in epoch nanoseconds, or
+     *                      {@link Utils.Timestamps#NONE} if the envelope was not stamped.
+     * @param exchange      the exchange tag (e.g. {@code "coinbase"}).
+     * @param type          the type of market data.
+     * @param product       the product as spelled by the exchange, or {@code null} if the payload has none.
+     * @param payload       the message exactly as the exchange sent it.
+     */
+    public record Message(long receivedNanos, String exchange, MarketDataQueryType type, String product,
+                          String payload) {
+    }
+
+    private final List<Message> messages;
+
+    private FeedCapture(List<Message> messages) {
+        this.messages = Collections.unmodifiableList(messages);
+    }
+
+    /**
+     * Creates a capture from messages already in memory, e.g. generated by a test.
+     *
+     * @param messages the messages in playback order.
+     * @return the capture.
+     */
+    public static FeedCapture of(List<Message> messages) {
+        return new FeedCapture(new ArrayList<>(messages));
+    }
+
+    /**
+     * Loads a capture from a file holding one envelope per line.
+     *
+     * @param file the file.
+     * @return the capture.
+     * @throws IOException if the file cannot be read.
+     */
+    public static FeedCapture readJsonl(Path file) throws IOException {
+        List<Message> messages = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    add(messages, line);
+                }
+            }
+        }
+        logger.info("Loaded {} messages from {}.", messages.size(), file);
+        return new FeedCapture(messages);
+    }
+
+    /**
+     * Loads a capture from a Chronicle Queue written by a {@link ChronicleQueueChannel}, from its first message.
+     *
+     * @param queueDir the directory of the queue.
+     * @return the capture.
+     * @throws ChannelException if the queue cannot be read.
+     */
+    public static FeedCapture readChronicle(String queueDir) throws ChannelException {
+        try (ChronicleQueueChannel channel = new ChronicleQueueChannel(queueDir)) {
+            FeedCapture capture = drain(channel);
+            logger.info("Loaded {} messages from {}.", capture.size(), queueDir);
+            return capture;
+        }
+    }
+
+    /**
+     * Loads a capture from every message a channel holds. The channel must return {@code null} from
+     * {@link DataChannel#receive()} once it is empty, as persistent channels do.
+     *
+     * @param channel the channel to drain; left open.
+     * @return the capture.
+     * @throws ChannelException if the channel fails.
+     */
+    public static FeedCapture drain(DataChannel channel) throws ChannelException {
+        List<Message> messages = new ArrayList<>();
+        String raw;
+        while ((raw = channel.receive()) != null) {
+            add(messages, raw);
+        }
+        return new FeedCapture(messages);
+    }
+
+    /**
+     * Returns the captured messages in playback order.
+     *
+     * @return an unmodifiable list.
+     */
+    public List<Message> messages() {
+        return messages;
+    }
+
+    /**
+     * Returns the number of captured messages.
+     *
+     * @return the size of the capture.
+     */
+    public int size() {
+        return messages.size();
+    }
+
+    private static void add(List<Message> messages, String raw) {
+        try {
+            LazyEnvelope envelope = LazyEnvelope.parse(raw);
+            if (envelope == null) {
+                logger.debug("Skipping non-market-data envelope: {}", raw);
+                return;
+            }
+            messages.add(new Message(envelope.receivedNanos(), envelope.exchange(), envelope.type(),
+                    envelope.product(), envelope.payload()));
+        } catch (IOException e) {
+            logger.warn("Skipping malformed envelope: {}", raw, e);
+        }
+    }
+}
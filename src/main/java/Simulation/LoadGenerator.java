@@ -0,0 +1,210 @@
+package Simulation;
+
+import DataChannel.ChannelException;
+import DataChannel.DataChannel;
+import MarketDataType.MarketDataQueryType;
+import Producer.EnvelopeBuilder;
+import Utils.Timestamps;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Drives a {@link DataChannel} with synthetic market data at a controlled rate, in place of a {@link Producer.Producer},
+ * to find the throughput at which a channel or the {@link Normalizer.Normalizer} behind it saturates.
+ * <p>
+ * Messages from a {@link SyntheticFeed} are wrapped in producer envelopes, stamped with their send time, and sent
+ * when the {@link ArrivalProcess} schedules them. Deadlines are kept against the start of the run, so rounding
+ * never accumulates, and are awaited by parking and then spinning, which holds rates up to a million messages per
+ * second on one core. Messages that fall due while the generator is behind, because the channel blocked or the
+ * process is bursty, are sent together with {@link DataChannel#sendBatch(List)}, up to the batch limit; the
+ * {@link Result} reports how far behind schedule the generator fell, which is the sign of a saturated channel.
+ * </p>
+ * <pre>{@code
+ * LoadGenerator generator = LoadGenerator.builder(SyntheticFeed.coinbase().products(50).build(),
+ *         ArrivalProcess.poisson(500_000, 1)).build();
+ * LoadGenerator.Result result = generator.runFor(channel, Duration.ofSeconds(30));
+ * }</pre>
+ * <p>
+ * A generator runs on the calling thread, one run at a time.
+ * </p>
+ */
+public final class LoadGenerator {
+
+    private static final Logger logger = LogManager.getLogger(LoadGenerator.class);
+
+    /**
+     * The outcome of a run.
+     *
+     * @param messages     the number of messages sent.
+     * @param elapsedNanos the duration of the run.
+     * @param maxLagNanos  the furthest a message was sent behind its schedule.
+     */
+    public record Result(long messages, long elapsedNanos, long maxLagNanos) {
+
+        /**
+         * Returns the achieved rate.
+         *
+         * @return messages per second.
+         */
+        public double ratePerSecond() {
+            return (elapsedNanos == 0) ? 0 : messages * 1e9 / elapsedNanos;
+        }
+    }
+
+    private final SyntheticFeed feed;
+    private final ArrivalProcess arrivals;
+    private final int maxBatch;
+    private final Map<MarketDataQueryType, EnvelopeBuilder> envelopes = new EnumMap<>(MarketDataQueryType.class);
+    private volatile boolean stopped;
+
+    private LoadGenerator(Builder builder) {
+        this.feed = builder.feed;
+        this.arrivals = builder.arrivals;
+        this.maxBatch = builder.maxBatch;
+        for (MarketDataQueryType type : MarketDataQueryType.values()) {
+            envelopes.put(type, new EnvelopeBuilder(type.getValue() + "@" + feed.exchange()));
+        }
+    }
+
+    /**
+     * Creates a builder for a generator sending a feed's messages with the given timing.
+     *
+     * @param feed     the source of the messages.
+     * @param arrivals the timing of the messages.
+     * @return a new {@link Builder}.
+     */
+    public static Builder builder(SyntheticFeed feed, ArrivalProcess arrivals) {
+        return new Builder(feed, arrivals);
+    }
+
+    /**
+     * Sends a number of messages, or fewer if stopped or interrupted.
+     *
+     * @param channel  the channel to send to; left open.
+     * @param messages the number of messages.
+     * @return the outcome of the run.
+     * @throws ChannelException if the channel fails.
+     */
+    public Result run(DataChannel channel, long messages) throws ChannelException {
+        return run(channel, messages, Long.MAX_VALUE);
+    }
+
+    /**
+     * Sends messages for a duration, or less if stopped or interrupted.
+     *
+     * @param channel  the channel to send to; left open.
+     * @param duration how long to send.
+     * @return the outcome of the run.
+     * @throws ChannelException if the channel fails.
+     */
+    public Result runFor(DataChannel channel, Duration duration) throws ChannelException {
+        return run(channel, Long.MAX_VALUE, duration.toNanos());
+    }
+
+    /**
+     * Ends the current run after the message being sent. If no run is in progress, the next run ends before
+     * sending anything; the run after that starts afresh.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    private Result run(DataChannel channel, long limit, long durationNanos) throws ChannelException {
+        try {
+            return send(channel, limit, durationNanos);
+        } finally {
+            stopped = false;
+        }
+    }
+
+    private Result send(DataChannel channel, long limit, long durationNanos) throws ChannelException {
+        List<String> batch = new ArrayList<>(maxBatch);
+        long start = System.nanoTime();
+        double offset = 0;
+        long sent = 0;
+        long maxLag = 0;
+        while (!stopped && !Thread.currentThread().isInterrupted() && sent + batch.size() < limit) {
+            long due = start + (long) offset;
+            if (due - start >= durationNanos) {
+                break;
+            }
+            long now = System.nanoTime();
+            if (due - now > 0) {
+                sent += flush(channel, batch);
+                Pacer.awaitDeadline(due);
+                if (Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+                now = System.nanoTime();
+            }
+            maxLag = Math.max(maxLag, now - due);
+            FeedCapture.Message message = feed.next(Timestamps.monotonicNow());
+            batch.add(envelopes.get(message.type()).build(message.payload(), message.receivedNanos()));
+            if (batch.size() >= maxBatch) {
+                sent += flush(channel, batch);
+            }
+            offset += arrivals.nextGapNanos();
+        }
+        sent += flush(channel, batch);
+        Result result = new Result(sent, System.nanoTime() - start, maxLag);
+        logger.info("Sent {} {} messages at {} msg/s, at most {} us behind schedule.", result.messages(),
+                feed.exchange(), Math.round(result.ratePerSecond()), result.maxLagNanos() / 1_000);
+        return result;
+    }
+
+    private static int flush(DataChannel channel, List<String> batch) throws ChannelException {
+        int size = batch.size();
+        if (size == 1) {
+            channel.send(batch.getFirst());
+        } else if (size > 1) {
+            channel.sendBatch(batch);
+        }
+        batch.clear();
+        return size;
+    }
+
+    /**
+     * Builder for {@link LoadGenerator}.
+     */
+    public static final class Builder {
+        private final SyntheticFeed feed;
+        private final ArrivalProcess arrivals;
+        private int maxBatch = 256;
+
+        private Builder(SyntheticFeed feed, ArrivalProcess arrivals) {
+            this.feed = Objects.requireNonNull(feed, "feed");
+            this.arrivals = Objects.requireNonNull(arrivals, "arrivals");
+        }
+
+        /**
+         * Sets the most messages sent in one call when the generator is behind schedule.
+         *
+         * @param maxBatch the batch limit, at least one (one sends every message on its own); 256 by default.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code maxBatch} is less than one.
+         */
+        public Builder maxBatch(int maxBatch) {
+            if (maxBatch < 1) {
+                throw new IllegalArgumentException("Batch size must be at least one.");
+            }
+            this.maxBatch = maxBatch;
+            return this;
+        }
+
+        /**
+         * Builds the generator.
+         *
+         * @return a new {@link LoadGenerator}.
+         */
+        public LoadGenerator build() {
+            return new LoadGenerator(this);
+        }
+    }
+}
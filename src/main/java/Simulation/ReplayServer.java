@@ -0,0 +1,364 @@
+package Simulation;
+
+import Producer.QueryGenerator.Subscription;
+import Utils.ExecutionMode;
+import Utils.Timestamps;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A local WebSocket server standing in for an exchange by playing back a {@link FeedCapture}.
+ * <p>
+ * The server speaks the exchange's subscription protocol, so a {@link Producer.Producer} runs against it unchanged
+ * once its query generator is pointed at {@link #url()}:
+ * </p>
+ * <pre>{@code
+ * try (ReplayServer server = ReplayServer.builder(FeedCapture.readChronicle("captures/coinbase"),
+ *         ExchangeProtocol.coinbase()).speed(10).build()) {
+ *     Producer producer = new Producer(new CoinbaseGenerator(server.url()), "BTC-USD",
+ *             MarketDataQueryType.QUOTE, channel);
+ *     ...
+ * }
+ * }</pre>
+ * <p>
+ * Each connection replays the capture from its start once its first subscription is acknowledged, sending only the
+ * messages of the streams it is subscribed to at the moment they come up. Messages keep their captured spacing,
+ * divided by the {@linkplain Builder#speed(double) speed} factor, or follow each other
+ * {@linkplain Builder#asFastAsPossible() as fast as possible}, in which case frames are written in batches and the
+ * client's reading speed sets the rate. At the end of the capture the connection stays open, idle, unless the
+ * server {@linkplain Builder#loop(boolean) loops}.
+ * </p>
+ * <p>
+ * The server listens on the loopback interface only. Each connection uses two threads of the configured
+ * {@link ExecutionMode}: one reading requests and one replaying.
+ * </p>
+ */
+public final class ReplayServer implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(ReplayServer.class);
+
+    private static final int FLUSH_BATCH = 64;
+    private static final long IDLE_PASS_PARK_NANOS = 10_000_000L;
+
+    private final List<FeedCapture.Message> messages;
+    private final ExchangeProtocol protocol;
+    private final double speed;
+    private final boolean loop;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    private final Set<WebSocketConnection> open = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sent = new AtomicLong();
+    private volatile boolean closed;
+
+    private ReplayServer(Builder builder) throws IOException {
+        this.protocol = builder.protocol;
+        this.messages = builder.capture.messages().stream()
+                .filter(message -> message.exchange().equals(protocol.exchange()))
+                .toList();
+        this.speed = builder.speed;
+        this.loop = builder.loop;
+        this.serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), builder.port));
+        this.connections = builder.mode.newExecutor("replay-connection");
+        builder.mode.start("replay-acceptor-" + port(), this::acceptLoop);
+        logger.info("Replaying {} {} messages at {} ({}).", messages.size(), protocol.exchange(), url(),
+                Double.isInfinite(speed) ? "as fast as possible" : speed + "x");
+    }
+
+    /**
+     * Creates a builder for a server replaying a capture with an exchange's protocol.
+     *
+     * @param capture  the capture to replay; messages of other exchanges are ignored.
+     * @param protocol the protocol of the exchange.
+     * @return a new {@link Builder}.
+     */
+    public static Builder builder(FeedCapture capture, ExchangeProtocol protocol) {
+        return new Builder(capture, protocol);
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the port, chosen by the system if the builder asked for port 0.
+     */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the URL clients connect to, e.g. {@code ws://127.0.0.1:53124}.
+     *
+     * @return the WebSocket URL of the server.
+     */
+    public String url() {
+        InetAddress address = serverSocket.getInetAddress();
+        String host = (address instanceof Inet6Address) ? "[" + address.getHostAddress() + "]"
+                : address.getHostAddress();
+        return "ws://" + host + ":" + port();
+    }
+
+    /**
+     * Returns the number of messages sent to all connections so far.
+     *
+     * @return the count of replayed messages.
+     */
+    public long messagesSent() {
+        return sent.get();
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close the server socket.", e);
+        }
+        open.forEach(WebSocketConnection::close);
+        connections.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!closed) {
+                    logger.error("Replay server stopped accepting connections.", e);
+                }
+                return;
+            }
+            try {
+                connections.execute(() -> serve(socket));
+            } catch (RejectedExecutionException e) {
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        WebSocketConnection connection;
+        try {
+            socket.setTcpNoDelay(true);
+            connection = WebSocketConnection.accept(socket);
+        } catch (IOException e) {
+            logger.warn("Rejected connection from {}: {}", socket.getRemoteSocketAddress(), e.getMessage());
+            closeQuietly(socket);
+            return;
+        }
+        open.add(connection);
+        Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+        CountDownLatch subscribed = new CountDownLatch(1);
+        Future<?> replay;
+        try {
+            replay = connections.submit(() -> replay(connection, subscriptions, subscribed));
+        } catch (RejectedExecutionException e) {
+            open.remove(connection);
+            connection.close();
+            return;
+        }
+        try {
+            String request;
+            while ((request = connection.readText()) != null) {
+                for (String reply : protocol.handle(request, subscriptions)) {
+                    connection.sendText(reply, true);
+                }
+                if (!subscriptions.isEmpty()) {
+                    subscribed.countDown();
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                logger.debug("Connection from {} failed.", socket.getRemoteSocketAddress(), e);
+            }
+        } finally {
+            replay.cancel(true);
+            open.remove(connection);
+            connection.close();
+        }
+    }
+
+    private void replay(WebSocketConnection connection, Set<Subscription> subscriptions, CountDownLatch subscribed) {
+        try {
+            subscribed.await();
+            do {
+                if (replayOnce(connection, subscriptions) == 0 && loop) {
+                    LockSupport.parkNanos(IDLE_PASS_PARK_NANOS);
+                }
+            } while (loop && !Thread.currentThread().isInterrupted());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            if (!closed) {
+                logger.debug("Replay stopped: {}", e.getMessage());
+            }
+        }
+    }
+
+    private int replayOnce(WebSocketConnection connection, Set<Subscription> subscriptions) throws IOException {
+        boolean paced = !Double.isInfinite(speed);
+        long start = System.nanoTime();
+        long first = Timestamps.NONE;
+        int count = 0;
+        int unflushed = 0;
+        for (FeedCapture.Message message : messages) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            Subscription stream = protocol.streamOf(message);
+            if (stream == null || !subscriptions.contains(stream)) {
+                continue;
+            }
+            if (paced && message.receivedNanos() != Timestamps.NONE) {
+                if (first == Timestamps.NONE) {
+                    first = message.receivedNanos();
+                }
+                long due = start + (long) ((message.receivedNanos() - first) / speed);
+                if (due - System.nanoTime() > 0) {
+                    if (unflushed > 0) {
+                        connection.flush();
+                        unflushed = 0;
+                    }
+                    Pacer.awaitDeadline(due);
+                }
+            }
+            connection.sendText(message.payload(), false);
+            sent.incrementAndGet();
+            count++;
+            if (++unflushed >= FLUSH_BATCH) {
+                connection.flush();
+                unflushed = 0;
+            }
+        }
+        connection.flush();
+        return count;
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // Nothing left to release.
+        }
+    }
+
+    /**
+     * Builder for {@link ReplayServer}.
+     */
+    public static final class Builder {
+        private final FeedCapture capture;
+        private final ExchangeProtocol protocol;
+        private int port;
+        private double speed = 1.0;
+        private boolean loop;
+        private ExecutionMode mode = ExecutionMode.PLATFORM;
+
+        private Builder(FeedCapture capture, ExchangeProtocol protocol) {
+            this.capture = Objects.requireNonNull(capture, "capture");
+            this.protocol = Objects.requireNonNull(protocol, "protocol");
+        }
+
+        /**
+         * Sets the port to listen on; by default the system picks a free one.
+         *
+         * @param port the port, or 0 for any free port.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code port} is outside 0 to 65535.
+         */
+        public Builder port(int port) {
+            if (port < 0 || port > 0xFFFF) {
+                throw new IllegalArgumentException("Port must be between 0 and 65535.");
+            }
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Replays at the captured pace, the default.
+         *
+         * @return this builder.
+         */
+        public Builder originalPace() {
+            return speed(1.0);
+        }
+
+        /**
+         * Replays the capture faster or slower than it was recorded.
+         *
+         * @param factor how many times faster than recorded, e.g. 10; below 1 slows the replay down.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code factor} is not positive.
+         */
+        public Builder speed(double factor) {
+            if (!(factor > 0)) {
+                throw new IllegalArgumentException("Speed factor must be positive.");
+            }
+            this.speed = factor;
+            return this;
+        }
+
+        /**
+         * Replays without pauses, as fast as clients read.
+         *
+         * @return this builder.
+         */
+        public Builder asFastAsPossible() {
+            this.speed = Double.POSITIVE_INFINITY;
+            return this;
+        }
+
+        /**
+         * Sets whether each connection starts the capture over when it reaches the end.
+         *
+         * @param loop {@code true} to replay endlessly; {@code false} by default.
+         * @return this builder.
+         */
+        public Builder loop(boolean loop) {
+            this.loop = loop;
+            return this;
+        }
+
+        /**
+         * Sets the kind of threads serving connections.
+         *
+         * @param mode the execution mode; {@link ExecutionMode#PLATFORM} by default.
+         * @return this builder.
+         */
+        public Builder executionMode(ExecutionMode mode) {
+            this.mode = Objects.requireNonNull(mode, "mode");
+            return this;
+        }
+
+        /**
+         * Binds the server and starts accepting connections.
+         *
+         * @return the running server.
+         * @throws IOException if the port cannot be bound.
+         */
+        public ReplayServer build() throws IOException {
+            return new ReplayServer(this);
+        }
+    }
+}
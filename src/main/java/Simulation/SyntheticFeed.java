@@ -0,0 +1,359 @@
+package Simulation;
+
+import MarketDataType.MarketDataQueryType;
+import Producer.QueryGenerator.Subscription;
+import Utils.Timestamps;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic market data in the exact payload shapes of an exchange: Coinbase {@code ticker} and
+ * {@code match} messages, or Binance.US {@code bookTicker} and {@code trade} messages.
+ * <p>
+ * Each product's price follows a random walk in cents around a random starting level, quotes straddle it by a
+ * tick or more, and sequence numbers advance per product as the exchange's do (trade ids consecutively), so the
+ * messages pass the same parsers, gap detection and sinks as live data. The mix of quotes and trades and the seed
+ * are configurable; the same seed yields the same messages.
+ * </p>
+ * <p>
+ * Payloads are built with a {@link StringBuilder} rather than a JSON library, so the generator itself sustains
+ * several million messages per second. Instances are not thread-safe.
+ * </p>
+ */
+public final class SyntheticFeed {
+
+    private static final String[] BASES = {
+            "BTC", "ETH", "SOL", "XRP", "ADA", "DOGE", "AVAX", "LINK", "DOT", "LTC", "BCH", "UNI", "ATOM", "XLM",
+            "ETC", "FIL"
+    };
+    private static final long SIZE_UNITS = 100_000_000L;
+
+    private enum Venue { COINBASE, BINANCE_US }
+
+    private static final class Product {
+        final String symbol;
+        long priceCents;
+        long sequence;
+        long tradeId;
+
+        Product(String symbol, long priceCents, long sequence, long tradeId) {
+            this.symbol = symbol;
+            this.priceCents = priceCents;
+            this.sequence = sequence;
+            this.tradeId = tradeId;
+        }
+    }
+
+    private final Venue venue;
+    private final List<Product> products;
+    private final double tradeRatio;
+    private final SplittableRandom random;
+    private final StringBuilder buffer = new StringBuilder(512);
+    private long cachedSecond = Long.MIN_VALUE;
+    private String cachedSecondText;
+
+    private SyntheticFeed(Builder builder) {
+        this.venue = builder.venue;
+        this.tradeRatio = builder.tradeRatio;
+        this.random = new SplittableRandom(builder.seed);
+        List<Product> products = new ArrayList<>(builder.products);
+        for (int i = 0; i < builder.products; i++) {
+            String base = (i < BASES.length) ? BASES[i] : "SYN" + i;
+            String symbol = (venue == Venue.COINBASE) ? base + "-USD" : base + "USDT";
+            long priceCents = 100L * (long) Math.pow(10, 1 + random.nextInt(4)) + random.nextInt(100);
+            products.add(new Product(symbol, priceCents, 1_000_000L + random.nextInt(1_000_000),
+                    1_000L + random.nextInt(1_000)));
+        }
+        this.products = Collections.unmodifiableList(products);
+    }
+
+    /**
+     * Creates a builder for a feed in Coinbase's shapes, with products such as {@code BTC-USD}.
+     *
+     * @return a new {@link Builder}.
+     */
+    public static Builder coinbase() {
+        return new Builder(Venue.COINBASE);
+    }
+
+    /**
+     * Creates a builder for a feed in Binance.US's shapes, with products such as {@code BTCUSDT}.
+     *
+     * @return a new {@link Builder}.
+     */
+    public static Builder binanceUs() {
+        return new Builder(Venue.BINANCE_US);
+    }
+
+    /**
+     * Returns the exchange whose payloads are generated.
+     *
+     * @return the exchange tag (e.g. {@code "coinbase"}).
+     */
+    public String exchange() {
+        return (venue == Venue.COINBASE) ? "coinbase" : "binance.us";
+    }
+
+    /**
+     * Returns every stream of the feed, spelled as a producer subscribes to it, e.g. to point a
+     * {@link Producer.Producer} at a {@link ReplayServer} serving the feed.
+     *
+     * @return the quote and trade streams of every product.
+     */
+    public List<Subscription> subscriptions() {
+        List<Subscription> subscriptions = new ArrayList<>();
+        for (Product product : products) {
+            String name = (venue == Venue.COINBASE) ? product.symbol : product.symbol.toLowerCase(Locale.ROOT);
+            subscriptions.add(new Subscription(name, MarketDataQueryType.QUOTE));
+            subscriptions.add(new Subscription(name, MarketDataQueryType.TRADE));
+        }
+        return subscriptions;
+    }
+
+    /**
+     * Generates the next message, for a random product.
+     *
+     * @param timeNanos the exchange time of the message in epoch nanoseconds; also its receive time.
+     * @return the message.
+     */
+    public FeedCapture.Message next(long timeNanos) {
+        Product product = products.get(random.nextInt(products.size()));
+        boolean trade = random.nextDouble() < tradeRatio;
+        product.priceCents = Math.max(1, product.priceCents + random.nextInt(-2, 3));
+        long size = 1 + random.nextLong(SIZE_UNITS);
+        String payload;
+        if (venue == Venue.COINBASE) {
+            payload = trade ? coinbaseMatch(product, size, timeNanos) : coinbaseTicker(product, size, timeNanos);
+        } else {
+            payload = trade ? binanceTrade(product, size, timeNanos) : binanceBookTicker(product);
+        }
+        return new FeedCapture.Message(timeNanos, exchange(),
+                trade ? MarketDataQueryType.TRADE : MarketDataQueryType.QUOTE, product.symbol, payload);
+    }
+
+    /**
+     * Generates a capture of synthetic messages spaced by an arrival process, starting now, e.g. for a
+     * {@link ReplayServer}. The whole capture is held in memory.
+     *
+     * @param arrivals the spacing of the messages.
+     * @param count    the number of messages.
+     * @return the capture.
+     */
+    public FeedCapture capture(ArrivalProcess arrivals, int count) {
+        List<FeedCapture.Message> messages = new ArrayList<>(count);
+        long start = Timestamps.now();
+        double offset = 0;
+        for (int i = 0; i < count; i++) {
+            messages.add(next(start + (long) offset));
+            offset += arrivals.nextGapNanos();
+        }
+        return FeedCapture.of(messages);
+    }
+
+    private String coinbaseTicker(Product product, long size, long timeNanos) {
+        product.sequence += 1 + random.nextInt(20);
+        long spread = 1 + random.nextInt(3);
+        StringBuilder b = buffer;
+        b.setLength(0);
+        b.append("{\"type\":\"ticker\",\"sequence\":").append(product.sequence)
+                .append(",\"product_id\":\"").append(product.symbol)
+                .append("\",\"price\":\"");
+        appendCents(b, product.priceCents);
+        b.append("\",\"open_24h\":\"");
+        appendCents(b, product.priceCents);
+        b.append("\",\"volume_24h\":\"");
+        appendSize(b, size * 1000);
+        b.append("\",\"low_24h\":\"");
+        appendCents(b, Math.max(1, product.priceCents - 100));
+        b.append("\",\"high_24h\":\"");
+        appendCents(b, product.priceCents + 100);
+        b.append("\",\"volume_30d\":\"");
+        appendSize(b, size * 30_000);
+        b.append("\",\"best_bid\":\"");
+        appendCents(b, Math.max(1, product.priceCents - spread));
+        b.append("\",\"best_bid_size\":\"");
+        appendSize(b, size);
+        b.append("\",\"best_ask\":\"");
+        appendCents(b, product.priceCents + spread);
+        b.append("\",\"best_ask_size\":\"");
+        appendSize(b, 1 + random.nextLong(SIZE_UNITS));
+        b.append("\",\"side\":\"").append(random.nextBoolean() ? "buy" : "sell")
+                .append("\",\"time\":\"");
+        appendTime(b, timeNanos);
+        b.append("\",\"trade_id\":").append(product.tradeId)
+                .append(",\"last_size\":\"");
+        appendSize(b, size);
+        return b.append("\"}").toString();
+    }
+
+    private String coinbaseMatch(Product product, long size, long timeNanos) {
+        product.sequence += 1 + random.nextInt(20);
+        product.tradeId++;
+        StringBuilder b = buffer;
+        b.setLength(0);
+        b.append("{\"type\":\"match\",\"trade_id\":").append(product.tradeId)
+                .append(",\"maker_order_id\":\"");
+        appendUuid(b);
+        b.append("\",\"taker_order_id\":\"");
+        appendUuid(b);
+        b.append("\",\"side\":\"").append(random.nextBoolean() ? "buy" : "sell")
+                .append("\",\"size\":\"");
+        appendSize(b, size);
+        b.append("\",\"price\":\"");
+        appendCents(b, product.priceCents);
+        b.append("\",\"product_id\":\"").append(product.symbol)
+                .append("\",\"sequence\":").append(product.sequence)
+                .append(",\"time\":\"");
+        appendTime(b, timeNanos);
+        return b.append("\"}").toString();
+    }
+
+    private String binanceBookTicker(Product product) {
+        product.sequence += 1 + random.nextInt(5);
+        long spread = 1 + random.nextInt(3);
+        StringBuilder b = buffer;
+        b.setLength(0);
+        b.append("{\"u\":").append(product.sequence)
+                .append(",\"s\":\"").append(product.symbol)
+                .append("\",\"b\":\"");
+        appendCents(b, Math.max(1, product.priceCents - spread));
+        b.append("\",\"B\":\"");
+        appendSize(b, 1 + random.nextLong(SIZE_UNITS));
+        b.append("\",\"a\":\"");
+        appendCents(b, product.priceCents + spread);
+        b.append("\",\"A\":\"");
+        appendSize(b, 1 + random.nextLong(SIZE_UNITS));
+        return b.append("\"}").toString();
+    }
+
+    private String binanceTrade(Product product, long size, long timeNanos) {
+        product.tradeId++;
+        long millis = Math.floorDiv(timeNanos, 1_000_000L);
+        StringBuilder b = buffer;
+        b.setLength(0);
+        b.append("{\"e\":\"trade\",\"E\":").append(millis)
+                .append(",\"s\":\"").append(product.symbol)
+                .append("\",\"t\":").append(product.tradeId)
+                .append(",\"p\":\"");
+        appendCents(b, product.priceCents);
+        b.append("\",\"q\":\"");
+        appendSize(b, size);
+        b.append("\",\"b\":").append(random.nextLong(1L << 40))
+                .append(",\"a\":").append(random.nextLong(1L << 40))
+                .append(",\"T\":").append(millis)
+                .append(",\"m\":").append(random.nextBoolean())
+                .append(",\"M\":true}");
+        return b.toString();
+    }
+
+    private static void appendCents(StringBuilder b, long cents) {
+        b.append(cents / 100).append('.');
+        long fraction = cents % 100;
+        if (fraction < 10) {
+            b.append('0');
+        }
+        b.append(fraction);
+    }
+
+    private static void appendSize(StringBuilder b, long units) {
+        b.append(units / SIZE_UNITS).append('.');
+        String fraction = Long.toString(units % SIZE_UNITS);
+        for (int i = fraction.length(); i < 8; i++) {
+            b.append('0');
+        }
+        b.append(fraction);
+    }
+
+    // Writes yyyy-MM-ddTHH:mm:ss.ffffffZ, formatting the date and time only when the second changes.
+    private void appendTime(StringBuilder b, long epochNanos) {
+        long second = Math.floorDiv(epochNanos, 1_000_000_000L);
+        if (second != cachedSecond) {
+            String text = Instant.ofEpochSecond(second).toString();
+            cachedSecondText = text.substring(0, text.length() - 1);
+            cachedSecond = second;
+        }
+        b.append(cachedSecondText).append('.');
+        String micros = Long.toString(Math.floorMod(epochNanos, 1_000_000_000L) / 1_000);
+        for (int i = micros.length(); i < 6; i++) {
+            b.append('0');
+        }
+        b.append(micros).append('Z');
+    }
+
+    private void appendUuid(StringBuilder b) {
+        String hex = Long.toHexString(random.nextLong() | Long.MIN_VALUE).substring(1)
+                + Long.toHexString(random.nextLong() | Long.MIN_VALUE).substring(1)
+                + Long.toHexString(random.nextLong() | Long.MIN_VALUE).substring(1);
+        b.append(hex, 0, 8).append('-').append(hex, 8, 12).append('-').append(hex, 12, 16).append('-')
+                .append(hex, 16, 20).append('-').append(hex, 20, 32);
+    }
+
+    /**
+     * Builder for {@link SyntheticFeed}.
+     */
+    public static final class Builder {
+        private final Venue venue;
+        private int products = 4;
+        private double tradeRatio = 0.2;
+        private long seed = 42;
+
+        private Builder(Venue venue) {
+            this.venue = venue;
+        }
+
+        /**
+         * Sets the number of products; the first sixteen are named after major coins, the rest {@code SYN<n>}.
+         *
+         * @param products the number of products, at least one; 4 by default.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code products} is less than one.
+         */
+        public Builder products(int products) {
+            if (products < 1) {
+                throw new IllegalArgumentException("A feed needs at least one product.");
+            }
+            this.products = products;
+            return this;
+        }
+
+        /**
+         * Sets the share of messages that are trades; the rest are quotes.
+         *
+         * @param tradeRatio the share, from 0 to 1; 0.2 by default.
+         * @return this builder.
+         * @throws IllegalArgumentException if {@code tradeRatio} is outside 0 to 1.
+         */
+        public Builder tradeRatio(double tradeRatio) {
+            if (!(tradeRatio >= 0 && tradeRatio <= 1)) {
+                throw new IllegalArgumentException("Trade ratio must be between 0 and 1.");
+            }
+            this.tradeRatio = tradeRatio;
+            return this;
+        }
+
+        /**
+         * Sets the seed of prices, sizes and product choice.
+         *
+         * @param seed the seed; 42 by default.
+         * @return this builder.
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Builds the feed.
+         *
+         * @return a new {@link SyntheticFeed}.
+         */
+        public SyntheticFeed build() {
+            return new SyntheticFeed(this);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package Simulation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The server side of one WebSocket connection (RFC 6455), as much of it as a replay server needs.
+ * <p>
+ * {@link #accept(Socket)} performs the opening handshake. Afterwards text messages are read with
+ * {@link #readText()}, which reassembles fragmented messages, answers pings and echoes the client's close, and
+ * written with {@link #sendText(String, boolean)} as single unmasked frames. Writes go through a buffer and may be
+ * left unflushed to batch many small messages into few TCP segments. Extensions (permessage-deflate) and
+ * subprotocols are not negotiated.
+ * </p>
+ * <p>
+ * Reads must come from one thread; writes may come from any thread.
+ * </p>
+ */
+final class WebSocketConnection implements AutoCloseable {
+
+    private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final int MAX_HANDSHAKE_BYTES = 16 * 1024;
+    private static final int MAX_MESSAGE_BYTES = 1 << 20;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int OP_CONTINUATION = 0x0;
+    private static final int OP_TEXT = 0x1;
+    private static final int OP_BINARY = 0x2;
+    private static final int OP_CLOSE = 0x8;
+    private static final int OP_PING = 0x9;
+    private static final int OP_PONG = 0xA;
+    private static final int FIN = 0x80;
+
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile boolean closeSent;
+
+    private WebSocketConnection(Socket socket, InputStream in) throws IOException {
+        this.socket = socket;
+        this.in = in;
+        this.out = new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE);
+    }
+
+    /**
+     * Performs the server side of the opening handshake on an accepted socket.
+     *
+     * @param socket the accepted socket.
+     * @return the open connection.
+     * @throws IOException if the request is not a WebSocket upgrade, in which case {@code 400 Bad Request} is
+     *                     answered and the socket closed, or if the socket fails.
+     */
+    static WebSocketConnection accept(Socket socket) throws IOException {
+        InputStream in = new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE);
+        String key = null;
+        for (String line : readRequestHead(in).split("\r\n")) {
+            int colon = line.indexOf(':');
+            if (colon > 0 && line.substring(0, colon).trim().toLowerCase(Locale.ROOT).equals("sec-websocket-key")) {
+                key = line.substring(colon + 1).trim();
+            }
+        }
+        OutputStream out = socket.getOutputStream();
+        if (key == null) {
+            out.write("HTTP/1.1 400 Bad Request\r\nContent-Length: 0\r\nConnection: close\r\n\r\n"
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            socket.close();
+            throw new IOException("Not a WebSocket upgrade request.");
+        }
+        out.write(("HTTP/1.1 101 Switching Protocols\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Accept: " + acceptKey(key) + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return new WebSocketConnection(socket, in);
+    }
+
+    /**
+     * Returns the {@code Sec-WebSocket-Accept} value answering a client's key.
+     */
+    static String acceptKey(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1")
+                    .digest((key + ACCEPT_GUID).getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available.", e);
+        }
+    }
+
+    /**
+     * Reads the next text message, answering control frames on the way. Binary messages are skipped.
+     *
+     * @return the message, or {@code null} once the client has closed the connection.
+     * @throws IOException if the socket fails or the client breaks the protocol.
+     */
+    String readText() throws IOException {
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        int messageType = -1;
+        while (true) {
+            int b0 = in.read();
+            if (b0 < 0) {
+                return null;
+            }
+            int b1 = readByte();
+            int opcode = b0 & 0x0F;
+            boolean fin = (b0 & FIN) != 0;
+            long length = b1 & 0x7F;
+            if (length == 126) {
+                length = (readByte() << 8) | readByte();
+            } else if (length == 127) {
+                length = 0;
+                for (int i = 0; i < 8; i++) {
+                    length = (length << 8) | readByte();
+                }
+            }
+            if (length < 0 || length > MAX_MESSAGE_BYTES || message.size() + length > MAX_MESSAGE_BYTES) {
+                throw new IOException("Frame too large: " + length + " bytes.");
+            }
+            byte[] mask = ((b1 & 0x80) != 0) ? in.readNBytes(4) : null;
+            byte[] payload = in.readNBytes((int) length);
+            if (payload.length < length || (mask != null && mask.length < 4)) {
+                throw new EOFException("Connection closed inside a frame.");
+            }
+            if (mask != null) {
+                for (int i = 0; i < payload.length; i++) {
+                    payload[i] ^= mask[i & 3];
+                }
+            }
+            switch (opcode) {
+                case OP_PING -> sendFrame(OP_PONG, payload, true);
+                case OP_PONG -> {
+                }
+                case OP_CLOSE -> {
+                    if (!closeSent) {
+                        sendFrame(OP_CLOSE, (payload.length >= 2) ? new byte[]{payload[0], payload[1]} : payload,
+                                true);
+                        closeSent = true;
+                    }
+                    return null;
+                }
+                case OP_TEXT, OP_BINARY, OP_CONTINUATION -> {
+                    if (opcode != OP_CONTINUATION) {
+                        messageType = opcode;
+                        message.reset();
+                    }
+                    message.write(payload);
+                    if (fin) {
+                        if (messageType == OP_TEXT) {
+                            return message.toString(StandardCharsets.UTF_8);
+                        }
+                        message.reset();
+                    }
+                }
+                default -> throw new IOException("Unknown opcode " + opcode + ".");
+            }
+        }
+    }
+
+    /**
+     * Sends a text message in one frame.
+     *
+     * @param message the message.
+     * @param flush   whether to flush the buffer now; otherwise the frame may wait for later writes.
+     * @throws IOException if the socket fails.
+     */
+    void sendText(String message, boolean flush) throws IOException {
+        sendFrame(OP_TEXT, message.getBytes(StandardCharsets.UTF_8), flush);
+    }
+
+    /**
+     * Flushes frames buffered by {@link #sendText(String, boolean)}.
+     *
+     * @throws IOException if the socket fails.
+     */
+    void flush() throws IOException {
+        writeLock.lock();
+        try {
+            out.flush();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Sends a close frame, if none was sent yet, and closes the socket.
+     */
+    @Override
+    public void close() {
+        try {
+            if (!closeSent && !socket.isClosed()) {
+                closeSent = true;
+                sendFrame(OP_CLOSE, new byte[]{0x03, (byte) 0xE9}, true); // 1001: going away
+            }
+        } catch (IOException ignored) {
+            // The socket is closed below either way.
+        }
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // Nothing left to release.
+        }
+    }
+
+    private void sendFrame(int opcode, byte[] payload, boolean flush) throws IOException {
+        writeLock.lock();
+        try {
+            out.write(FIN | opcode);
+            if (payload.length < 126) {
+                out.write(payload.length);
+            } else if (payload.length <= 0xFFFF) {
+                out.write(126);
+                out.write(payload.length >>> 8);
+                out.write(payload.length);
+            } else {
+                out.write(127);
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    out.write((int) ((long) payload.length >>> shift));
+                }
+            }
+            out.write(payload);
+            if (flush) {
+                out.flush();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Connection closed inside a frame.");
+        }
+        return b;
+    }
+
+    private static String readRequestHead(InputStream in) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        int matched = 0;
+        while (matched < 4) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Connection closed during the handshake.");
+            }
+            head.write(b);
+            if (head.size() > MAX_HANDSHAKE_BYTES) {
+                throw new IOException("Handshake request too large.");
+            }
+            matched = (b == ((matched % 2 == 0) ? '\r' : '\n')) ? matched + 1 : (b == '\r' ? 1 : 0);
+        }
+        return head.toString(StandardCharsets.ISO_8859_1);
+    }
+}
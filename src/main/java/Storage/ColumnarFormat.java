@@ -0,0 +1,146 @@
+package Storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * On-disk layout of the columnar store, shared by {@link PartitionWriter} and {@link ColumnarReader}.
+ * <p>
+ * Data is partitioned by record kind, platform, product and UTC day:
+ * {@code <root>/<trades|quotes>/<platform>/<product>/<yyyy-MM-dd>.col}. A partition file is a header followed by
+ * blocks of up to a few thousand rows. Within a block every column is stored contiguously (a PAX layout):
+ * </p>
+ * <pre>
+ * header: int magic, short version, byte kind, int priceScale, int sizeScale
+ * block:  int length (of the rest of the block), int rows, long minKey, long maxKey,
+ *         each long column:   rows x zig-zag varint of the difference to the previous row (the first to 0)
+ *         each string column: varint entries, entries x (varint UTF-8 length, bytes),
+ *                             rows x varint (index of the entry + 1, 0 for null)
+ * </pre>
+ * <p>
+ * Decimals are stored as mantissas at the partition's scales and timestamps as epoch nanoseconds, so consecutive
+ * prices and times usually differ by a few units and their deltas fit in one or two bytes. The key column holds
+ * the time each row is indexed by; the record's own timestamps are stored relative to it (wrapping, so
+ * {@link Utils.Timestamps#NONE} survives), which makes them a constant offset that delta-codes to one byte.
+ * Strings are dictionary-coded per block, so sides and other repeated values cost one byte per row. A reader
+ * skips every block whose key range misses the requested window without decoding it. A block cut short by a
+ * crash is ignored.
+ * </p>
+ */
+final class ColumnarFormat {
+
+    static final int MAGIC = 0x4E50434C;
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + 1 + 2 * Integer.BYTES;
+    static final String EXTENSION = ".col";
+    static final long NANOS_PER_DAY = 86_400_000_000_000L;
+
+    static final byte TRADES = 1;
+    static final byte QUOTES = 2;
+
+    // Trade columns.
+    static final int TRADE_KEY = 0;
+    static final int TRADE_EVENT_TIME = 1;
+    static final int TRADE_TRADE_TIME = 2;
+    static final int TRADE_ID = 3;
+    static final int TRADE_PRICE = 4;
+    static final int TRADE_SIZE = 5;
+    static final int TRADE_BUYER_IS_MAKER = 6;
+    static final int TRADE_LONGS = 7;
+    static final int TRADE_BUYER_ID = 0;
+    static final int TRADE_SELLER_ID = 1;
+    static final int TRADE_SIDE = 2;
+    static final int TRADE_STRINGS = 3;
+
+    // Quote columns.
+    static final int QUOTE_KEY = 0;
+    static final int QUOTE_SEQUENCE = 1;
+    static final int QUOTE_TIME = 2;
+    static final int QUOTE_BEST_BID = 3;
+    static final int QUOTE_BEST_BID_SIZE = 4;
+    static final int QUOTE_BEST_ASK = 5;
+    static final int QUOTE_BEST_ASK_SIZE = 6;
+    static final int QUOTE_PRICE = 7;
+    static final int QUOTE_OPEN_24H = 8;
+    static final int QUOTE_VOLUME_24H = 9;
+    static final int QUOTE_LOW_24H = 10;
+    static final int QUOTE_HIGH_24H = 11;
+    static final int QUOTE_VOLUME_30D = 12;
+    static final int QUOTE_TRADE_ID = 13;
+    static final int QUOTE_LAST_SIZE = 14;
+    static final int QUOTE_LONGS = 15;
+    static final int QUOTE_SIDE = 0;
+    static final int QUOTE_STRINGS = 1;
+
+    private ColumnarFormat() {
+    }
+
+    static String directory(byte kind) {
+        return (kind == TRADES) ? "trades" : "quotes";
+    }
+
+    /**
+     * Returns the directory holding the partitions of one product.
+     *
+     * @throws IOException if the platform or product cannot be used as a directory name.
+     */
+    static Path productDirectory(Path root, byte kind, String platform, String product) throws IOException {
+        return root.resolve(directory(kind)).resolve(checkName(platform)).resolve(checkName(product));
+    }
+
+    static Path partition(Path productDirectory, long day) {
+        return productDirectory.resolve(LocalDate.ofEpochDay(day) + EXTENSION);
+    }
+
+    /**
+     * Parses the day of a partition file name, or returns {@code null} if the name is not a partition.
+     */
+    static Long day(String fileName) {
+        if (!fileName.endsWith(EXTENSION)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(fileName.substring(0, fileName.length() - EXTENSION.length())).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static String checkName(String name) throws IOException {
+        if (name == null || name.isEmpty() || name.equals(".") || name.equals("..")
+                || name.indexOf('/') >= 0 || name.indexOf('\\') >= 0) {
+            throw new IOException("Invalid partition name: " + name);
+        }
+        return name;
+    }
+}
@@ -0,0 +1,255 @@
+package Storage;
+
+import MarketDataType.MutableQuote;
+import MarketDataType.MutableTrade;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Range scans over the columnar store written by {@link ColumnarSink}.
+ * <p>
+ * Only the partitions of the requested product whose day overlaps the window are opened. Each is memory-mapped,
+ * blocks whose key range misses the window are skipped by their header alone, and the remaining rows are decoded
+ * column by column into one reusable {@link MutableTrade} or {@link MutableQuote} handed to the visitor. The
+ * flyweight is only valid during the call, exactly as for a {@link Normalizer.MarketDataHandler}.
+ * </p>
+ * <p>
+ * A reader holds no open files between scans and may be used while a sink is writing; rows still buffered by the
+ * sink are not visible. Instances are not thread-safe.
+ * </p>
+ *
+ * <b>Usage Example:</b>
+ * <pre>{@code
+ * ColumnarReader reader = new ColumnarReader(Path.of("store"));
+ * long from = Timestamps.parseIso8601("2024-01-01T00:00:00Z");
+ * long to = Timestamps.parseIso8601("2024-01-02T00:00:00Z");
+ * reader.scanTrades("coinbase", "BTCUSD", from, to, trade -> volume.add(trade.size()));
+ * }</pre>
+ */
+public class ColumnarReader {
+
+    private static final int LONG_COLUMNS = Math.max(ColumnarFormat.TRADE_LONGS, ColumnarFormat.QUOTE_LONGS);
+    private static final int STRING_COLUMNS = Math.max(ColumnarFormat.TRADE_STRINGS, ColumnarFormat.QUOTE_STRINGS);
+
+    private final Path root;
+    private long[][] longs = new long[LONG_COLUMNS][0];
+    private String[][] strings = new String[STRING_COLUMNS][0];
+    private String[] dictionary = new String[16];
+    private byte[] scratch = new byte[64];
+    private final MutableTrade trade = new MutableTrade();
+    private final MutableQuote quote = new MutableQuote();
+
+    /**
+     * Creates a reader over the store under the given root directory.
+     *
+     * @param root the root directory of the store.
+     */
+    public ColumnarReader(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * Visits, in storage order, every trade of a product whose key time lies in {@code [fromNanos, toNanos)}.
+     *
+     * @param platform  the platform, e.g. {@code "coinbase"}.
+     * @param product   the normalized product, e.g. {@code "BTCUSD"}.
+     * @param fromNanos the inclusive start of the window, in epoch nanoseconds.
+     * @param toNanos   the exclusive end of the window, in epoch nanoseconds.
+     * @param visitor   receives each trade; the flyweight is refilled for the next row.
+     * @return the number of trades visited.
+     * @throws IOException if a partition cannot be read or is corrupt.
+     */
+    public long scanTrades(String platform, String product, long fromNanos, long toNanos,
+                           Consumer<MutableTrade> visitor) throws IOException {
+        long visited = 0;
+        for (Path partition : partitions(ColumnarFormat.TRADES, platform, product, fromNanos, toNanos)) {
+            visited += scan(partition, ColumnarFormat.TRADES, ColumnarFormat.TRADE_LONGS, ColumnarFormat.TRADE_STRINGS,
+                    fromNanos, toNanos, (ps, ss, r) -> {
+                        trade.reset()
+                                .platform(platform)
+                                .product(product)
+                                .scales(ps, ss)
+                                .eventTimeNanos(longs[ColumnarFormat.TRADE_EVENT_TIME][r] + longs[ColumnarFormat.TRADE_KEY][r])
+                                .tradeTimeNanos(longs[ColumnarFormat.TRADE_TRADE_TIME][r] + longs[ColumnarFormat.TRADE_KEY][r])
+                                .tradeId(longs[ColumnarFormat.TRADE_ID][r])
+                                .price(longs[ColumnarFormat.TRADE_PRICE][r])
+                                .size(longs[ColumnarFormat.TRADE_SIZE][r])
+                                .buyerId(strings[ColumnarFormat.TRADE_BUYER_ID][r])
+                                .sellerId(strings[ColumnarFormat.TRADE_SELLER_ID][r])
+                                .side(strings[ColumnarFormat.TRADE_SIDE][r]);
+                        long maker = longs[ColumnarFormat.TRADE_BUYER_IS_MAKER][r];
+                        trade.buyerIsMarketMaker((maker < 0) ? null : maker != 0);
+                        visitor.accept(trade);
+                    });
+        }
+        return visited;
+    }
+
+    /**
+     * Visits, in storage order, every quote of a product whose key time lies in {@code [fromNanos, toNanos)}.
+     *
+     * @param platform  the platform, e.g. {@code "binance.us"}.
+     * @param product   the normalized product, e.g. {@code "BNBUSDT"}.
+     * @param fromNanos the inclusive start of the window, in epoch nanoseconds.
+     * @param toNanos   the exclusive end of the window, in epoch nanoseconds.
+     * @param visitor   receives each quote; the flyweight is refilled for the next row.
+     * @return the number of quotes visited.
+     * @throws IOException if a partition cannot be read or is corrupt.
+     */
+    public long scanQuotes(String platform, String product, long fromNanos, long toNanos,
+                           Consumer<MutableQuote> visitor) throws IOException {
+        long visited = 0;
+        for (Path partition : partitions(ColumnarFormat.QUOTES, platform, product, fromNanos, toNanos)) {
+            visited += scan(partition, ColumnarFormat.QUOTES, ColumnarFormat.QUOTE_LONGS, ColumnarFormat.QUOTE_STRINGS,
+                    fromNanos, toNanos, (ps, ss, r) -> {
+                        quote.reset()
+                                .platform(platform)
+                                .product(product)
+                                .scales(ps, ss)
+                                .sequence(longs[ColumnarFormat.QUOTE_SEQUENCE][r])
+                                .timeNanos(longs[ColumnarFormat.QUOTE_TIME][r] + longs[ColumnarFormat.QUOTE_KEY][r])
+                                .bestBid(longs[ColumnarFormat.QUOTE_BEST_BID][r])
+                                .bestBidSize(longs[ColumnarFormat.QUOTE_BEST_BID_SIZE][r])
+                                .bestAsk(longs[ColumnarFormat.QUOTE_BEST_ASK][r])
+                                .bestAskSize(longs[ColumnarFormat.QUOTE_BEST_ASK_SIZE][r])
+                                .price(longs[ColumnarFormat.QUOTE_PRICE][r])
+                                .open24h(longs[ColumnarFormat.QUOTE_OPEN_24H][r])
+                                .volume24h(longs[ColumnarFormat.QUOTE_VOLUME_24H][r])
+                                .low24h(longs[ColumnarFormat.QUOTE_LOW_24H][r])
+                                .high24h(longs[ColumnarFormat.QUOTE_HIGH_24H][r])
+                                .volume30d(longs[ColumnarFormat.QUOTE_VOLUME_30D][r])
+                                .tradeId(longs[ColumnarFormat.QUOTE_TRADE_ID][r])
+                                .lastSize(longs[ColumnarFormat.QUOTE_LAST_SIZE][r])
+                                .side(strings[ColumnarFormat.QUOTE_SIDE][r]);
+                        visitor.accept(quote);
+                    });
+        }
+        return visited;
+    }
+
+    /**
+     * Lists the partitions of a product overlapping the window, oldest first.
+     */
+    private List<Path> partitions(byte kind, String platform, String product, long fromNanos, long toNanos)
+            throws IOException {
+        List<Path> partitions = new ArrayList<>();
+        Path directory = ColumnarFormat.productDirectory(root, kind, platform, product);
+        if (fromNanos >= toNanos || !Files.isDirectory(directory)) {
+            return partitions;
+        }
+        long firstDay = Math.floorDiv(fromNanos, ColumnarFormat.NANOS_PER_DAY);
+        long lastDay = Math.floorDiv(toNanos - 1, ColumnarFormat.NANOS_PER_DAY);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Long day = ColumnarFormat.day(file.getFileName().toString());
+                if (day != null && day >= firstDay && day <= lastDay) {
+                    partitions.add(file);
+                }
+            }
+        }
+        partitions.sort(null);
+        return partitions;
+    }
+
+    private long scan(Path path, byte kind, int longColumns, int stringColumns, long fromNanos, long toNanos,
+                      RowVisitor visitor) throws IOException {
+        MappedByteBuffer in;
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            in = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+        }
+        if (in.remaining() < ColumnarFormat.HEADER_BYTES || in.getInt() != ColumnarFormat.MAGIC
+                || in.getShort() != ColumnarFormat.VERSION || in.get() != kind) {
+            throw new IOException("Not a columnar partition of this kind: " + path);
+        }
+        int priceScale = in.getInt();
+        int sizeScale = in.getInt();
+        long visited = 0;
+        while (in.remaining() >= Integer.BYTES) {
+            int length = in.getInt();
+            int end = in.position() + length;
+            if (length < 0 || end > in.limit()) {
+                // A block cut short by a crash; everything before it is intact.
+                break;
+            }
+            int rows = in.getInt();
+            if (rows < 0 || rows > length) {
+                throw new IOException("Corrupt block in " + path + ": " + rows + " rows");
+            }
+            long minKey = in.getLong();
+            long maxKey = in.getLong();
+            if (maxKey < fromNanos || minKey >= toNanos) {
+                in.position(end);
+                continue;
+            }
+            try {
+                decode(in, rows, longColumns, stringColumns);
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupt block in " + path + ": " + e, e);
+            }
+            if (in.position() != end) {
+                throw new IOException("Corrupt block in " + path + ": length mismatch");
+            }
+            long[] keys = longs[0];
+            for (int r = 0; r < rows; r++) {
+                if (keys[r] >= fromNanos && keys[r] < toNanos) {
+                    visitor.visit(priceScale, sizeScale, r);
+                    visited++;
+                }
+            }
+        }
+        return visited;
+    }
+
+    private void decode(ByteBuffer in, int rows, int longColumns, int stringColumns) {
+        if (longs[0].length < rows) {
+            longs = new long[LONG_COLUMNS][rows];
+            strings = new String[STRING_COLUMNS][rows];
+        }
+        for (int c = 0; c < longColumns; c++) {
+            long[] column = longs[c];
+            long previous = 0;
+            for (int r = 0; r < rows; r++) {
+                previous += ColumnarFormat.unZigZag(ColumnarFormat.getVarLong(in));
+                column[r] = previous;
+            }
+        }
+        for (int c = 0; c < stringColumns; c++) {
+            int entries = (int) ColumnarFormat.getVarLong(in);
+            if (dictionary.length < entries) {
+                dictionary = new String[Math.max(entries, 2 * dictionary.length)];
+            }
+            for (int e = 0; e < entries; e++) {
+                int length = (int) ColumnarFormat.getVarLong(in);
+                if (scratch.length < length) {
+                    scratch = new byte[Math.max(length, 2 * scratch.length)];
+                }
+                in.get(scratch, 0, length);
+                dictionary[e] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+            String[] column = strings[c];
+            for (int r = 0; r < rows; r++) {
+                int index = (int) ColumnarFormat.getVarLong(in);
+                if (index > entries) {
+                    throw new IllegalStateException("String index " + index + " outside a dictionary of " + entries);
+                }
+                column[r] = (index == 0) ? null : dictionary[index - 1];
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowVisitor {
+        void visit(int priceScale, int sizeScale, int row);
+    }
+}
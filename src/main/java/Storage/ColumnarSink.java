@@ -0,0 +1,239 @@
+package Storage;
+
+import MarketDataType.MutableQuote;
+import MarketDataType.MutableTrade;
+import MarketDataType.Quote;
+import MarketDataType.ScaledDecimal;
+import MarketDataType.Trade;
+import Normalizer.Output.Sink;
+import Utils.Timestamps;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link Sink} storing normalized records in the columnar store read by {@link ColumnarReader}.
+ * <p>
+ * Records are routed to a partition per kind, platform, product and UTC day (see {@link ColumnarFormat}).
+ * Decimals are stored at the scales of the product's {@link MarketDataType.ProductScales} entry when its
+ * partition is created. A record whose price or size does not fit those scales (more fractional digits, or an
+ * overflowing mantissa) is logged and skipped, and the sink carries on with the next record; a 24-hour or
+ * 30-day volume that does not fit is stored as {@link ScaledDecimal#NULL}. {@link IOException}s are reserved
+ * for failures of the store itself.
+ * Rows are indexed by the trade time (falling back to the event time) or the quote time; a record without
+ * either is indexed by the time it is stored.
+ * </p>
+ * <p>
+ * Rows are buffered per partition and written as one block when {@link #DEFAULT_BLOCK_ROWS} have accumulated,
+ * when a partition has held unwritten rows for the flush interval at the end of an input batch, when the day
+ * of a product rolls over, and on {@link #close()}. Larger blocks compress better; the interval bounds how long
+ * rows stay in memory on a quiet product.
+ * </p>
+ *
+ * <b>Usage Example:</b>
+ * <pre>{@code
+ * Normalizer normalizer = new Normalizer(channel, new ColumnarSink(Path.of("store")));
+ * }</pre>
+ */
+public class ColumnarSink implements Sink {
+
+    /**
+     * The default number of rows per block.
+     */
+    public static final int DEFAULT_BLOCK_ROWS = 4096;
+    /**
+     * The default longest time rows are held before being written.
+     */
+    public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofSeconds(1);
+
+    private static final Logger logger = LogManager.getLogger(ColumnarSink.class);
+
+    private final Path root;
+    private final int blockRows;
+    private final long flushIntervalNanos;
+    private final Map<String, Map<String, PartitionWriter>> trades = new HashMap<>();
+    private final Map<String, Map<String, PartitionWriter>> quotes = new HashMap<>();
+    private final MutableTrade trade = new MutableTrade();
+    private final MutableQuote quote = new MutableQuote();
+    private final long[] longRow = new long[Math.max(ColumnarFormat.TRADE_LONGS, ColumnarFormat.QUOTE_LONGS)];
+    private final String[] stringRow = new String[Math.max(ColumnarFormat.TRADE_STRINGS, ColumnarFormat.QUOTE_STRINGS)];
+
+    /**
+     * Creates a sink storing under the given root directory with the default block size and flush interval.
+     *
+     * @param root the root directory of the store; it is created as needed.
+     */
+    public ColumnarSink(Path root) {
+        this(root, DEFAULT_BLOCK_ROWS, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /**
+     * Creates a sink storing under the given root directory.
+     *
+     * @param root          the root directory of the store; it is created as needed.
+     * @param blockRows     the number of rows per block.
+     * @param flushInterval the longest time rows are held before being written, checked at the end of each batch.
+     */
+    public ColumnarSink(Path root, int blockRows, Duration flushInterval) {
+        if (blockRows <= 0) {
+            throw new IllegalArgumentException("blockRows must be positive: " + blockRows);
+        }
+        this.root = root;
+        this.blockRows = blockRows;
+        this.flushIntervalNanos = flushInterval.toNanos();
+    }
+
+    @Override
+    public void write(Trade record) throws IOException {
+        try {
+            writeTrade(record);
+        } catch (ArithmeticException e) {
+            logger.error("Skipped trade {} of {} {}: it does not fit the product's scales: {}", record.tradeId(),
+                    record.platform(), record.product(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void write(Quote record) throws IOException {
+        try {
+            writeQuote(record);
+        } catch (ArithmeticException | NumberFormatException e) {
+            logger.error("Skipped quote {} of {} {}: it does not fit the product's scales: {}", record.sequence(),
+                    record.platform(), record.product(), e.getMessage());
+        }
+    }
+
+    private void writeTrade(Trade record) throws IOException {
+        trade.set(record);
+        long key = trade.tradeTimeNanos();
+        if (key == Timestamps.NONE) {
+            key = trade.eventTimeNanos();
+        }
+        if (key == Timestamps.NONE) {
+            key = Timestamps.now();
+        }
+        PartitionWriter partition = partition(trades, ColumnarFormat.TRADES, trade.platform(), trade.product(), key,
+                trade.priceScale(), trade.sizeScale(), ColumnarFormat.TRADE_LONGS, ColumnarFormat.TRADE_STRINGS);
+        int ps = partition.priceScale(), ss = partition.sizeScale();
+        longRow[ColumnarFormat.TRADE_KEY] = key;
+        longRow[ColumnarFormat.TRADE_EVENT_TIME] = trade.eventTimeNanos() - key;
+        longRow[ColumnarFormat.TRADE_TRADE_TIME] = trade.tradeTimeNanos() - key;
+        longRow[ColumnarFormat.TRADE_ID] = trade.tradeId();
+        longRow[ColumnarFormat.TRADE_PRICE] = rescale(trade.price(), trade.priceScale(), ps);
+        longRow[ColumnarFormat.TRADE_SIZE] = rescale(trade.size(), trade.sizeScale(), ss);
+        longRow[ColumnarFormat.TRADE_BUYER_IS_MAKER] =
+                (trade.buyerIsMarketMaker() == null) ? -1 : (trade.buyerIsMarketMaker() ? 1 : 0);
+        stringRow[ColumnarFormat.TRADE_BUYER_ID] = record.buyerId();
+        stringRow[ColumnarFormat.TRADE_SELLER_ID] = record.sellerId();
+        stringRow[ColumnarFormat.TRADE_SIDE] = record.side();
+        partition.append(key, longRow, stringRow);
+    }
+
+    private void writeQuote(Quote record) throws IOException {
+        quote.set(record);
+        long key = (quote.timeNanos() == Timestamps.NONE) ? Timestamps.now() : quote.timeNanos();
+        PartitionWriter partition = partition(quotes, ColumnarFormat.QUOTES, quote.platform(), quote.product(), key,
+                quote.priceScale(), quote.sizeScale(), ColumnarFormat.QUOTE_LONGS, ColumnarFormat.QUOTE_STRINGS);
+        int from = quote.priceScale(), ps = partition.priceScale();
+        int fromSize = quote.sizeScale(), ss = partition.sizeScale();
+        longRow[ColumnarFormat.QUOTE_KEY] = key;
+        longRow[ColumnarFormat.QUOTE_SEQUENCE] = quote.sequence();
+        longRow[ColumnarFormat.QUOTE_TIME] = quote.timeNanos() - key;
+        longRow[ColumnarFormat.QUOTE_BEST_BID] = rescale(quote.bestBid(), from, ps);
+        longRow[ColumnarFormat.QUOTE_BEST_BID_SIZE] = rescale(quote.bestBidSize(), fromSize, ss);
+        longRow[ColumnarFormat.QUOTE_BEST_ASK] = rescale(quote.bestAsk(), from, ps);
+        longRow[ColumnarFormat.QUOTE_BEST_ASK_SIZE] = rescale(quote.bestAskSize(), fromSize, ss);
+        longRow[ColumnarFormat.QUOTE_PRICE] = rescale(quote.price(), from, ps);
+        longRow[ColumnarFormat.QUOTE_OPEN_24H] = rescale(quote.open24h(), from, ps);
+        longRow[ColumnarFormat.QUOTE_VOLUME_24H] = ScaledDecimal.rescaleOrNull(quote.volume24h(), fromSize, ss);
+        longRow[ColumnarFormat.QUOTE_LOW_24H] = rescale(quote.low24h(), from, ps);
+        longRow[ColumnarFormat.QUOTE_HIGH_24H] = rescale(quote.high24h(), from, ps);
+        longRow[ColumnarFormat.QUOTE_VOLUME_30D] = ScaledDecimal.rescaleOrNull(quote.volume30d(), fromSize, ss);
+        longRow[ColumnarFormat.QUOTE_TRADE_ID] = quote.tradeId();
+        longRow[ColumnarFormat.QUOTE_LAST_SIZE] = rescale(quote.lastSize(), fromSize, ss);
+        stringRow[ColumnarFormat.QUOTE_SIDE] = record.side();
+        partition.append(key, longRow, stringRow);
+    }
+
+    /**
+     * Writes the rows of every partition that has held them for at least the flush interval.
+     *
+     * @throws IOException if a block cannot be written.
+     */
+    @Override
+    public void endOfBatch() throws IOException {
+        long now = System.nanoTime();
+        flushOlderThan(trades, now);
+        flushOlderThan(quotes, now);
+    }
+
+    /**
+     * Writes all buffered rows and closes every partition.
+     *
+     * @throws IOException if a partition cannot be written or closed; every partition is still closed.
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = closeAll(trades, null);
+        failure = closeAll(quotes, failure);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private PartitionWriter partition(Map<String, Map<String, PartitionWriter>> partitions, byte kind,
+                                      String platform, String product, long key, int priceScale, int sizeScale,
+                                      int longColumns, int stringColumns) throws IOException {
+        long day = Math.floorDiv(key, ColumnarFormat.NANOS_PER_DAY);
+        Map<String, PartitionWriter> byProduct = partitions.computeIfAbsent(platform, p -> new HashMap<>());
+        PartitionWriter partition = byProduct.get(product);
+        if (partition != null && partition.day() == day) {
+            return partition;
+        }
+        if (partition != null) {
+            byProduct.remove(product);
+            partition.close();
+        }
+        Path path = ColumnarFormat.partition(ColumnarFormat.productDirectory(root, kind, platform, product), day);
+        partition = new PartitionWriter(path, kind, day, priceScale, sizeScale, longColumns, stringColumns, blockRows);
+        byProduct.put(product, partition);
+        return partition;
+    }
+
+    private static long rescale(long mantissa, int from, int to) {
+        return (from == to) ? mantissa : ScaledDecimal.rescale(mantissa, from, to);
+    }
+
+    private void flushOlderThan(Map<String, Map<String, PartitionWriter>> partitions, long now) throws IOException {
+        for (Map<String, PartitionWriter> byProduct : partitions.values()) {
+            for (PartitionWriter partition : byProduct.values()) {
+                if (!partition.isEmpty() && now - partition.firstRowNanos() >= flushIntervalNanos) {
+                    partition.flush();
+                }
+            }
+        }
+    }
+
+    private static IOException closeAll(Map<String, Map<String, PartitionWriter>> partitions, IOException failure) {
+        for (Map<String, PartitionWriter> byProduct : partitions.values()) {
+            for (PartitionWriter partition : byProduct.values()) {
+                try {
+                    partition.close();
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        }
+        partitions.clear();
+        return failure;
+    }
+}
@@ -0,0 +1,215 @@
+package Storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Appends rows to one partition file, buffering them column by column and writing a block when it is full or
+ * on {@link #flush()}.
+ * <p>
+ * Opening an existing partition appends to it at the scales recorded in its header, which may differ from the
+ * requested ones; callers rescale values to {@link #priceScale()} and {@link #sizeScale()}. A block left
+ * incomplete by a crash is truncated away first, so the rows appended after it stay readable.
+ * </p>
+ */
+final class PartitionWriter implements Closeable {
+
+    private final FileChannel file;
+    private final long day;
+    private final int priceScale;
+    private final int sizeScale;
+    private final long[][] longs;
+    private final String[][] strings;
+    private int rows;
+    private long minKey;
+    private long maxKey;
+    private long firstRowNanos;
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    private final Map<String, Integer> dictionary = new LinkedHashMap<>();
+
+    PartitionWriter(Path path, byte kind, long day, int priceScale, int sizeScale,
+                    int longColumns, int stringColumns, int blockRows) throws IOException {
+        Files.createDirectories(path.getParent());
+        this.file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.day = day;
+        this.longs = new long[longColumns][blockRows];
+        this.strings = new String[stringColumns][blockRows];
+        ByteBuffer header = ByteBuffer.allocate(ColumnarFormat.HEADER_BYTES);
+        try {
+            if (file.size() == 0) {
+                header.putInt(ColumnarFormat.MAGIC).putShort(ColumnarFormat.VERSION).put(kind)
+                        .putInt(priceScale).putInt(sizeScale);
+                writeFully(header.flip());
+            } else {
+                readHeader(path, kind, header);
+                priceScale = header.getInt();
+                sizeScale = header.getInt();
+                truncateTornBlock();
+                file.position(file.size());
+            }
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+        this.priceScale = priceScale;
+        this.sizeScale = sizeScale;
+    }
+
+    long day() {
+        return day;
+    }
+
+    int priceScale() {
+        return priceScale;
+    }
+
+    int sizeScale() {
+        return sizeScale;
+    }
+
+    /**
+     * Returns when the oldest unwritten row was appended, in {@link System#nanoTime()} units.
+     */
+    long firstRowNanos() {
+        return firstRowNanos;
+    }
+
+    boolean isEmpty() {
+        return rows == 0;
+    }
+
+    /**
+     * Appends a row, writing the block first if it is full. The arrays are copied.
+     */
+    void append(long key, long[] longRow, String[] stringRow) throws IOException {
+        if (rows == longs[0].length) {
+            flush();
+        }
+        if (rows == 0) {
+            minKey = key;
+            maxKey = key;
+            firstRowNanos = System.nanoTime();
+        } else {
+            minKey = Math.min(minKey, key);
+            maxKey = Math.max(maxKey, key);
+        }
+        for (int c = 0; c < longs.length; c++) {
+            longs[c][rows] = longRow[c];
+        }
+        for (int c = 0; c < strings.length; c++) {
+            strings[c][rows] = stringRow[c];
+        }
+        rows++;
+    }
+
+    /**
+     * Writes the buffered rows as one block.
+     */
+    void flush() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        while (true) {
+            try {
+                encode();
+                break;
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+        writeFully(buffer.flip());
+        for (String[] column : strings) {
+            Arrays.fill(column, 0, rows, null);
+        }
+        rows = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            file.close();
+        }
+    }
+
+    private void encode() {
+        ByteBuffer out = buffer.clear();
+        out.putInt(0);
+        out.putInt(rows);
+        out.putLong(minKey);
+        out.putLong(maxKey);
+        for (long[] column : longs) {
+            long previous = 0;
+            for (int r = 0; r < rows; r++) {
+                ColumnarFormat.putVarLong(out, ColumnarFormat.zigZag(column[r] - previous));
+                previous = column[r];
+            }
+        }
+        for (String[] column : strings) {
+            dictionary.clear();
+            for (int r = 0; r < rows; r++) {
+                if (column[r] != null) {
+                    dictionary.putIfAbsent(column[r], dictionary.size());
+                }
+            }
+            ColumnarFormat.putVarLong(out, dictionary.size());
+            for (String entry : dictionary.keySet()) {
+                byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+                ColumnarFormat.putVarLong(out, bytes.length);
+                out.put(bytes);
+            }
+            for (int r = 0; r < rows; r++) {
+                ColumnarFormat.putVarLong(out, (column[r] == null) ? 0 : dictionary.get(column[r]) + 1L);
+            }
+        }
+        out.putInt(0, out.position() - Integer.BYTES);
+    }
+
+    /**
+     * Reads and checks the header, leaving the buffer positioned on the scales.
+     */
+    private void readHeader(Path path, byte kind, ByteBuffer header) throws IOException {
+        while (header.hasRemaining() && file.read(header, header.position()) > 0) {
+            // Keep reading until the header is complete or the file ends.
+        }
+        header.flip();
+        if (header.remaining() < ColumnarFormat.HEADER_BYTES || header.getInt() != ColumnarFormat.MAGIC
+                || header.getShort() != ColumnarFormat.VERSION || header.get() != kind) {
+            throw new IOException("Not a columnar partition of this kind: " + path);
+        }
+    }
+
+    private void truncateTornBlock() throws IOException {
+        long size = file.size();
+        long position = ColumnarFormat.HEADER_BYTES;
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        while (position < size) {
+            length.clear();
+            while (length.hasRemaining() && file.read(length, position + length.position()) > 0) {
+                // Keep reading until the length is complete or the file ends.
+            }
+            if (length.hasRemaining() || position + Integer.BYTES + length.getInt(0) > size) {
+                file.truncate(position);
+                return;
+            }
+            position += Integer.BYTES + length.getInt(0);
+        }
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            file.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package Utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Enum selecting the kind of threads NovaPipe components run on.
+ * <p>
+ * <ul>
+ *     <li>{@link #PLATFORM} - Classic operating-system threads, one per task.</li>
+ *     <li>{@link #VIRTUAL} - JVM-scheduled virtual threads, cheap enough to block freely and to
+ *     create by the thousand (e.g. one per subscription, forwarder or client connection).</li>
+ * </ul>
+ * Components accept an {@code ExecutionMode} wherever they start threads of their own, so a whole
+ * pipeline can be switched to virtual threads without changing its structure.
+ */
+public enum ExecutionMode {
+    PLATFORM,
+    VIRTUAL;
+
+    /**
+     * Creates a thread factory for this mode. Threads are named {@code prefix-0}, {@code prefix-1}, ...
+     *
+     * @param prefix the prefix of the thread names.
+     * @return a {@link ThreadFactory} producing unstarted threads of this mode.
+     */
+    public ThreadFactory threadFactory(String prefix) {
+        return switch (this) {
+            case PLATFORM -> Thread.ofPlatform().name(prefix + "-", 0).factory();
+            case VIRTUAL -> Thread.ofVirtual().name(prefix + "-", 0).factory();
+        };
+    }
+
+    /**
+     * Creates an executor running each task on a thread of this mode.
+     * Platform threads are pooled and reused; virtual threads are created per task.
+     *
+     * @param prefix the prefix of the thread names.
+     * @return a new {@link ExecutorService}.
+     */
+    public ExecutorService newExecutor(String prefix) {
+        return switch (this) {
+            case PLATFORM -> Executors.newCachedThreadPool(threadFactory(prefix));
+            case VIRTUAL -> Executors.newThreadPerTaskExecutor(threadFactory(prefix));
+        };
+    }
+
+    /**
+     * Starts a single named thread of this mode.
+     *
+     * @param name the thread name.
+     * @param task the task to run.
+     * @return the started thread.
+     */
+    public Thread start(String name, Runnable task) {
+        return switch (this) {
+            case PLATFORM -> Thread.ofPlatform().name(name).start(task);
+            case VIRTUAL -> Thread.ofVirtual().name(name).start(task);
+        };
+    }
+}
@@ -1,11 +1,18 @@
 package Utils;
 
+import MarketDataType.ScaledDecimal;
+import MarketDataType.Symbol;
+import MarketDataType.SymbolTable;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.util.function.Function;
 
 /**
- * Utility class for handling JSON operations using Jackson's {@link JsonNode}.
+ * Utility class for handling JSON operations using Jackson's {@link JsonNode} and {@link JsonParser}.
  */
 public class JsonUtil {
 
@@ -21,4 +28,123 @@ public class JsonUtil {
     public static <T> T getValue(JsonNode node, Function<JsonNode, T> extractor) {
         return (node != null && !node.isNull()) ? extractor.apply(node) : null;
     }
+
+    /**
+     * Reads the current scalar token of a streaming parser as a {@link BigDecimal}.
+     * <p>
+     * Both JSON numbers and numeric strings (the form exchanges use for prices) are accepted.
+     * Strings are converted straight from the parser's character buffer, without an intermediate {@link String}.
+     * </p>
+     *
+     * @param parser the parser positioned on a string or number token
+     * @return the decimal value
+     * @throws IOException           if the parser fails to read the value
+     * @throws NumberFormatException if the text is not a valid decimal
+     */
+    public static BigDecimal readDecimal(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            return new BigDecimal(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        }
+        return parser.getDecimalValue();
+    }
+
+    /**
+     * Reads the current scalar token of a streaming parser as a fixed-point mantissa.
+     * <p>
+     * Both JSON numbers and numeric strings are accepted. The digits are read straight from the parser's
+     * character buffer by {@link ScaledDecimal#parse(char[], int, int, int)}, so nothing is allocated.
+     * </p>
+     *
+     * @param parser the parser positioned on a string or number token
+     * @param scale  the number of fractional digits of the result
+     * @return the scaled mantissa
+     * @throws IOException           if the parser fails to read the value
+     * @throws NumberFormatException if the text is not a plain decimal
+     * @throws ArithmeticException   if the value has more fractional digits than {@code scale}, or overflows
+     */
+    public static long readScaled(JsonParser parser, int scale) throws IOException {
+        return ScaledDecimal.parse(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength(), scale);
+    }
+
+    /**
+     * Reads the current scalar token of a streaming parser as a fixed-point mantissa, or {@link ScaledDecimal#NULL}
+     * if the value has more fractional digits than {@code scale} or overflows.
+     *
+     * @param parser the parser positioned on a string or number token
+     * @param scale  the number of fractional digits of the result
+     * @return the scaled mantissa, or {@link ScaledDecimal#NULL} if it does not fit
+     * @throws IOException           if the parser fails to read the value
+     * @throws NumberFormatException if the text is not a plain decimal
+     */
+    public static long readScaledOrNull(JsonParser parser, int scale) throws IOException {
+        try {
+            return readScaled(parser, scale);
+        } catch (ArithmeticException e) {
+            return ScaledDecimal.NULL;
+        }
+    }
+
+    /**
+     * Reads the current string token of a streaming parser as a product and interns it.
+     * <p>
+     * Known products are resolved straight from the parser's character buffer, without allocating.
+     * </p>
+     *
+     * @param parser   the parser positioned on a string token
+     * @param symbols  the table to intern the product in
+     * @param platform the exchange the product belongs to
+     * @return the canonical symbol of the product
+     * @throws IOException if the parser fails to read the value
+     */
+    public static Symbol readSymbol(JsonParser parser, SymbolTable symbols, String platform) throws IOException {
+        return symbols.intern(platform, parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+    }
+
+    /**
+     * Reads the current string token of a streaming parser as an ISO-8601 UTC timestamp.
+     * <p>
+     * The text is parsed straight from the parser's character buffer by {@link Timestamps#parseIso8601(char[], int, int)}.
+     * </p>
+     *
+     * @param parser the parser positioned on a string token
+     * @return the timestamp in epoch nanoseconds
+     * @throws IOException                if the parser fails to read the value
+     * @throws java.time.DateTimeException if the text is not a valid timestamp
+     */
+    public static long readTimestamp(JsonParser parser) throws IOException {
+        return Timestamps.parseIso8601(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+    }
+
+    /**
+     * Reads the current string token of a streaming parser, returning the matching constant if the text equals one
+     * of the given candidates, so recurring values such as {@code "buy"} and {@code "sell"} are not allocated per message.
+     *
+     * @param parser     the parser positioned on a string token
+     * @param candidates the constants to match against; pass a shared array to avoid allocating varargs
+     * @return the matching candidate, or a new string holding the text if none match
+     * @throws IOException if the parser fails to read the value
+     */
+    public static String readInterned(JsonParser parser, String... candidates) throws IOException {
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        for (String candidate : candidates) {
+            if (matches(candidate, chars, offset, length)) {
+                return candidate;
+            }
+        }
+        return new String(chars, offset, length);
+    }
+
+    private static boolean matches(String s, char[] chars, int offset, int length) {
+        if (s.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (s.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -0,0 +1,177 @@
+package Utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies in nanoseconds with log-linear buckets, for recording on hot paths.
+ * <p>
+ * Values below {@value #SUB_BUCKETS} ns get a bucket each; above that, every power of two is split into
+ * {@value #SUB_BUCKETS} equal buckets, so a recorded value is known to within about 3% across the whole
+ * {@code long} range with fewer than 2,000 buckets. Recording is one leading-zero count, a few shifts and atomic
+ * increments, and allocates nothing; percentiles report the highest value of the bucket they fall in, capped at
+ * the largest value recorded. Negative values, which arise when the clocks of two processes disagree, are recorded
+ * as zero.
+ * </p>
+ * <p>
+ * Instances are thread-safe. A snapshot read while values are being recorded may be off by the values in flight.
+ * </p>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+    private static final long NANOS_PER_MICRO = 1_000;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Creates an empty histogram.
+     *
+     * @param name the name shown by {@link #toString()}, e.g. the stage measured.
+     */
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name of the histogram.
+     *
+     * @return the name given at construction.
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos the latency in nanoseconds.
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        buckets.getAndIncrement(indexOf(value));
+        count.getAndIncrement();
+        sum.getAndAdd(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos}, both read from {@link Timestamps#monotonicNow()}.
+     *
+     * @param startNanos the start of the interval, or {@link Timestamps#NONE} to record nothing.
+     * @param endNanos   the end of the interval.
+     */
+    public void recordInterval(long startNanos, long endNanos) {
+        if (startNanos != Timestamps.NONE) {
+            record(endNanos - startNanos);
+        }
+    }
+
+    /**
+     * Returns the number of latencies recorded.
+     *
+     * @return the count.
+     */
+    public long count() {
+        return count.get();
+    }
+
+    /**
+     * Returns the largest latency recorded, or 0 if none was.
+     *
+     * @return the maximum in nanoseconds.
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean latency, or 0 if none was recorded.
+     *
+     * @return the mean in nanoseconds.
+     */
+    public double mean() {
+        long n = count.get();
+        return (n == 0) ? 0 : (double) sum.get() / n;
+    }
+
+    /**
+     * Returns the latency below or at which the given percentage of recorded latencies fall.
+     *
+     * @param percentile the percentage, from 0 to 100.
+     * @return the latency in nanoseconds, or 0 if none was recorded.
+     * @throws IllegalArgumentException if {@code percentile} is outside 0 to 100.
+     */
+    public long percentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100.");
+        }
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Clears the histogram, e.g. at the start of each reporting interval.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /**
+     * Returns a one-line summary in microseconds, e.g.
+     * {@code "normalizer.parse: count=1000 mean=3.2us p50=2.9us p99=8.1us p99.9=15.0us max=40.2us"}.
+     */
+    @Override
+    public String toString() {
+        return String.format("%s: count=%d mean=%.1fus p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                name, count(), mean() / NANOS_PER_MICRO, micros(percentile(50)), micros(percentile(99)),
+                micros(percentile(99.9)), micros(max()));
+    }
+
+    private static double micros(long nanos) {
+        return (double) nanos / NANOS_PER_MICRO;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,134 @@
+package Utils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@code TaskScope} owns every thread a component starts and ties their lifetime to the component.
+ * <p>
+ * Threads are forked into the scope; shutting the scope down interrupts all of them, and closing it
+ * additionally waits for them to finish, so no forwarder or handler outlives its owner. This follows
+ * the structured-concurrency model of {@code StructuredTaskScope}, which is still a preview API in
+ * Java 21 and therefore not used directly.
+ * </p>
+ *
+ * <h2>Usage Example:</h2>
+ * <pre>{@code
+ * try (TaskScope scope = new TaskScope(ExecutionMode.VIRTUAL)) {
+ *     scope.fork("reader", () -> readLoop());
+ *     scope.fork("writer", () -> writeLoop());
+ *     ...
+ * } // both threads are interrupted and joined here
+ * }</pre>
+ */
+public class TaskScope implements AutoCloseable {
+    private final ExecutionMode mode;
+    private final List<Thread> threads = new CopyOnWriteArrayList<>();
+    private volatile boolean shutdown = false;
+
+    /**
+     * Creates an empty scope whose threads run in the given mode.
+     *
+     * @param mode the {@link ExecutionMode} of the forked threads.
+     */
+    public TaskScope(ExecutionMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Returns the execution mode of this scope.
+     *
+     * @return the {@link ExecutionMode} used for forked threads.
+     */
+    public ExecutionMode mode() {
+        return mode;
+    }
+
+    /**
+     * Starts a named thread owned by this scope.
+     *
+     * @param name the thread name.
+     * @param task the task to run.
+     * @return the started thread.
+     * @throws IllegalStateException if the scope has already been shut down.
+     */
+    public Thread fork(String name, Runnable task) {
+        if (shutdown) {
+            throw new IllegalStateException("Task scope is shut down.");
+        }
+        Thread t = mode.start(name, () -> {
+            try {
+                task.run();
+            } finally {
+                threads.remove(Thread.currentThread());
+            }
+        });
+        threads.add(t);
+        // The thread may already have finished and tried to remove itself before being added.
+        if (!t.isAlive()) {
+            threads.remove(t);
+        }
+        return t;
+    }
+
+    /**
+     * Returns whether {@link #shutdown()} has been called.
+     *
+     * @return {@code true} once the scope is shut down.
+     */
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * Interrupts every running thread of the scope and rejects further forks.
+     */
+    public void shutdown() {
+        shutdown = true;
+        for (Thread t : threads) {
+            t.interrupt();
+        }
+    }
+
+    /**
+     * Waits up to {@code timeout} for all threads of the scope to finish.
+     *
+     * @param timeout the maximum time to wait.
+     * @param unit    the unit of {@code timeout}.
+     * @return {@code true} if all threads finished in time.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public boolean join(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread t : threads) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !t.join(Duration.ofNanos(remaining))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Shuts the scope down and waits for all of its threads to finish.
+     */
+    @Override
+    public void close() {
+        shutdown();
+        boolean interrupted = false;
+        for (Thread t : threads) {
+            while (t.isAlive()) {
+                try {
+                    t.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
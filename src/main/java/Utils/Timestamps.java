@@ -0,0 +1,186 @@
+package Utils;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+
+/**
+ * Utility class for timestamps represented as nanoseconds since the Unix epoch in a primitive {@code long}.
+ * <p>
+ * A {@code long} of epoch nanoseconds covers the years 1677 to 2262, which is ample for market data, and
+ * avoids allocating an {@link Instant} per message. Absent timestamps are represented by {@link #NONE}.
+ * </p>
+ * <p>
+ * {@link #parseIso8601(char[], int, int)} parses the fixed UTC layout exchanges publish
+ * ({@code yyyy-MM-ddTHH:mm:ss.ffffffZ}) without going through {@link java.time.format.DateTimeFormatter}.
+ * Consecutive messages almost always fall on the same day, so the epoch offset of the most recent date is cached.
+ * </p>
+ */
+public final class Timestamps {
+
+    /**
+     * Sentinel meaning "no timestamp".
+     */
+    public static final long NONE = Long.MIN_VALUE;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long NANOS_PER_DAY = 86_400L * NANOS_PER_SECOND;
+    private static final int[] FRACTION_MULTIPLIERS = {
+            1_000_000_000, 100_000_000, 10_000_000, 1_000_000, 100_000, 10_000, 1_000, 100, 10, 1
+    };
+
+    /**
+     * The most recently parsed date and its start in epoch nanoseconds. Published as an immutable holder
+     * through a volatile field, so concurrent parsers never see a date paired with another date's offset.
+     */
+    private record CachedDate(int date, long startNanos) {
+    }
+
+    private static volatile CachedDate cachedDate = new CachedDate(-1, 0);
+
+    // The wall clock and the monotonic clock read together once, anchoring monotonicNow() to the epoch.
+    private static final long ANCHOR_EPOCH_NANOS = ofInstant(Instant.now());
+    private static final long ANCHOR_NANO_TIME = System.nanoTime();
+
+    private Timestamps() {
+    }
+
+    /**
+     * Converts an {@link Instant} to epoch nanoseconds.
+     *
+     * @param instant the instant, or {@code null}.
+     * @return the epoch nanoseconds, or {@link #NONE} for {@code null}.
+     * @throws ArithmeticException if the instant is outside the representable range.
+     */
+    public static long ofInstant(Instant instant) {
+        if (instant == null) {
+            return NONE;
+        }
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), NANOS_PER_SECOND), instant.getNano());
+    }
+
+    /**
+     * Converts epoch milliseconds to epoch nanoseconds.
+     *
+     * @param epochMillis the epoch milliseconds.
+     * @return the epoch nanoseconds.
+     */
+    public static long ofEpochMilli(long epochMillis) {
+        return epochMillis * NANOS_PER_MILLI;
+    }
+
+    /**
+     * Converts epoch nanoseconds to an {@link Instant}.
+     *
+     * @param epochNanos the epoch nanoseconds, or {@link #NONE}.
+     * @return the instant, or {@code null} for {@link #NONE}.
+     */
+    public static Instant toInstant(long epochNanos) {
+        if (epochNanos == NONE) {
+            return null;
+        }
+        return Instant.ofEpochSecond(Math.floorDiv(epochNanos, NANOS_PER_SECOND), Math.floorMod(epochNanos, NANOS_PER_SECOND));
+    }
+
+    /**
+     * Returns the current wall-clock time in epoch nanoseconds, without allocating.
+     * <p>
+     * The value has the millisecond resolution of {@link System#currentTimeMillis()}.
+     * </p>
+     *
+     * @return the current time in epoch nanoseconds.
+     */
+    public static long now() {
+        return ofEpochMilli(System.currentTimeMillis());
+    }
+
+    /**
+     * Returns the current time in epoch nanoseconds from the monotonic clock, without allocating.
+     * <p>
+     * The value is {@link System#nanoTime()} shifted by the wall-clock time read once when this class is loaded,
+     * so it has nanosecond resolution and never goes backwards, which makes differences between two readings in
+     * one process exact latencies. It drifts from the wall clock by however much the system clock is adjusted
+     * after loading; readings from different processes differ by their anchors as well.
+     * </p>
+     *
+     * @return the current time in epoch nanoseconds.
+     */
+    public static long monotonicNow() {
+        return ANCHOR_EPOCH_NANOS + (System.nanoTime() - ANCHOR_NANO_TIME);
+    }
+
+    /**
+     * Parses an ISO-8601 UTC timestamp into epoch nanoseconds.
+     * <p>
+     * The layout {@code yyyy-MM-ddTHH:mm:ss[.f...]Z} with zero to nine fractional digits is parsed directly
+     * from the buffer, allocating nothing when the date matches the cached one. Any other ISO-8601 form
+     * (e.g. with a numeric offset) falls back to {@link ZonedDateTime#parse}.
+     * </p>
+     *
+     * @param chars  the buffer holding the timestamp.
+     * @param offset the offset of the first character.
+     * @param length the number of characters.
+     * @return the timestamp in epoch nanoseconds.
+     * @throws DateTimeException if the text is not a valid timestamp.
+     */
+    public static long parseIso8601(char[] chars, int offset, int length) {
+        // yyyy-MM-ddTHH:mm:ssZ is 20 characters; a fraction adds a point and one to nine digits.
+        if (length < 20 || length == 21 || length > 30 || chars[offset + length - 1] != 'Z'
+                || chars[offset + 4] != '-' || chars[offset + 7] != '-' || chars[offset + 10] != 'T'
+                || chars[offset + 13] != ':' || chars[offset + 16] != ':'
+                || (length > 20 && chars[offset + 19] != '.')) {
+            return ofInstant(ZonedDateTime.parse(new String(chars, offset, length)).toInstant());
+        }
+        int year = digits(chars, offset, 4);
+        int month = digits(chars, offset + 5, 2);
+        int day = digits(chars, offset + 8, 2);
+        int hour = digits(chars, offset + 11, 2);
+        int minute = digits(chars, offset + 14, 2);
+        int second = digits(chars, offset + 17, 2);
+        if (hour > 23 || minute > 59 || second > 59) {
+            throw new DateTimeException("Invalid time: " + new String(chars, offset, length));
+        }
+        int fractionDigits = (length > 20) ? length - 21 : 0;
+        long fraction = (fractionDigits > 0)
+                ? (long) digits(chars, offset + 20, fractionDigits) * FRACTION_MULTIPLIERS[fractionDigits]
+                : 0;
+
+        int date = year * 10_000 + month * 100 + day;
+        CachedDate cached = cachedDate;
+        long dayStart;
+        if (cached.date == date) {
+            dayStart = cached.startNanos;
+        } else {
+            // LocalDate validates the month and day-of-month.
+            dayStart = Math.multiplyExact(LocalDate.of(year, month, day).toEpochDay(), NANOS_PER_DAY);
+            cachedDate = new CachedDate(date, dayStart);
+        }
+        return dayStart + (hour * 3600L + minute * 60L + second) * NANOS_PER_SECOND + fraction;
+    }
+
+    /**
+     * Parses an ISO-8601 timestamp into epoch nanoseconds.
+     *
+     * @param text the timestamp.
+     * @return the timestamp in epoch nanoseconds.
+     * @throws DateTimeException if the text is not a valid timestamp.
+     * @see #parseIso8601(char[], int, int)
+     */
+    public static long parseIso8601(String text) {
+        return parseIso8601(text.toCharArray(), 0, text.length());
+    }
+
+    private static int digits(char[] chars, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int d = chars[i] - '0';
+            if (d < 0 || d > 9) {
+                throw new DateTimeException("Invalid digit in timestamp: " + chars[i]);
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+}
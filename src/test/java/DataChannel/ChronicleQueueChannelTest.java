@@ -6,6 +6,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -101,6 +103,52 @@ class ChronicleQueueChannelTest {
         assertEquals(messagesSent, messagesReceived);
     }
 
+    @Test
+    public void testConcurrentSenders() throws Exception {
+        Path queueDir = Files.createTempDirectory("chronicleQueueTest");
+        int senders = 4;
+        int perSender = 500;
+        try (DataChannel channel = new ChronicleQueueChannel(queueDir.toString())) {
+            List<Thread> threads = new ArrayList<>();
+            List<Exception> failures = new CopyOnWriteArrayList<>();
+            for (int s = 0; s < senders; s++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < perSender; i++) {
+                            channel.send("Message " + i);
+                        }
+                    } catch (ChannelException e) {
+                        failures.add(e);
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(List.of(), failures);
+
+            // Received on another thread than the one that created the channel.
+            AtomicInteger received = new AtomicInteger();
+            Thread reader = new Thread(() -> {
+                try {
+                    while (channel.receive() != null) {
+                        received.incrementAndGet();
+                    }
+                } catch (ChannelException e) {
+                    failures.add(e);
+                }
+            });
+            reader.start();
+            reader.join();
+            assertEquals(List.of(), failures);
+            assertEquals(senders * perSender, received.get());
+        } finally {
+            deleteDirectoryRecursively(queueDir);
+        }
+    }
+
     /**
      * Recursively deletes a directory and its contents.
      */
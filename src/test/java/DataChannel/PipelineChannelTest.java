@@ -6,6 +6,18 @@ import org.junit.jupiter.api.Test;
 
 import DataChannel.ChannelException;
 import DataChannel.PipelineChannel;
+import Utils.ExecutionMode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class PipelineChannelTest {
 
@@ -69,4 +81,374 @@ public class PipelineChannelTest {
         assertThrows(ChannelException.class, () -> pipeline.send("Test after close"),
                 "Sending after closing should throw a ChannelException.");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testParallelWorkersDeliverAllMessages() throws Exception {
+        DataChannel pipe1 = new BlockingQueueChannel();
+        DataChannel pipe2 = new BlockingQueueChannel();
+
+        PipelineChannel pipeline = PipelineChannel.builder()
+                .channel(pipe1)
+                .workers(4)
+                .batchSize(16)
+                .channel(pipe2)
+                .build();
+
+        int messageCount = 1000;
+        for (int i = 0; i < messageCount; i++) {
+            pipeline.send("Message " + i);
+        }
+
+        Set<String> received = new HashSet<>();
+        for (int i = 0; i < messageCount; i++) {
+            received.add(pipeline.receive());
+        }
+        assertEquals(messageCount, received.size(), "Every message should arrive exactly once.");
+
+        pipeline.close();
+    }
+
+    @Test
+    public void testKeyOrderingIsPreservedAcrossWorkers() throws Exception {
+        DataChannel pipe1 = new BlockingQueueChannel();
+        DataChannel pipe2 = new BlockingQueueChannel();
+
+        PipelineChannel pipeline = PipelineChannel.builder()
+                .channel(pipe1)
+                .workers(4)
+                .batchSize(8)
+                .orderBy(message -> message.substring(0, message.indexOf(':')))
+                .channel(pipe2)
+                .build();
+
+        int keys = 8;
+        int perKey = 200;
+        for (int i = 0; i < perKey; i++) {
+            for (int k = 0; k < keys; k++) {
+                pipeline.send("key" + k + ":" + i);
+            }
+        }
+
+        Map<String, Integer> lastSeen = new HashMap<>();
+        for (int i = 0; i < keys * perKey; i++) {
+            String message = pipeline.receive();
+            String key = message.substring(0, message.indexOf(':'));
+            int value = Integer.parseInt(message.substring(message.indexOf(':') + 1));
+            int previous = lastSeen.getOrDefault(key, -1);
+            assertEquals(previous + 1, value, "Messages of " + key + " should stay in order.");
+            lastSeen.put(key, value);
+        }
+
+        pipeline.close();
+    }
+
+    @Test
+    public void testFailedForwarderIsRestarted() throws Exception {
+        DataChannel pipe1 = new BlockingQueueChannel();
+        DataChannel pipe2 = new BlockingQueueChannel();
+        AtomicBoolean failed = new AtomicBoolean(false);
+        List<String> delivered = new ArrayList<>();
+
+        // A destination that fails on its first send, then forwards normally.
+        DataChannel flaky = new DataChannel() {
+            @Override
+            public void send(String message) throws ChannelException {
+                if (failed.compareAndSet(false, true)) {
+                    throw new ChannelException("Simulated failure");
+                }
+                pipe2.send(message);
+            }
+
+            @Override
+            public String receive() throws ChannelException {
+                return pipe2.receive();
+            }
+
+            @Override
+            public void close() throws ChannelException {
+                pipe2.close();
+            }
+        };
+
+        PipelineChannel pipeline = PipelineChannel.builder()
+                .channel(pipe1)
+                .maxRestarts(1)
+                .channel(flaky)
+                .build();
+
+        pipeline.send("retried");
+        pipeline.send("after restart");
+        delivered.add(pipeline.receive());
+        delivered.add(pipeline.receive());
+
+        assertTrue(failed.get(), "The destination should have failed once.");
+        assertEquals(List.of("retried", "after restart"), delivered);
+
+        pipeline.close();
+    }
+
+    @Test
+    public void testRestartCountResetsAfterDelivery() throws Exception {
+        DataChannel out = new BlockingQueueChannel();
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Every other send fails, so each message needs one restart.
+        DataChannel flaky = new DataChannel() {
+            @Override
+            public void send(String message) throws ChannelException {
+                if (attempts.getAndIncrement() % 2 == 0) {
+                    throw new ChannelException("Simulated failure");
+                }
+                out.send(message);
+            }
+
+            @Override
+            public String receive() throws ChannelException {
+                return out.receive();
+            }
+
+            @Override
+            public void close() throws ChannelException {
+                out.close();
+            }
+        };
+
+        PipelineChannel pipeline = PipelineChannel.builder()
+                .channel(new BlockingQueueChannel())
+                .maxRestarts(1)
+                .channel(flaky)
+                .build();
+
+        List<String> expected = List.of("a", "b", "c", "d");
+        for (String message : expected) {
+            pipeline.send(message);
+        }
+        List<String> delivered = new ArrayList<>();
+        for (int i = 0; i < expected.size(); i++) {
+            delivered.add(pipeline.receive());
+        }
+
+        assertEquals(expected, delivered);
+        assertFalse(pipeline.isFailed());
+        pipeline.close();
+    }
+
+    @Test
+    public void testPipelineFailsWhenRestartsAreExhausted() throws Exception {
+        DataChannel broken = new DataChannel() {
+            @Override
+            public void send(String message) throws ChannelException {
+                throw new ChannelException("Simulated failure");
+            }
+
+            @Override
+            public String receive() {
+                return null;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        PipelineChannel pipeline = PipelineChannel.builder()
+                .channel(new BlockingQueueChannel())
+                .maxRestarts(1)
+                .channel(broken)
+                .build();
+
+        pipeline.send("undeliverable");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!pipeline.isFailed() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(pipeline.isFailed(), "The hop should give up after its restart budget.");
+        assertThrows(ChannelException.class, () -> pipeline.send("rejected"));
+        pipeline.close();
+    }
+
+    @Test
+    public void testBuilderRejectsSettingsAfterTheLastChannel() throws Exception {
+        DataChannel pipe1 = new BlockingQueueChannel();
+        DataChannel pipe2 = new BlockingQueueChannel();
+        PipelineChannel.Builder builder = PipelineChannel.builder()
+                .channel(pipe1)
+                .channel(pipe2)
+                .workers(4);
+        assertThrows(IllegalStateException.class, builder::build);
+        assertThrows(IllegalStateException.class, () -> PipelineChannel.builder().workers(2));
+    }
+
+    @Test
+    public void testMessagesFailingAgainOnRetryAreDeadLettered() throws Exception {
+        DataChannel deadLetters = new BlockingQueueChannel();
+        AtomicInteger failures = new AtomicInteger();
+        PipelineChannel pipeline = PipelineChannel.builder()
+                .channel(new BlockingQueueChannel())
+                .batchSize(8)
+                .maxRestarts(2)
+                .deadLetter(deadLetters)
+                .map(message -> {
+                    if (message.equals("poison")) {
+                        failures.incrementAndGet();
+                        throw new IllegalArgumentException("Cannot map " + message);
+                    }
+                    return message.toUpperCase();
+                })
+                .channel(new BlockingQueueChannel())
+                .build();
+
+        pipeline.sendBatch(List.of("a", "poison", "b"));
+        pipeline.send("c");
+
+        assertEquals("A", pipeline.receive());
+        assertEquals("B", pipeline.receive());
+        assertEquals("C", pipeline.receive());
+        assertEquals("poison", deadLetters.receive());
+        assertEquals(2, failures.get(), "The message should be tried once more, then set aside");
+        assertFalse(pipeline.isFailed());
+        pipeline.close();
+    }
+
+    @Test
+    public void testKeyExtractorFailuresAreDeadLettered() throws Exception {
+        DataChannel deadLetters = new BlockingQueueChannel();
+        PipelineChannel pipeline = PipelineChannel.builder()
+                .channel(new BlockingQueueChannel())
+                .workers(2)
+                .batchSize(8)
+                .deadLetter(deadLetters)
+                .orderBy(message -> message.substring(0, message.indexOf('@')))
+                .channel(new BlockingQueueChannel())
+                .build();
+
+        pipeline.sendBatch(List.of("quote@coinbase", "no key", "trade@coinbase"));
+
+        Set<String> delivered = new HashSet<>(List.of(pipeline.receive(), pipeline.receive()));
+        assertEquals(Set.of("quote@coinbase", "trade@coinbase"), delivered);
+        assertEquals("no key", deadLetters.receive());
+        assertFalse(pipeline.isFailed());
+        pipeline.close();
+    }
+
+    @Test
+    public void testIdleForwarderBacksOffOnNonBlockingSource() throws Exception {
+        Queue<String> queue = new ConcurrentLinkedQueue<>();
+        AtomicInteger polls = new AtomicInteger();
+        // A source that, like Chronicle Queue, returns nothing instead of blocking when empty.
+        DataChannel nonBlocking = new DataChannel() {
+            @Override
+            public void send(String message) {
+                queue.add(message);
+            }
+
+            @Override
+            public String receive() {
+                return queue.poll();
+            }
+
+            @Override
+            public int receiveBatch(List<String> sink, int maxMessages) {
+                polls.incrementAndGet();
+                String message = queue.poll();
+                if (message == null) {
+                    return 0;
+                }
+                sink.add(message);
+                return 1;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        PipelineChannel pipeline = new PipelineChannel(nonBlocking, new BlockingQueueChannel());
+        Thread.sleep(500);
+        int idlePolls = polls.get();
+        pipeline.send("after idling");
+
+        // Spinning would poll millions of times; parking up to 1 ms allows about a thousand.
+        assertTrue(idlePolls < 5_000, "Polled " + idlePolls + " times in 500 ms");
+        assertEquals("after idling", pipeline.receive());
+        pipeline.close();
+    }
+
+    @Test
+    public void testStagesFilterMapAndFlatMap() throws Exception {
+        DataChannel pipe1 = new BlockingQueueChannel();
+        DataChannel pipe2 = new BlockingQueueChannel();
+
+        PipelineChannel pipeline = PipelineChannel.builder()
+                .channel(pipe1)
+                .batchSize(4)
+                .filter(message -> !message.startsWith("heartbeat"))
+                .map(String::toUpperCase)
+                .flatMap(message -> List.of(message, message + "!"))
+                .channel(pipe2)
+                .build();
+
+        pipeline.send("heartbeat");
+        pipeline.send("a");
+        pipeline.send("heartbeat");
+        pipeline.send("b");
+
+        assertEquals("A", pipeline.receive());
+        assertEquals("A!", pipeline.receive());
+        assertEquals("B", pipeline.receive());
+        assertEquals("B!", pipeline.receive());
+
+        pipeline.close();
+    }
+
+    @Test
+    public void testRouteStageDivertsMessagesByKey() throws Exception {
+        DataChannel pipe1 = new BlockingQueueChannel();
+        DataChannel pipe2 = new BlockingQueueChannel();
+        DataChannel trades = new BlockingQueueChannel();
+
+        PipelineChannel pipeline = PipelineChannel.builder()
+                .channel(pipe1)
+                .route(message -> message.substring(0, message.indexOf('@')), Map.of("trade", trades))
+                .channel(pipe2)
+                .build();
+
+        pipeline.send("trade@coinbase");
+        pipeline.send("quote@coinbase");
+
+        assertEquals("trade@coinbase", trades.receive());
+        assertEquals("quote@coinbase", pipeline.receive());
+
+        pipeline.close();
+        trades.close();
+    }
+
+    @Test
+    public void testVirtualThreadForwarders() throws Exception {
+        DataChannel pipe1 = new BlockingQueueChannel();
+        DataChannel pipe2 = new BlockingQueueChannel();
+        DataChannel pipe3 = new BlockingQueueChannel();
+
+        PipelineChannel pipeline = PipelineChannel.builder()
+                .executionMode(ExecutionMode.VIRTUAL)
+                .channel(pipe1)
+                .workers(64)
+                .channel(pipe2)
+                .workers(64)
+                .channel(pipe3)
+                .build();
+
+        int messageCount = 500;
+        for (int i = 0; i < messageCount; i++) {
+            pipeline.send("Message " + i);
+        }
+        Set<String> received = new HashSet<>();
+        for (int i = 0; i < messageCount; i++) {
+            received.add(pipeline.receive());
+        }
+        assertEquals(messageCount, received.size());
+
+        pipeline.close();
+    }
+}
@@ -0,0 +1,72 @@
+package MarketDataType;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+class ScaledDecimalTest {
+
+    @Test
+    public void testParsePadsToScale() {
+        assertEquals(128504000000L, ScaledDecimal.parse("1285.04", 8));
+        assertEquals(100_00000000L, ScaledDecimal.parse("100", 8));
+        assertEquals(-5L, ScaledDecimal.parse("-0.05", 2));
+        assertEquals(0L, ScaledDecimal.parse("0.000", 2));
+    }
+
+    @Test
+    public void testParseFromBufferSlices() {
+        char[] chars = "x\"25.35190000\"".toCharArray();
+        assertEquals(2535190000L, ScaledDecimal.parse(chars, 2, 11, 8));
+
+        byte[] bytes = "{\"p\":\"0.001\"}".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(100000L, ScaledDecimal.parse(bytes, 6, 5, 8));
+    }
+
+    @Test
+    public void testParseIsLossless() {
+        // Trailing zeros beyond the scale are harmless; other digits would be rounded away.
+        assertEquals(123L, ScaledDecimal.parse("1.2300", 2));
+        assertThrows(ArithmeticException.class, () -> ScaledDecimal.parse("1.234", 2));
+        assertThrows(ArithmeticException.class, () -> ScaledDecimal.parse("99999999999999999999", 0));
+    }
+
+    @Test
+    public void testParseRejectsMalformedText() {
+        assertThrows(NumberFormatException.class, () -> ScaledDecimal.parse("", 2));
+        assertThrows(NumberFormatException.class, () -> ScaledDecimal.parse("-", 2));
+        assertThrows(NumberFormatException.class, () -> ScaledDecimal.parse("1.2.3", 2));
+        assertThrows(NumberFormatException.class, () -> ScaledDecimal.parse("1e5", 2));
+    }
+
+    @Test
+    public void testBigDecimalRoundTrip() {
+        BigDecimal value = new BigDecimal("9788783.60117027");
+        long mantissa = ScaledDecimal.fromBigDecimal(value, 8);
+
+        assertEquals(978878360117027L, mantissa);
+        assertEquals(value, ScaledDecimal.toBigDecimal(mantissa, 8));
+        assertNull(ScaledDecimal.toBigDecimal(ScaledDecimal.NULL, 8));
+        assertEquals(ScaledDecimal.NULL, ScaledDecimal.fromBigDecimal(null, 8));
+    }
+
+    @Test
+    public void testRescale() {
+        assertEquals(128504L, ScaledDecimal.rescale(128504000000L, 8, 2));
+        assertEquals(128504000000L, ScaledDecimal.rescale(128504L, 2, 8));
+        assertEquals(ScaledDecimal.NULL, ScaledDecimal.rescale(ScaledDecimal.NULL, 8, 2));
+        assertThrows(ArithmeticException.class, () -> ScaledDecimal.rescale(128504L, 2, 1));
+    }
+
+    @Test
+    public void testOrNullVariantsDropUnrepresentableValues() {
+        assertEquals(ScaledDecimal.NULL, ScaledDecimal.fromBigDecimalOrNull(new BigDecimal("28123456789012.25"), 8));
+        assertEquals(ScaledDecimal.NULL, ScaledDecimal.fromBigDecimalOrNull(new BigDecimal("1.005"), 2));
+        assertEquals(12850L, ScaledDecimal.fromBigDecimalOrNull(new BigDecimal("128.5"), 2));
+        assertEquals(ScaledDecimal.NULL, ScaledDecimal.rescaleOrNull(Long.MAX_VALUE / 10, 2, 8));
+        assertEquals(128504L, ScaledDecimal.rescaleOrNull(128504000000L, 8, 2));
+    }
+}
@@ -0,0 +1,97 @@
+package MarketDataType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolTableTest {
+
+    @Test
+    public void testInternReturnsCanonicalSymbol() {
+        SymbolTable table = new SymbolTable();
+        char[] payload = "{\"product_id\":\"BTC-USD\"}".toCharArray();
+
+        Symbol first = table.intern("coinbase", payload, 15, 7);
+        Symbol second = table.intern("coinbase", "BTC-USD");
+
+        assertSame(first, second);
+        assertEquals("BTC-USD", first.raw());
+        assertEquals("BTCUSD", first.normalized());
+        assertSame(first, table.lookup("coinbase", payload, 15, 7));
+        assertSame(first, table.find("coinbase", "BTCUSD"));
+        assertSame(first, table.get(first.id()));
+    }
+
+    @Test
+    public void testSymbolsAreScopedByPlatform() {
+        SymbolTable table = new SymbolTable();
+
+        Symbol coinbase = table.intern("coinbase", "BTC-USD");
+        Symbol binance = table.intern("binance.us", "BTCUSD");
+
+        assertNotSame(coinbase, binance);
+        assertNotEquals(coinbase.id(), binance.id());
+        // Both normalize to the same shared string.
+        assertSame(coinbase.normalized(), binance.normalized());
+        assertNull(table.lookup("binance.us", "BTC-USD".toCharArray(), 0, 7));
+        assertNull(table.find("kraken", "BTCUSD"));
+    }
+
+    @Test
+    public void testIdsStayDenseAsTableGrows() {
+        SymbolTable table = new SymbolTable();
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, table.intern("binance.us", "SYM" + i).id());
+        }
+        assertEquals(500, table.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals("SYM" + i, table.get(i).raw());
+            assertSame(table.get(i), table.intern("binance.us", "SYM" + i));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> table.get(500));
+    }
+
+    @Test
+    public void testNormalize() {
+        // The mapping the parsers applied before the table: only '-' is removed.
+        assertEquals("BTCUSD", SymbolTable.normalize("BTC-USD"));
+        assertEquals("BNBUSDT", SymbolTable.normalize("BNBUSDT"));
+        assertEquals("ethusd", SymbolTable.normalize("eth-usd"));
+        assertEquals("BTC/USDT", SymbolTable.normalize("BTC/USDT"));
+        assertEquals("BTC_USDT", SymbolTable.normalize("BTC_USDT"));
+    }
+
+    @Test
+    public void testRecordsCarryTheirSymbol() throws Exception {
+        Symbol symbol = SymbolTable.getDefault().intern("coinbase", "SYM-TEST");
+        Trade trade = new Trade("coinbase", null, "SYMTEST", 1L, BigDecimal.ONE, BigDecimal.TEN,
+                null, null, "buy", Instant.EPOCH, null);
+        assertSame(symbol, trade.symbol(), "Records built without a symbol resolve it on construction");
+        assertSame(symbol, ScaledTrade.fromTrade(trade).symbol());
+        assertNull(new Trade("coinbase", null, "UNKNOWN", 1L, null, null, null, null, null, null, null).symbol());
+
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        String json = mapper.writeValueAsString(trade);
+        assertFalse(json.contains("symbol"), json);
+        Trade read = mapper.readValue(json, Trade.class);
+        assertEquals(trade, read);
+        assertSame(symbol, read.symbol());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(trade);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertSame(symbol, ((Trade) in.readObject()).symbol());
+        }
+    }
+}
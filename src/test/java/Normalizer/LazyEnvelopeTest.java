@@ -0,0 +1,87 @@
+package Normalizer;
+
+import MarketDataType.MarketDataQueryType;
+import MarketDataType.Trade;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+class LazyEnvelopeTest {
+
+    private static final String TRADE = """
+            {
+              "tag": "trade@binance.us",
+              "payload": {
+                "e": "trade", "E": 1672515782136, "s": "BNBBTC", "t": 12345,
+                "p": "0.001", "q": "100", "b": 88, "a": 50, "T": 1672515782136,
+                "m": true, "M": true, "extra": {"nested": [1, 2]}, "none": null
+              }
+            }
+            """;
+
+    @Test
+    public void testRoutesWithoutParsingTheRecord() throws IOException {
+        LazyEnvelope envelope = LazyEnvelope.parse(TRADE);
+        assertNotNull(envelope);
+        assertEquals("trade@binance.us", envelope.tag());
+        assertEquals(MarketDataQueryType.TRADE, envelope.type());
+        assertEquals("binance.us", envelope.exchange());
+        assertEquals("BNBBTC", envelope.product());
+        assertSame(TRADE, envelope.raw());
+    }
+
+    @Test
+    public void testFieldsAreDecodedOnDemand() throws IOException {
+        LazyEnvelope envelope = LazyEnvelope.parse(TRADE);
+        assertEquals(new BigDecimal("0.001"), envelope.decimal("p"));
+        assertEquals(12345L, envelope.longValue("t", -1));
+        assertEquals(-1L, envelope.longValue("missing", -1));
+        assertEquals("true", envelope.text("m"));
+        assertEquals("{\"nested\": [1, 2]}", envelope.text("extra"));
+        assertTrue(envelope.has("none"));
+        assertNull(envelope.text("none"));
+        assertFalse(envelope.has("missing"));
+        assertTrue(envelope.payload().startsWith("{") && envelope.payload().endsWith("}"));
+        assertTrue(envelope.payload().contains("\"s\": \"BNBBTC\""));
+    }
+
+    @Test
+    public void testFieldReadsStopAtTheField() throws IOException {
+        // Everything after the product is malformed; only reads that go past it fail.
+        LazyEnvelope envelope = LazyEnvelope.parse(
+                "{\"tag\": \"quote@coinbase\", \"payload\": {\"type\": \"ticker\", \"product_id\": \"ETH-USD\", \"price\": }}");
+        assertNotNull(envelope);
+        assertEquals("ETH-USD", envelope.product());
+        assertEquals("ticker", envelope.text("type"));
+        assertThrows(IOException.class, () -> envelope.text("price"));
+        assertThrows(IOException.class, envelope::payload);
+    }
+
+    @Test
+    public void testRecordIsParsedOnceWithTheExchangeParser() throws IOException {
+        LazyEnvelope envelope = LazyEnvelope.parse(TRADE);
+        Trade trade = (Trade) envelope.record();
+        assertEquals("BNBBTC", trade.product());
+        assertEquals(new BigDecimal("0.001"), trade.price());
+        assertSame(trade, envelope.record());
+    }
+
+    @Test
+    public void testPayloadBeforeTagAndInvalidEnvelopes() throws IOException {
+        LazyEnvelope late = LazyEnvelope.parse("""
+                {"payload": {"type": "ticker", "product_id": "ETH-USD", "sequence": 7}, "tag": "quote@coinbase"}
+                """);
+        assertNotNull(late);
+        assertEquals("ETH-USD", late.product());
+        assertEquals(7L, late.longValue("sequence", 0));
+
+        assertNull(LazyEnvelope.parse("[]"));
+        assertNull(LazyEnvelope.parse("{\"tag\": \"quote@unknown\", \"payload\": {}}"));
+        assertNull(LazyEnvelope.parse("{\"tag\": \"quote@coinbase\", \"payload\": 1}"));
+        assertNull(LazyEnvelope.parse("{\"tag\": \"quote@coinbase\"}"));
+        assertThrows(IOException.class, () -> LazyEnvelope.parse("{\"tag\": "));
+    }
+}
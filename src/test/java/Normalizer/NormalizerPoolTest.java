@@ -0,0 +1,187 @@
+package Normalizer;
+
+import DataChannel.BlockingQueueChannel;
+import DataChannel.DataChannel;
+import MarketDataType.MutableQuote;
+import MarketDataType.MutableTrade;
+import MarketDataType.Quote;
+import MarketDataType.Trade;
+import Normalizer.Output.Sink;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+class NormalizerPoolTest {
+
+    private static final String[] PRODUCTS = {"BTC-USD", "ETH-USD", "SOL-USD", "ADA-USD", "DOGE-USD", "LTC-USD"};
+
+    private static String ticker(String product, long sequence) {
+        return """
+                {"tag": "quote@coinbase", "payload": {"type": "ticker", "sequence": %d, "product_id": "%s",
+                 "price": "100.5", "best_bid": "100.4", "best_ask": "100.6", "time": "2022-10-19T23:28:22.061769Z"}}
+                """.formatted(sequence, product);
+    }
+
+    private static void sendAll(DataChannel channel) throws Exception {
+        for (int i = 0; i < 600; i++) {
+            channel.send(ticker(PRODUCTS[i % PRODUCTS.length], i));
+        }
+        channel.send(Normalizer.POISON_PILL);
+    }
+
+    @Test
+    public void testSharedSinkKeepsPerProductOrder() throws Exception {
+        List<Quote> written = new ArrayList<>();
+        boolean[] closed = new boolean[1];
+        Sink sink = new Sink() {
+            @Override
+            public void write(Quote quote) {
+                written.add(quote);
+            }
+
+            @Override
+            public void write(Trade trade) {
+                fail("Unexpected trade");
+            }
+
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        DataChannel channel = new BlockingQueueChannel();
+        NormalizerPool pool = NormalizerPool.builder(channel).workers(4).queueCapacity(16).sink(sink).build();
+        Thread router = new Thread(pool);
+        router.start();
+        sendAll(channel);
+        router.join();
+
+        assertTrue(closed[0]);
+        assertEquals(600, written.size());
+        Map<String, Long> last = new HashMap<>();
+        for (Quote quote : written) {
+            Long previous = last.put(quote.product(), quote.sequence());
+            assertTrue(previous == null || previous < quote.sequence(), "Out of order for " + quote.product());
+        }
+        assertEquals(PRODUCTS.length, last.size());
+    }
+
+    @Test
+    public void testEachProductStaysOnOneWorker() throws Exception {
+        Map<Integer, Set<String>> productsByWorker = new ConcurrentHashMap<>();
+        Map<Integer, List<Long>> sequencesByWorker = new ConcurrentHashMap<>();
+        DataChannel channel = new BlockingQueueChannel();
+        NormalizerPool pool = NormalizerPool.builder(channel).workers(3).handlers(worker -> new MarketDataHandler() {
+            @Override
+            public void onQuote(MutableQuote quote) {
+                productsByWorker.computeIfAbsent(worker, w -> new HashSet<>()).add(quote.product());
+                sequencesByWorker.computeIfAbsent(worker, w -> new ArrayList<>()).add(quote.sequence());
+            }
+
+            @Override
+            public void onTrade(MutableTrade trade) {
+                fail("Unexpected trade");
+            }
+        }).build();
+        Thread router = new Thread(pool);
+        router.start();
+        sendAll(channel);
+        router.join();
+
+        Set<String> seen = new HashSet<>();
+        int total = 0;
+        for (Set<String> products : productsByWorker.values()) {
+            for (String product : products) {
+                assertTrue(seen.add(product), product + " was normalized by more than one worker");
+            }
+        }
+        for (List<Long> sequences : sequencesByWorker.values()) {
+            total += sequences.size();
+            for (int i = 1; i < sequences.size(); i++) {
+                assertTrue(sequences.get(i - 1) < sequences.get(i));
+            }
+        }
+        assertEquals(PRODUCTS.length, seen.size());
+        assertEquals(600, total);
+        assertTrue(productsByWorker.size() > 1, "Expected the products to spread over several workers");
+    }
+
+    @Test
+    public void testGapsGoToTheWorkerOfTheirProduct() throws Exception {
+        NormalizerPool pool = NormalizerPool.builder(new BlockingQueueChannel()).workers(7)
+                .sinks(worker -> new Sink() {
+                    @Override
+                    public void write(Quote quote) {
+                    }
+
+                    @Override
+                    public void write(Trade trade) {
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                }).build();
+        for (String product : PRODUCTS) {
+            String gap = "{\"tag\": \"gap@coinbase\", \"payload\": {\"type\": \"quote\", \"product\": \"" + product
+                    + "\", \"last\": 1, \"next\": 3, \"missing\": 1, \"cause\": \"sequence\"}}";
+            assertEquals(pool.route(ticker(product, 1)), pool.route(gap), product);
+        }
+        String binanceGap = "{\"tag\": \"gap@binance.us\", \"payload\": {\"type\": \"quote\", \"product\": \"bnbusdt\"}}";
+        String binanceQuote = "{\"tag\": \"quote@binance.us\", \"payload\": {\"u\": 1, \"s\": \"BNBUSDT\", \"b\": \"1.0\", "
+                + "\"B\": \"2.0\", \"a\": \"3.0\", \"A\": \"4.0\"}}";
+        assertEquals(pool.route(binanceQuote), pool.route(binanceGap));
+    }
+
+    @Test
+    public void testWorkerFailingWithAFullQueueStopsThePool() throws Exception {
+        CountDownLatch failing = new CountDownLatch(1);
+        DataChannel channel = new BlockingQueueChannel();
+        NormalizerPool pool = NormalizerPool.builder(channel).workers(1).queueCapacity(1).sink(new Sink() {
+            @Override
+            public void write(Quote quote) throws IOException {
+                try {
+                    // Fail only once the router has filled the queue behind this message.
+                    failing.await();
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void write(Trade trade) {
+            }
+
+            @Override
+            public void close() {
+            }
+        }).build();
+        for (int i = 0; i < 10; i++) {
+            channel.send(ticker("BTC-USD", i));
+        }
+        Thread router = new Thread(pool);
+        router.start();
+        failing.countDown();
+        router.join(5000);
+        assertFalse(router.isAlive(), "The router should not stay blocked on the failed worker's full queue");
+    }
+
+    @Test
+    public void testBuilderRequiresExactlyOneOutput() {
+        DataChannel channel = new BlockingQueueChannel();
+        assertThrows(IllegalStateException.class, () -> NormalizerPool.builder(channel).build());
+        assertThrows(IllegalArgumentException.class, () -> NormalizerPool.builder(channel).workers(0));
+    }
+}
@@ -1,7 +1,14 @@
 package Normalizer;
 
+import MarketDataType.MutableQuote;
+import MarketDataType.MutableTrade;
 import MarketDataType.Quote;
+import MarketDataType.ScaledQuote;
+import MarketDataType.SequenceGap;
 import MarketDataType.Trade;
+import Normalizer.Output.BinaryRowSink;
+import Normalizer.Output.Sink;
+import Utils.Timestamps;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
@@ -17,6 +24,7 @@ import java.nio.file.Path;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
+import java.util.ArrayList;
 import java.util.List;
 
 class NormalizerTest {
@@ -282,5 +290,195 @@ class NormalizerTest {
         Files.deleteIfExists(outputFile);
     }
 
+    @Test
+    public void testNormalizerHandlesPayloadBeforeTagAndSkipsMalformedMessages() throws Exception {
+        Path outputFile = Files.createTempFile("normalized_order_output", ".json");
+        DataChannel channel = new BlockingQueueChannel();
+
+        Normalizer normalizer = new Normalizer(channel, outputFile.toString());
+        Thread normalizerThread = new Thread(normalizer);
+        normalizerThread.start();
+
+        channel.send("{\"payload\": {\"u\": 1, \"s\": \"BNBUSDT\", \"b\": \"1.0\", \"B\": \"2.0\", \"a\": \"3.0\", \"A\": \"4.0\"}, \"tag\": \"quote@binance.us\"}");
+        channel.send("{\"tag\": \"quote@binance.us\", \"payload\": {");
+        channel.send("{\"tag\": \"quote@binance.us\", \"payload\": {\"u\": 2, \"s\": \"BNBUSDT\", \"b\": \"1.0\", \"B\": \"2.0\", \"a\": \"3.0\", \"A\": \"4.0\"}}");
+        channel.send(Normalizer.POISON_PILL);
+        normalizerThread.join();
+
+        List<String> lines = Files.readAllLines(outputFile);
+        assertEquals(2, lines.size(), "The malformed message should be skipped without stopping the normalizer");
+
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        assertEquals(1L, mapper.readValue(lines.get(0), Quote.class).sequence());
+        assertEquals(2L, mapper.readValue(lines.get(1), Quote.class).sequence());
+
+        Files.deleteIfExists(outputFile);
+    }
+
+    @Test
+    public void testNormalizerHandsReusedFlyweightsToHandler() throws Exception {
+        DataChannel channel = new BlockingQueueChannel();
+        List<ScaledQuote> quotes = new ArrayList<>();
+        List<String> sellers = new ArrayList<>();
+        List<Object> instances = new ArrayList<>();
+
+        Normalizer normalizer = new Normalizer(channel, new MarketDataHandler() {
+            @Override
+            public void onQuote(MutableQuote quote) {
+                instances.add(quote);
+                quotes.add(quote.toScaledQuote());
+            }
+
+            @Override
+            public void onTrade(MutableTrade trade) {
+                sellers.add(trade.sellerId().toString());
+            }
+        });
+        Thread normalizerThread = new Thread(normalizer);
+        normalizerThread.start();
+
+        channel.send("{\"tag\": \"quote@binance.us\", \"payload\": {\"u\": 1, \"s\": \"BNBUSDT\", \"b\": \"1.5\", \"B\": \"2.0\", \"a\": \"3.0\", \"A\": \"4.0\"}}");
+        channel.send("{\"tag\": \"quote@binance.us\", \"payload\": {\"u\": 2, \"s\": \"BNBUSDT\", \"b\": \"1.25\", \"B\": \"2.0\", \"a\": \"3.0\", \"A\": \"4.0\"}}");
+        channel.send("{\"tag\": \"trade@binance.us\", \"payload\": {\"E\": 1, \"s\": \"BNBBTC\", \"t\": 7, \"p\": \"0.001\", \"q\": \"100\", \"b\": 88, \"a\": 50}}");
+        channel.send(Normalizer.POISON_PILL);
+        normalizerThread.join();
+
+        assertEquals(2, quotes.size());
+        assertSame(instances.get(0), instances.get(1), "The same flyweight should be refilled for every quote");
+        assertEquals(1L, quotes.get(0).sequence());
+        assertEquals(150000000L, quotes.get(0).bestBid());
+        assertEquals(0, new BigDecimal("1.25").compareTo(quotes.get(1).toQuote().bestBid()));
+        assertEquals(List.of("50"), sellers);
+    }
+
+    @Test
+    public void testStampsQuotesWithReceiveTimeAndRecordsLatency() throws Exception {
+        DataChannel channel = new BlockingQueueChannel();
+        List<Long> times = new ArrayList<>();
+        Normalizer normalizer = new Normalizer(channel, new MarketDataHandler() {
+            @Override
+            public void onQuote(MutableQuote quote) {
+                times.add(quote.timeNanos());
+            }
+
+            @Override
+            public void onTrade(MutableTrade trade) {
+            }
+        });
+        Thread normalizerThread = new Thread(normalizer);
+
+        long received = Timestamps.monotonicNow();
+        channel.send("{\"tag\": \"quote@binance.us\", \"ts\": " + received + ", \"payload\": {\"u\": 1, \"s\": \"BNBUSDT\", \"b\": \"1.5\", \"B\": \"2.0\", \"a\": \"3.0\", \"A\": \"4.0\"}}");
+        channel.send("{\"tag\": \"quote@binance.us\", \"payload\": {\"u\": 2, \"s\": \"BNBUSDT\", \"b\": \"1.5\", \"B\": \"2.0\", \"a\": \"3.0\", \"A\": \"4.0\"}}");
+        channel.send(Normalizer.POISON_PILL);
+        normalizerThread.start();
+        normalizerThread.join();
+
+        assertEquals(received, times.get(0));
+        assertNotEquals(Timestamps.NONE, (long) times.get(1));
+        // Only the stamped message is measured from its receive time.
+        assertEquals(1, normalizer.latency(Normalizer.Stage.END_TO_END).count());
+        assertEquals(1, normalizer.latency(Normalizer.Stage.QUEUE).count());
+        assertEquals(2, normalizer.latency(Normalizer.Stage.PARSE).count());
+        assertTrue(normalizer.latency(Normalizer.Stage.END_TO_END).max()
+                >= normalizer.latency(Normalizer.Stage.QUEUE).max());
+    }
+
+    @Test
+    public void testNormalizerWritesToBinarySink() throws Exception {
+        Path outputFile = Files.createTempFile("normalized_rows", ".bin");
+        DataChannel channel = new BlockingQueueChannel();
+
+        Normalizer normalizer = new Normalizer(channel, new BinaryRowSink(outputFile));
+        Thread normalizerThread = new Thread(normalizer);
+        normalizerThread.start();
+
+        channel.send("{\"tag\": \"quote@binance.us\", \"payload\": {\"u\": 1, \"s\": \"BNBUSDT\", \"b\": \"1.50\", \"B\": \"2.0\", \"a\": \"3.0\", \"A\": \"4.0\"}}");
+        channel.send("{\"tag\": \"trade@binance.us\", \"payload\": {\"E\": 1, \"s\": \"BNBBTC\", \"t\": 7, \"p\": \"0.001\", \"q\": \"100\", \"b\": 88, \"a\": 50}}");
+        channel.send(Normalizer.POISON_PILL);
+        normalizerThread.join();
+
+        List<Object> records = BinaryRowSink.readAll(outputFile);
+        assertEquals(2, records.size());
+        Quote quote = assertInstanceOf(Quote.class, records.get(0));
+        assertEquals(new BigDecimal("1.50"), quote.bestBid());
+        Trade trade = assertInstanceOf(Trade.class, records.get(1));
+        assertEquals(7L, trade.tradeId());
+        assertEquals("50", trade.sellerId());
+
+        Files.deleteIfExists(outputFile);
+    }
 
-}
\ No newline at end of file
+    @Test
+    public void testNormalizerHandsGapsToSinkAndHandler() throws Exception {
+        String gap = "{\"tag\": \"gap@coinbase\", \"payload\": {\"type\": \"trade\", \"product\": \"BTC-USD\", "
+                + "\"last\": 100, \"next\": 105, \"missing\": 4, \"cause\": \"sequence\"}}";
+        String gapPayloadFirst = "{\"payload\": {\"type\": \"quote\", \"product\": \"btcusdt\", \"last\": 7, "
+                + "\"next\": 9, \"missing\": -1, \"cause\": \"reconnect\"}, \"tag\": \"gap@binance.us\"}";
+        String trade = "{\"tag\": \"trade@binance.us\", \"payload\": {\"E\": 1, \"s\": \"BNBBTC\", \"t\": 7, "
+                + "\"p\": \"0.001\", \"q\": \"100\", \"b\": 88, \"a\": 50}}";
+        SequenceGap expected = new SequenceGap("coinbase", "trade", "BTC-USD", 100, 105, 4, "sequence");
+
+        List<Object> written = new ArrayList<>();
+        DataChannel channel = new BlockingQueueChannel();
+        Normalizer normalizer = new Normalizer(channel, new Sink() {
+            @Override
+            public void write(Quote quote) {
+                written.add(quote);
+            }
+
+            @Override
+            public void write(Trade trade) {
+                written.add(trade);
+            }
+
+            @Override
+            public void write(SequenceGap gap) {
+                written.add(gap);
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        channel.send(gap);
+        channel.send(gapPayloadFirst);
+        channel.send(trade);
+        channel.send(Normalizer.POISON_PILL);
+        normalizer.run();
+
+        assertEquals(3, written.size());
+        assertEquals(expected, written.get(0));
+        assertEquals(new SequenceGap("binance.us", "quote", "btcusdt", 7, 9, -1, "reconnect"), written.get(1));
+        assertInstanceOf(Trade.class, written.get(2));
+        assertEquals(1, normalizer.latency(Normalizer.Stage.PARSE).count(), "Gaps should not be measured");
+
+        List<SequenceGap> gaps = new ArrayList<>();
+        List<Long> tradeIds = new ArrayList<>();
+        channel = new BlockingQueueChannel();
+        normalizer = new Normalizer(channel, new MarketDataHandler() {
+            @Override
+            public void onQuote(MutableQuote quote) {
+            }
+
+            @Override
+            public void onTrade(MutableTrade trade) {
+                tradeIds.add(trade.tradeId());
+            }
+
+            @Override
+            public void onGap(SequenceGap gap) {
+                gaps.add(gap);
+            }
+        });
+        channel.send(gap);
+        channel.send("{\"tag\": \"gap@coinbase\", \"payload\": {\"last\": 1}}");
+        channel.send(trade);
+        channel.send(Normalizer.POISON_PILL);
+        normalizer.run();
+
+        assertEquals(List.of(expected), gaps, "A gap without type or product should be skipped");
+        assertEquals(List.of(7L), tradeIds);
+    }
+}
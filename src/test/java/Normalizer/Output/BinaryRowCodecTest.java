@@ -0,0 +1,64 @@
+package Normalizer.Output;
+
+import MarketDataType.Quote;
+import MarketDataType.Trade;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+class BinaryRowCodecTest {
+
+    private static final Quote QUOTE = new Quote("coinbase", 37475248783L, "ETHUSD",
+            new BigDecimal("1285.04"), new BigDecimal("0.46688654"), new BigDecimal("1285.27"), new BigDecimal("1.56637040"),
+            new BigDecimal("1285.22"), new BigDecimal("1310.79"), new BigDecimal("245532.79269678"),
+            new BigDecimal("1280.52"), new BigDecimal("1313.8"), new BigDecimal("9788783.60117027"),
+            "buy", Instant.parse("2022-10-19T23:28:22.061769Z"), "370843401", new BigDecimal("11.4396987"));
+
+    @Test
+    public void testQuoteRoundTripKeepsScales() throws Exception {
+        BinaryRowCodec codec = new BinaryRowCodec();
+        ByteBuffer row = codec.encode(QUOTE);
+        int size = row.remaining();
+
+        assertEquals(QUOTE, BinaryRowCodec.decode(row));
+        assertFalse(row.hasRemaining());
+
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        assertTrue(size * 2 < mapper.writeValueAsString(QUOTE).length(),
+                "A row should be less than half the size of the JSON record");
+    }
+
+    @Test
+    public void testTradeRoundTripWithNullsAndWideValues() {
+        BinaryRowCodec codec = new BinaryRowCodec();
+        Trade trade = new Trade("binance.us", Instant.parse("2024-01-01T00:00:00.000000001Z"), "BTCUSDT", null,
+                new BigDecimal("123456789012345678901234567890.5"), new BigDecimal("1E+3"),
+                "bü€r-😀", null, null, null, true);
+
+        assertEquals(trade, BinaryRowCodec.decode(codec.encode(trade)));
+        assertEquals(QUOTE, BinaryRowCodec.decode(codec.encode(QUOTE)), "The buffer should be reusable");
+    }
+
+    @Test
+    public void testEncoderGrowsForLongStrings() {
+        BinaryRowCodec codec = new BinaryRowCodec();
+        String id = "x".repeat(10_000);
+        Trade trade = new Trade("coinbase", null, "BTCUSD", 1L, BigDecimal.ONE, BigDecimal.TEN,
+                id, id, "sell", null, null);
+
+        assertEquals(trade, BinaryRowCodec.decode(codec.encode(trade)));
+        assertThrows(IllegalArgumentException.class, () -> codec.encode(new Trade("coinbase", null, "x".repeat(70_000),
+                1L, null, null, null, null, null, null, null)));
+    }
+
+    @Test
+    public void testDecodeRejectsUnknownRows() {
+        assertThrows(IllegalArgumentException.class, () -> BinaryRowCodec.decode(ByteBuffer.wrap(new byte[]{'X'})));
+    }
+}
@@ -0,0 +1,80 @@
+package Normalizer.Output;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+class GroupCommitWriterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testPeriodicHoldsRecordsUntilEndOfBatch() throws IOException {
+        Path file = dir.resolve("out.jsonl");
+        try (GroupCommitWriter writer = new GroupCommitWriter(file, GroupCommitWriter.DurabilityMode.PERIODIC,
+                GroupCommitWriter.DEFAULT_BATCH_BYTES, Duration.ofHours(1))) {
+            writer.write("{\"a\":1}");
+            writer.write("{\"a\":2}");
+            assertEquals(0, Files.size(file));
+
+            writer.endOfBatch();
+            assertEquals(List.of("{\"a\":1}", "{\"a\":2}"), Files.readAllLines(file));
+        }
+    }
+
+    @Test
+    public void testIdleWriterFlushesOnTheInterval() throws Exception {
+        Path file = dir.resolve("out.jsonl");
+        try (GroupCommitWriter writer = new GroupCommitWriter(file, GroupCommitWriter.DurabilityMode.FSYNC_ON_INTERVAL,
+                GroupCommitWriter.DEFAULT_BATCH_BYTES, Duration.ofMillis(20))) {
+            writer.write("{\"a\":1}");
+            // No further write or batch end: the timer writes the record.
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (Files.size(file) == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(List.of("{\"a\":1}"), Files.readAllLines(file));
+        }
+    }
+
+    @Test
+    public void testFlushPerRecordWritesImmediately() throws IOException {
+        Path file = dir.resolve("out.jsonl");
+        try (GroupCommitWriter writer = new GroupCommitWriter(file, GroupCommitWriter.DurabilityMode.FLUSH_PER_RECORD)) {
+            writer.write("{\"a\":1}");
+            assertEquals(List.of("{\"a\":1}"), Files.readAllLines(file));
+        }
+    }
+
+    @Test
+    public void testRecordsLargerThanTheBatchAndCloseFlushes() throws IOException {
+        Path file = dir.resolve("out.jsonl");
+        String large = "x".repeat(100) + "é".repeat(50);
+        GroupCommitWriter writer = new GroupCommitWriter(file, GroupCommitWriter.DurabilityMode.FSYNC_ON_INTERVAL,
+                16, Duration.ofHours(1));
+        writer.write(large);
+        writer.write("tail");
+        writer.close();
+
+        assertEquals(List.of(large, "tail"), Files.readAllLines(file));
+        assertThrows(IOException.class, () -> writer.write("after close"));
+    }
+
+    @Test
+    public void testAppendsToExistingFile() throws IOException {
+        Path file = dir.resolve("out.jsonl");
+        Files.writeString(file, "existing\n");
+        try (GroupCommitWriter writer = new GroupCommitWriter(file, GroupCommitWriter.DurabilityMode.PERIODIC)) {
+            writer.write("new");
+        }
+        assertEquals(List.of("existing", "new"), Files.readAllLines(file));
+    }
+}
@@ -0,0 +1,164 @@
+package Normalizer.Output;
+
+import MarketDataType.Trade;
+import Utils.Timestamps;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+class RollingJsonlSinkTest {
+
+    private static final Instant START = Instant.parse("2024-03-01T10:59:00Z");
+
+    @TempDir
+    Path directory;
+
+    /**
+     * A clock tests can move forward.
+     */
+    private static final class MutableClock extends Clock {
+        private Instant now = START;
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private static Trade trade(int i) {
+        Instant time = START.plusMillis(10L * i);
+        return new Trade("binance", time, "BTCUSDT", (long) i, new BigDecimal("62000.01"), new BigDecimal("0.0015"),
+                null, null, null, time, Boolean.TRUE);
+    }
+
+    private List<String> files(String glob) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> directory.getFileSystem().getPathMatcher("glob:" + glob).matches(Path.of(name)))
+                    .sorted()
+                    .forEach(names::add);
+        }
+        return names;
+    }
+
+    private static List<Long> tradeIds(InputStream in) throws IOException {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        List<Long> ids = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                ids.add(mapper.readValue(line, Trade.class).tradeId());
+            }
+        }
+        return ids;
+    }
+
+    @Test
+    public void testRollsBySizeAndCompressesSegments() throws IOException {
+        try (RollingJsonlSink sink = RollingJsonlSink.builder(directory)
+                .clock(new MutableClock())
+                .maxBytes(10_000)
+                .build()) {
+            for (int i = 0; i < 300; i++) {
+                sink.write(trade(i));
+            }
+        }
+        List<String> segments = files("normalized-*.jsonl.gz");
+        assertTrue(segments.size() > 1, "Expected several segments, got " + segments);
+        assertEquals(segments.size(), files("normalized-*.idx").size());
+        assertTrue(files("*.jsonl").isEmpty());
+
+        List<Long> ids = new ArrayList<>();
+        for (SegmentIndex index : SegmentIndex.find(directory, "normalized", Long.MIN_VALUE, Long.MAX_VALUE)) {
+            assertEquals(".gz", index.compression());
+            ids.addAll(tradeIds(index.open(directory, Long.MIN_VALUE, SegmentCompressor.gzip())));
+        }
+        assertEquals(300, ids.size());
+        for (int i = 0; i < 300; i++) {
+            assertEquals(i, ids.get(i));
+        }
+    }
+
+    @Test
+    public void testRollsHourlyOnEndOfBatch() throws IOException {
+        MutableClock clock = new MutableClock();
+        try (RollingJsonlSink sink = RollingJsonlSink.builder(directory)
+                .clock(clock)
+                .compressor(null)
+                .build()) {
+            sink.write(trade(0));
+            sink.endOfBatch();
+            assertTrue(files("*.idx").isEmpty());
+
+            clock.advance(Duration.ofMinutes(2));
+            sink.endOfBatch();
+            assertEquals(List.of("normalized-20240301-105900-000.idx"), files("*.idx"));
+
+            sink.write(trade(1));
+        }
+        assertEquals(List.of("normalized-20240301-105900-000.jsonl", "normalized-20240301-110100-000.jsonl"),
+                files("*.jsonl"));
+    }
+
+    @Test
+    public void testIndexSeeksToCheckpoint() throws IOException {
+        try (RollingJsonlSink sink = RollingJsonlSink.builder(directory)
+                .clock(new MutableClock())
+                .indexIntervalBytes(2_000)
+                .build()) {
+            for (int i = 0; i < 500; i++) {
+                sink.write(trade(i));
+            }
+        }
+        long from = Timestamps.ofInstant(START.plusSeconds(3));
+        List<SegmentIndex> found = SegmentIndex.find(directory, "normalized", from, Long.MAX_VALUE);
+        assertEquals(1, found.size());
+        SegmentIndex index = found.get(0);
+        assertEquals(500, index.records());
+        assertEquals(Timestamps.ofInstant(START), index.firstTimeNanos());
+        assertEquals(Timestamps.ofInstant(trade(499).tradeTime()), index.lastTimeNanos());
+        assertTrue(index.checkpoints().size() > 10);
+
+        List<Long> ids = tradeIds(index.open(directory, from, SegmentCompressor.gzip()));
+        assertTrue(ids.get(0) > 0 && ids.get(0) <= 300, "Expected to start near trade 300, got " + ids.get(0));
+        assertTrue(ids.size() < 500);
+        assertEquals(499L, ids.get(ids.size() - 1));
+
+        assertTrue(SegmentIndex.find(directory, "normalized", 0, Timestamps.ofInstant(START)).isEmpty());
+    }
+}
@@ -0,0 +1,167 @@
+package Normalizer.Output;
+
+import DataChannel.ChannelException;
+import DataChannel.DataChannel;
+import MarketDataType.Quote;
+import MarketDataType.Trade;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class SinkTest {
+
+    private static final Quote QUOTE = new Quote("binance.us", 400900217L, "BNBUSDT",
+            new BigDecimal("25.35190000"), new BigDecimal("31.21000000"),
+            new BigDecimal("25.36520000"), new BigDecimal("40.66000000"),
+            null, null, null, null, null, null, null, null, null, null);
+    private static final Trade TRADE = new Trade("coinbase", null, "BTCUSD", 10L,
+            new BigDecimal("400.23"), new BigDecimal("5.23512"),
+            "ac928c66-ca53-498f-9c13-a110027a60e8", "132fb6ae-456b-4654-b4e0-d681ac05cea1",
+            "sell", Instant.parse("2014-11-07T08:19:27.028459Z"), null);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testBinaryRowSinkRoundTrip() throws Exception {
+        Path file = dir.resolve("rows.bin");
+        try (Sink sink = new BinaryRowSink(file)) {
+            sink.write(QUOTE);
+            sink.write(TRADE);
+        }
+        try (Sink sink = new BinaryRowSink(file)) {
+            sink.write(QUOTE);
+        }
+
+        assertEquals(List.of(QUOTE, TRADE, QUOTE), BinaryRowSink.readAll(file));
+    }
+
+    @Test
+    public void testBinaryRowSinkNeverSplitsARowAcrossWrites() throws Exception {
+        Path file = dir.resolve("rows.bin");
+        GroupCommitWriter writer = new GroupCommitWriter(file, GroupCommitWriter.DurabilityMode.PERIODIC,
+                256, Duration.ofHours(1));
+        try (Sink sink = new BinaryRowSink(writer)) {
+            for (int i = 0; i < 20; i++) {
+                if (i % 2 == 0) {
+                    sink.write(QUOTE);
+                } else {
+                    sink.write(TRADE);
+                }
+                // Whatever the size threshold has written so far is made of whole rows.
+                assertDoesNotThrow(() -> BinaryRowSink.readAll(file));
+            }
+        }
+        assertEquals(20, BinaryRowSink.readAll(file).size());
+    }
+
+    @Test
+    public void testChronicleSinkRoundTrip() throws Exception {
+        String queueDir = dir.resolve("queue").toString();
+        try (Sink sink = new ChronicleSink(queueDir)) {
+            sink.write(TRADE);
+            sink.write(QUOTE);
+        }
+
+        try (ChronicleQueue queue = ChronicleQueue.singleBuilder(Path.of(queueDir)).build()) {
+            ExcerptTailer tailer = queue.createTailer();
+            assertEquals(TRADE, ChronicleSink.readNext(tailer));
+            assertEquals(QUOTE, ChronicleSink.readNext(tailer));
+            assertNull(ChronicleSink.readNext(tailer));
+        }
+    }
+
+    @Test
+    public void testChannelSinkSendsAtEndOfBatch() throws Exception {
+        List<List<String>> batches = new ArrayList<>();
+        DataChannel channel = new DataChannel() {
+            @Override
+            public void send(String message) {
+                batches.add(List.of(message));
+            }
+
+            @Override
+            public void sendBatch(List<String> messages) {
+                batches.add(List.copyOf(messages));
+            }
+
+            @Override
+            public String receive() {
+                return null;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        Sink sink = new ChannelSink(channel);
+
+        sink.write(QUOTE);
+        sink.write(TRADE);
+        assertTrue(batches.isEmpty(), "Records should be held until the end of the batch");
+
+        sink.endOfBatch();
+        assertEquals(1, batches.size());
+        assertEquals(QUOTE, mapper.readValue(batches.get(0).get(0), Quote.class));
+        assertEquals(TRADE, mapper.readValue(batches.get(0).get(1), Trade.class));
+
+        sink.endOfBatch();
+        sink.write(QUOTE);
+        sink.close();
+        assertEquals(2, batches.size(), "Empty batches should not be sent");
+        assertEquals(QUOTE, mapper.readValue(batches.get(1).get(0), Quote.class));
+    }
+
+    @Test
+    public void testChannelSinkKeepsRecordsWhenSendingFails() throws Exception {
+        List<String> sent = new ArrayList<>();
+        AtomicBoolean failNext = new AtomicBoolean(true);
+        DataChannel channel = new DataChannel() {
+            @Override
+            public void send(String message) throws ChannelException {
+                sendBatch(List.of(message));
+            }
+
+            @Override
+            public void sendBatch(List<String> messages) throws ChannelException {
+                if (failNext.getAndSet(false)) {
+                    throw new ChannelException("Simulated failure");
+                }
+                sent.addAll(messages);
+            }
+
+            @Override
+            public String receive() {
+                return null;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Sink sink = new ChannelSink(channel);
+
+        sink.write(QUOTE);
+        assertThrows(IOException.class, sink::endOfBatch);
+        assertTrue(sent.isEmpty());
+
+        sink.write(TRADE);
+        sink.close();
+        assertEquals(2, sent.size());
+    }
+}
@@ -4,9 +4,13 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import MarketDataType.MutableTrade;
 import MarketDataType.Quote;
+import MarketDataType.ScaledTrade;
 import MarketDataType.Trade;
 
 import java.math.BigDecimal;
@@ -75,4 +79,98 @@ class BinanceUsPayloadParserTest {
         assertEquals(Instant.ofEpochMilli(1672515782136L), trade.tradeTime());
         assertTrue(trade.buyerIsMarketMaker());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testStreamingParseTradeWithNumericIds() throws Exception {
+        String json = """
+                {"e":"trade","E":1672515782136,"s":"BNBBTC","t":12345,"p":"0.001","q":"100",
+                 "b":88,"a":50,"T":1672515782136,"m":false,"M":true}
+                """;
+
+        try (JsonParser jsonParser = mapper.createParser(json)) {
+            jsonParser.nextToken();
+            Trade trade = parser.parseTrade(jsonParser);
+
+            assertEquals(JsonToken.END_OBJECT, jsonParser.currentToken());
+            assertEquals("88", trade.buyerId());
+            assertEquals("50", trade.sellerId());
+            assertEquals(new BigDecimal("0.001"), trade.price());
+            assertFalse(trade.buyerIsMarketMaker());
+        }
+    }
+
+    @Test
+    public void testStreamingParseQuoteMissingBidIsRejected() throws Exception {
+        String json = """
+                {"u":400900217,"s":"BNBUSDT","a":"25.36520000","A":"40.66000000"}
+                """;
+
+        try (JsonParser jsonParser = mapper.createParser(json)) {
+            jsonParser.nextToken();
+            assertNull(parser.parseQuote(jsonParser));
+        }
+    }
+
+    @Test
+    public void testParseScaledTrade() throws Exception {
+        String json = """
+                {"e":"trade","E":1672515782136,"s":"BNBBTC","t":12345,"p":"0.001","q":"100",
+                 "b":88,"a":50,"T":1672515782136,"m":true,"M":true}
+                """;
+
+        try (JsonParser jsonParser = mapper.createParser(json)) {
+            jsonParser.nextToken();
+            ScaledTrade trade = parser.parseScaledTrade(jsonParser);
+
+            assertEquals(JsonToken.END_OBJECT, jsonParser.currentToken());
+            assertEquals(100000L, trade.price());
+            assertEquals(100_00000000L, trade.size());
+            assertEquals(12345L, trade.tradeId());
+            assertEquals(1672515782136_000000L, trade.tradeTimeNanos());
+            assertEquals(0, new BigDecimal("0.001").compareTo(trade.toTrade().price()));
+            assertEquals(Instant.ofEpochMilli(1672515782136L), trade.toTrade().eventTime());
+        }
+    }
+
+    @Test
+    public void testParseScaledQuoteMissingBidIsRejected() throws Exception {
+        String json = """
+                {"u":400900217,"s":"BNBUSDT","a":"25.36520000","A":"40.66000000"}
+                """;
+
+        try (JsonParser jsonParser = mapper.createParser(json)) {
+            jsonParser.nextToken();
+            assertNull(parser.parseScaledQuote(jsonParser));
+        }
+    }
+
+    @Test
+    public void testParseTradeIntoReusesFlyweight() throws Exception {
+        MutableTrade trade = new MutableTrade();
+        String first = """
+                {"e":"trade","E":1,"s":"BNBBTC","t":1,"p":"0.001","q":"100","b":"buyer-1","a":"seller-1","m":true}
+                """;
+        String second = """
+                {"e":"trade","E":2,"s":"BNBBTC","t":2,"p":"0.002","q":"5"}
+                """;
+
+        try (JsonParser jsonParser = mapper.createParser(first)) {
+            jsonParser.nextToken();
+            assertTrue(parser.parseTradeInto(jsonParser, trade));
+        }
+        assertEquals("buyer-1", trade.buyerId().toString());
+        assertEquals(Boolean.TRUE, trade.buyerIsMarketMaker());
+        Trade retained = trade.toTrade();
+
+        try (JsonParser jsonParser = mapper.createParser(second)) {
+            jsonParser.nextToken();
+            assertTrue(parser.parseTradeInto(jsonParser, trade));
+        }
+        assertEquals(2L, trade.tradeId());
+        assertEquals(200000L, trade.price());
+        assertNull(trade.buyerId(), "Fields absent from the second payload must not leak from the first");
+        assertNull(trade.buyerIsMarketMaker());
+        assertEquals("buyer-1", retained.buyerId());
+        assertEquals(0, new BigDecimal("0.001").compareTo(retained.price()));
+    }
+}
@@ -4,9 +4,15 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import MarketDataType.ProductScales;
 import MarketDataType.Quote;
+import MarketDataType.MutableQuote;
+import MarketDataType.ScaledDecimal;
+import MarketDataType.ScaledQuote;
 import MarketDataType.Trade;
 
 import java.math.BigDecimal;
@@ -96,4 +102,138 @@ class CoinbasePayloadParserTest {
         // In Coinbase parser, buyerIsMarketMaker is not set, so expect null.
         assertNull(trade.buyerIsMarketMaker());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testStreamingParseQuoteWithoutTree() throws Exception {
+        String json = """
+                {"type":"ticker","sequence":37475248783,"product_id":"ETH-USD","price":"1285.22",
+                 "best_bid":"1285.04","best_bid_size":"0.46688654","best_ask":"1285.27","best_ask_size":"1.56637040",
+                 "side":"buy","time":"2022-10-19T23:28:22.061769Z","trade_id":370843401,"last_size":"11.4396987",
+                 "extra":{"nested":[1,2,3]}}
+                """;
+
+        try (JsonParser jsonParser = mapper.createParser(json)) {
+            jsonParser.nextToken();
+            Quote quote = parser.parseQuote(jsonParser);
+
+            assertEquals(JsonToken.END_OBJECT, jsonParser.currentToken());
+            assertEquals("ETHUSD", quote.product());
+            assertEquals(37475248783L, quote.sequence());
+            assertEquals(new BigDecimal("1285.04"), quote.bestBid());
+            assertEquals(new BigDecimal("11.4396987"), quote.lastSize());
+            assertNull(quote.open24h());
+            assertEquals(ZonedDateTime.parse("2022-10-19T23:28:22.061769Z").toInstant(), quote.time());
+        }
+    }
+
+    @Test
+    public void testStreamingParseQuoteRejectsInvalidDecimal() throws Exception {
+        String json = """
+                {"sequence":1,"product_id":"ETH-USD","best_bid":"not-a-number"}
+                """;
+
+        try (JsonParser jsonParser = mapper.createParser(json)) {
+            jsonParser.nextToken();
+            assertNull(parser.parseQuote(jsonParser));
+            assertEquals(JsonToken.END_OBJECT, jsonParser.currentToken());
+        }
+    }
+
+    @Test
+    public void testParseScaledQuoteMatchesDecimalQuote() throws Exception {
+        String json = """
+                {"type":"ticker","sequence":37475248783,"product_id":"ETH-USD","price":"1285.22",
+                 "open_24h":"1310.79","volume_24h":"245532.79269678","low_24h":"1280.52","high_24h":"1313.8",
+                 "volume_30d":"9788783.60117027","best_bid":"1285.04","best_bid_size":"0.46688654",
+                 "best_ask":"1285.27","best_ask_size":"1.56637040","side":"buy",
+                 "time":"2022-10-19T23:28:22.061769Z","trade_id":370843401,"last_size":"11.4396987"}
+                """;
+
+        Quote expected;
+        try (JsonParser jsonParser = mapper.createParser(json)) {
+            jsonParser.nextToken();
+            expected = parser.parseQuote(jsonParser);
+        }
+        ScaledQuote scaled;
+        try (JsonParser jsonParser = mapper.createParser(json)) {
+            jsonParser.nextToken();
+            scaled = parser.parseScaledQuote(jsonParser);
+            assertEquals(JsonToken.END_OBJECT, jsonParser.currentToken());
+        }
+
+        assertEquals(128504000000L, scaled.bestBid());
+        assertEquals(ScaledQuote.fromQuote(expected), scaled);
+        Quote converted = scaled.toQuote();
+        assertEquals(0, expected.volume30d().compareTo(converted.volume30d()));
+        assertEquals(expected.time(), converted.time());
+        assertEquals(expected.tradeId(), converted.tradeId());
+    }
+
+    @Test
+    public void testParseScaledQuoteUsesProductScale() throws Exception {
+        ProductScales.register("BTCUSD", 2, 8);
+        try {
+            String late = """
+                    {"sequence":1,"best_bid":"400.23","best_bid_size":"5.23512","product_id":"BTC-USD"}
+                    """;
+            try (JsonParser jsonParser = mapper.createParser(late)) {
+                jsonParser.nextToken();
+                ScaledQuote quote = parser.parseScaledQuote(jsonParser);
+                assertEquals(2, quote.priceScale());
+                assertEquals(40023L, quote.bestBid());
+                assertEquals(523512000L, quote.bestBidSize());
+            }
+
+            String tooPrecise = """
+                    {"sequence":1,"product_id":"BTC-USD","best_bid":"400.235"}
+                    """;
+            try (JsonParser jsonParser = mapper.createParser(tooPrecise)) {
+                jsonParser.nextToken();
+                assertNull(parser.parseScaledQuote(jsonParser));
+            }
+        } finally {
+            ProductScales.unregister("BTCUSD");
+        }
+    }
+
+    @Test
+    public void testOversizedVolumesBecomeNull() throws Exception {
+        // A 30-day volume above 9.2e10 does not fit a long at the default scale of eight.
+        String json = """
+                {"sequence":1,"product_id":"SHIB-USD","price":"0.00002401",
+                 "volume_24h":"912345678901.5","volume_30d":"28123456789012.25"}
+                """;
+        MutableQuote quote = new MutableQuote();
+        try (JsonParser jsonParser = mapper.createParser(json)) {
+            jsonParser.nextToken();
+            assertTrue(parser.parseQuoteInto(jsonParser, quote));
+        }
+        assertEquals(2401L, quote.price());
+        assertEquals(ScaledDecimal.NULL, quote.volume24h());
+        assertEquals(ScaledDecimal.NULL, quote.volume30d());
+
+        ScaledQuote scaled = ScaledQuote.fromQuote(parser.parseQuote(mapper.readTree(json)));
+        assertEquals(2401L, scaled.price());
+        assertEquals(ScaledDecimal.NULL, scaled.volume30d());
+    }
+
+    @Test
+    public void testProductIsInternedAcrossMessages() throws Exception {
+        String json = """
+                {"sequence":1,"product_id":"ETH-USD","best_bid":"1285.04"}
+                """;
+        MutableQuote quote = new MutableQuote();
+        Quote first = parser.parseQuote(mapper.readTree(json));
+
+        try (JsonParser jsonParser = mapper.createParser(json)) {
+            jsonParser.nextToken();
+            assertTrue(parser.parseQuoteInto(jsonParser, quote));
+        }
+
+        assertEquals("ETHUSD", quote.product());
+        assertSame(first.product(), quote.product());
+        assertSame(quote.symbol(), first.symbol());
+        assertEquals(quote.symbol().id(), quote.symbolId());
+        assertEquals("ETH-USD", quote.symbol().raw());
+    }
+}
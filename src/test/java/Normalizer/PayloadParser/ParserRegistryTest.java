@@ -0,0 +1,79 @@
+package Normalizer.PayloadParser;
+
+import MarketDataType.MarketDataQueryType;
+import MarketDataType.Quote;
+import MarketDataType.Trade;
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParserRegistryTest {
+
+    @Test
+    public void testDefaultRegistryDiscoversBuiltInParsers() {
+        ParserRegistry registry = ParserRegistry.getDefault();
+
+        assertInstanceOf(CoinbasePayloadParser.class, registry.getParser("coinbase"));
+        assertInstanceOf(BinanceUsPayloadParser.class, registry.getParser("binance.us"));
+    }
+
+    @Test
+    public void testLookupFromCharacterSlice() {
+        ParserRegistry registry = ParserRegistry.getDefault();
+        char[] buffer = "xx\"trade@binance.us\"yy".toCharArray();
+
+        ParserRegistry.Binding binding = registry.lookup(buffer, 3, "trade@binance.us".length());
+
+        assertNotNull(binding);
+        assertEquals(MarketDataQueryType.TRADE, binding.type());
+        assertInstanceOf(BinanceUsPayloadParser.class, binding.parser());
+        assertNull(registry.lookup(buffer, 3, 5));
+    }
+
+    @Test
+    public void testResolveAcceptsProducerAndMixedCaseSpellings() {
+        ParserRegistry registry = ParserRegistry.getDefault();
+
+        assertEquals(MarketDataQueryType.QUOTE, registry.resolve("QUOTE@coinbase").type());
+        assertEquals(MarketDataQueryType.QUOTE, registry.resolve("Quote@coinbase").type());
+        // The mixed-case spelling is now served from the lookup table.
+        char[] chars = "Quote@coinbase".toCharArray();
+        assertNotNull(registry.lookup(chars, 0, chars.length));
+    }
+
+    @Test
+    public void testResolveRejectsInvalidTags() {
+        ParserRegistry registry = ParserRegistry.getDefault();
+
+        assertThrows(IllegalArgumentException.class, () -> registry.resolve("quote"));
+        assertThrows(IllegalArgumentException.class, () -> registry.resolve("level2@coinbase"));
+        assertThrows(IllegalArgumentException.class, () -> registry.resolve("quote@kraken"));
+    }
+
+    @Test
+    public void testCustomParserIsRegisteredWithoutNormalizerChanges() {
+        Parser custom = new Parser() {
+            @Override
+            public String getTag() {
+                return "example";
+            }
+
+            @Override
+            public Quote parseQuote(JsonParser parser) {
+                return null;
+            }
+
+            @Override
+            public Trade parseTrade(JsonParser parser) {
+                return null;
+            }
+        };
+        ParserRegistry registry = new ParserRegistry(List.of(custom));
+
+        assertSame(custom, registry.resolve("trade@example").parser());
+        assertThrows(IllegalArgumentException.class, () -> new ParserRegistry(List.of(custom, custom)));
+    }
+}
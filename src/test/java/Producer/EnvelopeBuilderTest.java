@@ -0,0 +1,59 @@
+package Producer;
+
+import MarketDataType.MarketDataQueryType;
+import Normalizer.LazyEnvelope;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+
+class EnvelopeBuilderTest {
+
+    @Test
+    public void testBuildsOneLineEnvelopes() throws IOException {
+        EnvelopeBuilder builder = new EnvelopeBuilder("quote@coinbase");
+        String envelope = builder.build("{\r\n  \"type\": \"ticker\",\n  \"product_id\": \"BTC-USD\"\r\n}\n");
+
+        assertEquals("{\"tag\":\"quote@coinbase\",\"payload\":{  \"type\": \"ticker\",  \"product_id\": \"BTC-USD\"}}",
+                envelope);
+        LazyEnvelope parsed = LazyEnvelope.parse(envelope);
+        assertEquals(MarketDataQueryType.QUOTE, parsed.type());
+        assertEquals("BTC-USD", parsed.product());
+    }
+
+    @Test
+    public void testReusesTheBufferAcrossMessagesAndParts() {
+        EnvelopeBuilder builder = new EnvelopeBuilder("trade@binance.us");
+        assertEquals("{\"tag\":\"trade@binance.us\",\"payload\":{\"t\":1}}", builder.build("{\"t\":1}"));
+
+        assertFalse(builder.hasPending());
+        builder.append("{\"t\":").append("\n2");
+        assertTrue(builder.hasPending());
+        assertEquals("{\"tag\":\"trade@binance.us\",\"payload\":{\"t\":2}}", builder.append("}").finish());
+
+        builder.append("{\"partial\"");
+        builder.reset();
+        assertEquals("{\"tag\":\"trade@binance.us\",\"payload\":{}}", builder.build("{}"));
+    }
+
+    @Test
+    public void testStampsTheReceiveTime() throws IOException {
+        EnvelopeBuilder builder = new EnvelopeBuilder("quote@coinbase");
+        String envelope = builder.build("{\"type\":\"ticker\"}", 1_700_000_000_123_456_789L);
+        assertEquals("{\"tag\":\"quote@coinbase\",\"ts\":1700000000123456789,\"payload\":{\"type\":\"ticker\"}}",
+                envelope);
+        assertEquals(1_700_000_000_123_456_789L, LazyEnvelope.parse(envelope).receivedNanos());
+
+        builder.stamp(5).append("{\"a\":");
+        assertThrows(IllegalStateException.class, () -> builder.stamp(6));
+        assertEquals("{\"tag\":\"quote@coinbase\",\"ts\":5,\"payload\":{\"a\":1}}", builder.append("1}").finish());
+        assertEquals("{\"tag\":\"quote@coinbase\",\"payload\":{}}", builder.build("{}"));
+    }
+
+    @Test
+    public void testRejectsTagsThatWouldBreakTheJson() {
+        assertThrows(IllegalArgumentException.class, () -> new EnvelopeBuilder("quote\"@coinbase"));
+        assertThrows(IllegalArgumentException.class, () -> new EnvelopeBuilder("quote@coin\nbase"));
+    }
+}
@@ -0,0 +1,68 @@
+package Producer;
+
+import DataChannel.BlockingQueueChannel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class FlowControllerTest {
+
+    private final List<Long> requests = new ArrayList<>();
+
+    @Test
+    public void testUnboundedChannelGetsBatchesOfCredits() {
+        FlowController flow = new FlowController(new BlockingQueueChannel(), 64, 0);
+        flow.attach(requests::add);
+        assertEquals(List.of(64L), requests);
+
+        for (int i = 0; i < 31; i++) {
+            flow.delivered();
+        }
+        assertEquals(List.of(64L), requests);
+        flow.delivered();
+        assertEquals(List.of(64L, 32L), requests);
+    }
+
+    @Test
+    public void testCreditsNeverExceedRemainingCapacity() throws Exception {
+        BlockingQueueChannel channel = new BlockingQueueChannel(10);
+        for (int i = 0; i < 6; i++) {
+            channel.send("m" + i);
+        }
+        assertEquals(4, channel.remainingCapacity());
+
+        FlowController flow = new FlowController(channel, 64, 1);
+        flow.attach(requests::add);
+        assertEquals(List.of(3L), requests);
+        assertFalse(flow.paused());
+    }
+
+    @Test
+    public void testPausesWhenFullAndResumesOnPoll() throws Exception {
+        BlockingQueueChannel channel = new BlockingQueueChannel(4);
+        FlowController flow = new FlowController(channel, 64, 0);
+        flow.attach(requests::add);
+        assertEquals(List.of(4L), requests);
+
+        for (int i = 0; i < 4; i++) {
+            channel.send("m" + i);
+            flow.delivered();
+        }
+        assertTrue(flow.paused());
+        flow.poll();
+        assertEquals(List.of(4L), requests);
+
+        channel.receiveBatch(new ArrayList<>(), 3);
+        flow.poll();
+        assertFalse(flow.paused());
+        assertEquals(List.of(4L, 3L), requests);
+
+        flow.detach();
+        flow.delivered();
+        flow.poll();
+        assertEquals(List.of(4L, 3L), requests);
+    }
+}
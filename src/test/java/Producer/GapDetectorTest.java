@@ -0,0 +1,85 @@
+package Producer;
+
+import MarketDataType.MarketDataQueryType;
+import Producer.QueryGenerator.Sequence;
+import Producer.QueryGenerator.Subscription;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+class GapDetectorTest {
+
+    private static final MarketDataQueryType TRADE = MarketDataQueryType.TRADE;
+    private static final MarketDataQueryType QUOTE = MarketDataQueryType.QUOTE;
+
+    @Test
+    public void testContiguousStreamReportsSkippedNumbers() throws Exception {
+        GapDetector gaps = new GapDetector();
+        assertNull(gaps.check(TRADE, new Sequence("BTC-USD", 100, true)));
+        assertNull(gaps.check(TRADE, new Sequence("BTC-USD", 101, true)));
+        // Streams are tracked separately.
+        assertNull(gaps.check(TRADE, new Sequence("ETH-USD", 7, true)));
+
+        GapDetector.Gap gap = gaps.check(TRADE, new Sequence("BTC-USD", 105, true));
+        assertEquals(101, gap.last());
+        assertEquals(105, gap.next());
+        assertEquals(3, gap.missing());
+        assertFalse(gap.reconnect());
+
+        // Replays are ignored.
+        assertNull(gaps.check(TRADE, new Sequence("BTC-USD", 103, true)));
+        assertNull(gaps.check(TRADE, new Sequence("BTC-USD", 106, true)));
+
+        JsonNode json = new ObjectMapper().readTree(gap.toJson());
+        assertEquals("trade", json.get("type").asText());
+        assertEquals("BTC-USD", json.get("product").asText());
+        assertEquals(3, json.get("missing").asLong());
+        assertEquals("sequence", json.get("cause").asText());
+    }
+
+    @Test
+    public void testReconnectsAreReportedOncePerStream() {
+        GapDetector gaps = new GapDetector();
+        assertNull(gaps.check(QUOTE, new Sequence("BTC-USD", 1000, false)));
+        assertNull(gaps.check(QUOTE, new Sequence("BTC-USD", 1042, false)));
+        assertNull(gaps.check(TRADE, new Sequence("BTC-USD", 50, true)));
+
+        gaps.disconnected();
+        GapDetector.Gap gap = gaps.check(QUOTE, new Sequence("BTC-USD", 1100, false));
+        assertTrue(gap.reconnect());
+        assertEquals(1042, gap.last());
+        assertEquals(-1, gap.missing());
+        assertNull(gaps.check(QUOTE, new Sequence("BTC-USD", 1200, false)));
+
+        // A contiguous stream that resumes where it left off lost nothing.
+        assertNull(gaps.check(TRADE, new Sequence("BTC-USD", 51, true)));
+        gaps.disconnected();
+        gap = gaps.check(TRADE, new Sequence("BTC-USD", 60, true));
+        assertTrue(gap.reconnect());
+        assertEquals(8, gap.missing());
+    }
+
+    @Test
+    public void testUnsubscribedStreamsStartAfresh() {
+        GapDetector gaps = new GapDetector();
+        assertNull(gaps.check(TRADE, new Sequence("btcusdt", 10, false)));
+        assertNull(gaps.check(QUOTE, new Sequence("btcusdt", 20, true)));
+        assertNull(gaps.check(TRADE, new Sequence("ETH-USD", 30, true)));
+
+        gaps.forget(List.of(new Subscription("BTCUSDT", TRADE), new Subscription("btcusdt", QUOTE)));
+        gaps.disconnected();
+
+        // Resubscribed streams are new: neither the numbers skipped nor the reconnect are reported.
+        assertNull(gaps.check(TRADE, new Sequence("btcusdt", 500, false)));
+        assertNull(gaps.check(QUOTE, new Sequence("btcusdt", 600, true)));
+        assertNull(gaps.check(QUOTE, new Sequence("btcusdt", 601, true)));
+        // Other streams are kept.
+        GapDetector.Gap gap = gaps.check(TRADE, new Sequence("ETH-USD", 32, true));
+        assertEquals(1, gap.missing());
+        assertTrue(gap.reconnect());
+    }
+}
@@ -0,0 +1,93 @@
+package Producer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+class MessageAssemblerTest {
+
+    private static final String MESSAGE = "{\"type\":\"l2update\",\"product_id\":\"BTC-USD\",\"changes\":[[\"buy\",\"1\",\"2\"]]}";
+
+    @Test
+    public void testTextFragmentsAreReassembled() throws Exception {
+        try (MessageAssembler assembler = new MessageAssembler()) {
+            assertNull(assembler.text(MESSAGE.substring(0, 10), false));
+            assertNull(assembler.text(MESSAGE.substring(10, 30), false));
+            assertEquals(MESSAGE, assembler.text(MESSAGE.substring(30), true).toString());
+
+            // A single-part message is passed through, and the buffer starts over afterwards.
+            assertSame(MESSAGE, assembler.text(MESSAGE, true));
+            assertNull(assembler.text("{\"a\":", false));
+            assertEquals("{\"a\":1}", assembler.text("1}", true).toString());
+        }
+    }
+
+    @Test
+    public void testBinaryMessagesAreDecoded() throws Exception {
+        byte[] plain = MESSAGE.getBytes(StandardCharsets.UTF_8);
+        try (MessageAssembler assembler = new MessageAssembler()) {
+            assertEquals(MESSAGE, assembler.binary(ByteBuffer.wrap(plain), true).toString());
+
+            byte[] gzip = gzip(plain);
+            assertNull(assembler.binary(ByteBuffer.wrap(gzip, 0, 5), false));
+            assertEquals(MESSAGE, assembler.binary(ByteBuffer.wrap(gzip, 5, gzip.length - 5), true).toString());
+
+            assertEquals(MESSAGE, assembler.binary(ByteBuffer.wrap(deflate(plain, false)), true).toString());
+            assertEquals(MESSAGE, assembler.binary(ByteBuffer.wrap(deflate(plain, true)), true).toString());
+            assertEquals(MESSAGE, assembler.binary(ByteBuffer.wrap(perMessageDeflate(plain)), true).toString());
+            // The inflaters are reused across messages.
+            assertEquals(MESSAGE, assembler.binary(ByteBuffer.wrap(gzip(plain)), true).toString());
+        }
+    }
+
+    @Test
+    public void testOversizedMessagesAreRejected() throws Exception {
+        try (MessageAssembler assembler = new MessageAssembler(32)) {
+            assertNull(assembler.text(MESSAGE.substring(0, 20), false));
+            assertNull(assembler.text(MESSAGE.substring(20, 40), false));
+            assertThrows(IOException.class, () -> assembler.text(MESSAGE.substring(40), true));
+            assertEquals("{}", assembler.text("{}", true).toString());
+
+            byte[] bomb = gzip(new byte[1024]);
+            assertTrue(bomb.length < 32);
+            assertThrows(IOException.class, () -> assembler.binary(ByteBuffer.wrap(bomb), true));
+            assertThrows(IOException.class, () -> assembler.binary(ByteBuffer.wrap(new byte[]{1, 2, 3}), true));
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    // Flushes without finishing the stream and strips the empty block, as permessage-deflate does.
+    private static byte[] perMessageDeflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(data);
+        byte[] out = new byte[data.length + 64];
+        int length = deflater.deflate(out, 0, out.length, Deflater.SYNC_FLUSH);
+        deflater.end();
+        return Arrays.copyOf(out, length - 4);
+    }
+
+    private static byte[] deflate(byte[] data, boolean raw) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, raw);
+        deflater.setInput(data);
+        deflater.finish();
+        byte[] out = new byte[data.length + 64];
+        int length = deflater.deflate(out);
+        deflater.end();
+        return Arrays.copyOf(out, length);
+    }
+}
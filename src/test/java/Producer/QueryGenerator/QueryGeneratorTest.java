@@ -0,0 +1,92 @@
+package Producer.QueryGenerator;
+
+import MarketDataType.MarketDataQueryType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+class QueryGeneratorTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void testCoinbaseCombinesSubscriptionsPerChannel() throws Exception {
+        String message = new CoinbaseGenerator().generateQueryMessage(List.of(
+                new Subscription("BTC-USD", MarketDataQueryType.TRADE),
+                new Subscription("BTC-USD", MarketDataQueryType.QUOTE),
+                new Subscription("ETH-USD", MarketDataQueryType.QUOTE)));
+        JsonNode root = mapper.readTree(message);
+
+        assertEquals("subscribe", root.get("type").asText());
+        JsonNode channels = root.get("channels");
+        assertEquals(2, channels.size());
+        assertEquals("matches", channels.get(0).get("name").asText());
+        assertEquals("[\"BTC-USD\"]", channels.get(0).get("product_ids").toString());
+        assertEquals("ticker", channels.get(1).get("name").asText());
+        assertEquals("[\"BTC-USD\",\"ETH-USD\"]", channels.get(1).get("product_ids").toString());
+    }
+
+    @Test
+    public void testBinanceCombinesSubscriptionsInParams() throws Exception {
+        BinanceUsQueryGenerator generator = new BinanceUsQueryGenerator();
+        JsonNode first = mapper.readTree(generator.generateQueryMessage(List.of(
+                new Subscription("btcusdt", MarketDataQueryType.TRADE),
+                new Subscription("ethusdt", MarketDataQueryType.QUOTE),
+                new Subscription("ethusdt", MarketDataQueryType.QUOTE))));
+        JsonNode second = mapper.readTree(generator.generateQueryMessage(List.of(
+                new Subscription("btcusdt", MarketDataQueryType.QUOTE))));
+
+        assertEquals("SUBSCRIBE", first.get("method").asText());
+        assertEquals("[\"btcusdt@trade\",\"ethusdt@bookTicker\"]", first.get("params").toString());
+        assertNotEquals(first.get("id").asInt(), second.get("id").asInt());
+        assertThrows(IllegalArgumentException.class, () -> generator.generateQueryMessage(List.of()));
+    }
+
+    @Test
+    public void testClassifiesMessages() {
+        CoinbaseGenerator coinbase = new CoinbaseGenerator();
+        assertEquals(MarketDataQueryType.QUOTE, coinbase.classify("{\"type\":\"ticker\",\"sequence\":1}"));
+        assertEquals(MarketDataQueryType.TRADE, coinbase.classify("{ \"type\" : \"match\", \"trade_id\": 2 }"));
+        assertEquals(MarketDataQueryType.TRADE, coinbase.classify("{\"type\":\"last_match\"}"));
+        assertNull(coinbase.classify("{\"type\":\"subscriptions\",\"channels\":[{\"name\":\"ticker\"}]}"));
+        assertNull(coinbase.classify("{\"type\":\"tickers\"}"));
+        assertNull(coinbase.classify("not json"));
+
+        BinanceUsQueryGenerator binance = new BinanceUsQueryGenerator();
+        assertEquals(MarketDataQueryType.TRADE, binance.classify("{\"e\":\"trade\",\"E\":1,\"s\":\"BNBBTC\"}"));
+        assertEquals(MarketDataQueryType.QUOTE,
+                binance.classify("{\"u\":400900217,\"s\":\"BNBUSDT\",\"b\":\"25.35\",\"B\":\"31.21\"}"));
+        assertNull(binance.classify("{\"result\":null,\"id\":1}"));
+        assertNull(binance.classify("{\"e\":\"aggTrade\",\"u\":1,\"b\":2}"));
+    }
+
+    @Test
+    public void testSkipsNestedValuesWhileScanning() {
+        String json = "{\"a\": {\"type\": \"x\", \"b\": [1, \"}\"]}, \"s\": \"q\\\"uote\", \"type\": \"ticker\"}";
+        assertTrue(JsonFields.stringEquals(json, "type", "ticker"));
+        assertTrue(JsonFields.has(json, "s"));
+        assertFalse(JsonFields.has(json, "b"));
+    }
+
+    @Test
+    public void testReadsSequenceNumbers() {
+        Sequence trade = new CoinbaseGenerator().sequence(MarketDataQueryType.TRADE,
+                "{\"type\":\"match\",\"trade_id\":10,\"sequence\":50,\"product_id\":\"BTC-USD\"}");
+        assertEquals(new Sequence("BTC-USD", 10, true), trade);
+        Sequence quote = new CoinbaseGenerator().sequence(MarketDataQueryType.QUOTE,
+                "{\"type\":\"ticker\",\"sequence\":\"37475248783\",\"product_id\":\"BTC-USD\"}");
+        assertEquals(new Sequence("BTC-USD", 37475248783L, false), quote);
+
+        BinanceUsQueryGenerator binance = new BinanceUsQueryGenerator();
+        assertEquals(new Sequence("bnbbtc", 12345, true), binance.sequence(MarketDataQueryType.TRADE,
+                "{\"e\":\"trade\",\"E\":1,\"s\":\"BNBBTC\",\"t\":12345,\"p\":\"0.001\"}"));
+        assertEquals(new Sequence("bnbusdt", 400900217, false), binance.sequence(MarketDataQueryType.QUOTE,
+                "{\"u\":400900217,\"s\":\"BNBUSDT\",\"b\":\"25.35\",\"B\":\"31.21\"}"));
+        assertNull(binance.sequence(MarketDataQueryType.QUOTE, "{\"u\":1.5,\"s\":\"BNBUSDT\"}"));
+        assertNull(binance.sequence(MarketDataQueryType.TRADE, "{\"e\":\"trade\",\"t\":1}"));
+    }
+}
@@ -0,0 +1,105 @@
+package Producer;
+
+import MarketDataType.MarketDataQueryType;
+import Producer.QueryGenerator.BinanceUsQueryGenerator;
+import Producer.QueryGenerator.CoinbaseGenerator;
+import Producer.QueryGenerator.Subscription;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+class SubscriptionManagerTest {
+
+    private static final Subscription BTC_TRADES = new Subscription("btcusdt", MarketDataQueryType.TRADE);
+    private static final Subscription BTC_QUOTES = new Subscription("btcusdt", MarketDataQueryType.QUOTE);
+    private static final Subscription ETH_QUOTES = new Subscription("ethusdt", MarketDataQueryType.QUOTE);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<String> sent = new ArrayList<>();
+
+    private JsonNode sent(int index) throws Exception {
+        return mapper.readTree(sent.get(index));
+    }
+
+    @Test
+    public void testRequestsBeforeConnectingJoinTheInitialSubscription() throws Exception {
+        SubscriptionManager manager = new SubscriptionManager(new BinanceUsQueryGenerator(), List.of(BTC_TRADES));
+        CompletableFuture<Void> added = manager.subscribe(List.of(BTC_QUOTES, BTC_TRADES));
+        assertSame(manager.subscribed(), added);
+
+        manager.connected(text -> {
+            sent.add(text);
+            return CompletableFuture.completedFuture(null);
+        });
+        assertEquals(1, sent.size());
+        assertEquals("[\"btcusdt@trade\",\"btcusdt@bookTicker\"]", sent(0).get("params").toString());
+        assertEquals(1, sent(0).get("id").asLong());
+        assertFalse(added.isDone());
+
+        manager.onControlMessage("{\"result\":null,\"id\":1}");
+        assertTrue(added.isDone() && !added.isCompletedExceptionally());
+    }
+
+    @Test
+    public void testLiveRequestsAreAcknowledgedById() throws Exception {
+        SubscriptionManager manager = new SubscriptionManager(new BinanceUsQueryGenerator(), List.of(BTC_TRADES));
+        manager.connected(text -> {
+            sent.add(text);
+            return CompletableFuture.completedFuture(null);
+        });
+        CompletableFuture<Void> subscribe = manager.subscribe(List.of(ETH_QUOTES));
+        CompletableFuture<Void> unsubscribe = manager.unsubscribe(List.of(BTC_TRADES));
+        assertEquals("SUBSCRIBE", sent(1).get("method").asText());
+        assertEquals(2, sent(1).get("id").asLong());
+        assertEquals("UNSUBSCRIBE", sent(2).get("method").asText());
+        assertEquals(List.of(ETH_QUOTES), manager.subscriptions());
+
+        // Acknowledgements may arrive in any order.
+        manager.onControlMessage("{\"error\":{\"code\":2,\"msg\":\"Invalid request\"},\"id\":3}");
+        manager.onControlMessage("{\"result\":null,\"id\":2}");
+        assertTrue(subscribe.isDone() && !subscribe.isCompletedExceptionally());
+        ExecutionException rejected = assertThrows(ExecutionException.class, unsubscribe::get);
+        assertInstanceOf(SubscriptionException.class, rejected.getCause());
+        assertTrue(rejected.getCause().getMessage().contains("Invalid request"));
+        assertEquals(List.of(ETH_QUOTES, BTC_TRADES), manager.subscriptions());
+    }
+
+    @Test
+    public void testInOrderAcknowledgementsAndDisconnects() throws Exception {
+        Subscription btc = new Subscription("BTC-USD", MarketDataQueryType.QUOTE);
+        Subscription eth = new Subscription("ETH-USD", MarketDataQueryType.QUOTE);
+        SubscriptionManager manager = new SubscriptionManager(new CoinbaseGenerator(), List.of(btc));
+        manager.connected(text -> {
+            sent.add(text);
+            return CompletableFuture.completedFuture(null);
+        });
+        CompletableFuture<Void> added = manager.subscribe(List.of(eth));
+        assertEquals("subscribe", sent(1).get("type").asText());
+
+        manager.onControlMessage("{\"type\":\"subscriptions\",\"channels\":[]}");
+        assertTrue(manager.subscribed().isDone());
+        assertFalse(added.isDone());
+        manager.onControlMessage("{\"type\":\"heartbeat\"}");
+        assertFalse(added.isDone());
+
+        CompletableFuture<Void> removed = manager.unsubscribe(List.of(btc));
+        assertEquals("unsubscribe", sent(2).get("type").asText());
+        manager.disconnected();
+        assertTrue(added.isCompletedExceptionally());
+        assertTrue(removed.isCompletedExceptionally());
+        assertEquals(List.of(eth), manager.subscriptions());
+
+        manager.connected(text -> {
+            sent.add(text);
+            return CompletableFuture.completedFuture(null);
+        });
+        assertEquals("[\"ETH-USD\"]", sent(3).get("channels").get(0).get("product_ids").toString());
+    }
+}
@@ -0,0 +1,105 @@
+package Simulation;
+
+import DataChannel.DataChannel;
+import Normalizer.LazyEnvelope;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+class LoadGeneratorTest {
+
+    private static final long MILLISECOND = 1_000_000L;
+
+    private static final class CollectingChannel implements DataChannel {
+        final List<String> messages = new ArrayList<>();
+        int calls;
+
+        @Override
+        public void send(String message) {
+            messages.add(message);
+            calls++;
+        }
+
+        @Override
+        public void sendBatch(List<String> batch) {
+            messages.addAll(batch);
+            calls++;
+        }
+
+        @Override
+        public String receive() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    public void testRunKeepsTheScheduledRate() throws Exception {
+        CollectingChannel channel = new CollectingChannel();
+        LoadGenerator generator = LoadGenerator.builder(SyntheticFeed.coinbase().build(),
+                ArrivalProcess.constant(100_000)).build();
+
+        LoadGenerator.Result result = generator.run(channel, 20_000);
+
+        assertEquals(20_000, result.messages());
+        assertEquals(20_000, channel.messages.size());
+        // 20,000 messages at 100,000 per second take 200 ms.
+        assertTrue(result.elapsedNanos() >= 199 * MILLISECOND, "took " + result.elapsedNanos() + " ns");
+        assertTrue(result.elapsedNanos() < 1_000 * MILLISECOND, "took " + result.elapsedNanos() + " ns");
+        LazyEnvelope envelope = LazyEnvelope.parse(channel.messages.getFirst());
+        assertNotNull(envelope);
+        assertEquals("coinbase", envelope.exchange());
+        assertNotNull(envelope.record());
+    }
+
+    @Test
+    public void testMessagesDueTogetherAreBatched() throws Exception {
+        CollectingChannel channel = new CollectingChannel();
+        // Bursts averaging 50 messages.
+        LoadGenerator generator = LoadGenerator.builder(SyntheticFeed.binanceUs().build(),
+                ArrivalProcess.bursty(50_000, 50, 1)).maxBatch(16).build();
+
+        LoadGenerator.Result result = generator.runFor(channel, Duration.ofMillis(100));
+
+        assertEquals(channel.messages.size(), result.messages());
+        assertTrue(result.messages() > 1_000, "sent " + result.messages());
+        assertTrue(channel.calls < result.messages() / 4, channel.calls + " calls");
+    }
+
+    @Test
+    public void testStopAndInterruptEndARun() throws Exception {
+        CollectingChannel channel = new CollectingChannel();
+        LoadGenerator generator = LoadGenerator.builder(SyntheticFeed.coinbase().build(),
+                ArrivalProcess.constant(1_000)).build();
+
+        // A stop that arrives before the run still ends it, and only that run.
+        generator.stop();
+        assertEquals(0, generator.run(channel, 1_000).messages());
+        assertEquals(5, generator.run(channel, 5).messages());
+
+        // 10,000 messages at 1,000 per second would take 10 s.
+        List<LoadGenerator.Result> results = new ArrayList<>();
+        Thread thread = new Thread(() -> {
+            try {
+                results.add(generator.run(channel, 10_000));
+            } catch (Exception e) {
+                fail(e);
+            }
+        });
+        thread.start();
+        Thread.sleep(50);
+        thread.interrupt();
+        thread.join(2_000);
+
+        assertFalse(thread.isAlive(), "the interrupted run should end");
+        assertEquals(1, results.size());
+        assertTrue(results.getFirst().messages() < 1_000, "sent " + results.getFirst().messages());
+    }
+}
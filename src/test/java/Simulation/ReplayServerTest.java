@@ -0,0 +1,144 @@
+package Simulation;
+
+import DataChannel.DataChannel;
+import MarketDataType.MarketDataQueryType;
+import Normalizer.LazyEnvelope;
+import Producer.Producer;
+import Producer.QueryGenerator.BinanceUsQueryGenerator;
+import Producer.QueryGenerator.CoinbaseGenerator;
+import Producer.QueryGenerator.QueryGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+class ReplayServerTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @TempDir
+    Path dir;
+
+    private static String coinbaseTicker(String product, long sequence) {
+        return "{\"type\":\"ticker\",\"sequence\":" + sequence + ",\"product_id\":\"" + product
+                + "\",\"price\":\"100.5\",\"best_bid\":\"100.4\",\"best_ask\":\"100.6\",\"time\":\"2024-01-01T00:00:00Z\"}";
+    }
+
+    private static String envelope(String tag, long ts, String payload) {
+        return "{\"tag\":\"" + tag + "\",\"ts\":" + ts + ",\"payload\":" + payload + "}";
+    }
+
+    @Test
+    public void testCoinbaseReplaySendsSubscribedStreamsOnly() throws Exception {
+        Path file = dir.resolve("coinbase.jsonl");
+        Files.write(file, List.of(
+                envelope("quote@coinbase", SECOND, coinbaseTicker("BTC-USD", 1)),
+                envelope("quote@coinbase", SECOND + 1, coinbaseTicker("ETH-USD", 7)),
+                "{\"tag\":\"gap@coinbase\",\"payload\":{}}",
+                envelope("quote@coinbase", SECOND + 2, coinbaseTicker("BTC-USD", 2))));
+        FeedCapture capture = FeedCapture.readJsonl(file);
+        assertEquals(3, capture.size());
+
+        try (ReplayServer server = ReplayServer.builder(capture, ExchangeProtocol.coinbase())
+                .asFastAsPossible().build()) {
+            List<String> received = run(new CoinbaseGenerator(server.url()), "BTC-USD",
+                    MarketDataQueryType.QUOTE, 2);
+            assertEquals(List.of("BTC-USD", "BTC-USD"), products(received));
+            assertEquals(2, server.messagesSent());
+        }
+    }
+
+    @Test
+    public void testBinanceUsReplayMatchesLowerCaseStreams() throws Exception {
+        String trade = "{\"e\":\"trade\",\"E\":1,\"s\":\"BTCUSDT\",\"t\":5,\"p\":\"1.5\",\"q\":\"2\",\"T\":1,\"m\":true}";
+        String otherTrade = "{\"e\":\"trade\",\"E\":1,\"s\":\"ETHUSDT\",\"t\":9,\"p\":\"1.5\",\"q\":\"2\",\"T\":1,\"m\":true}";
+        FeedCapture capture = FeedCapture.of(List.of(
+                new FeedCapture.Message(SECOND, "binance.us", MarketDataQueryType.TRADE, "ETHUSDT", otherTrade),
+                new FeedCapture.Message(SECOND, "binance.us", MarketDataQueryType.TRADE, "BTCUSDT", trade),
+                new FeedCapture.Message(SECOND, "coinbase", MarketDataQueryType.QUOTE, "BTC-USD",
+                        coinbaseTicker("BTC-USD", 1))));
+
+        try (ReplayServer server = ReplayServer.builder(capture, ExchangeProtocol.binanceUs())
+                .asFastAsPossible().build()) {
+            List<String> received = run(new BinanceUsQueryGenerator(server.url()), "btcusdt",
+                    MarketDataQueryType.TRADE, 1);
+            assertEquals(1, received.size());
+            assertTrue(received.getFirst().contains(trade));
+        }
+    }
+
+    @Test
+    public void testSpeedFactorScalesCapturedSpacing() throws Exception {
+        FeedCapture capture = FeedCapture.of(List.of(
+                new FeedCapture.Message(SECOND, "coinbase", MarketDataQueryType.QUOTE, "BTC-USD",
+                        coinbaseTicker("BTC-USD", 1)),
+                new FeedCapture.Message(2 * SECOND, "coinbase", MarketDataQueryType.QUOTE, "BTC-USD",
+                        coinbaseTicker("BTC-USD", 2))));
+
+        try (ReplayServer server = ReplayServer.builder(capture, ExchangeProtocol.coinbase()).speed(10).build()) {
+            long start = System.nanoTime();
+            List<String> received = run(new CoinbaseGenerator(server.url()), "BTC-USD",
+                    MarketDataQueryType.QUOTE, 2);
+            long elapsed = System.nanoTime() - start;
+            assertEquals(2, received.size());
+            // One captured second at ten times the pace.
+            assertTrue(elapsed >= SECOND / 10, "replay took " + elapsed + " ns");
+            assertTrue(elapsed < SECOND, "replay took " + elapsed + " ns");
+        }
+    }
+
+    private static List<String> products(List<String> envelopes) throws Exception {
+        List<String> products = new ArrayList<>();
+        for (String raw : envelopes) {
+            products.add(LazyEnvelope.parse(raw).product());
+        }
+        return products;
+    }
+
+    // Runs a producer against the server until it has delivered the expected number of messages.
+    private static List<String> run(QueryGenerator generator, String product, MarketDataQueryType type,
+                                    int expected) throws Exception {
+        BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+        DataChannel channel = new DataChannel() {
+            @Override
+            public void send(String message) {
+                queue.add(message);
+            }
+
+            @Override
+            public String receive() {
+                return queue.poll();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Producer producer = new Producer(generator, product, type, channel);
+        Thread thread = new Thread(producer);
+        thread.start();
+        try {
+            producer.subscribed().get(5, TimeUnit.SECONDS);
+            List<String> received = new ArrayList<>();
+            while (received.size() < expected) {
+                String message = queue.poll(5, TimeUnit.SECONDS);
+                assertNotNull(message, "timed out after " + received.size() + " messages");
+                received.add(message);
+            }
+            // Nothing beyond the subscribed streams arrives.
+            assertNull(queue.poll(200, TimeUnit.MILLISECONDS));
+            return received;
+        } finally {
+            producer.stop();
+            thread.join(5_000);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package Simulation;
+
+import MarketDataType.MarketDataQueryType;
+import Normalizer.LazyEnvelope;
+import Producer.EnvelopeBuilder;
+import Producer.QueryGenerator.BinanceUsQueryGenerator;
+import Producer.QueryGenerator.CoinbaseGenerator;
+import Producer.QueryGenerator.QueryGenerator;
+import Producer.QueryGenerator.Sequence;
+import Utils.Timestamps;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+class SyntheticFeedTest {
+
+    @Test
+    public void testPayloadsMatchTheExchangeShapes() throws Exception {
+        assertFeedParses(SyntheticFeed.coinbase().products(20).build(), new CoinbaseGenerator());
+        assertFeedParses(SyntheticFeed.binanceUs().products(20).build(), new BinanceUsQueryGenerator());
+    }
+
+    @Test
+    public void testSameSeedGivesSameMessages() {
+        SyntheticFeed first = SyntheticFeed.coinbase().seed(7).build();
+        SyntheticFeed second = SyntheticFeed.coinbase().seed(7).build();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.next(i), second.next(i));
+        }
+        assertEquals(8, first.subscriptions().size());
+        assertEquals("btcusdt", SyntheticFeed.binanceUs().build().subscriptions().getFirst().product());
+    }
+
+    @Test
+    public void testArrivalProcessesKeepTheirMeanRate() {
+        assertEquals(1_000.0, ArrivalProcess.constant(1_000_000).nextGapNanos());
+        assertMeanGap(ArrivalProcess.poisson(1_000_000, 1), 1_000.0);
+        assertMeanGap(ArrivalProcess.bursty(1_000_000, 10, 1), 1_000.0);
+
+        ArrivalProcess bursty = ArrivalProcess.bursty(1_000, 10, 3);
+        int zeros = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (bursty.nextGapNanos() == 0) {
+                zeros++;
+            }
+        }
+        assertEquals(9_000, zeros, 300);
+        assertThrows(IllegalArgumentException.class, () -> ArrivalProcess.poisson(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> ArrivalProcess.bursty(1, 0.5, 1));
+    }
+
+    private static void assertMeanGap(ArrivalProcess process, double expected) {
+        double sum = 0;
+        int n = 200_000;
+        for (int i = 0; i < n; i++) {
+            sum += process.nextGapNanos();
+        }
+        assertEquals(expected, sum / n, expected * 0.05);
+    }
+
+    private static void assertFeedParses(SyntheticFeed feed, QueryGenerator generator) throws Exception {
+        Map<String, Long> lastTrade = new HashMap<>();
+        int trades = 0;
+        for (int i = 0; i < 2_000; i++) {
+            FeedCapture.Message message = feed.next(Timestamps.now());
+            assertEquals(message.type(), generator.classify(message.payload()), message.payload());
+
+            Sequence sequence = generator.sequence(message.type(), message.payload());
+            assertNotNull(sequence, message.payload());
+            if (message.type() == MarketDataQueryType.TRADE) {
+                trades++;
+                Long last = lastTrade.put(sequence.product(), sequence.number());
+                if (last != null) {
+                    assertEquals(last + 1, sequence.number());
+                }
+            }
+
+            String raw = new EnvelopeBuilder(message.type().getValue() + "@" + feed.exchange())
+                    .build(message.payload(), message.receivedNanos());
+            LazyEnvelope envelope = LazyEnvelope.parse(raw);
+            assertNotNull(envelope, raw);
+            assertEquals(message.product(), envelope.product());
+            assertNotNull(envelope.record(), raw);
+        }
+        assertEquals(400, trades, 80);
+    }
+}
@@ -0,0 +1,159 @@
+package Storage;
+
+import MarketDataType.Quote;
+import MarketDataType.ScaledTrade;
+import MarketDataType.Trade;
+import Utils.Timestamps;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+class ColumnarStoreTest {
+
+    private static final Instant START = Instant.parse("2024-03-01T23:59:00Z");
+
+    @TempDir
+    Path root;
+
+    private static Trade trade(int i) {
+        Instant time = START.plusMillis(100L * i);
+        return new Trade("coinbase", time, "BTCUSD", 1000L + i,
+                new BigDecimal("62000.01").add(BigDecimal.valueOf(i % 7, 2)), new BigDecimal("0.0015"),
+                null, "seller-" + (i % 3), (i % 2 == 0) ? "buy" : "sell", time, (i % 2 == 0) ? null : Boolean.TRUE);
+    }
+
+    @Test
+    public void testTradesRoundTripAcrossDaysAndBlocks() throws IOException {
+        List<Trade> written = new ArrayList<>();
+        try (ColumnarSink sink = new ColumnarSink(root, 100, Duration.ofHours(1))) {
+            for (int i = 0; i < 1000; i++) {
+                written.add(trade(i));
+                sink.write(written.get(i));
+            }
+        }
+        assertTrue(Files.exists(root.resolve("trades/coinbase/BTCUSD/2024-03-01.col")));
+        assertTrue(Files.exists(root.resolve("trades/coinbase/BTCUSD/2024-03-02.col")));
+
+        List<Trade> read = new ArrayList<>();
+        long count = new ColumnarReader(root).scanTrades("coinbase", "BTCUSD", Long.MIN_VALUE, Long.MAX_VALUE,
+                trade -> read.add(trade.toTrade()));
+        assertEquals(1000, count);
+        for (int i = 0; i < written.size(); i++) {
+            assertEquals(ScaledTrade.fromTrade(written.get(i)), ScaledTrade.fromTrade(read.get(i)));
+        }
+
+        // Rows are stored as small deltas: far below the size of the same trades as JSON.
+        long bytes = Files.size(root.resolve("trades/coinbase/BTCUSD/2024-03-01.col"))
+                + Files.size(root.resolve("trades/coinbase/BTCUSD/2024-03-02.col"));
+        assertTrue(bytes < 1000 * 16, "Expected compact rows, got " + bytes + " bytes");
+    }
+
+    @Test
+    public void testRangeScanReturnsOnlyTheWindow() throws IOException {
+        try (ColumnarSink sink = new ColumnarSink(root, 50, Duration.ofHours(1))) {
+            for (int i = 0; i < 1000; i++) {
+                sink.write(trade(i));
+            }
+        }
+        long from = Timestamps.ofInstant(START.plusSeconds(30));
+        long to = Timestamps.ofInstant(START.plusSeconds(70));
+        List<Long> ids = new ArrayList<>();
+        new ColumnarReader(root).scanTrades("coinbase", "BTCUSD", from, to, trade -> ids.add(trade.tradeId()));
+
+        assertEquals(400, ids.size());
+        assertEquals(1300L, ids.get(0));
+        assertEquals(1699L, ids.get(ids.size() - 1));
+        assertEquals(0, new ColumnarReader(root).scanTrades("coinbase", "ETHUSD", from, to, trade -> fail()));
+    }
+
+    @Test
+    public void testQuotesAndReopenedPartitions() throws IOException {
+        Quote first = new Quote("coinbase", 1L, "ETHUSD", new BigDecimal("1285.04"), new BigDecimal("0.46688654"),
+                new BigDecimal("1285.27"), new BigDecimal("1.5663704"), new BigDecimal("1285.22"), null, null, null,
+                null, null, "buy", Instant.parse("2022-10-19T23:28:22.061769Z"), "370843401", null);
+        Quote second = new Quote("coinbase", 2L, "ETHUSD", new BigDecimal("1285.05"), null, null, null, null, null,
+                null, null, null, null, null, Instant.parse("2022-10-19T23:28:23Z"), null, null);
+        try (ColumnarSink sink = new ColumnarSink(root)) {
+            sink.write(first);
+        }
+        try (ColumnarSink sink = new ColumnarSink(root)) {
+            sink.write(second);
+        }
+
+        List<Quote> read = new ArrayList<>();
+        new ColumnarReader(root).scanQuotes("coinbase", "ETHUSD", Long.MIN_VALUE, Long.MAX_VALUE,
+                quote -> read.add(quote.toQuote()));
+        assertEquals(2, read.size());
+        assertEquals(0, first.bestBidSize().compareTo(read.get(0).bestBidSize()));
+        assertEquals("370843401", read.get(0).tradeId());
+        assertEquals(first.time(), read.get(0).time());
+        assertEquals(2L, read.get(1).sequence());
+        assertNull(read.get(1).bestAsk());
+        assertNull(read.get(1).side());
+    }
+
+    @Test
+    public void testUnrepresentableRecordIsSkipped() throws IOException {
+        // Ten fractional digits do not fit the default price scale of eight.
+        Trade tooPrecise = new Trade("coinbase", START, "BTCUSD", 1L, new BigDecimal("62000.0000000001"),
+                new BigDecimal("0.0015"), null, null, "buy", START, null);
+        Trade good = trade(2);
+        // The 30-day volume overflows a long mantissa at scale eight; only that field is dropped.
+        Quote hugeVolume = new Quote("coinbase", 1L, "SHIBUSD", null, null, null, null, new BigDecimal("0.00002401"),
+                null, null, null, null, new BigDecimal("28123456789012.25"), null, START, null, null);
+        try (ColumnarSink sink = new ColumnarSink(root)) {
+            sink.write(tooPrecise);
+            sink.write(good);
+            sink.write(hugeVolume);
+        }
+
+        List<Trade> trades = new ArrayList<>();
+        new ColumnarReader(root).scanTrades("coinbase", "BTCUSD", Long.MIN_VALUE, Long.MAX_VALUE,
+                trade -> trades.add(trade.toTrade()));
+        assertEquals(1, trades.size());
+        assertEquals(ScaledTrade.fromTrade(good), ScaledTrade.fromTrade(trades.getFirst()));
+
+        List<Quote> quotes = new ArrayList<>();
+        new ColumnarReader(root).scanQuotes("coinbase", "SHIBUSD", Long.MIN_VALUE, Long.MAX_VALUE,
+                quote -> quotes.add(quote.toQuote()));
+        assertEquals(1, quotes.size());
+        assertEquals(0, new BigDecimal("0.00002401").compareTo(quotes.getFirst().price()));
+        assertNull(quotes.getFirst().volume30d());
+    }
+
+    @Test
+    public void testTornBlockIsIgnoredAndTruncatedOnAppend() throws IOException {
+        try (ColumnarSink sink = new ColumnarSink(root, 10, Duration.ofHours(1))) {
+            for (int i = 0; i < 20; i++) {
+                sink.write(trade(i));
+            }
+        }
+        Path partition = root.resolve("trades/coinbase/BTCUSD/2024-03-01.col");
+        try (FileChannel file = FileChannel.open(partition, StandardOpenOption.WRITE)) {
+            file.truncate(file.size() - 5);
+        }
+        ColumnarReader reader = new ColumnarReader(root);
+        assertEquals(10, reader.scanTrades("coinbase", "BTCUSD", Long.MIN_VALUE, Long.MAX_VALUE, trade -> {
+        }));
+
+        try (ColumnarSink sink = new ColumnarSink(root, 10, Duration.ofHours(1))) {
+            sink.write(trade(100));
+        }
+        List<Long> ids = new ArrayList<>();
+        reader.scanTrades("coinbase", "BTCUSD", Long.MIN_VALUE, Long.MAX_VALUE, trade -> ids.add(trade.tradeId()));
+        assertEquals(11, ids.size());
+        assertEquals(1100L, ids.get(10));
+    }
+}
@@ -0,0 +1,46 @@
+package Utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    public void testPercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+        assertEquals(1000, histogram.count());
+        assertEquals(1_000_000, histogram.max());
+        assertEquals(500_500, histogram.mean(), 0.5);
+        assertEquals(500_000, histogram.percentile(50), 500_000 * 0.035);
+        assertEquals(990_000, histogram.percentile(99), 990_000 * 0.035);
+        assertEquals(1_000_000, histogram.percentile(100));
+        assertTrue(histogram.toString().startsWith("test: count=1000 "));
+
+        histogram.reset();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentile(99));
+    }
+
+    @Test
+    public void testBucketsCoverTheWholeRange() {
+        long[] samples = {0, 1, 31, 32, 33, 63, 64, 1_000, 123_456_789, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+        for (long value : samples) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.highestValueOf(index) >= value, "value " + value);
+            assertTrue(index == 0 || LatencyHistogram.highestValueOf(index - 1) < value, "value " + value);
+        }
+
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        histogram.record(-5);
+        histogram.recordInterval(Timestamps.NONE, 10);
+        histogram.recordInterval(10, 17);
+        assertEquals(2, histogram.count());
+        assertEquals(0, histogram.percentile(50));
+        assertEquals(7, histogram.percentile(100));
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentile(101));
+    }
+}
@@ -0,0 +1,63 @@
+package Utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+
+class TimestampsTest {
+
+    @Test
+    public void testParseIso8601MatchesJavaTime() {
+        String[] samples = {
+                "2022-10-19T23:28:22.061769Z",
+                "2014-11-07T08:19:27.028459Z",
+                "2024-02-29T00:00:00Z",
+                "2024-02-29T23:59:59.5Z",
+                "1999-12-31T23:59:59.123456789Z",
+                "1969-07-20T20:17:40.1Z",
+        };
+        for (String sample : samples) {
+            Instant expected = ZonedDateTime.parse(sample).toInstant();
+            assertEquals(expected, Timestamps.toInstant(Timestamps.parseIso8601(sample)), sample);
+        }
+    }
+
+    @Test
+    public void testParseIso8601FromBufferSliceAcrossDays() {
+        char[] chars = "\"2022-10-19T23:59:59.999999Z\"\"2022-10-20T00:00:00.000001Z\"".toCharArray();
+
+        long first = Timestamps.parseIso8601(chars, 1, 27);
+        long second = Timestamps.parseIso8601(chars, 30, 27);
+
+        assertEquals(2_000L, second - first);
+        assertEquals(Instant.parse("2022-10-20T00:00:00.000001Z"), Timestamps.toInstant(second));
+        // The date of the first slice is no longer cached; parsing it again must still be correct.
+        assertEquals(first, Timestamps.parseIso8601(chars, 1, 27));
+    }
+
+    @Test
+    public void testParseIso8601FallsBackForOffsets() {
+        assertEquals(Instant.parse("2022-10-19T21:28:22Z"),
+                Timestamps.toInstant(Timestamps.parseIso8601("2022-10-19T23:28:22+02:00")));
+    }
+
+    @Test
+    public void testParseIso8601RejectsInvalidDates() {
+        assertThrows(DateTimeException.class, () -> Timestamps.parseIso8601("2023-02-29T00:00:00Z"));
+        assertThrows(DateTimeException.class, () -> Timestamps.parseIso8601("2023-01-01T24:00:00Z"));
+        assertThrows(DateTimeException.class, () -> Timestamps.parseIso8601("2023-01-0xT00:00:00Z"));
+        assertThrows(DateTimeException.class, () -> Timestamps.parseIso8601("not a time"));
+    }
+
+    @Test
+    public void testInstantRoundTrip() {
+        Instant instant = Instant.parse("1969-12-31T23:59:59.999999999Z");
+        assertEquals(instant, Timestamps.toInstant(Timestamps.ofInstant(instant)));
+        assertNull(Timestamps.toInstant(Timestamps.NONE));
+        assertEquals(Timestamps.NONE, Timestamps.ofInstant(null));
+    }
+}